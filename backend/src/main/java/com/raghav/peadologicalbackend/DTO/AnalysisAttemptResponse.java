@@ -0,0 +1,17 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalysisAttemptResponse {
+    private Integer attempt;
+    private String error;
+    private Boolean retryable;
+    private LocalDateTime failedAt;
+}
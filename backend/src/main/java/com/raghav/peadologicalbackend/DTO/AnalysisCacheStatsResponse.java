@@ -0,0 +1,17 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalysisCacheStatsResponse {
+    private String modelVersion;
+    private Long memoryHits;
+    private Long databaseHits;
+    private Long misses;
+    private Integer memoryEntries;
+    private Integer memoryCapacity;
+}
@@ -0,0 +1,22 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalysisDeadLetterResponse {
+    private Long lectureId;
+    private Long teacherProfileId;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime deadAt;
+    private Integer redriveCount;
+    // Every failed attempt of the lecture, oldest first, including those before earlier re-drives
+    private List<AnalysisAttemptResponse> history;
+}
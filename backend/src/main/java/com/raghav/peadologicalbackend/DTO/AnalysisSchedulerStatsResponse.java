@@ -0,0 +1,19 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalysisSchedulerStatsResponse {
+    private String name;
+    private Integer maxConcurrent;
+    private Integer inFlight;
+    private Integer maxQueued;
+    private Long rejected;
+    private List<SchedulerLaneStats> lanes;
+}
@@ -0,0 +1,15 @@
+package com.raghav.peadologicalbackend.dto;
+
+/**
+ * Steps of a lecture's analysis as reported on the progress stream. whisper-service transcribes and
+ * scores in one call, so TRANSCRIBING covers that call; SCORING is the backend merging and saving
+ * the returned metrics. RETRYING means an attempt failed and another is scheduled.
+ */
+public enum AnalysisStage {
+    STORED,
+    TRANSCRIBING,
+    SCORING,
+    RETRYING,
+    DONE,
+    FAILED
+}
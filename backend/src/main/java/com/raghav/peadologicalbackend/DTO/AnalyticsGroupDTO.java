@@ -0,0 +1,20 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsGroupDTO {
+    private String key;
+    private Long lectures;
+    private LocalDateTime firstUploadedAt;
+    private LocalDateTime lastUploadedAt;
+    private Map<LectureMetric, AnalyticsMetricDTO> metrics;
+}
@@ -0,0 +1,16 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsMetricDTO {
+    // Lectures that have the metric; the others are skipped like NULLs in SQL
+    private Long count;
+    private Double mean;
+    private Double min;
+    private Double max;
+}
@@ -0,0 +1,16 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsMetricRange {
+    private LectureMetric metric;
+    // Inclusive; either end may be left out
+    private Double min;
+    private Double max;
+}
@@ -0,0 +1,26 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.analytics.LectureGrouping;
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsQueryRequest {
+    private LectureGrouping groupBy;
+    private List<LectureMetric> metrics;
+    private String school;
+    // Matched in every school unless school is given
+    private String department;
+    private Long teacherId;
+    // Upload time range, from inclusive, to exclusive
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<AnalyticsMetricRange> ranges;
+}
@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.analytics.LectureGrouping;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsResultDTO {
+    private LectureGrouping groupBy;
+    private Integer lecturesScanned;
+    private Long elapsedMicros;
+    private List<AnalyticsGroupDTO> groups;
+}
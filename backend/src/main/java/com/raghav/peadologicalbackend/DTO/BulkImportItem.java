@@ -0,0 +1,16 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BulkImportItem {
+    // Path inside the ZIP archive or relative to the manifest directory
+    private String fileName;
+    private Long teacherProfileId;
+    private Long classSlotId;
+    private String lectureTitle;
+    private String syllabus;
+    private LocalDateTime uploadedAt;
+}
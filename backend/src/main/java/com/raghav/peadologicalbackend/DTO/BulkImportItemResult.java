@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportItemResult {
+    private Integer index;
+    private String fileName;
+    private Boolean imported;
+    private Long lectureId;
+    private AnalysisStatus analysisStatus;
+    private String error;
+}
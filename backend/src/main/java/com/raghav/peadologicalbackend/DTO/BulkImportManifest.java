@@ -0,0 +1,14 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkImportManifest {
+    // Server-side directory holding the files; ignored when a ZIP archive is uploaded
+    private String directory;
+    // When false, lectures are stored as PENDING and analysed by the regular worker pool
+    private Boolean analyse;
+    private List<BulkImportItem> items;
+}
@@ -0,0 +1,23 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportStatusResponse {
+    private String importId;
+    private Boolean finished;
+    private Integer total;
+    private Integer imported;
+    private Integer failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Double itemsPerMinute;
+    private List<BulkImportItemResult> items;
+}
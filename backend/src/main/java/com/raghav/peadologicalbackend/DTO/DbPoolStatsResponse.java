@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DbPoolStatsResponse {
+    private String poolName;
+    private Integer maxPoolSize;
+    private Integer active;
+    private Integer idle;
+    private Integer total;
+    // Threads waiting for a connection; anything above zero means the pool is saturated
+    private Integer threadsAwaiting;
+}
@@ -0,0 +1,15 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterRedriveRequest {
+    // Lectures to re-drive; empty or missing re-drives every dead letter, oldest first, up to the limit
+    private List<Long> lectureIds;
+}
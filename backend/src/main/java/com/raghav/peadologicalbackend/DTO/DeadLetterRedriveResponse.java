@@ -0,0 +1,14 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterRedriveResponse {
+    private Integer requested;
+    // Lectures put back to PENDING; dead letters whose lecture is gone or no longer FAILED are closed all the same
+    private Integer redriven;
+}
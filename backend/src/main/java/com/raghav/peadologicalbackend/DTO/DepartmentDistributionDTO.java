@@ -0,0 +1,16 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DepartmentDistributionDTO {
+    private String department;
+    private Map<LectureMetric, MetricPercentilesDTO> percentiles;
+}
@@ -1,10 +1,12 @@
 package com.raghav.peadologicalbackend.dto;
 
+import com.raghav.peadologicalbackend.entity.LectureMetric;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
@@ -16,4 +18,8 @@ public class FacultyStatsDTO {
     private Long lecturesAnalyzed;
     private Double avgScore;
     private LocalDateTime lastActive;
+    private Double minScore;
+    private Double maxScore;
+    // p10/p50/p90 per metric; absent while the sketches are loading
+    private Map<LectureMetric, MetricPercentilesDTO> percentiles;
 }
@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardEntryDTO {
+    // 1-based
+    private Integer rank;
+    private Long teacherId;
+    private String name;
+    private String department;
+    private Long lecturesAnalyzed;
+    private Double avgScore;
+}
@@ -0,0 +1,21 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardPageDTO {
+    private String school;
+    // null for the leaderboard of the whole school
+    private String department;
+    // Teachers on the leaderboard
+    private Integer total;
+    // 0-based rank of the first entry
+    private Integer offset;
+    private List<LeaderboardEntryDTO> entries;
+}
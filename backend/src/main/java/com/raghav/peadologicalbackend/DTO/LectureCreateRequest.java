@@ -8,6 +8,7 @@ public class LectureCreateRequest {
     private Long classSlotId;
     private String lectureTitle;
     private String lectureAudioUrl;
+    private String syllabus;
 
     // Analysis fields (sent from frontend after direct whisper call)
     private Double score;
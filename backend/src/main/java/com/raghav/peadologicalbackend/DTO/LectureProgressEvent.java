@@ -0,0 +1,32 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LectureProgressEvent {
+    private Long lectureId;
+    private Long teacherProfileId;
+    private AnalysisStage stage;
+    // Set while a long recording is analysed as segments
+    private Integer segmentsDone;
+    private Integer segmentsTotal;
+    private String error;
+    // Set on STORED, RETRYING, DONE and FAILED
+    private LectureResponse lecture;
+    private LocalDateTime at;
+
+    public static LectureProgressEvent of(Long lectureId, Long teacherProfileId, AnalysisStage stage) {
+        return new LectureProgressEvent(lectureId, teacherProfileId, stage, null, null, null, null, LocalDateTime.now());
+    }
+
+    public static LectureProgressEvent of(LectureResponse lecture, AnalysisStage stage) {
+        return new LectureProgressEvent(lecture.getId(), lecture.getTeacherProfileId(), stage, null, null,
+                lecture.getAnalysisError(), lecture, LocalDateTime.now());
+    }
+}
@@ -1,5 +1,6 @@
 package com.raghav.peadologicalbackend.dto;
 
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,6 +25,8 @@ public class LectureResponse {
     private Double waitTime;
     private Double teacherTalkingTime;
     private Double hinglishFluency;
+    private AnalysisStatus analysisStatus;
+    private String analysisError;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,22 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LectureStatusResponse {
+    private Long id;
+    private AnalysisStatus analysisStatus;
+    private String analysisError;
+    private LocalDateTime analysisUpdatedAt;
+    private Integer analysisAttempts;
+    // Set while a failed analysis waits for its next attempt
+    private LocalDateTime analysisNextAttemptAt;
+    private Double score;
+}
@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Distribution of one metric, estimated from quantile sketches to within about 1% of rank.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricPercentilesDTO {
+    private Long count;
+    private Double p10;
+    private Double p50;
+    private Double p90;
+}
@@ -0,0 +1,21 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SchedulerLaneStats {
+    private AnalysisLane lane;
+    private Integer weight;
+    private Integer queued;
+    private Long dispatched;
+    // Time from enqueue to dispatch, over everything dispatched so far
+    private Double averageWaitMs;
+    private Double maxWaitMs;
+    // How long the oldest job still in the queue has been waiting
+    private Double oldestWaitMs;
+}
@@ -1,9 +1,12 @@
 package com.raghav.peadologicalbackend.dto;
 
+import com.raghav.peadologicalbackend.entity.LectureMetric;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -12,4 +15,6 @@ public class SchoolStatsDTO {
     private Long facultyCount;
     private Long lecturesAnalyzed;
     private Double avgScore;
+    // p10/p50/p90 per metric; absent while the sketches are loading
+    private Map<LectureMetric, MetricPercentilesDTO> percentiles;
 }
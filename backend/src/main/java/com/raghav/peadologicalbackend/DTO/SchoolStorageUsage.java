@@ -0,0 +1,17 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SchoolStorageUsage {
+    private String school;
+    private Long lectures;
+    // Sum of the lectures' audio sizes, duplicates included
+    private Long audioBytes;
+    // Current footprint of the distinct blobs the school's lectures point at: file size while hot, pack entry size once cold
+    private Long storedBytes;
+}
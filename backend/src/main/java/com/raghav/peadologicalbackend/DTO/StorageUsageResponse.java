@@ -0,0 +1,32 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of the last complete storage sweep cycle.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageUsageResponse {
+    private LocalDateTime cycleStartedAt;
+    private LocalDateTime cycleCompletedAt;
+    private Long hotBlobs;
+    private Long hotBytes;
+    private Long coldBlobs;
+    private Long coldBytes;
+    private Long orphanFiles;
+    private Long orphanBytes;
+    private Long quarantinedFiles;
+    private Long deletedFiles;
+    // Hot blobs whose file is gone; never repaired automatically
+    private Long missingFiles;
+    // Blobs no lecture points at any more
+    private Long unreferencedBlobs;
+    private List<SchoolStorageUsage> schools;
+}
@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendPointDTO {
+    private LocalDate bucketStart;
+    private Long lectures;
+    private Double mean;
+    // Population standard deviation over the bucket's lectures
+    private Double stdDev;
+}
@@ -0,0 +1,25 @@
+package com.raghav.peadologicalbackend.dto;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import com.raghav.peadologicalbackend.entity.TrendGranularity;
+import com.raghav.peadologicalbackend.entity.TrendScope;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendSeriesDTO {
+    private TrendScope scope;
+    private String scopeKey;
+    private LectureMetric metric;
+    private TrendGranularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    // Buckets without lectures are left out
+    private List<TrendPointDTO> points;
+}
@@ -0,0 +1,13 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadSessionCreateRequest {
+    private Long teacherProfileId;
+    private Long classSlotId;
+    private String lectureTitle;
+    private String fileName;
+    private String syllabus;
+    private Long totalBytes;
+}
@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionResponse {
+    private String uploadId;
+    private Long committedBytes;
+    private Long totalBytes;
+    private Long maxChunkBytes;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,15 @@
+package com.raghav.peadologicalbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WhisperClientStatsResponse {
+    private String circuitState;
+    private Integer maxConcurrent;
+    private Integer inFlight;
+    private Long rejected;
+}
@@ -0,0 +1,35 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row predicate of a {@link ColumnQuery}. All filters of a query must hold.
+ */
+public interface ColumnFilter {
+
+    /**
+     * Metric within {@code [min, max]}; a lecture without the metric never matches.
+     */
+    record MetricBetween(LectureMetric metric, double min, double max) implements ColumnFilter {
+    }
+
+    record SchoolIs(String school) implements ColumnFilter {
+    }
+
+    /**
+     * Department by name, in every school unless {@code school} is given.
+     */
+    record DepartmentIs(String school, String department) implements ColumnFilter {
+    }
+
+    record TeacherIs(long teacherProfileId) implements ColumnFilter {
+    }
+
+    /**
+     * Uploaded in {@code [from, to)}; either end may be {@code null} for an open range.
+     */
+    record UploadedBetween(LocalDateTime from, LocalDateTime to) implements ColumnFilter {
+    }
+}
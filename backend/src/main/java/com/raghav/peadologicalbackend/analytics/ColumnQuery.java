@@ -0,0 +1,13 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filters, grouping and the metrics to aggregate per group. Every group also reports its lecture
+ * count and upload time range.
+ */
+public record ColumnQuery(List<ColumnFilter> filters, LectureGrouping groupBy, Set<LectureMetric> metrics) {
+}
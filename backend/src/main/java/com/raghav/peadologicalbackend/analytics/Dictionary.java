@@ -0,0 +1,45 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Dense codes for the distinct values of a column, in order of first appearance. Codes are never
+ * reused, so a code held by a deleted row stays valid. Guarded by the owning store's lock.
+ */
+final class Dictionary<K> {
+    private final Map<K, Integer> codes = new HashMap<>();
+    private final List<K> values = new ArrayList<>();
+
+    int encode(K value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    K decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * @return per code, whether its value matches; filters test a row with one array lookup
+     */
+    boolean[] matching(Predicate<K> predicate) {
+        boolean[] matches = new boolean[values.size()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = predicate.test(values.get(code));
+        }
+        return matches;
+    }
+}
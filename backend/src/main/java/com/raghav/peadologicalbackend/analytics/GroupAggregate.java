@@ -0,0 +1,26 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One group of a {@link ColumnQuery} result.
+ *
+ * @param key      school, {@code school/department} or teacher profile id; {@code null} without grouping
+ * @param lectures matching lectures, analysed or not
+ */
+public record GroupAggregate(String key, long lectures, LocalDateTime firstUploadedAt, LocalDateTime lastUploadedAt,
+                             Map<LectureMetric, MetricAggregate> metrics) {
+
+    /**
+     * Over the lectures that have the metric, like SQL aggregates skip {@code NULL}.
+     */
+    public record MetricAggregate(long count, double sum, double min, double max) {
+
+        public Double mean() {
+            return count > 0 ? sum / count : null;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * KLL quantile sketch: a stack of compactors where level {@code h} holds items of weight 2^h. A
+ * level that reaches its capacity is sorted and every other item, from a random start, moves up;
+ * capacities shrink by 2/3 per level below the top, so memory stays near {@code 3k} items however
+ * many values are added, and ranks are off by about {@code 1.7 / k} of the count. Until the first
+ * compaction (fewer than {@code k} values) the sketch is exact.
+ * <p>
+ * Sketches of the same {@code k} merge into one that summarises both inputs, so sketches kept per
+ * teacher can be combined into department and school sketches at query time. Not thread-safe.
+ */
+public final class KllSketch {
+
+    private static final int MIN_WIDTH = 8;
+
+    private final int k;
+    private final SplittableRandom random = new SplittableRandom();
+    private double[][] levels;
+    private int[] sizes;
+    private long count;
+
+    public KllSketch(int k) {
+        this.k = Math.max(MIN_WIDTH, k);
+        this.levels = new double[][]{new double[16]};
+        this.sizes = new int[1];
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        compress();
+    }
+
+    public void merge(KllSketch other) {
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        compress();
+    }
+
+    /**
+     * @return values added to this sketch and every sketch merged into it
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param ranks fractions in [0, 1]
+     * @return the value at each rank, {@code NaN} for an empty sketch
+     */
+    public double[] quantiles(double... ranks) {
+        double[] result = new double[ranks.length];
+        int items = 0;
+        for (int size : sizes) {
+            items += size;
+        }
+        if (items == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        double[] values = new double[items];
+        long[] weights = new long[items];
+        int next = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                values[next] = levels[level][i];
+                weights[next] = 1L << level;
+                next++;
+            }
+        }
+        Integer[] order = new Integer[items];
+        for (int i = 0; i < items; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        long total = 0;
+        for (long weight : weights) {
+            total += weight;
+        }
+        for (int r = 0; r < ranks.length; r++) {
+            double target = Math.max(0.0, Math.min(1.0, ranks[r])) * total;
+            long cumulative = 0;
+            double value = values[order[items - 1]];
+            for (int i = 0; i < items; i++) {
+                cumulative += weights[order[i]];
+                if (cumulative >= target) {
+                    value = values[order[i]];
+                    break;
+                }
+            }
+            result[r] = value;
+        }
+        return result;
+    }
+
+    /**
+     * @return the summed weight of the retained items; compaction keeps it equal to {@link #count()}
+     */
+    long weight() {
+        long weight = 0;
+        for (int level = 0; level < levels.length; level++) {
+            weight += (long) sizes[level] << level;
+        }
+        return weight;
+    }
+
+    public KllSketch copy() {
+        KllSketch copy = new KllSketch(k);
+        copy.levels = new double[levels.length][];
+        for (int level = 0; level < levels.length; level++) {
+            copy.levels[level] = Arrays.copyOf(levels[level], Math.max(sizes[level], 1));
+        }
+        copy.sizes = sizes.clone();
+        copy.count = count;
+        return copy;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_WIDTH, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+    }
+
+    private void compress() {
+        boolean compacted;
+        do {
+            compacted = false;
+            for (int level = 0; level < levels.length; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    compacted = true;
+                    break;
+                }
+            }
+        } while (compacted);
+    }
+
+    private void compact(int level) {
+        if (level + 1 == levels.length) {
+            addLevel();
+        }
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int odd = size % 2;
+        for (int i = random.nextInt(2); i < size - odd; i += 2) {
+            append(level + 1, items[i]);
+        }
+        // An odd item out stays behind at its weight
+        if (odd == 1) {
+            items[0] = items[size - 1];
+        }
+        sizes[level] = odd;
+    }
+
+    private void append(int level, double value) {
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, Math.max(16, items.length * 2));
+            levels[level] = items;
+        }
+        items[sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new double[16];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+    }
+}
@@ -0,0 +1,434 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory column store of lecture metrics for ad-hoc filter / group / aggregate queries. Every
+ * field is a primitive array indexed by row: one {@code double[]} per {@link LectureMetric}
+ * ({@code NaN} for a missing value), upload time as epoch seconds, and school, department and
+ * teacher as dictionary codes.
+ * <p>
+ * A query scans the rows in chunks of {@value #CHUNK_ROWS}, in parallel when there is more than
+ * one. Each chunk first narrows a byte mask column by column, turns it into a vector of selected
+ * row indexes, then folds those rows into per-group accumulators; the filter loops are branch-free
+ * passes over primitive arrays that the JIT can unroll and vectorise.
+ * <p>
+ * Queries share a read lock, writes take the write lock. Deleted rows are masked out and compacted
+ * away once they make up half the store.
+ */
+public final class LectureColumns {
+
+    static final int CHUNK_ROWS = 65_536;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final LectureMetric[] METRICS = LectureMetric.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final Dictionary<String> schools = new Dictionary<>();
+    private final Dictionary<DepartmentKey> departments = new Dictionary<>();
+    private final Dictionary<Long> teachers = new Dictionary<>();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] schoolCodes = new int[INITIAL_CAPACITY];
+    private int[] departmentCodes = new int[INITIAL_CAPACITY];
+    private int[] teacherCodes = new int[INITIAL_CAPACITY];
+    private long[] uploadedAt = new long[INITIAL_CAPACITY];
+    private final double[][] metrics = new double[METRICS.length][INITIAL_CAPACITY];
+    private byte[] live = new byte[INITIAL_CAPACITY];
+    private int size;
+    private int deadRows;
+    // While a bulk load runs: lectures deleted meanwhile, which a load page read earlier may still hold
+    private Set<Long> removedDuringLoad;
+
+    /**
+     * Inserts the lecture or overwrites its row.
+     */
+    public void upsert(LectureMetricRow row) {
+        lock.writeLock().lock();
+        try {
+            Integer index = rowsById.get(row.id());
+            write(index != null ? index : append(row.id()), row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts remembering deletes, so {@link #insertIfAbsent} does not bring back a lecture deleted
+     * after the load read it.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            removedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            removedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts the lecture unless it has a row already, so a bulk load never overwrites a newer write.
+     */
+    public void insertIfAbsent(LectureMetricRow row) {
+        lock.writeLock().lock();
+        try {
+            if (!rowsById.containsKey(row.id())
+                    && (removedDuringLoad == null || !removedDuringLoad.contains(row.id()))) {
+                write(append(row.id()), row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (removedDuringLoad != null) {
+                removedDuringLoad.add(id);
+            }
+            Integer index = rowsById.remove(id);
+            if (index == null) {
+                return;
+            }
+            live[index] = 0;
+            deadRows++;
+            if (deadRows >= CHUNK_ROWS && deadRows * 2 >= size) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return lectures held
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return non-empty groups, in order of first appearance of their key
+     */
+    public List<GroupAggregate> aggregate(ColumnQuery query) {
+        lock.readLock().lock();
+        try {
+            Plan plan = plan(query);
+            int chunks = (size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            IntStream range = IntStream.range(0, chunks);
+            if (chunks > 1) {
+                range = range.parallel();
+            }
+            Partial total = range
+                    .mapToObj(chunk -> scan(plan, chunk * CHUNK_ROWS, Math.min(size, (chunk + 1) * CHUNK_ROWS)))
+                    .reduce(Partial::merge)
+                    .orElseGet(() -> new Partial(plan.groupCount, plan.metrics.length));
+            return results(plan, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int append(long id) {
+        if (size == ids.length) {
+            grow(ids.length * 2);
+        }
+        int index = size++;
+        ids[index] = id;
+        live[index] = 1;
+        rowsById.put(id, index);
+        return index;
+    }
+
+    private void write(int index, LectureMetricRow row) {
+        schoolCodes[index] = schools.encode(row.school());
+        departmentCodes[index] = departments.encode(new DepartmentKey(row.school(), row.department()));
+        teacherCodes[index] = teachers.encode(row.teacherProfileId());
+        uploadedAt[index] = row.uploadedAt() != null ? row.uploadedAt().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        for (LectureMetric metric : METRICS) {
+            Double value = row.metric(metric);
+            metrics[metric.ordinal()][index] = value != null ? value : Double.NaN;
+        }
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        schoolCodes = Arrays.copyOf(schoolCodes, capacity);
+        departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        teacherCodes = Arrays.copyOf(teacherCodes, capacity);
+        uploadedAt = Arrays.copyOf(uploadedAt, capacity);
+        for (int m = 0; m < metrics.length; m++) {
+            metrics[m] = Arrays.copyOf(metrics[m], capacity);
+        }
+        live = Arrays.copyOf(live, capacity);
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int source = 0; source < size; source++) {
+            if (live[source] == 0) {
+                continue;
+            }
+            if (target != source) {
+                ids[target] = ids[source];
+                schoolCodes[target] = schoolCodes[source];
+                departmentCodes[target] = departmentCodes[source];
+                teacherCodes[target] = teacherCodes[source];
+                uploadedAt[target] = uploadedAt[source];
+                for (double[] column : metrics) {
+                    column[target] = column[source];
+                }
+                live[target] = 1;
+                rowsById.put(ids[target], target);
+            }
+            target++;
+        }
+        Arrays.fill(live, target, size, (byte) 0);
+        size = target;
+        deadRows = 0;
+    }
+
+    private Plan plan(ColumnQuery query) {
+        Plan plan = new Plan();
+        for (ColumnFilter filter : query.filters()) {
+            if (filter instanceof ColumnFilter.SchoolIs school) {
+                plan.schoolMatch = and(plan.schoolMatch, schools.matching(value -> Objects.equals(value, school.school())));
+            } else if (filter instanceof ColumnFilter.DepartmentIs department) {
+                plan.departmentMatch = and(plan.departmentMatch, departments.matching(key ->
+                        Objects.equals(key.department(), department.department())
+                                && (department.school() == null || Objects.equals(key.school(), department.school()))));
+            } else if (filter instanceof ColumnFilter.TeacherIs teacher) {
+                plan.teacherMatch = and(plan.teacherMatch, teachers.matching(id -> id != null && id == teacher.teacherProfileId()));
+            } else if (filter instanceof ColumnFilter.UploadedBetween uploaded) {
+                if (uploaded.from() != null) {
+                    plan.uploadedFrom = Math.max(plan.uploadedFrom, uploaded.from().toEpochSecond(ZoneOffset.UTC));
+                }
+                if (uploaded.to() != null) {
+                    plan.uploadedTo = Math.min(plan.uploadedTo, uploaded.to().toEpochSecond(ZoneOffset.UTC));
+                }
+            } else if (filter instanceof ColumnFilter.MetricBetween range) {
+                plan.ranges.add(range);
+            }
+        }
+        switch (query.groupBy()) {
+            case SCHOOL -> {
+                plan.groupColumn = schoolCodes;
+                plan.groupCount = schools.size();
+            }
+            case DEPARTMENT -> {
+                plan.groupColumn = departmentCodes;
+                plan.groupCount = departments.size();
+            }
+            case TEACHER -> {
+                plan.groupColumn = teacherCodes;
+                plan.groupCount = teachers.size();
+            }
+            default -> plan.groupCount = 1;
+        }
+        plan.groupBy = query.groupBy();
+        plan.metrics = query.metrics().stream().sorted().toArray(LectureMetric[]::new);
+        return plan;
+    }
+
+    private static boolean[] and(boolean[] current, boolean[] next) {
+        if (current == null) {
+            return next;
+        }
+        for (int code = 0; code < current.length; code++) {
+            current[code] &= next[code];
+        }
+        return current;
+    }
+
+    private Partial scan(Plan plan, int start, int end) {
+        int rows = end - start;
+        byte[] mask = Arrays.copyOfRange(live, start, end);
+        narrow(mask, start, schoolCodes, plan.schoolMatch);
+        narrow(mask, start, departmentCodes, plan.departmentMatch);
+        narrow(mask, start, teacherCodes, plan.teacherMatch);
+        if (plan.uploadedFrom != Long.MIN_VALUE || plan.uploadedTo != Long.MAX_VALUE) {
+            long from = plan.uploadedFrom;
+            long to = plan.uploadedTo;
+            for (int i = 0; i < rows; i++) {
+                long time = uploadedAt[start + i];
+                mask[i] &= (byte) (time >= from & time < to ? 1 : 0);
+            }
+        }
+        for (ColumnFilter.MetricBetween range : plan.ranges) {
+            double[] column = metrics[range.metric().ordinal()];
+            double min = range.min();
+            double max = range.max();
+            for (int i = 0; i < rows; i++) {
+                double value = column[start + i];
+                // NaN fails both comparisons, so a missing metric never matches
+                mask[i] &= (byte) (value >= min & value <= max ? 1 : 0);
+            }
+        }
+
+        // Selection vector: the matching rows, so the aggregate passes touch only those
+        int[] selected = new int[rows];
+        int matches = 0;
+        for (int i = 0; i < rows; i++) {
+            selected[matches] = start + i;
+            matches += mask[i];
+        }
+
+        Partial partial = new Partial(plan.groupCount, plan.metrics.length);
+        int[] groups = plan.groupColumn;
+        for (int k = 0; k < matches; k++) {
+            int row = selected[k];
+            int group = groups != null ? groups[row] : 0;
+            long time = uploadedAt[row];
+            partial.lectures[group]++;
+            partial.firstUploaded[group] = Math.min(partial.firstUploaded[group], time);
+            partial.lastUploaded[group] = Math.max(partial.lastUploaded[group], time);
+        }
+        for (int m = 0; m < plan.metrics.length; m++) {
+            double[] column = metrics[plan.metrics[m].ordinal()];
+            int base = m * plan.groupCount;
+            for (int k = 0; k < matches; k++) {
+                int row = selected[k];
+                double value = column[row];
+                if (value == value) {
+                    int slot = base + (groups != null ? groups[row] : 0);
+                    partial.count[slot]++;
+                    partial.sum[slot] += value;
+                    partial.min[slot] = Math.min(partial.min[slot], value);
+                    partial.max[slot] = Math.max(partial.max[slot], value);
+                }
+            }
+        }
+        return partial;
+    }
+
+    private static void narrow(byte[] mask, int start, int[] codes, boolean[] matches) {
+        if (matches == null) {
+            return;
+        }
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] &= (byte) (matches[codes[start + i]] ? 1 : 0);
+        }
+    }
+
+    private List<GroupAggregate> results(Plan plan, Partial total) {
+        List<GroupAggregate> results = new ArrayList<>();
+        for (int group = 0; group < plan.groupCount; group++) {
+            if (total.lectures[group] == 0) {
+                continue;
+            }
+            Map<LectureMetric, GroupAggregate.MetricAggregate> aggregates = new EnumMap<>(LectureMetric.class);
+            for (int m = 0; m < plan.metrics.length; m++) {
+                int slot = m * plan.groupCount + group;
+                boolean any = total.count[slot] > 0;
+                aggregates.put(plan.metrics[m], new GroupAggregate.MetricAggregate(total.count[slot], total.sum[slot],
+                        any ? total.min[slot] : Double.NaN, any ? total.max[slot] : Double.NaN));
+            }
+            results.add(new GroupAggregate(label(plan.groupBy, group), total.lectures[group],
+                    toDateTime(total.firstUploaded[group]), toDateTime(total.lastUploaded[group]), aggregates));
+        }
+        return results;
+    }
+
+    private String label(LectureGrouping groupBy, int group) {
+        return switch (groupBy) {
+            case SCHOOL -> schools.decode(group);
+            case DEPARTMENT -> {
+                DepartmentKey key = departments.decode(group);
+                yield key.school() != null && key.department() != null ? key.school() + "/" + key.department() : null;
+            }
+            case TEACHER -> String.valueOf(teachers.decode(group));
+            default -> null;
+        };
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private record DepartmentKey(String school, String department) {
+    }
+
+    private static final class Plan {
+        private boolean[] schoolMatch;
+        private boolean[] departmentMatch;
+        private boolean[] teacherMatch;
+        private long uploadedFrom = Long.MIN_VALUE;
+        private long uploadedTo = Long.MAX_VALUE;
+        private final List<ColumnFilter.MetricBetween> ranges = new ArrayList<>();
+        private LectureGrouping groupBy;
+        private int[] groupColumn;
+        private int groupCount;
+        private LectureMetric[] metrics;
+    }
+
+    /**
+     * Accumulators of one chunk; metric slots are laid out metric-major, {@code metric * groups + group}.
+     */
+    private static final class Partial {
+        private final long[] lectures;
+        private final long[] firstUploaded;
+        private final long[] lastUploaded;
+        private final long[] count;
+        private final double[] sum;
+        private final double[] min;
+        private final double[] max;
+
+        private Partial(int groups, int metricCount) {
+            lectures = new long[groups];
+            firstUploaded = new long[groups];
+            lastUploaded = new long[groups];
+            Arrays.fill(firstUploaded, Long.MAX_VALUE);
+            Arrays.fill(lastUploaded, Long.MIN_VALUE);
+            count = new long[groups * metricCount];
+            sum = new double[groups * metricCount];
+            min = new double[groups * metricCount];
+            max = new double[groups * metricCount];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        private Partial merge(Partial other) {
+            for (int group = 0; group < lectures.length; group++) {
+                lectures[group] += other.lectures[group];
+                firstUploaded[group] = Math.min(firstUploaded[group], other.firstUploaded[group]);
+                lastUploaded[group] = Math.max(lastUploaded[group], other.lastUploaded[group]);
+            }
+            for (int slot = 0; slot < count.length; slot++) {
+                count[slot] += other.count[slot];
+                sum[slot] += other.sum[slot];
+                min[slot] = Math.min(min[slot], other.min[slot]);
+                max[slot] = Math.max(max[slot], other.max[slot]);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.raghav.peadologicalbackend.analytics;
+
+/**
+ * How a lecture analytics query groups its rows. Department groups are keyed
+ * {@code school/department}, since department names repeat across schools.
+ */
+public enum LectureGrouping {
+    NONE,
+    SCHOOL,
+    DEPARTMENT,
+    TEACHER
+}
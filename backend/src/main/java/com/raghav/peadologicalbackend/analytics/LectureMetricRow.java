@@ -0,0 +1,44 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a lecture that {@link LectureColumns} stores. Metrics are {@code null} until the
+ * lecture is analysed.
+ */
+public interface LectureMetricRow {
+    Long id();
+
+    Long teacherProfileId();
+
+    String school();
+
+    String department();
+
+    LocalDateTime uploadedAt();
+
+    Double score();
+
+    Double reviewRatio();
+
+    Double questionVelocity();
+
+    Double waitTime();
+
+    Double teacherTalkingTime();
+
+    Double hinglishFluency();
+
+    default Double metric(LectureMetric metric) {
+        return switch (metric) {
+            case SCORE -> score();
+            case REVIEW_RATIO -> reviewRatio();
+            case QUESTION_VELOCITY -> questionVelocity();
+            case WAIT_TIME -> waitTime();
+            case TEACHER_TALKING_TIME -> teacherTalkingTime();
+            case HINGLISH_FLUENCY -> hinglishFluency();
+        };
+    }
+}
@@ -0,0 +1,185 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Order-statistic tree: a treap whose nodes also count their subtree, so besides adding and
+ * removing, the rank of an element and the element at a rank are found in O(log n) expected, and
+ * a page of {@code count} elements from a rank in O(log n + count). Elements must be distinct under
+ * the comparator. Not thread-safe, but reads never change the tree, so they may share a read lock.
+ */
+public final class RankTree<T> {
+
+    private final Comparator<? super T> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<T> root;
+
+    public RankTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * @return {@code false} if an equal element is already present
+     */
+    public boolean add(T element) {
+        if (rankOf(element) >= 0) {
+            return false;
+        }
+        Node<T>[] parts = split(root, element);
+        root = merge(merge(parts[0], new Node<>(element, random.nextInt())), parts[1]);
+        return true;
+    }
+
+    /**
+     * @return {@code false} if no equal element was present
+     */
+    public boolean remove(T element) {
+        int before = size();
+        root = remove(root, element);
+        return size() < before;
+    }
+
+    /**
+     * @return the 0-based rank of the element, {@code -1} if it is not present
+     */
+    public int rankOf(T element) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int order = comparator.compare(element, node.element);
+            if (order < 0) {
+                node = node.left;
+            } else if (order > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param rank 0-based, below {@link #size()}
+     */
+    public T get(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException(rank);
+        }
+        Node<T> node = root;
+        while (true) {
+            int left = size(node.left);
+            if (rank < left) {
+                node = node.left;
+            } else if (rank > left) {
+                rank -= left + 1;
+                node = node.right;
+            } else {
+                return node.element;
+            }
+        }
+    }
+
+    /**
+     * @return up to {@code count} elements in order, starting at the 0-based rank {@code from}
+     */
+    public List<T> range(int from, int count) {
+        List<T> result = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        collect(root, Math.max(0, from), count, result);
+        return result;
+    }
+
+    // Appends the elements of the subtree from rank `skip` on until `out` holds `count` of them
+    private void collect(Node<T> node, int skip, int count, List<T> out) {
+        if (node == null || out.size() >= count) {
+            return;
+        }
+        int left = size(node.left);
+        if (skip < left) {
+            collect(node.left, skip, count, out);
+        }
+        if (skip <= left && out.size() < count) {
+            out.add(node.element);
+        }
+        collect(node.right, Math.max(0, skip - left - 1), count, out);
+    }
+
+    // [elements ordered before `pivot`, the rest]
+    @SuppressWarnings("unchecked")
+    private Node<T>[] split(Node<T> node, T pivot) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (comparator.compare(node.element, pivot) < 0) {
+            Node<T>[] parts = split(node.right, pivot);
+            node.right = parts[0];
+            parts[0] = node.update();
+            return parts;
+        }
+        Node<T>[] parts = split(node.left, pivot);
+        node.left = parts[1];
+        parts[1] = node.update();
+        return parts;
+    }
+
+    // Every element of `left` is ordered before every element of `right`
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    private Node<T> remove(Node<T> node, T element) {
+        if (node == null) {
+            return null;
+        }
+        int order = comparator.compare(element, node.element);
+        if (order == 0) {
+            return merge(node.left, node.right);
+        }
+        if (order < 0) {
+            node.left = remove(node.left, element);
+        } else {
+            node.right = remove(node.right, element);
+        }
+        return node.update();
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<T> {
+        private final T element;
+        private final int priority;
+        private Node<T> left;
+        private Node<T> right;
+        private int size = 1;
+
+        private Node(T element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+
+        private Node<T> update() {
+            size = 1 + size(left) + size(right);
+            return this;
+        }
+    }
+}
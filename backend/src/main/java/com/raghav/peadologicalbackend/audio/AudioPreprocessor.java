@@ -0,0 +1,18 @@
+package com.raghav.peadologicalbackend.audio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A step that rewrites a recording before it is sent for analysis. Every bean of this type is
+ * applied in {@link org.springframework.core.annotation.Order} order; disable a step through its
+ * own property or replace it with another bean.
+ */
+public interface AudioPreprocessor {
+
+    /**
+     * @param workDir scratch directory owned by the caller and deleted after the analysis
+     * @return the processed file under {@code workDir}, or {@code input} if this step does not apply
+     */
+    Path process(Path input, Path workDir) throws IOException;
+}
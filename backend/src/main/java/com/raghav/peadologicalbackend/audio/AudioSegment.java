@@ -0,0 +1,9 @@
+package com.raghav.peadologicalbackend.audio;
+
+import java.nio.file.Path;
+
+/**
+ * One piece of a longer recording, written to its own WAV file.
+ */
+public record AudioSegment(Path path, double startSeconds, double durationSeconds) {
+}
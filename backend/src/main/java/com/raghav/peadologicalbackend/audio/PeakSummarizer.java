@@ -0,0 +1,218 @@
+package com.raghav.peadologicalbackend.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds {@link WaveformPeaks} from the bytes of a recording as they are written, so the peaks
+ * cost no extra read of the file. The WAV header is parsed from the first bytes; input that is not
+ * an integer PCM WAV makes {@link #finish()} return {@code null}.
+ * <p>
+ * Memory is bounded by {@code maxPeaks}: the finest level starts at {@value #INITIAL_FRAMES_PER_PEAK}
+ * frames per peak, and whenever it fills up neighbouring peaks are merged and the resolution halves.
+ * Coarser levels are derived at the end, halving down to about {@code minPeaks} peaks. Not thread-safe.
+ */
+public class PeakSummarizer {
+
+    private static final int INITIAL_FRAMES_PER_PEAK = 64;
+    // Headers with long LIST/JUNK chunks still fit; anything later than this is not worth waiting for
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private final int maxPeaks;
+    private final int minPeaks;
+
+    private ByteBuffer header = ByteBuffer.allocate(4096);
+    private boolean failed;
+    private WavFormat format;
+    private int bytesPerSample;
+    private long dataRemaining;
+    private ByteBuffer carry;
+
+    private final byte[] peaks;
+    private int count;
+    private int framesPerPeak = INITIAL_FRAMES_PER_PEAK;
+    private long frames;
+    private int bucketFrames;
+    private double bucketMin = Double.MAX_VALUE;
+    private double bucketMax = -Double.MAX_VALUE;
+
+    /**
+     * @param maxPeaks peaks at the finest level at most; rounded down to an even number
+     * @param minPeaks the coarsest level stops halving once it has no more than this
+     */
+    public PeakSummarizer(int maxPeaks, int minPeaks) {
+        this.maxPeaks = Math.max(2, maxPeaks & ~1);
+        this.minPeaks = Math.max(1, minPeaks);
+        this.peaks = new byte[this.maxPeaks * 2];
+    }
+
+    public void update(byte[] bytes, int offset, int length) {
+        if (failed || length <= 0) {
+            return;
+        }
+        if (format == null) {
+            int used = readHeader(bytes, offset, length);
+            if (format == null) {
+                return;
+            }
+            offset += used;
+            length -= used;
+        }
+        consume(bytes, offset, (int) Math.min(length, dataRemaining));
+    }
+
+    /**
+     * @return the peaks, or {@code null} if the input was not an integer PCM WAV or had no samples
+     */
+    public WaveformPeaks finish() {
+        if (failed || format == null) {
+            return null;
+        }
+        if (bucketFrames > 0) {
+            closeBucket(true);
+        }
+        if (count == 0) {
+            return null;
+        }
+        List<WaveformPeaks.Level> levels = new ArrayList<>();
+        byte[] level = Arrays.copyOf(peaks, count * 2);
+        int levelFramesPerPeak = framesPerPeak;
+        levels.add(new WaveformPeaks.Level(levelFramesPerPeak, level));
+        while (level.length / 2 > minPeaks) {
+            level = halve(level, level.length / 2);
+            levelFramesPerPeak *= 2;
+            levels.add(new WaveformPeaks.Level(levelFramesPerPeak, level));
+        }
+        return new WaveformPeaks(format.sampleRate(), frames, levels);
+    }
+
+    /**
+     * Buffers bytes until the data chunk is reached.
+     *
+     * @return bytes of this call that belonged to the header, i.e. before the first sample
+     */
+    private int readHeader(byte[] bytes, int offset, int length) {
+        int start = header.position();
+        if (header.remaining() < length) {
+            int capacity = Math.min(MAX_HEADER_BYTES, Math.max(header.capacity() * 2, start + length));
+            header = ByteBuffer.wrap(Arrays.copyOf(header.array(), capacity));
+            header.position(start);
+        }
+        int taken = Math.min(length, header.remaining());
+        header.put(bytes, offset, taken);
+
+        WavFormat parsed = WavFormat.parse(ByteBuffer.wrap(header.array(), 0, header.position()).slice());
+        if (parsed == null) {
+            // Not a WAV at all, or the data chunk is too far in to bother
+            failed = header.position() >= 12 && !isRiffWave() || !header.hasRemaining();
+            return taken;
+        }
+        format = parsed;
+        bytesPerSample = parsed.bitsPerSample() / 8;
+        dataRemaining = parsed.dataLength();
+        carry = ByteBuffer.allocate(parsed.blockAlign()).order(ByteOrder.LITTLE_ENDIAN);
+        header = null;
+        // Samples that arrived in the same call as the end of the header
+        int headerBytesHere = (int) Math.max(0, parsed.dataOffset() - start);
+        if (headerBytesHere < taken) {
+            consume(bytes, offset + headerBytesHere, (int) Math.min(taken - headerBytesHere, dataRemaining));
+        }
+        return taken;
+    }
+
+    private boolean isRiffWave() {
+        ByteBuffer magic = ByteBuffer.wrap(header.array()).order(ByteOrder.LITTLE_ENDIAN);
+        return magic.getInt(0) == 0x46464952 && magic.getInt(8) == 0x45564157;
+    }
+
+    private void consume(byte[] bytes, int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        dataRemaining -= length;
+        int position = offset;
+        int end = offset + length;
+        if (carry.position() > 0) {
+            int taken = Math.min(carry.remaining(), length);
+            carry.put(bytes, position, taken);
+            position += taken;
+            if (carry.hasRemaining()) {
+                return;
+            }
+            addFrame(carry, 0);
+            carry.clear();
+        }
+        int blockAlign = format.blockAlign();
+        ByteBuffer view = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        while (end - position >= blockAlign) {
+            addFrame(view, position);
+            position += blockAlign;
+        }
+        if (position < end) {
+            carry.put(bytes, position, end - position);
+        }
+    }
+
+    private void addFrame(ByteBuffer buffer, int offset) {
+        for (int channel = 0; channel < format.channels(); channel++) {
+            double sample = format.sampleAt(buffer, offset + channel * bytesPerSample);
+            if (sample < bucketMin) {
+                bucketMin = sample;
+            }
+            if (sample > bucketMax) {
+                bucketMax = sample;
+            }
+        }
+        frames++;
+        if (++bucketFrames == framesPerPeak) {
+            closeBucket(false);
+        }
+    }
+
+    /**
+     * @param last the input has ended, so a partial bucket becomes a peak of its own
+     */
+    private void closeBucket(boolean last) {
+        if (count == maxPeaks) {
+            byte[] merged = halve(peaks, count);
+            System.arraycopy(merged, 0, peaks, 0, merged.length);
+            count = merged.length / 2;
+            framesPerPeak *= 2;
+            // The open bucket was sized for the old resolution; it now counts as the first half of one
+            if (!last && bucketFrames < framesPerPeak) {
+                return;
+            }
+        }
+        peaks[count * 2] = quantize(bucketMin);
+        peaks[count * 2 + 1] = quantize(bucketMax);
+        count++;
+        bucketFrames = 0;
+        bucketMin = Double.MAX_VALUE;
+        bucketMax = -Double.MAX_VALUE;
+    }
+
+    /**
+     * Merges neighbouring min/max pairs; an odd last peak is kept as it is.
+     */
+    private static byte[] halve(byte[] source, int peakCount) {
+        byte[] target = new byte[(peakCount + 1) / 2 * 2];
+        for (int i = 0; i < peakCount; i += 2) {
+            byte min = source[i * 2];
+            byte max = source[i * 2 + 1];
+            if (i + 1 < peakCount) {
+                min = (byte) Math.min(min, source[i * 2 + 2]);
+                max = (byte) Math.max(max, source[i * 2 + 3]);
+            }
+            target[i] = min;
+            target[i + 1] = max;
+        }
+        return target;
+    }
+
+    private static byte quantize(double sample) {
+        return (byte) Math.max(-127, Math.min(127, Math.round(sample * 127)));
+    }
+}
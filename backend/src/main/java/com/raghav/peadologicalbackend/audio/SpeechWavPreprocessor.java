@@ -0,0 +1,196 @@
+package com.raghav.peadologicalbackend.audio;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reduces PCM WAV to what speech recognition needs: 16-bit mono at {@code analysis.preprocess.sample-rate}
+ * with leading and trailing silence removed. Works in one streaming pass with fixed buffers, so
+ * memory use does not depend on the length of the recording. A 48 kHz stereo 16-bit recording
+ * becomes six times smaller before any silence is trimmed.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "analysis.preprocess.enabled", havingValue = "true", matchIfMissing = true)
+public class SpeechWavPreprocessor implements AudioPreprocessor {
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int BLOCK_MS = 20;
+
+    private final int targetRate;
+    private final double silenceLevel;
+
+    public SpeechWavPreprocessor(@Value("${analysis.preprocess.sample-rate:16000}") int targetRate,
+                                 @Value("${analysis.preprocess.silence-threshold-db:-45}") double silenceThresholdDb) {
+        this.targetRate = targetRate;
+        this.silenceLevel = Math.pow(10, silenceThresholdDb / 20);
+    }
+
+    @Override
+    public Path process(Path input, Path workDir) throws IOException {
+        WavFormat format = WavFormat.read(input);
+        if (format == null) {
+            return input;
+        }
+        int outRate = Math.min(format.sampleRate(), targetRate); // never upsample
+        WavFormat outFormat = new WavFormat(1, outRate, 16, WavFormat.HEADER_SIZE, 0);
+        Path output = workDir.resolve("speech.wav");
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            out.position(WavFormat.HEADER_SIZE);
+            SilenceTrimmer trimmer = new SilenceTrimmer(out, outRate * BLOCK_MS / 1000, silenceLevel);
+
+            int blockAlign = format.blockAlign();
+            int bytesPerSample = format.bitsPerSample() / 8;
+            int channels = format.channels();
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE - IO_BUFFER_SIZE % blockAlign).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Integrate-and-dump decimation: each output sample is the mean of the input samples
+            // it covers, which also acts as the anti-aliasing low-pass filter
+            double step = (double) outRate / format.sampleRate();
+            double phase = 0;
+            double sum = 0;
+            int count = 0;
+
+            long position = format.dataOffset();
+            long end = format.dataOffset() + format.dataLength();
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                int read = in.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+                int frames = buffer.position() / blockAlign;
+                for (int frame = 0; frame < frames; frame++) {
+                    int offset = frame * blockAlign;
+                    double mono = 0;
+                    for (int channel = 0; channel < channels; channel++) {
+                        mono += format.sampleAt(buffer, offset + channel * bytesPerSample);
+                    }
+                    sum += mono / channels;
+                    count++;
+                    phase += step;
+                    if (phase >= 1) {
+                        trimmer.add(sum / count);
+                        phase -= 1;
+                        sum = 0;
+                        count = 0;
+                    }
+                }
+                // A partial frame at the end of the read is read again with the next buffer
+                position -= buffer.position() - frames * blockAlign;
+            }
+            if (count > 0) {
+                trimmer.add(sum / count);
+            }
+
+            long dataLength = trimmer.finish();
+            if (dataLength == 0) {
+                // Nothing above the threshold; let the analysis service judge the original
+                return input;
+            }
+            out.truncate(WavFormat.HEADER_SIZE + dataLength);
+            ByteBuffer header = outFormat.header(dataLength);
+            long headerPosition = 0;
+            while (header.hasRemaining()) {
+                headerPosition += out.write(header, headerPosition);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Writes 16-bit samples in blocks of {@code BLOCK_MS}. Blocks before the first one above the
+     * threshold are dropped (one is kept as lead-in), and the data length it reports stops one
+     * block after the last one above it.
+     */
+    private static final class SilenceTrimmer {
+        private final FileChannel out;
+        private final ByteBuffer outBuffer = ByteBuffer.allocate(IO_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final short[] block;
+        private final short[] leadIn;
+        private final double silenceLevel;
+        private int blockSize;
+        private int leadInSize;
+        private double blockEnergy;
+        private boolean started;
+        private long written;
+        private long lastSoundEnd;
+
+        private SilenceTrimmer(FileChannel out, int samplesPerBlock, double silenceLevel) {
+            this.out = out;
+            this.block = new short[Math.max(1, samplesPerBlock)];
+            this.leadIn = new short[block.length];
+            this.silenceLevel = silenceLevel;
+        }
+
+        void add(double sample) throws IOException {
+            double clamped = Math.max(-1, Math.min(1, sample));
+            block[blockSize++] = (short) Math.round(clamped * 32767);
+            blockEnergy += clamped * clamped;
+            if (blockSize == block.length) {
+                endBlock();
+            }
+        }
+
+        long finish() throws IOException {
+            if (blockSize > 0) {
+                endBlock();
+            }
+            flush();
+            if (!started) {
+                return 0;
+            }
+            return Math.min(written, lastSoundEnd + block.length * 2L);
+        }
+
+        private void endBlock() throws IOException {
+            boolean sound = Math.sqrt(blockEnergy / blockSize) >= silenceLevel;
+            if (!started && !sound) {
+                System.arraycopy(block, 0, leadIn, 0, blockSize);
+                leadInSize = blockSize;
+            } else {
+                if (!started) {
+                    started = true;
+                    write(leadIn, leadInSize);
+                }
+                write(block, blockSize);
+                if (sound) {
+                    lastSoundEnd = written;
+                }
+            }
+            blockSize = 0;
+            blockEnergy = 0;
+        }
+
+        private void write(short[] samples, int size) throws IOException {
+            for (int i = 0; i < size; i++) {
+                if (outBuffer.remaining() < 2) {
+                    flush();
+                }
+                outBuffer.putShort(samples[i]);
+            }
+            written += size * 2L;
+        }
+
+        private void flush() throws IOException {
+            outBuffer.flip();
+            while (outBuffer.hasRemaining()) {
+                out.write(outBuffer);
+            }
+            outBuffer.clear();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.raghav.peadologicalbackend.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Layout of an integer PCM WAV file: its format and where the sample data starts.
+ *
+ * @param dataOffset byte offset of the first sample frame
+ * @param dataLength bytes of sample data, clamped to what is actually in the file
+ */
+public record WavFormat(int channels, int sampleRate, int bitsPerSample, long dataOffset, long dataLength) {
+
+    public static final int HEADER_SIZE = 44;
+
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    public int blockAlign() {
+        return channels * (bitsPerSample / 8);
+    }
+
+    public long frameCount() {
+        return dataLength / blockAlign();
+    }
+
+    public double durationSeconds() {
+        return (double) frameCount() / sampleRate;
+    }
+
+    /**
+     * Reads the RIFF header of {@code file}.
+     *
+     * @return the format, or {@code null} if the file is not an integer PCM WAV this code can handle
+     */
+    public static WavFormat read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return parse((buffer, position) -> readFully(channel, buffer, position), channel.size());
+        }
+    }
+
+    /**
+     * Parses the header from the first bytes of a WAV stream whose total length is not known yet.
+     * {@code dataLength} is the length the header declares, or effectively unbounded when the writer
+     * left it open.
+     *
+     * @return the format, or {@code null} if {@code prefix} does not reach the data chunk or is not
+     * an integer PCM WAV this code can handle
+     */
+    public static WavFormat parse(ByteBuffer prefix) {
+        try {
+            return parse((buffer, position) -> {
+                int available = (int) Math.max(0, Math.min(buffer.remaining(), prefix.limit() - position));
+                // A chunk that starts past the prefix has simply not arrived yet
+                if (available > 0) {
+                    buffer.put(prefix.slice((int) position, available));
+                }
+                return available;
+            }, Long.MAX_VALUE);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // not thrown for an in-memory prefix
+        }
+    }
+
+    private static WavFormat parse(ChunkReader reader, long fileSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        if (reader.read(header, 0) < 12 || header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) {
+            return null; // not "RIFF....WAVE"
+        }
+
+        ByteBuffer chunk = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer fmt = ByteBuffer.allocate(26).order(ByteOrder.LITTLE_ENDIAN);
+        boolean haveFormat = false;
+        int channels = 0;
+        int sampleRate = 0;
+        int bits = 0;
+        long position = 12;
+        while (position + 8 <= fileSize) {
+            chunk.clear();
+            if (reader.read(chunk, position) < 8) {
+                return null;
+            }
+            int id = chunk.getInt(0);
+            long size = Integer.toUnsignedLong(chunk.getInt(4));
+            long body = position + 8;
+            if (id == 0x20746D66) { // "fmt "
+                fmt.clear();
+                fmt.limit((int) Math.min(size, fmt.capacity()));
+                if (reader.read(fmt, body) < 16) {
+                    return null;
+                }
+                int formatTag = Short.toUnsignedInt(fmt.getShort(0));
+                if (formatTag == FORMAT_EXTENSIBLE && size >= 26) {
+                    formatTag = Short.toUnsignedInt(fmt.getShort(24)); // first two bytes of the sub-format GUID
+                }
+                if (formatTag != FORMAT_PCM) {
+                    return null;
+                }
+                channels = Short.toUnsignedInt(fmt.getShort(2));
+                sampleRate = fmt.getInt(4);
+                bits = Short.toUnsignedInt(fmt.getShort(14));
+                haveFormat = true;
+            } else if (id == 0x61746164) { // "data"
+                if (!haveFormat || channels == 0 || sampleRate <= 0 || bits % 8 != 0 || bits < 8 || bits > 32) {
+                    return null;
+                }
+                // Streaming writers leave the size as 0 or 0xFFFFFFFF; trust the file length then
+                long available = fileSize - body;
+                long length = size == 0 || size > available ? available : size;
+                int blockAlign = channels * (bits / 8);
+                return new WavFormat(channels, sampleRate, bits, body, length - length % blockAlign);
+            }
+            position = body + size + (size & 1);
+        }
+        return null;
+    }
+
+    /**
+     * Canonical 44-byte header for {@code dataLength} bytes of PCM data in this format.
+     */
+    public ByteBuffer header(long dataLength) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x46464952).putInt((int) (36 + dataLength)).putInt(0x45564157);
+        header.putInt(0x20746D66).putInt(16)
+                .putShort((short) FORMAT_PCM)
+                .putShort((short) channels)
+                .putInt(sampleRate)
+                .putInt(sampleRate * blockAlign())
+                .putShort((short) blockAlign())
+                .putShort((short) bitsPerSample);
+        header.putInt(0x61746164).putInt((int) dataLength);
+        return header.flip();
+    }
+
+    /**
+     * Reads one sample at {@code offset} in {@code buffer} and scales it to [-1, 1].
+     */
+    public double sampleAt(ByteBuffer buffer, int offset) {
+        return switch (bitsPerSample) {
+            case 8 -> ((buffer.get(offset) & 0xFF) - 128) / 128.0;
+            case 16 -> buffer.getShort(offset) / 32768.0;
+            case 24 -> ((buffer.get(offset) & 0xFF) | (buffer.get(offset + 1) & 0xFF) << 8 | buffer.get(offset + 2) << 16) / 8388608.0;
+            default -> buffer.getInt(offset) / 2147483648.0;
+        };
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    @FunctionalInterface
+    private interface ChunkReader {
+        /**
+         * Reads into {@code buffer} from byte {@code position} of the file until it is full or the
+         * input ends.
+         *
+         * @return bytes read
+         */
+        int read(ByteBuffer buffer, long position) throws IOException;
+    }
+}
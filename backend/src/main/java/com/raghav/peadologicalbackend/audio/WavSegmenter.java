@@ -0,0 +1,140 @@
+package com.raghav.peadologicalbackend.audio;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts long PCM WAV recordings into segments of roughly {@code analysis.segments.target-seconds}.
+ * Each cut is moved to the quietest short frame within {@code search-window-seconds} of the
+ * target, so segments end in a pause instead of mid-sentence. Sample data is copied with
+ * {@link FileChannel#transferTo}; only one frame buffer is used for the silence search.
+ */
+@Component
+public class WavSegmenter {
+
+    private final double minDurationSeconds;
+    private final double targetSeconds;
+    private final double searchWindowSeconds;
+    private final int silenceFrameMs;
+
+    public WavSegmenter(@Value("${analysis.segments.min-duration-seconds:1200}") double minDurationSeconds,
+                        @Value("${analysis.segments.target-seconds:600}") double targetSeconds,
+                        @Value("${analysis.segments.search-window-seconds:30}") double searchWindowSeconds,
+                        @Value("${analysis.segments.silence-frame-ms:100}") int silenceFrameMs) {
+        this.minDurationSeconds = minDurationSeconds;
+        this.targetSeconds = targetSeconds;
+        this.searchWindowSeconds = searchWindowSeconds;
+        this.silenceFrameMs = silenceFrameMs;
+    }
+
+    /**
+     * Splits {@code file} into segment files under {@code workDir}.
+     *
+     * @return the segments in order, or an empty list if the file is not a PCM WAV or is too short to split
+     */
+    public List<AudioSegment> split(Path file, Path workDir) throws IOException {
+        WavFormat format = WavFormat.read(file);
+        if (format == null || format.durationSeconds() < minDurationSeconds) {
+            return List.of();
+        }
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Long> cuts = findCuts(in, format);
+            List<AudioSegment> segments = new ArrayList<>(cuts.size() - 1);
+            for (int i = 0; i + 1 < cuts.size(); i++) {
+                long startFrame = cuts.get(i);
+                long frames = cuts.get(i + 1) - startFrame;
+                Path segmentPath = workDir.resolve("segment-" + i + ".wav");
+                writeSegment(in, format, startFrame, frames, segmentPath);
+                segments.add(new AudioSegment(segmentPath,
+                        (double) startFrame / format.sampleRate(),
+                        (double) frames / format.sampleRate()));
+            }
+            return segments;
+        }
+    }
+
+    private List<Long> findCuts(FileChannel in, WavFormat format) throws IOException {
+        long totalFrames = format.frameCount();
+        long targetFrames = (long) (targetSeconds * format.sampleRate());
+        long windowFrames = (long) (searchWindowSeconds * format.sampleRate());
+        int frameSize = Math.max(1, format.sampleRate() * silenceFrameMs / 1000);
+        ByteBuffer buffer = ByteBuffer.allocate(frameSize * format.blockAlign()).order(ByteOrder.LITTLE_ENDIAN);
+
+        List<Long> cuts = new ArrayList<>();
+        cuts.add(0L);
+        long start = 0;
+        // Stop once the remainder is short enough to be one segment, so the last one is never a sliver
+        while (totalFrames - start > targetFrames + targetFrames / 2) {
+            long target = start + targetFrames;
+            long from = Math.max(start + frameSize, target - windowFrames);
+            long to = Math.min(totalFrames - frameSize, target + windowFrames);
+            long cut = quietestFrame(in, format, buffer, frameSize, from, to);
+            cuts.add(cut);
+            start = cut;
+        }
+        cuts.add(totalFrames);
+        return cuts;
+    }
+
+    /**
+     * @return the middle of the frame with the lowest mean amplitude between {@code from} and {@code to}
+     */
+    private long quietestFrame(FileChannel in, WavFormat format, ByteBuffer buffer, int frameSize,
+                               long from, long to) throws IOException {
+        int blockAlign = format.blockAlign();
+        long best = (from + to) / 2;
+        double bestLevel = Double.MAX_VALUE;
+        for (long frame = from; frame + frameSize <= to; frame += frameSize) {
+            buffer.clear();
+            long position = format.dataOffset() + frame * blockAlign;
+            while (buffer.hasRemaining()) {
+                if (in.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            int samples = buffer.position() / blockAlign;
+            if (samples == 0) {
+                break;
+            }
+            double level = 0;
+            for (int i = 0; i < samples; i++) {
+                level += Math.abs(format.sampleAt(buffer, i * blockAlign));
+            }
+            level /= samples;
+            if (level < bestLevel) {
+                bestLevel = level;
+                best = frame + frameSize / 2;
+            }
+        }
+        return best;
+    }
+
+    private void writeSegment(FileChannel in, WavFormat format, long startFrame, long frames, Path target) throws IOException {
+        long length = frames * format.blockAlign();
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = format.header(length);
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            long position = format.dataOffset() + startFrame * format.blockAlign();
+            long copied = 0;
+            while (copied < length) {
+                long sent = in.transferTo(position + copied, length - copied, out);
+                if (sent <= 0) {
+                    break;
+                }
+                copied += sent;
+            }
+        }
+    }
+}
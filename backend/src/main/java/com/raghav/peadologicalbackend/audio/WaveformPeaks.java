@@ -0,0 +1,53 @@
+package com.raghav.peadologicalbackend.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Min/max peaks of a recording at several zoom levels, finest first; each level halves the one
+ * before it. Peaks are 8-bit, scaled from [-1, 1] to [-127, 127], taken over all channels.
+ * <p>
+ * Encoded form (big-endian), as served to the player:
+ * <pre>
+ * "PEAK"  u8 version (1)  i32 sampleRate  i64 frameCount  u8 levelCount
+ * per level: i32 framesPerPeak  i32 peakCount  peakCount x (i8 min, i8 max)
+ * </pre>
+ */
+public record WaveformPeaks(int sampleRate, long frameCount, List<Level> levels) {
+
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'P', 'E', 'A', 'K'};
+
+    public byte[] encode() {
+        int size = 4 + 1 + 4 + 8 + 1;
+        for (Level level : levels) {
+            size += 8 + level.peaks().length;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(sampleRate);
+            out.writeLong(frameCount);
+            out.writeByte(levels.size());
+            for (Level level : levels) {
+                out.writeInt(level.framesPerPeak());
+                out.writeInt(level.peaks().length / 2);
+                out.write(level.peaks());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param peaks interleaved min/max pairs
+     */
+    public record Level(int framesPerPeak, byte[] peaks) {
+    }
+}
@@ -1,34 +1,172 @@
 package com.raghav.peadologicalbackend.client;
 
+import com.raghav.peadologicalbackend.dto.WhisperClientStatsResponse;
 import com.raghav.peadologicalbackend.dto.WhisperResponse;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.http.client.MultipartBodyBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Client for whisper-service's {@code /audio-to-document}. Calls go through a bounded connection
+ * pool with connect/response timeouts and an overall deadline, a semaphore bulkhead capping
+ * in-flight analyses, and a circuit breaker that fails fast while the service is unhealthy.
+ */
 @Component
 public class WhisperClient {
 
     private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final Duration deadline;
+    private final Duration bulkheadWait;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicLong rejected = new AtomicLong();
 
-    public WhisperClient(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.baseUrl("http://localhost:8000").build();
+    public WhisperClient(WebClient.Builder webClientBuilder,
+                         @Value("${whisper.base-url:http://localhost:8000}") String baseUrl,
+                         @Value("${whisper.connect-timeout-ms:5000}") int connectTimeoutMs,
+                         @Value("${whisper.read-timeout-ms:600000}") long readTimeoutMs,
+                         @Value("${whisper.deadline-ms:900000}") long deadlineMs,
+                         @Value("${whisper.max-connections:16}") int maxConnections,
+                         @Value("${whisper.max-concurrent:4}") int maxConcurrent,
+                         @Value("${whisper.bulkhead-wait-ms:30000}") long bulkheadWaitMs,
+                         @Value("${whisper.circuit.failure-threshold:5}") int failureThreshold,
+                         @Value("${whisper.circuit.open-ms:30000}") long openMs) {
+        this.connectionProvider = ConnectionProvider.builder("whisper")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(bulkheadWaitMs))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        this.webClient = webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.deadline = Duration.ofMillis(deadlineMs);
+        this.bulkheadWait = Duration.ofMillis(bulkheadWaitMs);
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMs));
     }
 
     public WhisperResponse analyzeAudio(File file) {
+        return analyzeAudio(file, null);
+    }
+
+    /**
+     * Blocking call for worker threads: waits up to {@code whisper.bulkhead-wait-ms} for a bulkhead
+     * permit, then for the response up to the overall deadline.
+     */
+    public WhisperResponse analyzeAudio(File file, String syllabus) {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new ServiceUnavailableException("Too many analyses in flight.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the analysis service.");
+        }
+        try {
+            return guarded(file, syllabus).block();
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Non-blocking variant. Fails immediately with {@link ServiceUnavailableException} when the
+     * bulkhead is full or the circuit is open.
+     */
+    public Mono<WhisperResponse> analyzeAudioAsync(File file, String syllabus) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                rejected.incrementAndGet();
+                return Mono.error(new ServiceUnavailableException("Too many analyses in flight."));
+            }
+            return guarded(file, syllabus).doFinally(signal -> bulkhead.release());
+        });
+    }
+
+    public WhisperClientStatsResponse stats() {
+        return new WhisperClientStatsResponse(
+                circuitBreaker.getState().name(),
+                maxConcurrent,
+                maxConcurrent - bulkhead.availablePermits(),
+                rejected.get()
+        );
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private Mono<WhisperResponse> guarded(File file, String syllabus) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                rejected.incrementAndGet();
+                return Mono.error(new ServiceUnavailableException("Analysis service is unavailable, circuit is open."));
+            }
+            return request(file, syllabus)
+                    .timeout(deadline)
+                    .doOnSuccess(response -> circuitBreaker.recordSuccess())
+                    .doOnError(ex -> {
+                        if (isServiceFault(ex)) {
+                            circuitBreaker.recordFailure();
+                        } else {
+                            circuitBreaker.recordSuccess();
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            circuitBreaker.recordFailure();
+                        }
+                    });
+        });
+    }
+
+    private Mono<WhisperResponse> request(File file, String syllabus) {
         MultipartBodyBuilder builder = new MultipartBodyBuilder();
         builder.part("audio", new FileSystemResource(file));
 
         return webClient.post()
-                .uri("/audio-to-document")
+                .uri(uriBuilder -> uriBuilder.path("/audio-to-document")
+                        .queryParam("syllabus", syllabus != null ? syllabus : "")
+                        .build())
                 .contentType(MediaType.MULTIPART_FORM_DATA)
                 .body(BodyInserters.fromMultipartData(builder.build()))
                 .retrieve()
-                .bodyToMono(WhisperResponse.class)
-                .block();
+                .bodyToMono(WhisperResponse.class);
+    }
+
+    // 4xx responses are about the request (bad file, too large), not about the service's health
+    private static boolean isServiceFault(Throwable ex) {
+        if (ex instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return true;
     }
 }
@@ -0,0 +1,171 @@
+package com.raghav.peadologicalbackend.config;
+
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+import com.raghav.peadologicalbackend.service.FairScheduler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class AnalysisConfig {
+
+    /**
+     * Fixed-size worker pool for lecture analysis. The queue is bounded: when it is full the
+     * lecture simply stays PENDING and is picked up again by the requeue pass.
+     * <p>
+     * In virtual-thread mode (Java 21+) the workers are virtual threads, so a worker blocked on
+     * whisper-service or JDBC does not hold a carrier thread. The pool size still caps concurrency.
+     */
+    @Bean(name = "analysisExecutor")
+    public ThreadPoolTaskExecutor analysisExecutor(
+            @Value("${analysis.workers:4}") int workers,
+            @Value("${analysis.queue-capacity:200}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("analysis-");
+        if (virtualThreads) {
+            executor.setThreadFactory(virtualThreadFactory("analysis-"));
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Decides which PENDING lecture gets the next free analysis worker: interactive uploads before
+     * back-fills, and round-robin across schools and teachers, instead of the pool's FIFO queue.
+     * It never hands the pool more tasks than it has workers.
+     */
+    @Bean(name = "analysisJobScheduler")
+    public FairScheduler analysisJobScheduler(
+            @Qualifier("analysisExecutor") ThreadPoolTaskExecutor analysisExecutor,
+            @Value("${analysis.workers:4}") int workers,
+            @Value("${analysis.queue-capacity:200}") int queueCapacity,
+            @Value("${analysis.scheduler.interactive-weight:8}") int interactiveWeight,
+            @Value("${analysis.scheduler.backfill-weight:1}") int backfillWeight,
+            @Value("${analysis.scheduler.quantum-mib:32}") long quantum) {
+        return new FairScheduler("analysis-jobs", workers, queueCapacity, quantum,
+                laneWeights(interactiveWeight, backfillWeight), analysisExecutor);
+    }
+
+    /**
+     * Caps concurrent calls to whisper-service, from analysis workers, segments and bulk imports
+     * alike, and orders the waiting calls the same way as {@code analysisJobScheduler}.
+     */
+    @Bean(name = "whisperCallScheduler")
+    public FairScheduler whisperCallScheduler(
+            @Value("${analysis.scheduler.max-concurrent:${whisper.max-concurrent:4}}") int maxConcurrent,
+            @Value("${analysis.scheduler.max-queued:10000}") int maxQueued,
+            @Value("${analysis.scheduler.interactive-weight:8}") int interactiveWeight,
+            @Value("${analysis.scheduler.backfill-weight:1}") int backfillWeight,
+            @Value("${analysis.scheduler.quantum-mib:32}") long quantum) {
+        return new FairScheduler("whisper-calls", maxConcurrent, maxQueued, quantum,
+                laneWeights(interactiveWeight, backfillWeight), null);
+    }
+
+    /**
+     * Fails at startup instead of on the first task when virtual threads are switched on under a
+     * JDK older than 21, where {@link VirtualThreadTaskExecutor} cannot create any threads.
+     */
+    private static ThreadFactory virtualThreadFactory(String threadNamePrefix) {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java 21 or newer.");
+        }
+        return new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory();
+    }
+
+    private static Map<AnalysisLane, Integer> laneWeights(int interactive, int backfill) {
+        Map<AnalysisLane, Integer> weights = new EnumMap<>(AnalysisLane.class);
+        weights.put(AnalysisLane.INTERACTIVE, interactive);
+        weights.put(AnalysisLane.BACKFILL, backfill);
+        return weights;
+    }
+
+    /**
+     * Threads for the stages of a bulk lecture import. Only one import runs at a time, so the pool
+     * is sized to hold every stage worker of that import plus its feeder.
+     */
+    @Bean(name = "importExecutor")
+    public ThreadPoolTaskExecutor importExecutor(
+            @Value("${import.validate-workers:2}") int validateWorkers,
+            @Value("${import.store-workers:4}") int storeWorkers,
+            @Value("${import.analyse-workers:4}") int analyseWorkers,
+            @Value("${import.persist-workers:1}") int persistWorkers,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        int threads = validateWorkers + storeWorkers + analyseWorkers + persistWorkers + 1;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        // Room for the next import's workers while the previous one's threads are still winding down
+        executor.setQueueCapacity(threads);
+        executor.setThreadNamePrefix("import-");
+        if (virtualThreads) {
+            executor.setThreadFactory(virtualThreadFactory("import-"));
+        }
+        return executor;
+    }
+
+    /**
+     * Runs the segment calls of a split recording side by side. Calls still take a whisper-service
+     * bulkhead permit each; when the queue is full the analysis worker runs the segment itself.
+     */
+    @Bean(name = "segmentExecutor")
+    public ThreadPoolTaskExecutor segmentExecutor(
+            @Value("${analysis.segments.max-parallel:4}") int maxParallel,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxParallel);
+        executor.setMaxPoolSize(maxParallel);
+        executor.setQueueCapacity(maxParallel * 16);
+        executor.setThreadNamePrefix("segment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        if (virtualThreads) {
+            executor.setThreadFactory(virtualThreadFactory("segment-"));
+        }
+        return executor;
+    }
+
+    /**
+     * One thread for the storage tier mover, so writing cold packs never holds the scheduler
+     * thread that heartbeats, requeues and sweeps run on. One pass at a time; a pass that is still
+     * running when the next one is due makes that one a no-op.
+     */
+    @Bean(name = "tieringExecutor")
+    public ThreadPoolTaskExecutor tieringExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("tiering-");
+        return executor;
+    }
+
+    /**
+     * Writes progress events to SSE subscribers. Two threads are plenty: a send only copies a few
+     * hundred bytes into a socket buffer. Each task drains one teacher's outbox, so the queue holds
+     * at most one task per subscribed teacher; a full outbox drops events rather than making
+     * analysis workers wait.
+     */
+    @Bean(name = "progressExecutor")
+    public ThreadPoolTaskExecutor progressExecutor(@Value("${progress.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("progress-");
+        return executor;
+    }
+}
@@ -0,0 +1,66 @@
+package com.raghav.peadologicalbackend.controller;
+
+import com.raghav.peadologicalbackend.client.WhisperClient;
+import com.raghav.peadologicalbackend.dto.AnalysisCacheStatsResponse;
+import com.raghav.peadologicalbackend.dto.AnalysisDeadLetterResponse;
+import com.raghav.peadologicalbackend.dto.AnalysisSchedulerStatsResponse;
+import com.raghav.peadologicalbackend.dto.DeadLetterRedriveRequest;
+import com.raghav.peadologicalbackend.dto.DeadLetterRedriveResponse;
+import com.raghav.peadologicalbackend.dto.WhisperClientStatsResponse;
+import com.raghav.peadologicalbackend.service.AnalysisCacheService;
+import com.raghav.peadologicalbackend.service.AnalysisDeadLetterService;
+import com.raghav.peadologicalbackend.service.FairScheduler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analysis")
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class AnalysisAdminController {
+    private final AnalysisCacheService analysisCacheService;
+    private final AnalysisDeadLetterService analysisDeadLetterService;
+    private final WhisperClient whisperClient;
+    private final FairScheduler analysisJobScheduler;
+    private final FairScheduler whisperCallScheduler;
+
+    public AnalysisAdminController(AnalysisCacheService analysisCacheService,
+                                   AnalysisDeadLetterService analysisDeadLetterService,
+                                   WhisperClient whisperClient,
+                                   @Qualifier("analysisJobScheduler") FairScheduler analysisJobScheduler,
+                                   @Qualifier("whisperCallScheduler") FairScheduler whisperCallScheduler) {
+        this.analysisCacheService = analysisCacheService;
+        this.analysisDeadLetterService = analysisDeadLetterService;
+        this.whisperClient = whisperClient;
+        this.analysisJobScheduler = analysisJobScheduler;
+        this.whisperCallScheduler = whisperCallScheduler;
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<AnalysisCacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(analysisCacheService.stats());
+    }
+
+    @GetMapping("/whisper/stats")
+    public ResponseEntity<WhisperClientStatsResponse> getWhisperStats() {
+        return ResponseEntity.ok(whisperClient.stats());
+    }
+
+    @GetMapping("/scheduler/stats")
+    public ResponseEntity<List<AnalysisSchedulerStatsResponse>> getSchedulerStats() {
+        return ResponseEntity.ok(List.of(analysisJobScheduler.stats(), whisperCallScheduler.stats()));
+    }
+
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<AnalysisDeadLetterResponse>> getDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(analysisDeadLetterService.list(limit));
+    }
+
+    @PostMapping("/dead-letters/redrive")
+    public ResponseEntity<DeadLetterRedriveResponse> redriveDeadLetters(@RequestBody(required = false) DeadLetterRedriveRequest request) {
+        return ResponseEntity.ok(analysisDeadLetterService.redrive(request));
+    }
+}
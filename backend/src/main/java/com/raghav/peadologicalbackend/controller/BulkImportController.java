@@ -0,0 +1,37 @@
+package com.raghav.peadologicalbackend.controller;
+
+import com.raghav.peadologicalbackend.dto.BulkImportManifest;
+import com.raghav.peadologicalbackend.dto.BulkImportStatusResponse;
+import com.raghav.peadologicalbackend.service.BulkImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/lectures/import")
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class BulkImportController {
+    private final BulkImportService bulkImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkImportStatusResponse> importArchive(
+            @RequestPart("manifest") BulkImportManifest manifest,
+            @RequestPart(value = "archive", required = false) MultipartFile archive) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkImportService.start(manifest, archive));
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportStatusResponse> importDirectory(@RequestBody BulkImportManifest manifest) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkImportService.start(manifest, null));
+    }
+
+    @GetMapping("/{importId}")
+    public ResponseEntity<BulkImportStatusResponse> getImportStatus(@PathVariable String importId) {
+        return ResponseEntity.ok(bulkImportService.getStatus(importId));
+    }
+}
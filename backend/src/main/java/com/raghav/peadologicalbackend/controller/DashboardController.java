@@ -1,20 +1,43 @@
 package com.raghav.peadologicalbackend.controller;
 
+import com.raghav.peadologicalbackend.dto.AnalyticsQueryRequest;
+import com.raghav.peadologicalbackend.dto.AnalyticsResultDTO;
+import com.raghav.peadologicalbackend.dto.DepartmentDistributionDTO;
 import com.raghav.peadologicalbackend.dto.FacultyStatsDTO;
+import com.raghav.peadologicalbackend.dto.LeaderboardPageDTO;
 import com.raghav.peadologicalbackend.dto.SchoolStatsDTO;
+import com.raghav.peadologicalbackend.dto.TrendSeriesDTO;
+import com.raghav.peadologicalbackend.entity.LectureMetric;
 import com.raghav.peadologicalbackend.entity.TeacherProfile;
-import com.raghav.peadologicalbackend.repository.LectureRepository;
+import com.raghav.peadologicalbackend.entity.TrendGranularity;
+import com.raghav.peadologicalbackend.entity.TrendScope;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
 import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
+import com.raghav.peadologicalbackend.service.DashboardCache;
+import com.raghav.peadologicalbackend.service.FacultyLeaderboardService;
+import com.raghav.peadologicalbackend.service.LectureAnalyticsService;
+import com.raghav.peadologicalbackend.service.MetricSketchService;
+import com.raghav.peadologicalbackend.service.SchoolStatsService;
+import com.raghav.peadologicalbackend.service.TeacherStatsService;
+import com.raghav.peadologicalbackend.service.TrendRollupService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -23,131 +46,70 @@ import java.util.stream.Collectors;
 @CrossOrigin
 public class DashboardController {
 
+    // Browsers keep the response but ask again, with its ETag, before every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TeacherProfileRepository teacherRepo;
-    private final LectureRepository lectureRepo;
     private final com.raghav.peadologicalbackend.repository.UserRepository userRepo;
+    private final SchoolStatsService schoolStatsService;
+    private final TeacherStatsService teacherStatsService;
+    private final TrendRollupService trendRollupService;
+    private final LectureAnalyticsService lectureAnalyticsService;
+    private final MetricSketchService metricSketchService;
+    private final DashboardCache dashboardCache;
+    private final FacultyLeaderboardService facultyLeaderboardService;
 
     @GetMapping("/stats")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
-    public ResponseEntity<List<SchoolStatsDTO>> getDashboardStats() {
-        // 1. Get Faculty Counts per School
-        List<Object[]> facultyCounts = teacherRepo.countFacultyBySchool();
-        Map<String, Long> facultyCountMap = new HashMap<>();
-        for (Object[] row : facultyCounts) {
-            facultyCountMap.put((String) row[0], (Long) row[1]);
-        }
-
-        // 2. Get Lecture Stats per School
-        List<Object[]> lectureStats = lectureRepo.findLectureStatsBySchool();
-        Map<String, Object[]> lectureStatsMap = new HashMap<>();
-        for (Object[] row : lectureStats) {
-            lectureStatsMap.put((String) row[0], row);
-        }
-
-        // 3. Merge
-        List<SchoolStatsDTO> stats = new ArrayList<>();
-        // Iterate over all schools found in faculty counts (primary source of schools)
-        for (String school : facultyCountMap.keySet()) {
-            if (school == null) continue; // Skip null schools if any
-
-            Long facultyCount = facultyCountMap.get(school);
-            Long lecturesAnalyzed = 0L;
-            Double avgScore = 0.0;
-
-            if (lectureStatsMap.containsKey(school)) {
-                Object[] lStats = lectureStatsMap.get(school);
-                lecturesAnalyzed = (Long) lStats[1];
-                avgScore = (Double) lStats[2];
-            }
-
-            stats.add(new SchoolStatsDTO(school, facultyCount, lecturesAnalyzed, avgScore != null ? avgScore : 0.0));
-        }
-
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<List<SchoolStatsDTO>> getDashboardStats(WebRequest request) {
+        String etag = dashboardCache.allSchoolsTag(modelsVariant());
+        return conditional(request, "stats", etag, schoolStatsService::list);
     }
 
     @GetMapping("/teacher/me")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<FacultyStatsDTO> getMyStats() {
         String username = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication().getName();
-        com.raghav.peadologicalbackend.entity.Users user = userRepo.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        TeacherProfile teacher = teacherRepo.findByUserId(user.getId())
-                .orElseThrow(() -> new RuntimeException("Teacher profile not found"));
-
-        // Get aggregated stats for this teacher
-        // findTeacherStatsBySchool returns list of [id, count, avgScore, maxUploadedAt]
-        // But we need stats for a single teacher. We can reuse the repo method or better yet, fetch lectures directly.
-        // Let's use lectureRepo.findByTeacherProfileId(id) to calculate.
-        
-        List<com.raghav.peadologicalbackend.entity.Lecture> lectures = lectureRepo.findByTeacherProfileId(teacher.getId());
-        
-        Long lectureCount = (long) lectures.size();
-        Double avgScore = lectures.stream()
-                .mapToDouble(l -> l.getScore() != null ? l.getScore() : 0.0)
-                .average()
-                .orElse(0.0);
-        
-        // Find last active (uploaded_at)
-        LocalDateTime lastActive = lectures.stream()
-                .map(com.raghav.peadologicalbackend.entity.Lecture::getUploadedAt)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-
-        FacultyStatsDTO dto = new FacultyStatsDTO(
-                teacher.getId(),
-                teacher.getUser().getName(),
-                teacher.getDepartment(),
-                lectureCount,
-                avgScore,
-                lastActive
-        );
-
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok(teacherStatsService.getStats(username));
     }
 
     @GetMapping("/school/{schoolName}")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')") // Admin here means Dean
-    public ResponseEntity<List<FacultyStatsDTO>> getSchoolFaculty(@PathVariable String schoolName) {
+    public ResponseEntity<List<FacultyStatsDTO>> getSchoolFaculty(@PathVariable String schoolName, WebRequest request) {
         // Security Check: If user is ADMIN (Dean), ensure they belong to this school
-        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-        boolean isSuperAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_SUPER_ADMIN"));
-
-        if (!isSuperAdmin) {
-            String username = auth.getName();
-            com.raghav.peadologicalbackend.entity.Users user = userRepo.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            TeacherProfile profile = teacherRepo.findByUserId(user.getId())
-                    .orElseThrow(() -> new RuntimeException("Dean profile not found"));
-            
-            if (!profile.getSchool().equalsIgnoreCase(schoolName)) {
-                return ResponseEntity.status(403).build();
-            }
+        if (!maySeeSchool(schoolName)) {
+            return ResponseEntity.status(403).build();
         }
+        String etag = dashboardCache.schoolTag(schoolName, modelsVariant());
+        return conditional(request, "school:" + schoolName, etag, () -> schoolFaculty(schoolName));
+    }
+
+    private List<FacultyStatsDTO> schoolFaculty(String schoolName) {
         // 1. Get all teachers for the school
         List<TeacherProfile> teachers = teacherRepo.findBySchool(schoolName);
 
         // 2. Get aggregated stats for teachers in this school
-        List<Object[]> teacherStats = lectureRepo.findTeacherStatsBySchool(schoolName);
+        List<Object[]> teacherStats = lectureAnalyticsService.teacherStatsBySchool(schoolName);
         Map<Long, Object[]> statsMap = new HashMap<>();
         for (Object[] row : teacherStats) {
             statsMap.put((Long) row[0], row);
         }
 
         // 3. Merge
-        List<FacultyStatsDTO> result = teachers.stream().map(teacher -> {
+        Map<Long, FacultyStatsDTO> byTeacher = teachers.stream().map(teacher -> {
             Long lectures = 0L;
             Double score = 0.0;
             LocalDateTime lastActive = null;
+            Double minScore = null;
+            Double maxScore = null;
 
             if (statsMap.containsKey(teacher.getId())) {
                 Object[] row = statsMap.get(teacher.getId());
                 lectures = (Long) row[1];
                 score = (Double) row[2];
                 lastActive = (LocalDateTime) row[3];
+                minScore = (Double) row[4];
+                maxScore = (Double) row[5];
             }
 
             return new FacultyStatsDTO(
@@ -156,17 +118,134 @@ public class DashboardController {
                     teacher.getDepartment(),
                     lectures,
                     score != null ? score : 0.0,
-                    lastActive
+                    lastActive,
+                    minScore,
+                    maxScore,
+                    metricSketchService.forTeacher(teacher.getId())
             );
-        }).collect(Collectors.toList());
+        }).collect(Collectors.toMap(FacultyStatsDTO::getId, dto -> dto, (a, b) -> a, LinkedHashMap::new));
+
+        // 4. Order by the maintained leaderboard, best first; unranked while it loads
+        List<Long> ranking = facultyLeaderboardService.ranking(schoolName);
+        if (ranking == null) {
+            return new ArrayList<>(byTeacher.values());
+        }
+        List<FacultyStatsDTO> result = new ArrayList<>(byTeacher.size());
+        for (Long teacherId : ranking) {
+            FacultyStatsDTO dto = byTeacher.remove(teacherId);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        result.addAll(byTeacher.values());
+        return result;
+    }
+
+    /**
+     * A page of the school's faculty, or of one department's, ranked by average score and then by
+     * lectures analysed; {@code offset=0} gives the top {@code limit}.
+     */
+    @GetMapping("/school/{schoolName}/leaderboard")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<LeaderboardPageDTO> getLeaderboard(
+            @PathVariable String schoolName,
+            @RequestParam(value = "department", required = false) String department,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (!maySeeSchool(schoolName)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(facultyLeaderboardService.page(schoolName, department, offset, limit));
+    }
+
+    /**
+     * Where one teacher stands on the school's or department's leaderboard.
+     */
+    @GetMapping("/school/{schoolName}/leaderboard/{teacherId}")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<LeaderboardPageDTO> getLeaderboardRank(
+            @PathVariable String schoolName,
+            @PathVariable Long teacherId,
+            @RequestParam(value = "department", required = false) String department) {
+        if (!maySeeSchool(schoolName)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(facultyLeaderboardService.rankOf(schoolName, department, teacherId));
+    }
 
-        return ResponseEntity.ok(result);
+    /**
+     * p10 / p50 / p90 of every metric per department of the school, merged from the per-teacher
+     * sketches. A dean sees the departments of their own school only.
+     */
+    @GetMapping("/school/{schoolName}/departments")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<List<DepartmentDistributionDTO>> getDepartmentDistributions(@PathVariable String schoolName) {
+        if (!maySeeSchool(schoolName)) {
+            return ResponseEntity.status(403).build();
+        }
+        List<DepartmentDistributionDTO> departments = metricSketchService.byDepartment(schoolName);
+        if (departments == null) {
+            throw new ServiceUnavailableException("Metric distributions are still loading");
+        }
+        return ResponseEntity.ok(departments);
+    }
+
+    /**
+     * Score or metric trend of a teacher, department or school, one point per day, week or month,
+     * read from the pre-aggregated rollups. A dean sees the trends of their own school only.
+     */
+    @GetMapping("/trends")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<TrendSeriesDTO> getTrends(
+            @RequestParam("scope") TrendScope scope,
+            @RequestParam(value = "teacherId", required = false) Long teacherId,
+            @RequestParam(value = "school", required = false) String school,
+            @RequestParam(value = "department", required = false) String department,
+            @RequestParam(value = "metric", defaultValue = "SCORE") LectureMetric metric,
+            @RequestParam(value = "granularity", defaultValue = "WEEK") TrendGranularity granularity,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        String keySchool = school;
+        if (scope != TrendScope.TEACHER && school != null && !isSuperAdmin()) {
+            String ownSchool = ownSchool();
+            if (ownSchool == null || !ownSchool.equalsIgnoreCase(school)) {
+                return ResponseEntity.status(403).build();
+            }
+            // Rollups are keyed by the school as stored, so a differently-cased name would find no series
+            keySchool = ownSchool;
+        }
+        TrendRollupService.TrendTarget target = trendRollupService.resolveTarget(scope, teacherId, keySchool, department);
+        if (!maySeeSchool(target.school())) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(trendRollupService.series(target, metric, granularity, from, to));
+    }
+
+    /**
+     * Ad-hoc filter / group / aggregate query over lecture metrics, answered from the in-memory
+     * analytics store. A dean's queries are confined to their own school.
+     */
+    @PostMapping("/analytics")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<AnalyticsResultDTO> queryAnalytics(@RequestBody AnalyticsQueryRequest request) {
+        if (!isSuperAdmin()) {
+            String school = ownSchool();
+            if (school == null || (request.getSchool() != null && !request.getSchool().equalsIgnoreCase(school))) {
+                return ResponseEntity.status(403).build();
+            }
+            request.setSchool(school);
+        }
+        return ResponseEntity.ok(lectureAnalyticsService.query(request));
     }
 
     @GetMapping("/dean/me")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'TEACHER')")
-    public ResponseEntity<Map<String, Object>> getDeanInfo() {
+    public ResponseEntity<Map<String, Object>> getDeanInfo(WebRequest request) {
         String username = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication().getName();
+        return conditional(request, "dean:" + username, dashboardCache.userTag(username), () -> deanInfo(username));
+    }
+
+    private Map<String, Object> deanInfo(String username) {
         com.raghav.peadologicalbackend.entity.Users user = userRepo.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -184,6 +263,51 @@ public class DashboardController {
             info.put("school", profile != null ? profile.getSchool() : null);
         }
 
-        return ResponseEntity.ok(info);
+        return info;
+    }
+
+    private boolean maySeeSchool(String schoolName) {
+        if (isSuperAdmin()) {
+            return true;
+        }
+        String school = ownSchool();
+        return school != null && school.equalsIgnoreCase(schoolName);
+    }
+
+    private boolean isSuperAdmin() {
+        return org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication()
+                .getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_SUPER_ADMIN"));
+    }
+
+    // The dean's school, cached per version of the user directory so a revalidation does not query for it
+    private String ownSchool() {
+        String username = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication().getName();
+        return dashboardCache.schoolOf(username, this::profileSchool);
+    }
+
+    private String profileSchool(String username) {
+        com.raghav.peadologicalbackend.entity.Users user = userRepo.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        TeacherProfile profile = teacherRepo.findByUserId(user.getId())
+                .orElseThrow(() -> new NotFoundException("Dean profile not found"));
+        return profile.getSchool();
+    }
+
+    // Percentiles are absent and faculty unranked until the in-memory models are loaded, so the same
+    // version reads differently before and after
+    private String modelsVariant() {
+        return (metricSketchService.isReady() ? "p" : "n") + (facultyLeaderboardService.isReady() ? "r" : "n");
+    }
+
+    /**
+     * Answers a revalidation whose {@code If-None-Match} holds the current tag with a 304, before
+     * anything is read; otherwise serves the response cached at that tag, or loads it.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, String key, String etag, Supplier<T> loader) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(dashboardCache.get(key, etag, loader));
     }
 }
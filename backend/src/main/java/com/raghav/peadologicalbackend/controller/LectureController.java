@@ -1,14 +1,27 @@
 package com.raghav.peadologicalbackend.controller;
 
+import com.raghav.peadologicalbackend.audio.WaveformPeaks;
 import com.raghav.peadologicalbackend.dto.LectureCreateRequest;
 import com.raghav.peadologicalbackend.dto.LectureResponse;
+import com.raghav.peadologicalbackend.dto.LectureStatusResponse;
+import com.raghav.peadologicalbackend.service.AnalysisProgressHub;
+import com.raghav.peadologicalbackend.service.AudioStreamingService;
+import com.raghav.peadologicalbackend.service.JwtService;
+import com.raghav.peadologicalbackend.service.LectureIngestService;
 import com.raghav.peadologicalbackend.service.LectureService;
+import com.raghav.peadologicalbackend.service.WaveformService;
+import com.raghav.peadologicalbackend.repository.LectureAudioView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -17,6 +30,11 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class LectureController {
     private final LectureService lectureService;
+    private final LectureIngestService lectureIngestService;
+    private final AnalysisProgressHub analysisProgressHub;
+    private final AudioStreamingService audioStreamingService;
+    private final WaveformService waveformService;
+    private final JwtService jwtService;
     private final com.raghav.peadologicalbackend.repository.UserRepository userRepository;
     private final com.raghav.peadologicalbackend.repository.TeacherProfileRepository teacherProfileRepository;
 
@@ -32,16 +50,73 @@ public class LectureController {
             @RequestParam("teacherProfileId") Long teacherProfileId,
             @RequestParam(value = "classSlotId", required = false) Long classSlotId,
             @RequestParam("lectureTitle") String lectureTitle,
+            @RequestParam(value = "syllabus", required = false) String syllabus,
             @RequestParam(value = "audio", required = false) org.springframework.web.multipart.MultipartFile audio) {
         
         LectureCreateRequest request = new LectureCreateRequest();
         request.setTeacherProfileId(teacherProfileId);
         request.setClassSlotId(classSlotId);
         request.setLectureTitle(lectureTitle);
+        request.setSyllabus(syllabus);
         
-        return new ResponseEntity<>(lectureService.createLecture(request, audio), HttpStatus.CREATED);
+        return accepted(lectureIngestService.ingest(request, audio));
+    }
+
+    @PostMapping(value = "/stream", consumes = {org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE, "audio/*"})
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<LectureResponse> createWithStream(
+            @RequestParam("teacherProfileId") Long teacherProfileId,
+            @RequestParam(value = "classSlotId", required = false) Long classSlotId,
+            @RequestParam("lectureTitle") String lectureTitle,
+            @RequestParam(value = "syllabus", required = false) String syllabus,
+            @RequestHeader(value = "X-File-Name", required = false) String fileName,
+            jakarta.servlet.http.HttpServletRequest httpRequest) throws java.io.IOException {
+
+        LectureCreateRequest request = new LectureCreateRequest();
+        request.setTeacherProfileId(teacherProfileId);
+        request.setClassSlotId(classSlotId);
+        request.setLectureTitle(lectureTitle);
+        request.setSyllabus(syllabus);
+
+        return accepted(lectureIngestService.ingestStream(
+                request, httpRequest.getInputStream(), httpRequest.getContentLengthLong(), fileName));
+    }
+
+    private ResponseEntity<LectureResponse> accepted(LectureResponse response) {
+        HttpStatus status = response.getAnalysisStatus() == com.raghav.peadologicalbackend.entity.AnalysisStatus.PENDING
+                ? HttpStatus.ACCEPTED
+                : HttpStatus.CREATED;
+        return new ResponseEntity<>(response, status);
     }
     
+    /**
+     * Issues the short-lived token a browser passes as {@code streamToken} when it opens
+     * {@code /events} with EventSource, which cannot send the bearer header. Ask for a new one
+     * whenever the stream has to be opened again after the token expired.
+     */
+    @PostMapping("/events/token")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<java.util.Map<String, Object>> streamToken(@RequestParam("teacherProfileId") Long teacherProfileId) {
+        lectureService.checkCanWatch(teacherProfileId);
+        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        String role = auth.getAuthorities().iterator().next().getAuthority().substring("ROLE_".length());
+        String token = jwtService.generateStreamToken(auth.getName(), role, teacherProfileId);
+        return ResponseEntity.ok(java.util.Map.of("token", token, "expiresInSeconds", jwtService.getStreamTokenTtlSeconds()));
+    }
+
+    /**
+     * Live analysis progress for one teacher's lectures: stored, transcribing, scoring, then done or
+     * failed with the final lecture. Authenticate with the bearer header (fetch-based SSE client) or,
+     * from EventSource, with {@code ?teacherProfileId=..&streamToken=..} from {@code /events/token}.
+     */
+    @GetMapping(value = "/events", produces = org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
+    public org.springframework.web.servlet.mvc.method.annotation.SseEmitter streamProgress(
+            @RequestParam("teacherProfileId") Long teacherProfileId) {
+        lectureService.checkCanWatch(teacherProfileId);
+        return analysisProgressHub.subscribe(teacherProfileId);
+    }
+
     @GetMapping("/my-recent")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<List<LectureResponse>> getMyRecentLectures() {
@@ -61,6 +136,39 @@ public class LectureController {
         return ResponseEntity.ok(lectureService.getLectureById(id));
     }
 
+    /**
+     * The lecture's recording, for playback and seeking. Supports {@code Range} (one range per
+     * request), {@code If-None-Match}, {@code If-Modified-Since} and {@code If-Range}.
+     */
+    @GetMapping("/{id}/audio")
+    @PreAuthorize("hasAnyRole('TEACHER','ADMIN','SUPER_ADMIN')")
+    public void getAudio(@PathVariable Long id,
+                         jakarta.servlet.http.HttpServletRequest httpRequest,
+                         jakarta.servlet.http.HttpServletResponse httpResponse) throws java.io.IOException {
+        audioStreamingService.stream(lectureService.getLectureAudio(id), httpRequest, httpResponse);
+    }
+
+    /**
+     * Waveform peaks of the recording for the player. They never change for a given recording, so
+     * the response is cacheable for a long time and revalidated by the audio digest.
+     */
+    @GetMapping("/{id}/waveform")
+    @PreAuthorize("hasAnyRole('TEACHER','ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<Resource> getWaveform(@PathVariable Long id) throws java.io.IOException {
+        LectureAudioView audio = lectureService.getLectureAudio(id);
+        return ResponseEntity.ok()
+                .eTag(audio.audioSha256() + "-peaks-v" + WaveformPeaks.VERSION)
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(waveformService.getMaxAgeSeconds())).cachePrivate().immutable())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(waveformService.peaksFor(audio)));
+    }
+
+    @GetMapping("/{id}/status")
+    @PreAuthorize("hasAnyRole('TEACHER','ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<LectureStatusResponse> getStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(lectureService.getLectureStatus(id));
+    }
+
     @GetMapping("/teacher/{teacherId}")
     @PreAuthorize("hasAnyRole('TEACHER','ADMIN','SUPER_ADMIN')")
     public ResponseEntity<List<LectureResponse>> getByTeacher(@PathVariable Long teacherId) {
@@ -0,0 +1,81 @@
+package com.raghav.peadologicalbackend.controller;
+
+import com.raghav.peadologicalbackend.dto.DbPoolStatsResponse;
+import com.raghav.peadologicalbackend.dto.SchoolStatsDTO;
+import com.raghav.peadologicalbackend.dto.StorageUsageResponse;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
+import com.raghav.peadologicalbackend.service.DashboardCache;
+import com.raghav.peadologicalbackend.service.SchoolStatsService;
+import com.raghav.peadologicalbackend.service.StorageSweeper;
+import com.raghav.peadologicalbackend.service.TrendRollupService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/system")
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class SystemAdminController {
+    private final DataSource dataSource;
+    private final StorageSweeper storageSweeper;
+    private final SchoolStatsService schoolStatsService;
+    private final DashboardCache dashboardCache;
+    private final TrendRollupService trendRollupService;
+
+    @GetMapping("/db-pool")
+    public ResponseEntity<DbPoolStatsResponse> getDbPoolStats() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            throw new ServiceUnavailableException("Connection pool statistics are not available.");
+        }
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            throw new ServiceUnavailableException("Connection pool has not started yet.");
+        }
+        return ResponseEntity.ok(new DbPoolStatsResponse(
+                hikari.getPoolName(),
+                hikari.getMaximumPoolSize(),
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection()
+        ));
+    }
+
+    @GetMapping("/storage-usage")
+    public ResponseEntity<StorageUsageResponse> getStorageUsage() {
+        StorageUsageResponse usage = storageSweeper.getLastUsage();
+        if (usage == null) {
+            throw new ServiceUnavailableException("No storage sweep has completed yet.");
+        }
+        return ResponseEntity.ok(usage);
+    }
+
+    /**
+     * Recomputes the school dashboard's read model from the lecture and teacher tables.
+     */
+    @PostMapping("/school-stats/rebuild")
+    public ResponseEntity<List<SchoolStatsDTO>> rebuildSchoolStats() {
+        List<SchoolStatsDTO> rebuilt = schoolStatsService.rebuild();
+        // The rebuild may have corrected totals behind the dashboard's cached responses
+        dashboardCache.invalidateAll();
+        return ResponseEntity.ok(rebuilt);
+    }
+
+    /**
+     * Recomputes every trend rollup bucket from the lecture table.
+     */
+    @PostMapping("/trends/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildTrends() {
+        return ResponseEntity.ok(Map.of("buckets", trendRollupService.rebuild()));
+    }
+}
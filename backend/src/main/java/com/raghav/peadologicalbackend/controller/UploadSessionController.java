@@ -0,0 +1,54 @@
+package com.raghav.peadologicalbackend.controller;
+
+import com.raghav.peadologicalbackend.dto.LectureResponse;
+import com.raghav.peadologicalbackend.dto.UploadSessionCreateRequest;
+import com.raghav.peadologicalbackend.dto.UploadSessionResponse;
+import com.raghav.peadologicalbackend.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/lectures/uploads")
+@CrossOrigin(origins = "http://localhost:3000")
+@PreAuthorize("hasRole('TEACHER')")
+public class UploadSessionController {
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> create(@RequestBody UploadSessionCreateRequest request) {
+        return new ResponseEntity<>(uploadSessionService.create(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> get(@PathVariable String uploadId) {
+        return ResponseEntity.ok(uploadSessionService.get(uploadId));
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "audio/*"})
+    public ResponseEntity<UploadSessionResponse> putChunk(
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            @RequestParam("offset") long offset,
+            HttpServletRequest httpRequest) throws IOException {
+        return ResponseEntity.ok(uploadSessionService.writeChunk(uploadId, index, offset, httpRequest.getInputStream()));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<LectureResponse> complete(@PathVariable String uploadId) {
+        return new ResponseEntity<>(uploadSessionService.complete(uploadId), HttpStatus.ACCEPTED);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(@PathVariable String uploadId) {
+        uploadSessionService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
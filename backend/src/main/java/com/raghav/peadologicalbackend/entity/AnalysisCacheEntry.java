@@ -0,0 +1,70 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished Whisper analysis, keyed by what determines its result: the audio digest, the
+ * syllabus it was scored against and the scoring-model version of the analysis service.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "analysis_cache", uniqueConstraints = @UniqueConstraint(
+        name = "uk_analysis_cache_key", columnNames = {"audio_sha256", "syllabus_sha256", "model_version"}))
+public class AnalysisCacheEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "audio_sha256", nullable = false, length = 64)
+    private String audioSha256;
+
+    @Column(name = "syllabus_sha256", nullable = false, length = 64)
+    private String syllabusSha256;
+
+    @Column(name = "model_version", nullable = false, length = 32)
+    private String modelVersion;
+
+    @Column(columnDefinition = "TEXT")
+    private String analysis;
+
+    @Column
+    private Double pedagogicalScore;
+
+    @Column(columnDefinition = "TEXT")
+    private String scoreReasoning;
+
+    @Column
+    private Double processingTimeSeconds;
+
+    @Column
+    private Double reviewRatio;
+
+    @Column
+    private Double questionVelocity;
+
+    @Column
+    private Double waitTime;
+
+    @Column
+    private Double teacherTalkingTime;
+
+    @Column
+    private Double hinglishFluency;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    private void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lecture whose analysis ran out of attempts or failed for good. The lecture itself is FAILED;
+ * this row is what an administrator re-drives once the cause is fixed. Re-driven rows are kept,
+ * so a lecture that fails again reuses its row and its re-drive count.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "analysis_dead_letters", uniqueConstraints = @UniqueConstraint(
+        name = "uk_analysis_dead_letters_lecture", columnNames = "lecture_id"))
+public class AnalysisDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lecture_id", nullable = false)
+    private Long lectureId;
+
+    @Column(nullable = false)
+    private Long teacherProfileId;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime deadAt;
+
+    @Column(nullable = false)
+    private Integer redriveCount;
+
+    // Set while the lecture is back in the queue; cleared if it dead-letters again
+    @Column
+    private LocalDateTime redrivenAt;
+}
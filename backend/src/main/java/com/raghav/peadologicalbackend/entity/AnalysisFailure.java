@@ -0,0 +1,38 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One failed analysis attempt of a lecture. Kept after the lecture succeeds or is dead-lettered,
+ * as its attempt history.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "analysis_failures", indexes = @Index(name = "idx_analysis_failures_lecture", columnList = "lecture_id"))
+public class AnalysisFailure {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lecture_id", nullable = false)
+    private Long lectureId;
+
+    @Column(nullable = false)
+    private Integer attempt;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(nullable = false)
+    private Boolean retryable;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,10 @@
+package com.raghav.peadologicalbackend.entity;
+
+/**
+ * Scheduling lane of a lecture's analysis. Interactive uploads are served ahead of back-fills,
+ * which still get a share of capacity so they are never starved.
+ */
+public enum AnalysisLane {
+    INTERACTIVE,
+    BACKFILL
+}
@@ -0,0 +1,8 @@
+package com.raghav.peadologicalbackend.entity;
+
+public enum AnalysisStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,62 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored recording in the content-addressed audio store. {@code refCount} is the number of
+ * lectures whose {@code lectureAudioUrl} is this blob's locator. {@code path} is where the file
+ * lives while the blob is HOT; once archived, {@code packPath} names the cold pack holding a
+ * compressed copy, and that copy is kept after the blob is restored so it can be evicted again
+ * without recompressing.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "audio_blobs", indexes = @Index(name = "idx_audio_blobs_pack_path", columnList = "pack_path"))
+public class AudioBlob {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false)
+    private Long sizeBytes;
+
+    @Column(nullable = false)
+    private Integer refCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private StorageTier tier;
+
+    @Column
+    private String packPath;
+
+    // Compressed size of the entry in the pack
+    @Column
+    private Long packedSizeBytes;
+
+    @Column
+    private LocalDateTime lastAccessedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    private void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (tier == null) {
+            tier = StorageTier.HOT;
+        }
+    }
+}
@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "lectures")
+@Table(name = "lectures", indexes = {
+        @Index(name = "idx_lectures_audio_sha256", columnList = "audio_sha256"),
+        @Index(name = "idx_lectures_audio_url", columnList = "lecture_audio_url"),
+        @Index(name = "idx_lectures_teacher_profile", columnList = "teacher_profile_id")
+})
 public class Lecture {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +27,15 @@ public class Lecture {
     @Column(nullable = false)
     private String lectureAudioUrl;
 
+    @Column(length = 64)
+    private String audioSha256;
+
+    @Column
+    private Long audioSizeBytes;
+
+    @Column(columnDefinition = "TEXT")
+    private String syllabus;
+
     @Column
     private Double score;
 
@@ -50,6 +63,28 @@ public class Lecture {
     @Column
     private Double hinglishFluency;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private AnalysisStatus analysisStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private AnalysisLane analysisLane;
+
+    @Column(columnDefinition = "TEXT")
+    private String analysisError;
+
+    @Column
+    private LocalDateTime analysisUpdatedAt;
+
+    // Failed analysis attempts since the lecture was uploaded or last re-driven
+    @Column
+    private Integer analysisAttempts;
+
+    // A PENDING lecture with a failed attempt is not picked up again before this time
+    @Column
+    private LocalDateTime analysisNextAttemptAt;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "teacher_profile_id", nullable = false)
     private TeacherProfile teacherProfile;
@@ -63,6 +98,15 @@ public class Lecture {
         if (uploadedAt == null) {
             uploadedAt = LocalDateTime.now();
         }
+        if (analysisStatus == null) {
+            analysisStatus = AnalysisStatus.DONE;
+        }
+        if (analysisLane == null) {
+            analysisLane = AnalysisLane.INTERACTIVE;
+        }
+        if (analysisUpdatedAt == null) {
+            analysisUpdatedAt = uploadedAt;
+        }
     }
 
     public Long getId() { return id; }
@@ -0,0 +1,13 @@
+package com.raghav.peadologicalbackend.entity;
+
+/**
+ * The per-lecture measurements the analysis produces, which rollups and analytics aggregate.
+ */
+public enum LectureMetric {
+    SCORE,
+    REVIEW_RATIO,
+    QUESTION_VELOCITY,
+    WAIT_TIME,
+    TEACHER_TALKING_TIME,
+    HINGLISH_FLUENCY
+}
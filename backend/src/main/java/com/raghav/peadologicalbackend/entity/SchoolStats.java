@@ -0,0 +1,38 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model behind the school dashboard: running totals per school, kept up to date by deltas
+ * applied in the transactions that change lectures and teacher profiles. {@code scoredCount} counts
+ * the lectures that have a score, so the average matches {@code AVG(score)}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "school_stats")
+public class SchoolStats {
+    @Id
+    private String school;
+
+    @Column(nullable = false)
+    private Long facultyCount;
+
+    @Column(nullable = false)
+    private Long lectureCount;
+
+    @Column(nullable = false)
+    private Long scoredCount;
+
+    @Column(nullable = false)
+    private Double scoreSum;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
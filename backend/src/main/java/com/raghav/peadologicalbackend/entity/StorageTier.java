@@ -0,0 +1,10 @@
+package com.raghav.peadologicalbackend.entity;
+
+/**
+ * Where a stored recording currently lives. HOT blobs are plain files that can be read directly;
+ * COLD blobs exist only as a compressed entry in a pack file and are restored to HOT when read.
+ */
+public enum StorageTier {
+    HOT,
+    COLD
+}
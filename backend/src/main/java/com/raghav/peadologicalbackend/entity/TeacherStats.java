@@ -0,0 +1,51 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model behind a teacher's own dashboard: running totals of the teacher's lectures. Counts and
+ * sums follow every change; minimum, maximum and last activity only ever widen, so a change that may
+ * remove the current extreme sets {@code stale} and the next read recomputes the row. Every delta
+ * bumps {@code revision}, which lets that recompute skip writing when a delta got in between.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "teacher_stats")
+public class TeacherStats {
+    @Id
+    private Long teacherProfileId;
+
+    @Column(nullable = false)
+    private Long lectureCount;
+
+    @Column(nullable = false)
+    private Long scoredCount;
+
+    @Column(nullable = false)
+    private Double scoreSum;
+
+    @Column
+    private Double minScore;
+
+    @Column
+    private Double maxScore;
+
+    @Column
+    private LocalDateTime lastActiveAt;
+
+    @Column(nullable = false)
+    private Long revision;
+
+    @Column(nullable = false)
+    private Boolean stale;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.raghav.peadologicalbackend.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket width of a trend rollup. Weeks start on Monday, as PostgreSQL's {@code date_trunc('week')}.
+ */
+public enum TrendGranularity {
+    DAY(ChronoUnit.DAYS),
+    WEEK(ChronoUnit.WEEKS),
+    MONTH(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    TrendGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * @return how many buckets the inclusive range {@code from..to} touches
+     */
+    public long bucketCount(LocalDate from, LocalDate to) {
+        return unit.between(bucketStart(from), bucketStart(to)) + 1;
+    }
+}
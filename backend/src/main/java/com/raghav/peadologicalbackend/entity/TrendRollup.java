@@ -0,0 +1,56 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Count, sum and sum of squares of one metric over the lectures uploaded in one time bucket, per
+ * teacher, department and school. Mean and standard deviation of any bucket follow from the three;
+ * rows are changed by deltas only, so a lecture is added or taken out without reading the others.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "trend_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_trend_rollups_bucket",
+        columnNames = {"scope", "scope_key", "granularity", "metric", "bucket_start"}))
+public class TrendRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TrendScope scope;
+
+    @Column(nullable = false)
+    private String scopeKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private TrendGranularity granularity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private LectureMetric metric;
+
+    @Column(nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(nullable = false)
+    private Long sampleCount;
+
+    @Column(nullable = false)
+    private Double valueSum;
+
+    @Column(nullable = false)
+    private Double valueSumSquares;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.raghav.peadologicalbackend.entity;
+
+/**
+ * What a trend rollup aggregates over. Department keys are {@code school/department}, since
+ * department names repeat across schools.
+ */
+public enum TrendScope {
+    TEACHER,
+    DEPARTMENT,
+    SCHOOL
+}
@@ -0,0 +1,65 @@
+package com.raghav.peadologicalbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String ownerUsername;
+
+    @Column(nullable = false)
+    private Long teacherProfileId;
+
+    @Column
+    private Long classSlotId;
+
+    @Column(nullable = false)
+    private String lectureTitle;
+
+    @Column
+    private String originalFileName;
+
+    @Column(columnDefinition = "TEXT")
+    private String syllabus;
+
+    @Column
+    private Long totalBytes;
+
+    @Column(nullable = false)
+    private Long committedBytes;
+
+    @Column(nullable = false)
+    private String partPath;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    private void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
+        if (committedBytes == null) {
+            committedBytes = 0L;
+        }
+    }
+}
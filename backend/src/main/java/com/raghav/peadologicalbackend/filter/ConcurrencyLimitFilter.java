@@ -0,0 +1,57 @@
+package com.raghav.peadologicalbackend.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Only active in virtual-thread mode. With platform threads Tomcat's {@code max-threads} bounds how
+ * many requests run at once; with virtual threads nothing does, and thousands of requests would
+ * queue inside the Hikari pool until they hit its connection timeout. This filter restores an
+ * explicit bound: excess requests wait briefly for a permit and otherwise get a 503.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final Semaphore permits;
+    private final long waitMs;
+
+    public ConcurrencyLimitFilter(@Value("${virtual-threads.max-concurrent-requests:400}") int maxConcurrentRequests,
+                                  @Value("${virtual-threads.acquire-timeout-ms:2000}") long waitMs) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.waitMs = waitMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server is busy, please retry.");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.raghav.peadologicalbackend.filter;
 
 
 import com.raghav.peadologicalbackend.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +22,8 @@ import java.util.List;
 @Component
 @RequiredArgsConstructor
 public class JWTFilter extends OncePerRequestFilter {
+    private static final String PROGRESS_STREAM_PATH = "/api/lectures/events";
+
     private final JwtService jwtService;
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -33,30 +36,42 @@ public class JWTFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
 
             String token = authHeader.substring(7);
-            String username = jwtService.extractUserName(token);
-            String role = jwtService.extractRole(token);
+            // Stream tokens are for the progress stream URL only
+            if (!jwtService.isStreamToken(token)) {
+                String username = jwtService.extractUserName(token);
+                String role = jwtService.extractRole(token);
+                authenticate(request, username, role);
+            }
+        } else if (path.equals(PROGRESS_STREAM_PATH) && request.getParameter("streamToken") != null) {
+            // EventSource cannot send headers; the short-lived token names the stream it opens
+            Claims claims = jwtService.extractStreamClaims(request.getParameter("streamToken"));
+            if (claims != null && String.valueOf(claims.get("teacherProfileId")).equals(request.getParameter("teacherProfileId"))) {
+                authenticate(request, claims.getSubject(), claims.get("role", String.class));
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
 
-            if (username != null &&
-                    SecurityContextHolder.getContext().getAuthentication() == null) {
+    private void authenticate(HttpServletRequest request, String username, String role) {
+        if (username != null &&
+                SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                List<GrantedAuthority> authorities =
-                        List.of(new SimpleGrantedAuthority("ROLE_" + role));
+            List<GrantedAuthority> authorities =
+                    List.of(new SimpleGrantedAuthority("ROLE_" + role));
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                username, null, authorities
-                        );
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(
+                            username, null, authorities
+                    );
 
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource()
-                                .buildDetails(request)
-                );
+            authentication.setDetails(
+                    new WebAuthenticationDetailsSource()
+                            .buildDetails(request)
+            );
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authentication);
         }
-
-        filterChain.doFilter(request, response);
     }
 }
 
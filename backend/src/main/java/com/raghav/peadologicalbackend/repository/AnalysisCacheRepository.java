@@ -0,0 +1,10 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.AnalysisCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface AnalysisCacheRepository extends JpaRepository<AnalysisCacheEntry, Long> {
+    Optional<AnalysisCacheEntry> findByAudioSha256AndSyllabusSha256AndModelVersion(String audioSha256, String syllabusSha256, String modelVersion);
+}
@@ -0,0 +1,23 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.AnalysisDeadLetter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AnalysisDeadLetterRepository extends JpaRepository<AnalysisDeadLetter, Long> {
+    Optional<AnalysisDeadLetter> findByLectureId(Long lectureId);
+
+    List<AnalysisDeadLetter> findByRedrivenAtIsNullOrderByDeadAtDesc(Pageable pageable);
+
+    List<AnalysisDeadLetter> findByRedrivenAtIsNullOrderByDeadAt(Pageable pageable);
+
+    List<AnalysisDeadLetter> findByLectureIdInAndRedrivenAtIsNull(Collection<Long> lectureIds);
+
+    @Modifying
+    void deleteByLectureId(Long lectureId);
+}
@@ -0,0 +1,15 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.AnalysisFailure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AnalysisFailureRepository extends JpaRepository<AnalysisFailure, Long> {
+    List<AnalysisFailure> findByLectureIdInOrderByFailedAt(Collection<Long> lectureIds);
+
+    @Modifying
+    void deleteByLectureId(Long lectureId);
+}
@@ -0,0 +1,61 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.AudioBlob;
+import com.raghav.peadologicalbackend.entity.StorageTier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface AudioBlobRepository extends JpaRepository<AudioBlob, String> {
+    @Transactional
+    @Modifying
+    @Query("UPDATE AudioBlob b SET b.refCount = b.refCount + 1 WHERE b.sha256 = :sha256")
+    int incrementRefCount(String sha256);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AudioBlob b SET b.refCount = b.refCount - 1 WHERE b.sha256 = :sha256 AND b.refCount > 0")
+    int decrementRefCount(String sha256);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AudioBlob b WHERE b.sha256 = :sha256 AND b.refCount <= 0")
+    int deleteIfUnreferenced(String sha256);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AudioBlob b SET b.lastAccessedAt = :now WHERE b.sha256 = :sha256")
+    int touch(String sha256, LocalDateTime now);
+
+    // Blobs stored before tiering existed have no tier yet; they are all on the hot disk
+    @Transactional
+    @Modifying
+    @Query("UPDATE AudioBlob b SET b.tier = :tier WHERE b.tier IS NULL")
+    int assignMissingTier(StorageTier tier);
+
+    @Query("SELECT b FROM AudioBlob b WHERE b.tier = :tier AND COALESCE(b.lastAccessedAt, b.createdAt) < :before "
+            + "ORDER BY COALESCE(b.lastAccessedAt, b.createdAt)")
+    List<AudioBlob> findIdle(StorageTier tier, LocalDateTime before, Pageable pageable);
+
+    @Query("SELECT b FROM AudioBlob b WHERE b.tier = :tier ORDER BY COALESCE(b.lastAccessedAt, b.createdAt)")
+    List<AudioBlob> findLeastRecentlyUsed(StorageTier tier, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(b.sizeBytes), 0) FROM AudioBlob b WHERE b.tier = :tier")
+    long sumSizeBytes(StorageTier tier);
+
+    long countByPackPath(String packPath);
+
+    // Range over the primary key, so one shard directory costs one index scan
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.BlobShardView(b.sha256, b.path, b.tier, b.sizeBytes, b.packedSizeBytes) "
+            + "FROM AudioBlob b WHERE b.sha256 >= :from AND b.sha256 < :to ORDER BY b.sha256")
+    List<BlobShardView> findShard(String from, String to);
+
+    @Query("SELECT DISTINCT b.packPath FROM AudioBlob b WHERE b.packPath IN :packPaths")
+    List<String> findReferencedPackPaths(Collection<String> packPaths);
+}
@@ -0,0 +1,9 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.StorageTier;
+
+/**
+ * One blob row as the storage sweeper reconciles it against the files of its shard directory.
+ */
+public record BlobShardView(String sha256, String path, StorageTier tier, Long sizeBytes, Long packedSizeBytes) {
+}
@@ -0,0 +1,7 @@
+package com.raghav.peadologicalbackend.repository;
+
+/**
+ * The lectures of one school that point at one blob, and the audio bytes they account for.
+ */
+public record BlobUsageView(String sha256, String school, Long lectures, Long audioBytes) {
+}
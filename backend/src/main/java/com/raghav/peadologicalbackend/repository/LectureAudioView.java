@@ -0,0 +1,10 @@
+package com.raghav.peadologicalbackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * What serving a lecture's audio needs: where the audio is, its digest, and whose lecture it is.
+ */
+public record LectureAudioView(Long id, String lectureAudioUrl, String audioSha256, Long audioSizeBytes,
+                               LocalDateTime uploadedAt, String ownerUsername) {
+}
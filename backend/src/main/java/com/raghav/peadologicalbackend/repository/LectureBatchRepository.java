@@ -0,0 +1,99 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+import com.raghav.peadologicalbackend.entity.Lecture;
+import com.raghav.peadologicalbackend.service.LectureChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch inserts for bulk lecture imports. Hibernate cannot batch inserts of IDENTITY-keyed
+ * entities, so thousands of back-filled lectures are written here in one round trip per batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LectureBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO lectures (lecture_title, lecture_audio_url, audio_sha256, audio_size_bytes, "
+            + "syllabus, score, uploaded_at, analysis_content, score_reasoning, review_ratio, question_velocity, wait_time, "
+            + "teacher_talking_time, hinglish_fluency, analysis_status, analysis_lane, analysis_error, analysis_updated_at, "
+            + "teacher_profile_id, class_slot_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Inserts the lectures in one JDBC batch and writes the generated ids back onto them. The
+     * lectures' teacher profile needs its id and, for the read models, its school and department.
+     */
+    @Transactional
+    public void insertAll(List<Lecture> lectures) {
+        if (lectures.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Lecture lecture = lectures.get(i);
+                        LocalDateTime uploadedAt = lecture.getUploadedAt() != null ? lecture.getUploadedAt() : now;
+                        ps.setString(1, lecture.getLectureTitle());
+                        ps.setString(2, lecture.getLectureAudioUrl());
+                        ps.setString(3, lecture.getAudioSha256());
+                        ps.setObject(4, lecture.getAudioSizeBytes(), Types.BIGINT);
+                        ps.setString(5, lecture.getSyllabus());
+                        ps.setObject(6, lecture.getScore(), Types.DOUBLE);
+                        ps.setTimestamp(7, Timestamp.valueOf(uploadedAt));
+                        ps.setString(8, lecture.getAnalysisContent());
+                        ps.setString(9, lecture.getScoreReasoning());
+                        ps.setObject(10, lecture.getReviewRatio(), Types.DOUBLE);
+                        ps.setObject(11, lecture.getQuestionVelocity(), Types.DOUBLE);
+                        ps.setObject(12, lecture.getWaitTime(), Types.DOUBLE);
+                        ps.setObject(13, lecture.getTeacherTalkingTime(), Types.DOUBLE);
+                        ps.setObject(14, lecture.getHinglishFluency(), Types.DOUBLE);
+                        ps.setString(15, lecture.getAnalysisStatus() != null ? lecture.getAnalysisStatus().name() : null);
+                        AnalysisLane lane = lecture.getAnalysisLane() != null ? lecture.getAnalysisLane() : AnalysisLane.INTERACTIVE;
+                        ps.setString(16, lane.name());
+                        ps.setString(17, lecture.getAnalysisError());
+                        ps.setTimestamp(18, Timestamp.valueOf(now));
+                        ps.setLong(19, lecture.getTeacherProfile().getId());
+                        ps.setObject(20, lecture.getClassSlot() != null ? lecture.getClassSlot().getId() : null, Types.BIGINT);
+                        lecture.setUploadedAt(uploadedAt);
+                        lecture.setAnalysisLane(lane);
+                        lecture.setAnalysisUpdatedAt(now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return lectures.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < lectures.size() && i < keys.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            lectures.get(i).setId(((Number) id).longValue());
+        }
+        // Read models see these rows like any other insert, inside this transaction
+        for (Lecture lecture : lectures) {
+            eventPublisher.publishEvent(LectureChangedEvent.created(lecture));
+        }
+    }
+}
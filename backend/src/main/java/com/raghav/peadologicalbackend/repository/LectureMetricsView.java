@@ -0,0 +1,15 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.analytics.LectureMetricRow;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lecture's metrics with its teacher's school and department, without the text columns; what
+ * loading the lecture analytics store needs.
+ */
+public record LectureMetricsView(Long id, Long teacherProfileId, String school, String department,
+                                 LocalDateTime uploadedAt, Double score, Double reviewRatio,
+                                 Double questionVelocity, Double waitTime, Double teacherTalkingTime,
+                                 Double hinglishFluency) implements LectureMetricRow {
+}
@@ -1,10 +1,18 @@
 package com.raghav.peadologicalbackend.repository;
 
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
 import com.raghav.peadologicalbackend.entity.Lecture;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface LectureRepository extends JpaRepository<Lecture, Long> {
     List<Lecture> findByTeacherProfileId(Long teacherProfileId);
@@ -14,9 +22,72 @@ public interface LectureRepository extends JpaRepository<Lecture, Long> {
     List<Lecture> findByClassSlotId(Long classSlotId);
     List<Lecture> findByTeacherProfileIdAndClassSlotId(Long teacherProfileId, Long classSlotId);
 
-    @Query("SELECT l.teacherProfile.school, COUNT(l), AVG(l.score) FROM Lecture l GROUP BY l.teacherProfile.school")
-    List<Object[]> findLectureStatsBySchool();
+    // Full aggregate for rebuilding the school_stats read model: [school, lectures, scored lectures, score sum]
+    @Query("SELECT t.school, COUNT(l), COUNT(l.score), COALESCE(SUM(l.score), 0) FROM Lecture l JOIN l.teacherProfile t "
+            + "WHERE t.school IS NOT NULL GROUP BY t.school")
+    List<Object[]> sumLectureStatsBySchool();
+
+    // Full aggregate for loading the faculty leaderboards: [teacher profile id, lectures, scored lectures, score sum]
+    @Query("SELECT l.teacherProfile.id, COUNT(l), COUNT(l.score), COALESCE(SUM(l.score), 0) FROM Lecture l "
+            + "GROUP BY l.teacherProfile.id")
+    List<Object[]> sumLectureStatsByTeacher();
 
-    @Query("SELECT l.teacherProfile.id, COUNT(l), AVG(l.score), MAX(l.uploadedAt) FROM Lecture l WHERE l.teacherProfile.school = :school GROUP BY l.teacherProfile.id")
+    @Query("SELECT l.teacherProfile.id, COUNT(l), AVG(l.score), MAX(l.uploadedAt), MIN(l.score), MAX(l.score) FROM Lecture l WHERE l.teacherProfile.school = :school GROUP BY l.teacherProfile.id")
     List<Object[]> findTeacherStatsBySchool(String school);
+
+    // Fallback for the teacher_stats read model: one aggregate row, no lecture is loaded
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.TeacherLectureAggregate(COUNT(l), COUNT(l.score), "
+            + "COALESCE(SUM(l.score), 0.0), MIN(l.score), MAX(l.score), MAX(l.uploadedAt)) FROM Lecture l "
+            + "WHERE l.teacherProfile.id = :teacherProfileId")
+    TeacherLectureAggregate aggregateByTeacherProfileId(Long teacherProfileId);
+
+    // Analysis pipeline: status transitions are compare-and-set so two workers never run the same lecture
+    @Modifying
+    @Query("UPDATE Lecture l SET l.analysisStatus = :to, l.analysisUpdatedAt = :now WHERE l.id = :id AND l.analysisStatus = :from")
+    int transitionAnalysisStatus(Long id, AnalysisStatus from, AnalysisStatus to, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Lecture l SET l.analysisStatus = :to, l.analysisUpdatedAt = :now WHERE l.analysisStatus = :from")
+    int transitionAllAnalysisStatus(AnalysisStatus from, AnalysisStatus to, LocalDateTime now);
+
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.PendingAnalysisView(l.id, t.id, t.school, l.analysisLane, l.audioSizeBytes) "
+            + "FROM Lecture l JOIN l.teacherProfile t WHERE l.analysisStatus = :status "
+            + "AND (l.analysisNextAttemptAt IS NULL OR l.analysisNextAttemptAt <= :now) ORDER BY l.uploadedAt")
+    List<PendingAnalysisView> findDueViewsByAnalysisStatus(AnalysisStatus status, LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.LectureAudioView(l.id, l.lectureAudioUrl, l.audioSha256, "
+            + "l.audioSizeBytes, l.uploadedAt, u.username) FROM Lecture l JOIN l.teacherProfile t JOIN t.user u WHERE l.id = :id")
+    Optional<LectureAudioView> findAudioViewById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Lecture l SET l.lectureAudioUrl = CONCAT('blob:', l.audioSha256) WHERE l.audioSha256 IS NOT NULL "
+            + "AND l.lectureAudioUrl NOT LIKE 'blob:%' AND EXISTS (SELECT b FROM AudioBlob b WHERE b.sha256 = l.audioSha256)")
+    int useBlobLocators();
+
+    @Modifying
+    @Query("UPDATE Lecture l SET l.analysisStatus = :to, l.analysisAttempts = 0, l.analysisNextAttemptAt = NULL, "
+            + "l.analysisError = NULL, l.analysisUpdatedAt = :now WHERE l.id IN :ids AND l.analysisStatus = :from")
+    int resetAnalysis(Collection<Long> ids, AnalysisStatus from, AnalysisStatus to, LocalDateTime now);
+
+    // Same key range as AudioBlobRepository.findShard, served by the audio_sha256 index
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.BlobUsageView(l.audioSha256, t.school, COUNT(l), "
+            + "COALESCE(SUM(l.audioSizeBytes), 0)) FROM Lecture l JOIN l.teacherProfile t "
+            + "WHERE l.audioSha256 >= :from AND l.audioSha256 < :to GROUP BY l.audioSha256, t.school")
+    List<BlobUsageView> findBlobUsage(String from, String to);
+
+    // Keyset pages for loading the lecture analytics store
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.LectureMetricsView(l.id, t.id, t.school, t.department, "
+            + "l.uploadedAt, l.score, l.reviewRatio, l.questionVelocity, l.waitTime, l.teacherTalkingTime, l.hinglishFluency) "
+            + "FROM Lecture l JOIN l.teacherProfile t WHERE l.id > :afterId ORDER BY l.id")
+    List<LectureMetricsView> findMetricsViewsAfter(Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.LectureMetricsView(l.id, t.id, t.school, t.department, "
+            + "l.uploadedAt, l.score, l.reviewRatio, l.questionVelocity, l.waitTime, l.teacherTalkingTime, l.hinglishFluency) "
+            + "FROM Lecture l JOIN l.teacherProfile t WHERE t.id = :teacherProfileId")
+    List<LectureMetricsView> findMetricsViewsByTeacherProfileId(Long teacherProfileId);
+
+    @Query("SELECT l.lectureAudioUrl FROM Lecture l WHERE l.lectureAudioUrl IN :urls")
+    List<String> findExistingAudioUrls(Collection<String> urls);
+
 }
@@ -0,0 +1,9 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+
+/**
+ * What the analysis scheduler needs to queue a PENDING lecture fairly, without loading the lecture.
+ */
+public record PendingAnalysisView(Long id, Long teacherProfileId, String school, AnalysisLane lane, Long audioSizeBytes) {
+}
@@ -0,0 +1,31 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.SchoolStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SchoolStatsRepository extends JpaRepository<SchoolStats, String> {
+    List<SchoolStats> findAllByOrderBySchool();
+
+    // One statement, so the first lecture of a new school in two concurrent transactions cannot collide
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO school_stats (school, faculty_count, lecture_count, scored_count, score_sum, updated_at) "
+            + "VALUES (:school, :faculty, :lectures, :scored, :scoreSum, :now) ON CONFLICT (school) DO UPDATE SET "
+            + "faculty_count = school_stats.faculty_count + EXCLUDED.faculty_count, "
+            + "lecture_count = school_stats.lecture_count + EXCLUDED.lecture_count, "
+            + "scored_count = school_stats.scored_count + EXCLUDED.scored_count, "
+            + "score_sum = school_stats.score_sum + EXCLUDED.score_sum, "
+            + "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int applyDelta(String school, long faculty, long lectures, long scored, double scoreSum, LocalDateTime now);
+
+    // Waits for writers holding uncommitted deltas and keeps new ones out until the rebuild commits
+    @Modifying
+    @Query(value = "LOCK TABLE school_stats IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+}
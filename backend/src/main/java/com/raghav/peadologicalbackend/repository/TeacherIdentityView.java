@@ -0,0 +1,7 @@
+package com.raghav.peadologicalbackend.repository;
+
+/**
+ * The teacher profile fields shown next to a teacher's statistics.
+ */
+public record TeacherIdentityView(Long id, String name, String department) {
+}
@@ -0,0 +1,11 @@
+package com.raghav.peadologicalbackend.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totals of one teacher's lectures, computed in the database. Minimum and maximum are {@code null}
+ * while no lecture has a score.
+ */
+public record TeacherLectureAggregate(Long lectureCount, Long scoredCount, Double scoreSum,
+                                      Double minScore, Double maxScore, LocalDateTime lastActiveAt) {
+}
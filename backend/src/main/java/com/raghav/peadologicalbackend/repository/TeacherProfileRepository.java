@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
 import java.util.List;
 
 public interface TeacherProfileRepository extends JpaRepository<TeacherProfile, Long> {
@@ -15,4 +16,16 @@ public interface TeacherProfileRepository extends JpaRepository<TeacherProfile,
     List<Object[]> countFacultyBySchool();
 
     List<TeacherProfile> findBySchool(String school);
+
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.TeacherIdentityView(t.id, u.name, t.department) "
+            + "FROM TeacherProfile t JOIN t.user u WHERE u.username = :username")
+    Optional<TeacherIdentityView> findIdentityByUsername(String username);
+
+    @Query("SELECT new com.raghav.peadologicalbackend.repository.TeacherIdentityView(t.id, u.name, t.department) "
+            + "FROM TeacherProfile t JOIN t.user u WHERE t.id IN :ids")
+    List<TeacherIdentityView> findIdentitiesByIdIn(Collection<Long> ids);
+
+    // [teacher profile id, school, department] of every profile
+    @Query("SELECT t.id, t.school, t.department FROM TeacherProfile t")
+    List<Object[]> findPlacements();
 }
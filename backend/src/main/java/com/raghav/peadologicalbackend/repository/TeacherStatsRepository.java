@@ -0,0 +1,50 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.TeacherStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface TeacherStatsRepository extends JpaRepository<TeacherStats, Long> {
+
+    // A row created here only holds this delta, not the lectures before it, so it starts out stale
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO teacher_stats (teacher_profile_id, lecture_count, scored_count, score_sum, min_score, "
+            + "max_score, last_active_at, revision, stale, updated_at) VALUES (:teacherProfileId, :lectures, :scored, "
+            + ":scoreSum, CAST(:minScore AS DOUBLE PRECISION), CAST(:maxScore AS DOUBLE PRECISION), "
+            + "CAST(:lastActiveAt AS TIMESTAMP), 1, TRUE, :now) ON CONFLICT (teacher_profile_id) DO UPDATE SET "
+            + "lecture_count = teacher_stats.lecture_count + EXCLUDED.lecture_count, "
+            + "scored_count = teacher_stats.scored_count + EXCLUDED.scored_count, "
+            + "score_sum = teacher_stats.score_sum + EXCLUDED.score_sum, "
+            + "min_score = LEAST(teacher_stats.min_score, EXCLUDED.min_score), "
+            + "max_score = GREATEST(teacher_stats.max_score, EXCLUDED.max_score), "
+            + "last_active_at = GREATEST(teacher_stats.last_active_at, EXCLUDED.last_active_at), "
+            + "revision = teacher_stats.revision + 1, "
+            + "stale = teacher_stats.stale OR :stale, "
+            + "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int applyDelta(Long teacherProfileId, long lectures, long scored, double scoreSum, Double minScore,
+                   Double maxScore, LocalDateTime lastActiveAt, boolean stale, LocalDateTime now);
+
+    // Compare-and-set on revision: an aggregate read before a concurrent delta must not overwrite it
+    @Transactional
+    @Modifying
+    @Query("UPDATE TeacherStats s SET s.lectureCount = :lectures, s.scoredCount = :scored, s.scoreSum = :scoreSum, "
+            + "s.minScore = :minScore, s.maxScore = :maxScore, s.lastActiveAt = :lastActiveAt, s.stale = false, "
+            + "s.updatedAt = :now WHERE s.teacherProfileId = :teacherProfileId AND s.revision = :revision")
+    int replaceIfUnchanged(Long teacherProfileId, long revision, long lectures, long scored, double scoreSum,
+                           Double minScore, Double maxScore, LocalDateTime lastActiveAt, LocalDateTime now);
+
+    // Loses quietly to a row a writer inserted meanwhile; that row is stale and gets recomputed next time
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO teacher_stats (teacher_profile_id, lecture_count, scored_count, score_sum, min_score, "
+            + "max_score, last_active_at, revision, stale, updated_at) VALUES (:teacherProfileId, :lectures, :scored, "
+            + ":scoreSum, CAST(:minScore AS DOUBLE PRECISION), CAST(:maxScore AS DOUBLE PRECISION), "
+            + "CAST(:lastActiveAt AS TIMESTAMP), 0, FALSE, :now) ON CONFLICT (teacher_profile_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Long teacherProfileId, long lectures, long scored, double scoreSum, Double minScore,
+                       Double maxScore, LocalDateTime lastActiveAt, LocalDateTime now);
+}
@@ -0,0 +1,57 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import com.raghav.peadologicalbackend.entity.TrendGranularity;
+import com.raghav.peadologicalbackend.entity.TrendScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC batch upserts of trend rollup deltas. An analysed lecture touches up to 54 buckets
+ * (3 scopes x 3 granularities x 6 metrics), which go to the database in one round trip.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrendRollupBatchRepository {
+    // A bucket that drops back to zero lectures restarts its sums at exactly zero, shedding float residue
+    private static final String UPSERT_SQL = "INSERT INTO trend_rollups (scope, scope_key, granularity, metric, bucket_start, "
+            + "sample_count, value_sum, value_sum_squares, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (scope, scope_key, granularity, metric, bucket_start) DO UPDATE SET "
+            + "sample_count = trend_rollups.sample_count + EXCLUDED.sample_count, "
+            + "value_sum = CASE WHEN trend_rollups.sample_count + EXCLUDED.sample_count = 0 THEN 0 "
+            + "ELSE trend_rollups.value_sum + EXCLUDED.value_sum END, "
+            + "value_sum_squares = CASE WHEN trend_rollups.sample_count + EXCLUDED.sample_count = 0 THEN 0 "
+            + "ELSE trend_rollups.value_sum_squares + EXCLUDED.value_sum_squares END, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies the deltas in the given order, which callers keep stable so concurrent writers lock
+     * bucket rows in the same order. Joins the caller's transaction.
+     */
+    public void applyDeltas(List<Delta> deltas, LocalDateTime now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            rows.add(new Object[]{delta.scope().name(), delta.scopeKey(), delta.granularity().name(), delta.metric().name(),
+                    Date.valueOf(delta.bucketStart()), delta.count(), delta.sum(), delta.sumSquares(), updatedAt});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    public record Delta(TrendScope scope, String scopeKey, TrendGranularity granularity, LectureMetric metric,
+                        LocalDate bucketStart, long count, double sum, double sumSquares) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import com.raghav.peadologicalbackend.entity.TrendGranularity;
+import com.raghav.peadologicalbackend.entity.TrendRollup;
+import com.raghav.peadologicalbackend.entity.TrendScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TrendRollupRepository extends JpaRepository<TrendRollup, Long> {
+
+    // A range scan of uk_trend_rollups_bucket; buckets whose lectures were all deleted are left out
+    @Query("SELECT r FROM TrendRollup r WHERE r.scope = :scope AND r.scopeKey = :scopeKey AND r.granularity = :granularity "
+            + "AND r.metric = :metric AND r.bucketStart BETWEEN :from AND :to AND r.sampleCount > 0 ORDER BY r.bucketStart")
+    List<TrendRollup> findSeries(TrendScope scope, String scopeKey, TrendGranularity granularity, LectureMetric metric,
+                                 LocalDate from, LocalDate to);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM trend_rollups)", nativeQuery = true)
+    boolean hasAny();
+
+    // Waits for writers holding uncommitted deltas and keeps new ones out until the rebuild commits
+    @Modifying
+    @Query(value = "LOCK TABLE trend_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    // Every lecture fans out to scope x granularity x metric in one pass over lectures
+    @Modifying
+    @Query(value = "INSERT INTO trend_rollups (scope, scope_key, granularity, metric, bucket_start, sample_count, "
+            + "value_sum, value_sum_squares, updated_at) "
+            + "SELECT s.scope, s.scope_key, g.granularity, m.metric, CAST(date_trunc(g.unit, l.uploaded_at) AS DATE), "
+            + "COUNT(*), SUM(m.value), SUM(m.value * m.value), :now "
+            + "FROM lectures l JOIN teacher_profiles t ON t.id = l.teacher_profile_id "
+            + "CROSS JOIN LATERAL (VALUES ('TEACHER', CAST(t.id AS VARCHAR)), ('DEPARTMENT', t.school || '/' || t.department), "
+            + "('SCHOOL', t.school)) AS s(scope, scope_key) "
+            + "CROSS JOIN (VALUES ('DAY', 'day'), ('WEEK', 'week'), ('MONTH', 'month')) AS g(granularity, unit) "
+            + "CROSS JOIN LATERAL (VALUES ('SCORE', l.score), ('REVIEW_RATIO', l.review_ratio), "
+            + "('QUESTION_VELOCITY', l.question_velocity), ('WAIT_TIME', l.wait_time), "
+            + "('TEACHER_TALKING_TIME', l.teacher_talking_time), ('HINGLISH_FLUENCY', l.hinglish_fluency)) AS m(metric, value) "
+            + "WHERE s.scope_key IS NOT NULL AND m.value IS NOT NULL "
+            + "GROUP BY s.scope, s.scope_key, g.granularity, m.metric, CAST(date_trunc(g.unit, l.uploaded_at) AS DATE)",
+            nativeQuery = true)
+    int rebuildFromLectures(LocalDateTime now);
+}
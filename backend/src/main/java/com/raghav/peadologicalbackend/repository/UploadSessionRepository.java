@@ -0,0 +1,16 @@
+package com.raghav.peadologicalbackend.repository;
+
+import com.raghav.peadologicalbackend.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime cutoff);
+
+    @Query("SELECT s.partPath FROM UploadSession s WHERE s.partPath IN :partPaths")
+    List<String> findExistingPartPaths(Collection<String> partPaths);
+}
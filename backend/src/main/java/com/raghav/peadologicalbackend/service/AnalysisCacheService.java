@@ -0,0 +1,225 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.AnalysisCacheStatsResponse;
+import com.raghav.peadologicalbackend.dto.WhisperResponse;
+import com.raghav.peadologicalbackend.entity.AnalysisCacheEntry;
+import com.raghav.peadologicalbackend.repository.AnalysisCacheRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache in front of the analysis service. Results are keyed by (audio digest, syllabus digest,
+ * scoring-model version) and kept in a bounded in-memory LRU tier backed by the
+ * {@code analysis_cache} table, so re-uploads, re-analysis and crash recovery never pay for
+ * transcription and LLM scoring twice. Concurrent misses for the same key share one call.
+ */
+@Service
+public class AnalysisCacheService {
+
+    private record CacheKey(String audioSha256, String syllabusSha256, String modelVersion) {
+    }
+
+    private final AnalysisCacheRepository analysisCacheRepository;
+    private final SegmentedAnalysisService segmentedAnalysisService;
+    private final String modelVersion;
+    private final int memoryCapacity;
+
+    private final ReentrantLock memoryLock = new ReentrantLock();
+    private final LinkedHashMap<CacheKey, WhisperResponse.AnalysisData> memory;
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<WhisperResponse.AnalysisData>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AnalysisCacheService(AnalysisCacheRepository analysisCacheRepository,
+                                SegmentedAnalysisService segmentedAnalysisService,
+                                @Value("${analysis.cache.model-version:v1}") String modelVersion,
+                                @Value("${analysis.cache.memory-entries:500}") int memoryCapacity) {
+        this.analysisCacheRepository = analysisCacheRepository;
+        this.segmentedAnalysisService = segmentedAnalysisService;
+        this.modelVersion = modelVersion;
+        this.memoryCapacity = memoryCapacity;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, WhisperResponse.AnalysisData> eldest) {
+                return size() > AnalysisCacheService.this.memoryCapacity;
+            }
+        };
+    }
+
+    /**
+     * @return the cached analysis, or {@code null} without calling the analysis service
+     */
+    public WhisperResponse.AnalysisData lookup(String audioSha256, String syllabus) {
+        if (audioSha256 == null) {
+            return null;
+        }
+        return lookup(keyOf(audioSha256, syllabus));
+    }
+
+    /**
+     * Returns the cached analysis or runs it through the analysis service and caches the result.
+     * The call is queued under {@code ticket} and reports segment progress to it; a caller that
+     * joins another thread's call for the same key gets no progress.
+     */
+    public WhisperResponse.AnalysisData analyze(File audio, String audioSha256, String syllabus, AnalysisTicket ticket) {
+        if (audioSha256 == null) {
+            misses.incrementAndGet();
+            return callService(audio, syllabus, ticket);
+        }
+        CacheKey key = keyOf(audioSha256, syllabus);
+        WhisperResponse.AnalysisData cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<WhisperResponse.AnalysisData> call = new CompletableFuture<>();
+        CompletableFuture<WhisperResponse.AnalysisData> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+        try {
+            misses.incrementAndGet();
+            WhisperResponse.AnalysisData data = callService(audio, syllabus, ticket);
+            if (data != null) {
+                store(key, data);
+            }
+            call.complete(data);
+            return data;
+        } catch (RuntimeException ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public AnalysisCacheStatsResponse stats() {
+        int entries;
+        memoryLock.lock();
+        try {
+            entries = memory.size();
+        } finally {
+            memoryLock.unlock();
+        }
+        return new AnalysisCacheStatsResponse(
+                modelVersion,
+                memoryHits.get(),
+                databaseHits.get(),
+                misses.get(),
+                entries,
+                memoryCapacity
+        );
+    }
+
+    private WhisperResponse.AnalysisData lookup(CacheKey key) {
+        memoryLock.lock();
+        try {
+            WhisperResponse.AnalysisData data = memory.get(key);
+            if (data != null) {
+                memoryHits.incrementAndGet();
+                return data;
+            }
+        } finally {
+            memoryLock.unlock();
+        }
+
+        AnalysisCacheEntry entry = analysisCacheRepository
+                .findByAudioSha256AndSyllabusSha256AndModelVersion(key.audioSha256(), key.syllabusSha256(), key.modelVersion())
+                .orElse(null);
+        if (entry == null) {
+            return null;
+        }
+        databaseHits.incrementAndGet();
+        WhisperResponse.AnalysisData data = toData(entry);
+        putInMemory(key, data);
+        return data;
+    }
+
+    private WhisperResponse.AnalysisData callService(File audio, String syllabus, AnalysisTicket ticket) {
+        return segmentedAnalysisService.analyze(audio, syllabus, ticket);
+    }
+
+    private void store(CacheKey key, WhisperResponse.AnalysisData data) {
+        putInMemory(key, data);
+        AnalysisCacheEntry entry = toEntry(key, data);
+        try {
+            analysisCacheRepository.save(entry);
+        } catch (DataIntegrityViolationException ex) {
+            // stored concurrently by another instance; both results are equivalent
+        }
+    }
+
+    private void putInMemory(CacheKey key, WhisperResponse.AnalysisData data) {
+        memoryLock.lock();
+        try {
+            memory.put(key, data);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    private CacheKey keyOf(String audioSha256, String syllabus) {
+        String normalized = syllabus != null ? syllabus.trim() : "";
+        return new CacheKey(audioSha256, sha256(normalized), modelVersion);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static AnalysisCacheEntry toEntry(CacheKey key, WhisperResponse.AnalysisData data) {
+        AnalysisCacheEntry entry = new AnalysisCacheEntry();
+        entry.setAudioSha256(key.audioSha256());
+        entry.setSyllabusSha256(key.syllabusSha256());
+        entry.setModelVersion(key.modelVersion());
+        entry.setAnalysis(data.getAnalysis());
+        entry.setPedagogicalScore(data.getPedagogicalScore());
+        entry.setScoreReasoning(data.getScoreReasoning());
+        entry.setProcessingTimeSeconds(data.getProcessingTimeSeconds());
+        entry.setReviewRatio(data.getReviewRatio());
+        entry.setQuestionVelocity(data.getQuestionVelocity());
+        entry.setWaitTime(data.getWaitTime());
+        entry.setTeacherTalkingTime(data.getTeacherTalkingTime());
+        entry.setHinglishFluency(data.getHinglishFluency());
+        return entry;
+    }
+
+    private static WhisperResponse.AnalysisData toData(AnalysisCacheEntry entry) {
+        WhisperResponse.AnalysisData data = new WhisperResponse.AnalysisData();
+        data.setAnalysis(entry.getAnalysis());
+        data.setPedagogicalScore(entry.getPedagogicalScore());
+        data.setScoreReasoning(entry.getScoreReasoning());
+        data.setProcessingTimeSeconds(entry.getProcessingTimeSeconds());
+        data.setReviewRatio(entry.getReviewRatio());
+        data.setQuestionVelocity(entry.getQuestionVelocity());
+        data.setWaitTime(entry.getWaitTime());
+        data.setTeacherTalkingTime(entry.getTeacherTalkingTime());
+        data.setHinglishFluency(entry.getHinglishFluency());
+        return data;
+    }
+}
@@ -0,0 +1,105 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.AnalysisAttemptResponse;
+import com.raghav.peadologicalbackend.dto.AnalysisDeadLetterResponse;
+import com.raghav.peadologicalbackend.dto.DeadLetterRedriveRequest;
+import com.raghav.peadologicalbackend.dto.DeadLetterRedriveResponse;
+import com.raghav.peadologicalbackend.entity.AnalysisDeadLetter;
+import com.raghav.peadologicalbackend.entity.AnalysisFailure;
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
+import com.raghav.peadologicalbackend.repository.AnalysisDeadLetterRepository;
+import com.raghav.peadologicalbackend.repository.AnalysisFailureRepository;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lectures whose analysis failed for good, and re-driving them once the cause is fixed.
+ */
+@Service
+public class AnalysisDeadLetterService {
+    private static final Logger log = LoggerFactory.getLogger(AnalysisDeadLetterService.class);
+
+    private final AnalysisDeadLetterRepository analysisDeadLetterRepository;
+    private final AnalysisFailureRepository analysisFailureRepository;
+    private final LectureRepository lectureRepository;
+    private final LectureAnalysisWorker lectureAnalysisWorker;
+    private final int maxRedrive;
+
+    public AnalysisDeadLetterService(AnalysisDeadLetterRepository analysisDeadLetterRepository,
+                                     AnalysisFailureRepository analysisFailureRepository,
+                                     LectureRepository lectureRepository,
+                                     LectureAnalysisWorker lectureAnalysisWorker,
+                                     @Value("${analysis.retry.max-redrive:1000}") int maxRedrive) {
+        this.analysisDeadLetterRepository = analysisDeadLetterRepository;
+        this.analysisFailureRepository = analysisFailureRepository;
+        this.lectureRepository = lectureRepository;
+        this.lectureAnalysisWorker = lectureAnalysisWorker;
+        this.maxRedrive = maxRedrive;
+    }
+
+    @Transactional(readOnly = true)
+    public List<AnalysisDeadLetterResponse> list(int limit) {
+        List<AnalysisDeadLetter> deadLetters = analysisDeadLetterRepository.findByRedrivenAtIsNullOrderByDeadAtDesc(
+                PageRequest.of(0, Math.max(1, Math.min(limit, maxRedrive))));
+        Map<Long, List<AnalysisAttemptResponse>> history = analysisFailureRepository
+                .findByLectureIdInOrderByFailedAt(deadLetters.stream().map(AnalysisDeadLetter::getLectureId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(AnalysisFailure::getLectureId, Collectors.mapping(
+                        failure -> new AnalysisAttemptResponse(failure.getAttempt(), failure.getError(),
+                                failure.getRetryable(), failure.getFailedAt()),
+                        Collectors.toList())));
+        return deadLetters.stream()
+                .map(deadLetter -> new AnalysisDeadLetterResponse(
+                        deadLetter.getLectureId(),
+                        deadLetter.getTeacherProfileId(),
+                        deadLetter.getAttempts(),
+                        deadLetter.getLastError(),
+                        deadLetter.getDeadAt(),
+                        deadLetter.getRedriveCount(),
+                        history.getOrDefault(deadLetter.getLectureId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Puts dead-lettered lectures back to PENDING with a fresh set of attempts. They are queued
+     * once the transaction commits; the stored audio is reused, so nothing is uploaded again.
+     */
+    @Transactional
+    public DeadLetterRedriveResponse redrive(DeadLetterRedriveRequest request) {
+        PageRequest page = PageRequest.of(0, maxRedrive);
+        List<AnalysisDeadLetter> deadLetters = request == null || request.getLectureIds() == null || request.getLectureIds().isEmpty()
+                ? analysisDeadLetterRepository.findByRedrivenAtIsNullOrderByDeadAt(page)
+                : analysisDeadLetterRepository.findByLectureIdInAndRedrivenAtIsNull(request.getLectureIds().stream().limit(maxRedrive).toList());
+        if (deadLetters.isEmpty()) {
+            return new DeadLetterRedriveResponse(0, 0);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> lectureIds = deadLetters.stream().map(AnalysisDeadLetter::getLectureId).toList();
+        int redriven = lectureRepository.resetAnalysis(lectureIds, AnalysisStatus.FAILED, AnalysisStatus.PENDING, now);
+        for (AnalysisDeadLetter deadLetter : deadLetters) {
+            deadLetter.setRedriveCount(deadLetter.getRedriveCount() + 1);
+            deadLetter.setRedrivenAt(now);
+        }
+        log.info("Re-drove {} of {} dead-lettered analyses", redriven, deadLetters.size());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lectureAnalysisWorker.requeuePending();
+            }
+        });
+        return new DeadLetterRedriveResponse(deadLetters.size(), redriven);
+    }
+}
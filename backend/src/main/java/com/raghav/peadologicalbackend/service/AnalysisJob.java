@@ -0,0 +1,9 @@
+package com.raghav.peadologicalbackend.service;
+
+/**
+ * A lecture claimed by an analysis worker: its audio locator (see {@link AudioLocator}), the audio
+ * digest (if known), the syllabus it is scored against, and the teacher whose progress stream it is
+ * reported on.
+ */
+public record AnalysisJob(Long lectureId, Long teacherProfileId, String audioLocator, String audioSha256, String syllabus) {
+}
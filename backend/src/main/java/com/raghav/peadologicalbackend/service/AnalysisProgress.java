@@ -0,0 +1,16 @@
+package com.raghav.peadologicalbackend.service;
+
+/**
+ * Callback for progress inside a single analysis call.
+ */
+@FunctionalInterface
+public interface AnalysisProgress {
+
+    AnalysisProgress NONE = (done, total) -> {
+    };
+
+    /**
+     * Called when a recording has been split into {@code total} segments and again as each one finishes.
+     */
+    void segmentsCompleted(int done, int total);
+}
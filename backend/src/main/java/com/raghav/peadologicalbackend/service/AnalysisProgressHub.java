@@ -0,0 +1,186 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.LectureProgressEvent;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process fan-out of {@link LectureProgressEvent}s to Server-Sent Events subscribers, keyed by
+ * teacher profile. Subscribers are async servlet responses, so an idle stream holds a socket and a
+ * small emitter object but no thread. Events raised inside a transaction go out only after it
+ * commits, and sending happens on {@code progressExecutor} so a slow client never stalls an
+ * analysis worker. Each teacher's sends queue in an {@link Outbox} drained by one task at a time,
+ * so subscribers see that teacher's events in the order they were raised.
+ */
+@Component
+public class AnalysisProgressHub {
+    private static final Logger log = LoggerFactory.getLogger(AnalysisProgressHub.class);
+
+    private final ThreadPoolTaskExecutor progressExecutor;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+    private final int maxPendingPerTeacher;
+
+    private final Map<Long, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public AnalysisProgressHub(@Qualifier("progressExecutor") ThreadPoolTaskExecutor progressExecutor,
+                               @Value("${progress.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                               @Value("${progress.max-subscribers:10000}") int maxSubscribers,
+                               @Value("${progress.max-pending-per-teacher:256}") int maxPendingPerTeacher) {
+        this.progressExecutor = progressExecutor;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPendingPerTeacher = Math.max(1, maxPendingPerTeacher);
+    }
+
+    public SseEmitter subscribe(Long teacherProfileId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many progress subscribers, try again later.");
+        }
+        // Clients reconnect when the timeout ends the stream; EventSource does so on its own
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        // Add and remove go through compute so an emptied outbox is never dropped while being added to
+        outboxes.compute(teacherProfileId, (id, outbox) -> {
+            Outbox target = outbox != null ? outbox : new Outbox(id);
+            target.emitters.add(emitter);
+            return target;
+        });
+        Runnable remove = () -> remove(teacherProfileId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(ex -> remove.run());
+        try {
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException ex) {
+            remove.run();
+            emitter.completeWithError(ex);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgress(LectureProgressEvent event) {
+        Outbox outbox = event.getTeacherProfileId() != null ? outboxes.get(event.getTeacherProfileId()) : null;
+        if (outbox == null) {
+            return;
+        }
+        boolean queued = outbox.post(() -> SseEmitter.event()
+                .name(event.getStage().name().toLowerCase())
+                .data(event, MediaType.APPLICATION_JSON));
+        if (!queued) {
+            log.warn("Progress outbox of teacher {} is full, dropped {} event for lecture {}",
+                    event.getTeacherProfileId(), event.getStage(), event.getLectureId());
+        }
+    }
+
+    /**
+     * Proxies and load balancers close connections that stay silent; a comment line every so often
+     * keeps them open and finds clients that went away without closing.
+     */
+    @Scheduled(fixedDelayString = "${progress.heartbeat-ms:25000}", initialDelayString = "${progress.heartbeat-ms:25000}")
+    public void heartbeat() {
+        // Sends block on slow sockets, so pings queue behind the teacher's events, never on the scheduler thread
+        outboxes.values().forEach(outbox -> outbox.post(() -> SseEmitter.event().comment("ping")));
+    }
+
+    private void send(Long teacherProfileId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            remove(teacherProfileId, emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private void remove(Long teacherProfileId, SseEmitter emitter) {
+        outboxes.computeIfPresent(teacherProfileId, (id, outbox) -> {
+            if (outbox.emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return outbox.emitters.isEmpty() ? null : outbox;
+        });
+    }
+
+    /**
+     * One teacher's subscribers and the sends waiting for them. {@code draining} admits a single
+     * {@code progressExecutor} task at a time, so the pool's queue holds at most one task per teacher.
+     */
+    private final class Outbox {
+        private final Long teacherProfileId;
+        private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+        // Builders are built per send, so one event can go to every emitter
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Outbox(Long teacherProfileId) {
+            this.teacherProfileId = teacherProfileId;
+        }
+
+        /**
+         * @return {@code false} if the outbox is full and the send was dropped
+         */
+        private boolean post(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (pendingCount.incrementAndGet() > maxPendingPerTeacher) {
+                pendingCount.decrementAndGet();
+                return false;
+            }
+            pending.add(event);
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                progressExecutor.execute(this::drain);
+            } catch (TaskRejectedException ex) {
+                // The sends stay queued; the next event or heartbeat for this teacher tries again
+                draining.set(false);
+                log.debug("Progress executor is saturated, deferred sends to teacher {}", teacherProfileId);
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while ((event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    for (SseEmitter emitter : emitters) {
+                        send(teacherProfileId, emitter, event.get());
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // A post that found the flag still set has left its send for this task; pick it up
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
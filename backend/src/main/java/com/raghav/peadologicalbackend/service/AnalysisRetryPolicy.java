@@ -0,0 +1,67 @@
+package com.raghav.peadologicalbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When a failed analysis is tried again: exponential backoff with jitter, up to a fixed number of
+ * attempts. Jitter keeps lectures that failed together in one outage from all retrying in the same
+ * second when the service comes back.
+ */
+@Component
+public class AnalysisRetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+
+    public AnalysisRetryPolicy(@Value("${analysis.retry.max-attempts:5}") int maxAttempts,
+                               @Value("${analysis.retry.initial-delay-ms:30000}") long initialDelayMs,
+                               @Value("${analysis.retry.max-delay-ms:3600000}") long maxDelayMs,
+                               @Value("${analysis.retry.multiplier:2.0}") double multiplier) {
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * @param attempts  failed attempts so far, including the one that just failed
+     * @param retryable whether the failure was {@linkplain #isRetryable retryable}
+     * @return {@code true} if another attempt should be made
+     */
+    public boolean shouldRetry(int attempts, boolean retryable) {
+        return retryable && attempts < maxAttempts;
+    }
+
+    /**
+     * Delay before the next attempt, drawn uniformly from the upper half of the backoff window so
+     * it never collapses to zero.
+     */
+    public Duration nextDelay(int attempts) {
+        double backoff = initialDelayMs * Math.pow(multiplier, Math.max(0, attempts - 1));
+        long ceiling = (long) Math.min(maxDelayMs, backoff);
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        return Duration.ofMillis(delay);
+    }
+
+    /**
+     * Rejections of the request itself (bad or unsupported audio) fail the same way every time;
+     * timeouts, throttling, 5xx and connection errors are worth another try.
+     */
+    public boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+            return response.getStatusCode().is5xxServerError()
+                    || status == HttpStatus.REQUEST_TIMEOUT
+                    || status == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return true;
+    }
+}
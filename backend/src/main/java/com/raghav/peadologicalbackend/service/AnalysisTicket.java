@@ -0,0 +1,21 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+
+/**
+ * Who an analysis is done for, as far as {@link FairScheduler} is concerned, plus the callback for
+ * progress inside the call.
+ *
+ * @param schoolKey  the teacher's school; teachers without one share the empty key
+ * @param teacherKey identifies the teacher within the school
+ */
+public record AnalysisTicket(AnalysisLane lane, String schoolKey, String teacherKey, AnalysisProgress progress) {
+
+    public static AnalysisTicket of(AnalysisLane lane, String school, Long teacherProfileId, AnalysisProgress progress) {
+        return new AnalysisTicket(
+                lane != null ? lane : AnalysisLane.INTERACTIVE,
+                school != null ? school.trim().toLowerCase() : "",
+                String.valueOf(teacherProfileId),
+                progress != null ? progress : AnalysisProgress.NONE);
+    }
+}
@@ -0,0 +1,206 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.entity.AudioBlob;
+import com.raghav.peadologicalbackend.entity.StorageTier;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.repository.AudioBlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reference counting and tiering for the content-addressed audio store. Each step is its own short
+ * transaction; acquire, release, restore and eviction of the same digest are serialised by a
+ * striped lock so a blob is never deleted or moved while a duplicate upload is attaching to it or
+ * a reader is opening it.
+ */
+@Service
+@RequiredArgsConstructor
+public class AudioBlobService {
+    private static final int LOCK_STRIPES = 64;
+
+    private final AudioBlobRepository audioBlobRepository;
+    private final FileStorageService fileStorageService;
+    private final AudioPackStore audioPackStore;
+
+    private final ReentrantLock[] locks = newLocks();
+    // Open handles per blob; a pinned blob is never evicted from the hot tier
+    private final ConcurrentHashMap<String, Integer> pins = new ConcurrentHashMap<>();
+    // Epoch millis until which a closed handle still pins its blob, see AudioHandle#lingerAfterClose
+    private final ConcurrentHashMap<String, Long> lingering = new ConcurrentHashMap<>();
+
+    /**
+     * Takes a reference on the blob for a staged upload. The first copy of some audio is moved
+     * into the store; later copies are discarded and resolve to the existing blob.
+     *
+     * @return the upload with its path replaced by the blob path
+     */
+    public StoredAudio acquire(StoredAudio staged) {
+        ReentrantLock lock = lockFor(staged.sha256());
+        lock.lock();
+        try {
+            AudioBlob existing = audioBlobRepository.findById(staged.sha256()).orElse(null);
+            if (existing != null && audioBlobRepository.incrementRefCount(staged.sha256()) > 0) {
+                // The path may be in the cold tier; readers go through open(), which restores it
+                fileStorageService.delete(staged.path());
+                if (staged.peaks() != null && !Files.exists(fileStorageService.peaksPath(staged.sha256()))) {
+                    fileStorageService.writePeaks(staged.sha256(), staged.peaks()); // stored before peaks existed
+                }
+                return new StoredAudio(existing.getPath(), staged.sha256(), existing.getSizeBytes());
+            }
+
+            String path = fileStorageService.promoteToBlob(staged);
+            AudioBlob blob = new AudioBlob();
+            blob.setSha256(staged.sha256());
+            blob.setPath(path);
+            blob.setSizeBytes(staged.sizeBytes());
+            blob.setRefCount(1);
+            audioBlobRepository.save(blob);
+            return new StoredAudio(path, staged.sha256(), staged.sizeBytes());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops one reference; the blob row and file go away with the last one. Runs in its own
+     * transaction because it is called after the lecture delete has committed. The file is removed
+     * before this transaction commits, so a concurrent {@link #acquire} that blocks on the row only
+     * re-creates the blob once the old file is gone.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String sha256) {
+        if (sha256 == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            AudioBlob blob = audioBlobRepository.findById(sha256).orElse(null);
+            if (blob == null) {
+                return;
+            }
+            audioBlobRepository.decrementRefCount(sha256);
+            if (audioBlobRepository.deleteIfUnreferenced(sha256) > 0) {
+                fileStorageService.delete(blob.getPath());
+                fileStorageService.delete(fileStorageService.peaksPath(sha256).toString());
+                if (blob.getPackPath() != null && audioBlobRepository.countByPackPath(blob.getPackPath()) == 0) {
+                    audioPackStore.delete(blob.getPackPath());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens the audio behind a lecture's {@code lectureAudioUrl}. A cold blob is first restored to
+     * the hot tier, and every open counts as an access for the LRU eviction order. Values that are
+     * not locators are treated as plain file paths.
+     */
+    public AudioHandle open(String locator) {
+        String sha256 = AudioLocator.sha256(locator);
+        if (sha256 == null) {
+            return new AudioHandle(Paths.get(locator), linger -> {
+            });
+        }
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            AudioBlob blob = audioBlobRepository.findById(sha256)
+                    .orElseThrow(() -> new NotFoundException("Audio " + sha256 + " is not in the store."));
+            if (blob.getTier() == StorageTier.COLD) {
+                restore(blob);
+            }
+            audioBlobRepository.touch(sha256, LocalDateTime.now());
+            pins.merge(sha256, 1, Integer::sum);
+            return new AudioHandle(Paths.get(blob.getPath()), linger -> unpin(sha256, linger));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a blob out of the hot tier once a compressed copy of it is in a pack. A blob that is
+     * open right now keeps its hot file and only records the pack, so the next eviction is free.
+     *
+     * @param packPath pack holding the blob, or {@code null} if the blob already has one
+     * @return {@code true} if the hot file was removed
+     */
+    public boolean evict(String sha256, String packPath, Long packedSizeBytes) {
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            AudioBlob blob = audioBlobRepository.findById(sha256).orElse(null);
+            if (blob == null || blob.getTier() != StorageTier.HOT) {
+                return false;
+            }
+            if (packPath != null) {
+                blob.setPackPath(packPath);
+                blob.setPackedSizeBytes(packedSizeBytes);
+            }
+            if (blob.getPackPath() == null) {
+                return false;
+            }
+            boolean pinned = isPinned(sha256);
+            if (!pinned) {
+                blob.setTier(StorageTier.COLD);
+            }
+            audioBlobRepository.save(blob);
+            if (!pinned) {
+                fileStorageService.delete(blob.getPath());
+            }
+            return !pinned;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The linger is recorded before the pin drops, so the blob is never unpinned in between
+    private void unpin(String sha256, long lingerMillis) {
+        if (lingerMillis > 0) {
+            lingering.merge(sha256, System.currentTimeMillis() + lingerMillis, Math::max);
+        }
+        pins.computeIfPresent(sha256, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private boolean isPinned(String sha256) {
+        if (pins.containsKey(sha256)) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        // Expired lingers are dropped here, where eviction looks at them, so the map stays small
+        lingering.values().removeIf(until -> until <= now);
+        return lingering.containsKey(sha256);
+    }
+
+    private void restore(AudioBlob blob) {
+        try {
+            audioPackStore.extract(blob.getPackPath(), Paths.get(blob.getPath()).getFileName().toString(), Paths.get(blob.getPath()));
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not restore audio " + blob.getSha256() + " from the cold tier.", ex);
+        }
+        blob.setTier(StorageTier.HOT);
+        audioBlobRepository.save(blob);
+    }
+
+    private ReentrantLock lockFor(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static ReentrantLock[] newLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -0,0 +1,47 @@
+package com.raghav.peadologicalbackend.service;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+/**
+ * A readable local copy of some stored audio. While the handle is open the blob is pinned to the
+ * hot tier, so the archiver never moves the file out from under a reader.
+ */
+public final class AudioHandle implements AutoCloseable {
+
+    private final Path path;
+    // Called with the linger time, in milliseconds
+    private final LongConsumer onClose;
+    private long lingerMillis;
+    private boolean closed;
+
+    AudioHandle(Path path, LongConsumer onClose) {
+        this.path = path;
+        this.onClose = onClose;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public File file() {
+        return path.toFile();
+    }
+
+    /**
+     * Keeps the blob pinned for a while after {@link #close()}, for a reader that goes on to open the
+     * file once the handle is closed, such as Tomcat's sendfile.
+     */
+    public void lingerAfterClose(long millis) {
+        lingerMillis = Math.max(lingerMillis, millis);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            onClose.accept(lingerMillis);
+        }
+    }
+}
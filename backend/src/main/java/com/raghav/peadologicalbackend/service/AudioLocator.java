@@ -0,0 +1,25 @@
+package com.raghav.peadologicalbackend.service;
+
+/**
+ * {@code lectureAudioUrl} values for audio in the blob store. A locator names the blob, not a file,
+ * so recordings can move between storage tiers without rewriting lectures. Anything else in
+ * {@code lectureAudioUrl} (external URLs, paths written before locators) is left as it is.
+ */
+public final class AudioLocator {
+
+    private static final String PREFIX = "blob:";
+
+    private AudioLocator() {
+    }
+
+    public static String of(String sha256) {
+        return PREFIX + sha256;
+    }
+
+    /**
+     * @return the blob digest, or {@code null} if {@code locator} does not name a blob
+     */
+    public static String sha256(String locator) {
+        return locator != null && locator.startsWith(PREFIX) ? locator.substring(PREFIX.length()) : null;
+    }
+}
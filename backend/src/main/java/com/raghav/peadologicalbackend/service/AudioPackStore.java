@@ -0,0 +1,144 @@
+package com.raghav.peadologicalbackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Cold tier of the audio store: many recordings packed into one ZIP file under
+ * {@code storage.cold-dir}, so an archive of a semester is a few large files instead of thousands of
+ * small ones. Uncompressed audio (WAV, AIFF) is deflated; already-compressed formats are stored as
+ * they are, since deflating them costs CPU and saves nothing. Packs are written once and never
+ * modified.
+ */
+@Component
+public class AudioPackStore {
+
+    private static final Set<String> UNCOMPRESSED = Set.of(".wav", ".wave", ".aif", ".aiff", ".pcm", "");
+    private static final DateTimeFormatter PACK_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path coldLocation;
+
+    public AudioPackStore(@Value("${storage.cold-dir:uploads/cold}") String coldDir) {
+        this.coldLocation = Paths.get(coldDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(coldLocation);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the cold audio directory " + coldLocation, ex);
+        }
+    }
+
+    public Path getColdLocation() {
+        return coldLocation;
+    }
+
+    /**
+     * Writes {@code files} into a new pack. A file that disappeared in the meantime (its blob was
+     * deleted) is skipped.
+     *
+     * @return the pack path and, per entry written, its compressed size, keyed by entry name
+     */
+    public PackResult write(List<Path> files) throws IOException {
+        String name = "pack-" + LocalDateTime.now().format(PACK_TIME) + "-" + UUID.randomUUID().toString().substring(0, 8) + ".zip";
+        Path pack = coldLocation.resolve(name);
+        Path part = coldLocation.resolve(name + ".part");
+        Map<String, Long> entries = new LinkedHashMap<>();
+        try {
+            try (OutputStream out = Files.newOutputStream(part, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 ZipOutputStream zip = new ZipOutputStream(out)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                for (Path file : files) {
+                    String entryName = file.getFileName().toString();
+                    InputStream in;
+                    try {
+                        in = Files.newInputStream(file);
+                    } catch (NoSuchFileException ex) {
+                        continue;
+                    }
+                    try (in) {
+                        zip.setLevel(UNCOMPRESSED.contains(extensionOf(entryName)) ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+                        ZipEntry entry = new ZipEntry(entryName);
+                        zip.putNextEntry(entry);
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            zip.write(buffer, 0, read);
+                        }
+                        zip.closeEntry();
+                        entries.put(entryName, entry.getCompressedSize());
+                    }
+                }
+            }
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(part, pack, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(part);
+            throw ex;
+        }
+        return new PackResult(pack.toString(), entries);
+    }
+
+    /**
+     * Restores one entry of a pack to {@code target}, via a temporary file so a half-written copy
+     * never appears under the blob's name.
+     */
+    public void extract(String packPath, String entryName, Path target) throws IOException {
+        Path part = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try (ZipFile zip = new ZipFile(packPath)) {
+            ZipEntry entry = zip.getEntry(entryName);
+            if (entry == null) {
+                throw new IOException("Entry " + entryName + " missing from " + packPath);
+            }
+            Files.createDirectories(target.getParent());
+            try (InputStream in = zip.getInputStream(entry)) {
+                Files.copy(in, part);
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    public void delete(String packPath) {
+        try {
+            Files.deleteIfExists(Paths.get(packPath));
+        } catch (IOException ignored) {
+            // left for the orphan sweep
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * @param entries compressed size of each entry written, keyed by entry name
+     */
+    public record PackResult(String packPath, Map<String, Long> entries) {
+    }
+}
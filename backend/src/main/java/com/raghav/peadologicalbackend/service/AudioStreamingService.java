@@ -0,0 +1,194 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.repository.LectureAudioView;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Serves stored lecture audio for playback with single-range requests (206), ETag and
+ * Last-Modified validation. Under Tomcat the byte range is handed to the connector's sendfile,
+ * so the kernel copies it from the file to the socket; elsewhere, or where the connector has no
+ * sendfile (TLS), it goes out with {@link FileChannel#transferTo} in bounded chunks.
+ */
+@Service
+public class AudioStreamingService {
+    private static final Logger log = LoggerFactory.getLogger(AudioStreamingService.class);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AudioBlobService audioBlobService;
+    private final long maxAgeSeconds;
+    private final long sendfileLingerMs;
+
+    public AudioStreamingService(AudioBlobService audioBlobService,
+                                 @Value("${storage.playback.max-age-seconds:86400}") long maxAgeSeconds,
+                                 @Value("${storage.playback.sendfile-linger-ms:60000}") long sendfileLingerMs) {
+        this.audioBlobService = audioBlobService;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.sendfileLingerMs = sendfileLingerMs;
+    }
+
+    public void stream(LectureAudioView audio, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (audio.audioSha256() == null || AudioLocator.sha256(audio.lectureAudioUrl()) == null) {
+            throw new NotFoundException("This lecture has no stored audio.");
+        }
+        // A cold recording is restored here. The handle pins the blob, so the tier mover leaves it in
+        // place while it is being sent.
+        try (AudioHandle handle = audioBlobService.open(audio.lectureAudioUrl())) {
+            Path file = handle.path();
+            if (!Files.isRegularFile(file)) {
+                throw new NotFoundException("Audio file is missing.");
+            }
+            long length = Files.size(file);
+            // Blobs are content-addressed, so the digest is a strong validator
+            String etag = "\"" + audio.audioSha256() + "\"";
+            long lastModified = audio.uploadedAt() != null
+                    ? audio.uploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : Files.getLastModifiedTime(file).toMillis();
+
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + maxAgeSeconds);
+
+            if (notModified(request, etag, lastModified)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            long start = 0;
+            long end = length - 1;
+            HttpRange range = requestedRange(request, etag, lastModified);
+            if (range != null) {
+                if (length == 0 || !satisfiable(range, length)) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            } else {
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+            response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+            response.setContentLengthLong(end - start + 1);
+            if ("HEAD".equals(request.getMethod()) || length == 0) {
+                return;
+            }
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat opens the file only after this method returns, so the pin outlives the handle
+                // long enough for that; once open, moving the file no longer affects the send
+                handle.lingerAfterClose(sendfileLingerMs);
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            transfer(file, start, end - start + 1, response);
+        }
+    }
+
+    private static void transfer(Path file, long position, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             WritableByteChannel out = Channels.newChannel(response.getOutputStream())) {
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException ex) {
+            // Players routinely drop a range request when the user seeks elsewhere
+            log.debug("Audio transfer of {} ended early: {}", file.getFileName(), ex.getMessage());
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * @return the single range to send, or {@code null} for the whole file: no Range header, a
+     * malformed or multi-range one (both may be ignored), or an If-Range that no longer matches
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            boolean current = ifRange.startsWith("\"") || ifRange.startsWith("W/")
+                    ? ifRange.equals(etag)
+                    : dateHeader(request, HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+            if (!current) {
+                return null;
+            }
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static boolean satisfiable(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length) <= range.getRangeEnd(length);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static boolean matches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.entity.AudioBlob;
+import com.raghav.peadologicalbackend.entity.StorageTier;
+import com.raghav.peadologicalbackend.repository.AudioBlobRepository;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background mover between the storage tiers. Each pass
+ * <ol>
+ *   <li>archives recordings nobody has opened for {@code storage.archive.after-days} days, and</li>
+ *   <li>evicts least-recently-used recordings while the hot tier is over {@code storage.hot.max-bytes}.</li>
+ * </ol>
+ * Blobs without a cold copy are packed first; blobs that already have one (restored earlier) just
+ * lose their hot file. A pass runs on its own thread and writes at most
+ * {@code storage.archive.max-packs-per-pass} packs, so a large backlog is worked off over several passes.
+ */
+@Component
+public class AudioTierMover {
+    private static final Logger log = LoggerFactory.getLogger(AudioTierMover.class);
+
+    private final AudioBlobRepository audioBlobRepository;
+    private final LectureRepository lectureRepository;
+    private final AudioBlobService audioBlobService;
+    private final AudioPackStore audioPackStore;
+    private final boolean enabled;
+    private final int afterDays;
+    private final long hotMaxBytes;
+    private final int batchSize;
+    private final long maxPackBytes;
+    private final int maxPacksPerPass;
+    private final TaskExecutor tieringExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Only touched by the pass in progress
+    private int packsLeft;
+
+    public AudioTierMover(AudioBlobRepository audioBlobRepository,
+                          LectureRepository lectureRepository,
+                          AudioBlobService audioBlobService,
+                          AudioPackStore audioPackStore,
+                          @Value("${storage.archive.enabled:true}") boolean enabled,
+                          @Value("${storage.archive.after-days:30}") int afterDays,
+                          @Value("${storage.hot.max-bytes:107374182400}") long hotMaxBytes,
+                          @Value("${storage.archive.batch-size:200}") int batchSize,
+                          @Value("${storage.archive.max-pack-bytes:4294967296}") long maxPackBytes,
+                          @Value("${storage.archive.max-packs-per-pass:4}") int maxPacksPerPass,
+                          @Qualifier("tieringExecutor") TaskExecutor tieringExecutor) {
+        this.audioBlobRepository = audioBlobRepository;
+        this.lectureRepository = lectureRepository;
+        this.audioBlobService = audioBlobService;
+        this.audioPackStore = audioPackStore;
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.hotMaxBytes = hotMaxBytes;
+        this.batchSize = batchSize;
+        this.maxPackBytes = maxPackBytes;
+        this.maxPacksPerPass = Math.max(1, maxPacksPerPass);
+        this.tieringExecutor = tieringExecutor;
+    }
+
+    /**
+     * Brings rows from before tiering in line: blobs get a tier, and lectures pointing at a blob
+     * file by path get its locator instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        int blobs = audioBlobRepository.assignMissingTier(StorageTier.HOT);
+        int lectures = lectureRepository.useBlobLocators();
+        if (blobs > 0 || lectures > 0) {
+            log.info("Audio tiering: {} blobs marked HOT, {} lectures switched to blob locators", blobs, lectures);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${storage.archive.interval-ms:3600000}", initialDelayString = "${storage.archive.interval-ms:3600000}")
+    public void run() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            tieringExecutor.execute(this::pass);
+        } catch (TaskRejectedException ex) {
+            running.set(false);
+        }
+    }
+
+    private void pass() {
+        packsLeft = maxPacksPerPass;
+        try {
+            int archived = archiveIdle();
+            int evicted = enforceHotLimit();
+            if (archived > 0 || evicted > 0) {
+                log.info("Audio tiering: archived {} idle recordings, evicted {} for space; hot tier at {} bytes",
+                        archived, evicted, audioBlobRepository.sumSizeBytes(StorageTier.HOT));
+            }
+        } catch (RuntimeException ex) {
+            log.error("Audio tiering pass failed", ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveIdle() {
+        LocalDateTime before = LocalDateTime.now().minusDays(afterDays);
+        int moved = 0;
+        while (true) {
+            List<AudioBlob> idle = audioBlobRepository.findIdle(StorageTier.HOT, before, PageRequest.of(0, batchSize));
+            if (idle.isEmpty()) {
+                return moved;
+            }
+            int batch = moveToCold(idle);
+            moved += batch;
+            if (batch == 0 || packsLeft == 0) {
+                return moved; // everything left is open right now, or waits for the next pass
+            }
+        }
+    }
+
+    private int enforceHotLimit() {
+        int moved = 0;
+        long hotBytes = audioBlobRepository.sumSizeBytes(StorageTier.HOT);
+        while (hotBytes > hotMaxBytes) {
+            List<AudioBlob> candidates = new ArrayList<>();
+            long freed = 0;
+            for (AudioBlob blob : audioBlobRepository.findLeastRecentlyUsed(StorageTier.HOT, PageRequest.of(0, batchSize))) {
+                if (hotBytes - freed <= hotMaxBytes) {
+                    break;
+                }
+                candidates.add(blob);
+                freed += blob.getSizeBytes();
+            }
+            int batch = candidates.isEmpty() ? 0 : moveToCold(candidates);
+            if (batch == 0) {
+                return moved;
+            }
+            moved += batch;
+            if (packsLeft == 0) {
+                return moved;
+            }
+            hotBytes = audioBlobRepository.sumSizeBytes(StorageTier.HOT);
+        }
+        return moved;
+    }
+
+    /**
+     * @return blobs whose hot file was removed
+     */
+    private int moveToCold(List<AudioBlob> blobs) {
+        int moved = 0;
+        List<AudioBlob> unpacked = new ArrayList<>();
+        for (AudioBlob blob : blobs) {
+            if (blob.getPackPath() != null) {
+                moved += audioBlobService.evict(blob.getSha256(), null, null) ? 1 : 0;
+            } else {
+                unpacked.add(blob);
+            }
+        }
+        // One pack per max-pack-bytes of input, so a pack stays small enough to copy and verify
+        List<AudioBlob> pack = new ArrayList<>();
+        long packBytes = 0;
+        for (AudioBlob blob : unpacked) {
+            if (packsLeft == 0) {
+                return moved;
+            }
+            if (!pack.isEmpty() && packBytes + blob.getSizeBytes() > maxPackBytes) {
+                moved += pack(pack);
+                pack = new ArrayList<>();
+                packBytes = 0;
+            }
+            pack.add(blob);
+            packBytes += blob.getSizeBytes();
+        }
+        if (!pack.isEmpty() && packsLeft > 0) {
+            moved += pack(pack);
+        }
+        return moved;
+    }
+
+    private int pack(List<AudioBlob> blobs) {
+        packsLeft--;
+        List<Path> files = blobs.stream().map(blob -> Paths.get(blob.getPath())).toList();
+        AudioPackStore.PackResult result;
+        try {
+            result = audioPackStore.write(files);
+        } catch (IOException ex) {
+            log.warn("Could not write a cold pack of {} recordings", blobs.size(), ex);
+            return 0;
+        }
+        int moved = 0;
+        for (AudioBlob blob : blobs) {
+            Long packedSize = result.entries().get(Paths.get(blob.getPath()).getFileName().toString());
+            if (packedSize != null && audioBlobService.evict(blob.getSha256(), result.packPath(), packedSize)) {
+                moved++;
+            }
+        }
+        // Every blob in it was deleted while the pack was written
+        if (audioBlobRepository.countByPackPath(result.packPath()) == 0) {
+            audioPackStore.delete(result.packPath());
+        }
+        return moved;
+    }
+}
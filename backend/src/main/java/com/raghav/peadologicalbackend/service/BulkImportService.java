@@ -0,0 +1,521 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.BulkImportItem;
+import com.raghav.peadologicalbackend.dto.BulkImportItemResult;
+import com.raghav.peadologicalbackend.dto.BulkImportManifest;
+import com.raghav.peadologicalbackend.dto.BulkImportStatusResponse;
+import com.raghav.peadologicalbackend.dto.LectureCreateRequest;
+import com.raghav.peadologicalbackend.dto.WhisperResponse;
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
+import com.raghav.peadologicalbackend.entity.ClassEntity;
+import com.raghav.peadologicalbackend.entity.Lecture;
+import com.raghav.peadologicalbackend.entity.TeacherProfile;
+import com.raghav.peadologicalbackend.exception.BadRequestException;
+import com.raghav.peadologicalbackend.exception.ConflictException;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.repository.LectureBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Back-fills many lectures at once from a manifest plus a ZIP archive or a server-side directory.
+ * <p>
+ * Items flow through four stages (validate, store, analyse, persist) connected by bounded queues.
+ * Each stage has its own worker count, and a full queue blocks the stage in front of it, so a slow
+ * analysis service throttles reading and storing instead of filling the disk or the heap. Lectures
+ * are inserted with JDBC batches. Only one import runs at a time.
+ */
+@Service
+public class BulkImportService {
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+    private static final ImportTask POISON = new ImportTask(-1, null);
+    private static final Duration RETAIN_FINISHED = Duration.ofHours(24);
+
+    private final LectureService lectureService;
+    private final FileStorageService fileStorageService;
+    private final AudioBlobService audioBlobService;
+    private final AnalysisCacheService analysisCacheService;
+    private final LectureBatchRepository lectureBatchRepository;
+    private final ThreadPoolTaskExecutor importExecutor;
+    private final Path allowedRoot;
+    private final int validateWorkers;
+    private final int storeWorkers;
+    private final int analyseWorkers;
+    private final int persistWorkers;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final int maxItems;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicReference<ImportJob> running = new AtomicReference<>();
+
+    public BulkImportService(LectureService lectureService,
+                             FileStorageService fileStorageService,
+                             AudioBlobService audioBlobService,
+                             AnalysisCacheService analysisCacheService,
+                             LectureBatchRepository lectureBatchRepository,
+                             @Qualifier("importExecutor") ThreadPoolTaskExecutor importExecutor,
+                             @Value("${import.allowed-root:}") String allowedRoot,
+                             @Value("${import.validate-workers:2}") int validateWorkers,
+                             @Value("${import.store-workers:4}") int storeWorkers,
+                             @Value("${import.analyse-workers:4}") int analyseWorkers,
+                             @Value("${import.persist-workers:1}") int persistWorkers,
+                             @Value("${import.queue-capacity:32}") int queueCapacity,
+                             @Value("${import.batch-size:100}") int batchSize,
+                             @Value("${import.max-items:10000}") int maxItems) {
+        this.lectureService = lectureService;
+        this.fileStorageService = fileStorageService;
+        this.audioBlobService = audioBlobService;
+        this.analysisCacheService = analysisCacheService;
+        this.lectureBatchRepository = lectureBatchRepository;
+        this.importExecutor = importExecutor;
+        this.allowedRoot = allowedRoot.isBlank() ? null : Paths.get(allowedRoot).toAbsolutePath().normalize();
+        this.validateWorkers = validateWorkers;
+        this.storeWorkers = storeWorkers;
+        this.analyseWorkers = analyseWorkers;
+        this.persistWorkers = persistWorkers;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Starts an import in the background and returns its initial status.
+     *
+     * @param archive ZIP holding the audio files, or {@code null} to read from {@code manifest.directory}
+     */
+    public BulkImportStatusResponse start(BulkImportManifest manifest, MultipartFile archive) {
+        List<BulkImportItem> items = manifest.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("Manifest has no items.");
+        }
+        if (items.size() > maxItems) {
+            throw new BadRequestException("Manifest has more than " + maxItems + " items.");
+        }
+        boolean hasArchive = archive != null && !archive.isEmpty();
+        if (!hasArchive && (manifest.getDirectory() == null || manifest.getDirectory().isBlank())) {
+            throw new BadRequestException("A ZIP archive or a server-side directory is required.");
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), items, !Boolean.FALSE.equals(manifest.getAnalyse()));
+        if (!running.compareAndSet(null, job)) {
+            throw new ConflictException("Another lecture import is still running.");
+        }
+        try {
+            job.source = hasArchive ? openArchive(archive) : openDirectory(manifest.getDirectory());
+        } catch (RuntimeException ex) {
+            running.set(null);
+            throw ex;
+        }
+        removeExpiredJobs();
+        jobs.put(job.id, job);
+        runPipeline(job);
+        log.info("Started lecture import {} with {} items", job.id, items.size());
+        return toResponse(job);
+    }
+
+    public BulkImportStatusResponse getStatus(String importId) {
+        ImportJob job = jobs.get(importId);
+        if (job == null) {
+            throw new NotFoundException("Import not found.");
+        }
+        return toResponse(job);
+    }
+
+    private void runPipeline(ImportJob job) {
+        BlockingQueue<ImportTask> validateQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ImportTask> storeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ImportTask> analyseQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ImportTask> persistQueue = new ArrayBlockingQueue<>(Math.max(queueCapacity, batchSize));
+
+        startPersistStage(job, persistQueue);
+        startStage(job, analyseWorkers, analyseQueue, persistQueue, persistWorkers, task -> analyse(job, task));
+        startStage(job, storeWorkers, storeQueue, analyseQueue, analyseWorkers, task -> store(job, task));
+        startStage(job, validateWorkers, validateQueue, storeQueue, storeWorkers, task -> validate(job, task));
+
+        importExecutor.execute(() -> {
+            try {
+                for (int i = 0; i < job.items.size(); i++) {
+                    validateQueue.put(new ImportTask(i, job.items.get(i)));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                putPoison(validateQueue, validateWorkers);
+            }
+        });
+    }
+
+    /**
+     * Starts the workers of one stage. A task whose step throws is recorded as failed and not
+     * passed on; the last worker to see the end of the input tells every downstream worker to stop.
+     */
+    private void startStage(ImportJob job, int workers, BlockingQueue<ImportTask> in, BlockingQueue<ImportTask> out,
+                            int downstreamWorkers, Consumer<ImportTask> step) {
+        AtomicInteger remaining = new AtomicInteger(workers);
+        for (int i = 0; i < workers; i++) {
+            importExecutor.execute(() -> {
+                try {
+                    ImportTask task;
+                    while ((task = in.take()) != POISON) {
+                        try {
+                            step.accept(task);
+                        } catch (RuntimeException ex) {
+                            fail(job, task, ex.getMessage());
+                            continue;
+                        }
+                        out.put(task);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        putPoison(out, downstreamWorkers);
+                    }
+                }
+            });
+        }
+    }
+
+    private void startPersistStage(ImportJob job, BlockingQueue<ImportTask> in) {
+        AtomicInteger remaining = new AtomicInteger(persistWorkers);
+        for (int i = 0; i < persistWorkers; i++) {
+            importExecutor.execute(() -> {
+                List<ImportTask> batch = new ArrayList<>(batchSize);
+                try {
+                    while (true) {
+                        ImportTask task = in.poll(500, TimeUnit.MILLISECONDS);
+                        if (task == POISON) {
+                            break;
+                        }
+                        if (task != null) {
+                            batch.add(task);
+                        }
+                        if (batch.size() >= batchSize || (task == null && !batch.isEmpty())) {
+                            persist(job, batch);
+                            batch.clear();
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (!batch.isEmpty()) {
+                        persist(job, batch);
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        finish(job);
+                    }
+                }
+            });
+        }
+    }
+
+    private void validate(ImportJob job, ImportTask task) {
+        BulkImportItem item = task.item;
+        if (item.getFileName() == null || item.getFileName().isBlank()) {
+            throw new BadRequestException("File name is required.");
+        }
+        if (item.getLectureTitle() == null || item.getLectureTitle().isBlank()) {
+            throw new BadRequestException("Lecture title is required.");
+        }
+        // Most items of a semester share a handful of teachers and slots, so each pair is checked once
+        String target = item.getTeacherProfileId() + ":" + item.getClassSlotId();
+        task.target = job.validatedTargets.computeIfAbsent(target, key -> {
+            TeacherProfile profile = lectureService.checkImportTarget(toRequest(item));
+            return new ImportTarget(profile.getSchool(), profile.getDepartment());
+        });
+    }
+
+    private void store(ImportJob job, ImportTask task) {
+        StoredAudio staged;
+        try (InputStream in = job.source.open(task.item.getFileName())) {
+            staged = fileStorageService.stageStream(in, task.item.getFileName());
+        } catch (IOException ex) {
+            throw new BadRequestException("Could not read " + task.item.getFileName() + ": " + ex.getMessage());
+        }
+        if (staged.sizeBytes() == 0) {
+            fileStorageService.delete(staged.path());
+            throw new BadRequestException("Audio file is empty.");
+        }
+        task.blob = audioBlobService.acquire(staged);
+    }
+
+    /**
+     * Analysis failures do not drop the item: the lecture is still imported, as PENDING with the
+     * error, and the analysis workers retry it under their backoff policy without storing the audio again.
+     */
+    private void analyse(ImportJob job, ImportTask task) {
+        if (!job.analyse) {
+            return;
+        }
+        try {
+            // Back-fill lane: the import gets a share of whisper-service without holding up interactive uploads
+            AnalysisTicket ticket = AnalysisTicket.of(AnalysisLane.BACKFILL, task.target.school(), task.item.getTeacherProfileId(), null);
+            try (AudioHandle audio = audioBlobService.open(AudioLocator.of(task.blob.sha256()))) {
+                task.analysis = analysisCacheService.analyze(audio.file(), task.blob.sha256(), task.item.getSyllabus(), ticket);
+            }
+        } catch (RuntimeException ex) {
+            task.analysisError = ex.getMessage() != null ? ex.getMessage() : "Analysis failed.";
+        }
+    }
+
+    private void persist(ImportJob job, List<ImportTask> batch) {
+        List<Lecture> lectures = batch.stream().map(task -> toLecture(job, task)).toList();
+        try {
+            lectureBatchRepository.insertAll(lectures);
+        } catch (RuntimeException ex) {
+            log.warn("Lecture import {}: batch of {} failed", job.id, batch.size(), ex);
+            for (ImportTask task : batch) {
+                fail(job, task, "Could not save lecture: " + ex.getMessage());
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            ImportTask task = batch.get(i);
+            Lecture lecture = lectures.get(i);
+            job.results.set(task.index, new BulkImportItemResult(task.index, task.item.getFileName(), true,
+                    lecture.getId(), lecture.getAnalysisStatus(), lecture.getAnalysisError()));
+            job.imported.incrementAndGet();
+        }
+    }
+
+    private Lecture toLecture(ImportJob job, ImportTask task) {
+        BulkImportItem item = task.item;
+        TeacherProfile teacherProfile = new TeacherProfile();
+        teacherProfile.setId(item.getTeacherProfileId());
+        teacherProfile.setSchool(task.target.school());
+        teacherProfile.setDepartment(task.target.department());
+
+        Lecture lecture = new Lecture();
+        lecture.setLectureTitle(item.getLectureTitle().trim());
+        lecture.setLectureAudioUrl(AudioLocator.of(task.blob.sha256()));
+        lecture.setAudioSha256(task.blob.sha256());
+        lecture.setAudioSizeBytes(task.blob.sizeBytes());
+        lecture.setSyllabus(item.getSyllabus());
+        lecture.setUploadedAt(item.getUploadedAt());
+        lecture.setTeacherProfile(teacherProfile);
+        lecture.setAnalysisLane(AnalysisLane.BACKFILL);
+        if (item.getClassSlotId() != null) {
+            ClassEntity classSlot = new ClassEntity();
+            classSlot.setId(item.getClassSlotId());
+            lecture.setClassSlot(classSlot);
+        }
+
+        WhisperResponse.AnalysisData data = task.analysis;
+        if (data != null) {
+            lecture.setScore(data.getPedagogicalScore());
+            lecture.setAnalysisContent(data.getAnalysis());
+            lecture.setScoreReasoning(data.getScoreReasoning());
+            lecture.setReviewRatio(data.getReviewRatio());
+            lecture.setQuestionVelocity(data.getQuestionVelocity());
+            lecture.setWaitTime(data.getWaitTime());
+            lecture.setTeacherTalkingTime(data.getTeacherTalkingTime());
+            lecture.setHinglishFluency(data.getHinglishFluency());
+            lecture.setAnalysisStatus(AnalysisStatus.DONE);
+        } else if (task.analysisError != null) {
+            lecture.setAnalysisStatus(AnalysisStatus.PENDING);
+            lecture.setAnalysisError(task.analysisError);
+        } else {
+            // Not analysed during the import; the worker pool picks PENDING lectures up on its requeue pass
+            lecture.setAnalysisStatus(AnalysisStatus.PENDING);
+        }
+        return lecture;
+    }
+
+    private void fail(ImportJob job, ImportTask task, String error) {
+        if (task.blob != null) {
+            audioBlobService.release(task.blob.sha256());
+        }
+        job.results.set(task.index, new BulkImportItemResult(task.index, task.item.getFileName(), false,
+                null, null, error != null ? error : "Import failed."));
+        job.failed.incrementAndGet();
+    }
+
+    private void finish(ImportJob job) {
+        try {
+            job.source.close();
+        } catch (IOException ex) {
+            log.warn("Could not close source of lecture import {}", job.id, ex);
+        }
+        job.finishedAt = LocalDateTime.now();
+        running.compareAndSet(job, null);
+        log.info("Finished lecture import {}: {} imported, {} failed", job.id, job.imported.get(), job.failed.get());
+    }
+
+    private void putPoison(BlockingQueue<ImportTask> queue, int count) {
+        try {
+            for (int i = 0; i < count; i++) {
+                queue.put(POISON);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ImportSource openArchive(MultipartFile archive) {
+        Path zipPath = null;
+        try {
+            zipPath = Files.createTempFile("lecture-import-", ".zip");
+            archive.transferTo(zipPath);
+            return new ZipSource(zipPath, new ZipFile(zipPath.toFile()));
+        } catch (IOException ex) {
+            // The copy may be most of an upload of several GB; ZipSource.close() never sees it
+            if (zipPath != null) {
+                try {
+                    Files.deleteIfExists(zipPath);
+                } catch (IOException deleteEx) {
+                    log.warn("Could not delete import archive copy {}", zipPath, deleteEx);
+                }
+            }
+            throw new BadRequestException("Archive is not a readable ZIP file.");
+        }
+    }
+
+    private ImportSource openDirectory(String directory) {
+        if (allowedRoot == null) {
+            throw new BadRequestException("Server-side directory imports are not enabled.");
+        }
+        Path dir = allowedRoot.resolve(directory).normalize();
+        if (!dir.startsWith(allowedRoot) || !Files.isDirectory(dir)) {
+            throw new BadRequestException("Directory not found under the import root.");
+        }
+        return new DirectorySource(dir);
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(RETAIN_FINISHED);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private LectureCreateRequest toRequest(BulkImportItem item) {
+        LectureCreateRequest request = new LectureCreateRequest();
+        request.setTeacherProfileId(item.getTeacherProfileId());
+        request.setClassSlotId(item.getClassSlotId());
+        request.setLectureTitle(item.getLectureTitle());
+        return request;
+    }
+
+    private BulkImportStatusResponse toResponse(ImportJob job) {
+        int imported = job.imported.get();
+        int failed = job.failed.get();
+        LocalDateTime end = job.finishedAt != null ? job.finishedAt : LocalDateTime.now();
+        double minutes = Duration.between(job.startedAt, end).toMillis() / 60000.0;
+        Double itemsPerMinute = minutes > 0 ? (imported + failed) / minutes : null;
+        List<BulkImportItemResult> results = new ArrayList<>();
+        for (int i = 0; i < job.results.length(); i++) {
+            BulkImportItemResult result = job.results.get(i);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return new BulkImportStatusResponse(job.id, job.finishedAt != null, job.items.size(), imported, failed,
+                job.startedAt, job.finishedAt, itemsPerMinute, results);
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final List<BulkImportItem> items;
+        private final boolean analyse;
+        private final AtomicReferenceArray<BulkImportItemResult> results;
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        // teacher:slot pairs already checked, mapped to the teacher's school and department
+        private final Map<String, ImportTarget> validatedTargets = new ConcurrentHashMap<>();
+        private volatile LocalDateTime finishedAt;
+        private ImportSource source;
+
+        private ImportJob(String id, List<BulkImportItem> items, boolean analyse) {
+            this.id = id;
+            this.items = List.copyOf(items);
+            this.analyse = analyse;
+            this.results = new AtomicReferenceArray<>(items.size());
+        }
+    }
+
+    private static final class ImportTask {
+        private final int index;
+        private final BulkImportItem item;
+        private ImportTarget target;
+        private StoredAudio blob;
+        private WhisperResponse.AnalysisData analysis;
+        private String analysisError;
+
+        private ImportTask(int index, BulkImportItem item) {
+            this.index = index;
+            this.item = item;
+        }
+    }
+
+    // What the lecture's read models need of its teacher, without loading the profile per item
+    private record ImportTarget(String school, String department) {
+    }
+
+    private interface ImportSource extends Closeable {
+        InputStream open(String fileName) throws IOException;
+    }
+
+    private record ZipSource(Path zipPath, ZipFile zipFile) implements ImportSource {
+        @Override
+        public InputStream open(String fileName) throws IOException {
+            ZipEntry entry = zipFile.getEntry(fileName);
+            if (entry == null || entry.isDirectory()) {
+                throw new IOException("Not found in archive: " + fileName);
+            }
+            return zipFile.getInputStream(entry);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                zipFile.close();
+            } finally {
+                Files.deleteIfExists(zipPath);
+            }
+        }
+    }
+
+    private record DirectorySource(Path directory) implements ImportSource {
+        @Override
+        public InputStream open(String fileName) throws IOException {
+            Path file = directory.resolve(fileName).normalize();
+            if (!file.startsWith(directory)) {
+                throw new IOException("Outside the import directory: " + fileName);
+            }
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.raghav.peadologicalbackend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies change events to an in-memory model once their transaction has committed, and counts per
+ * key the transactions that are committing but whose change is not applied yet. A model that
+ * re-reads a key from the database asks {@link #isCommitting} once the query is back: the query may
+ * or may not have seen such a commit, and its change applied on top would then count twice.
+ * Outside a transaction the change is applied at once.
+ *
+ * @param <K> the model's key, e.g. a teacher profile id
+ */
+final class CommittingChanges<K> {
+
+    private final Map<K, Integer> committing = new ConcurrentHashMap<>();
+    private final int order;
+
+    /**
+     * @param order order of the synchronization among the transaction's others; models use 0, so
+     *              they have the change before {@link DashboardCache} bumps its versions
+     */
+    CommittingChanges(int order) {
+        this.order = order;
+    }
+
+    void afterCommit(Collection<K> keys, Runnable apply) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            @Override
+            public int getOrder() {
+                return order;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                keys.forEach(key -> committing.merge(key, 1, Integer::sum));
+                counted = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (counted) {
+                    keys.forEach(key -> committing.computeIfPresent(key, (ignored, count) -> count > 1 ? count - 1 : null));
+                }
+            }
+        });
+    }
+
+    boolean isCommitting(K key) {
+        return committing.containsKey(key);
+    }
+}
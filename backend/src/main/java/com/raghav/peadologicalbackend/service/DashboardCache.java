@@ -0,0 +1,135 @@
+package com.raghav.peadologicalbackend.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Versioned cache of dashboard responses. Every write to a lecture, teacher profile or user bumps
+ * the version of the school it touched, plus the version over all schools and, for profiles and
+ * users, the version of the user directory. A response is cached under a strong ETag built from
+ * the version it was read at, so a client revalidating with {@code If-None-Match} gets a 304
+ * without a query, and any write makes the tag stale.
+ * <p>
+ * Versions are bumped after commit, and after the in-memory analytics models have taken the
+ * change, so a response read at a version never misses a write that version stands for. They live
+ * in memory only; the tags carry the startup time, so tags handed out before a restart never match.
+ */
+@Service
+public class DashboardCache {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong allSchools = new AtomicLong();
+    private final AtomicLong directory = new AtomicLong();
+    private final Map<String, AtomicLong> schools = new ConcurrentHashMap<>();
+    private final Map<String, Cached> responses = new ConcurrentHashMap<>();
+    private final Map<String, Cached> userSchools = new ConcurrentHashMap<>();
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLectureChanged(LectureChangedEvent event) {
+        if (event.before() != null) {
+            bumpSchool(event.before().school());
+        }
+        if (event.after() != null) {
+            bumpSchool(event.after().school());
+        }
+        allSchools.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeacherProfileChanged(TeacherProfileChangedEvent event) {
+        bumpSchool(event.schoolBefore());
+        bumpSchool(event.schoolAfter());
+        allSchools.incrementAndGet();
+        directory.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        bumpSchool(event.school());
+        directory.incrementAndGet();
+    }
+
+    /**
+     * Makes every tag handed out so far stale, e.g. after a read model was rebuilt from the source tables.
+     */
+    public void invalidateAll() {
+        schools.values().forEach(AtomicLong::incrementAndGet);
+        allSchools.incrementAndGet();
+        directory.incrementAndGet();
+    }
+
+    /**
+     * @param variant anything else the response depends on, e.g. whether percentiles are loaded yet
+     */
+    public String allSchoolsTag(String variant) {
+        return tag("a" + allSchools.get() + "-" + variant);
+    }
+
+    public String schoolTag(String school, String variant) {
+        return tag("s" + schoolVersion(school).get() + "-" + Integer.toHexString(school.hashCode()) + "-" + variant);
+    }
+
+    public String userTag(String username) {
+        return tag("u" + directory.get() + "-" + Integer.toHexString(username.hashCode()));
+    }
+
+    /**
+     * @return the response cached under {@code key} if it was read at {@code etag}, otherwise a
+     *         freshly loaded one, which is kept for the next request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, String etag, Supplier<T> loader) {
+        Cached cached = responses.get(key);
+        if (cached != null && cached.tag().equals(etag)) {
+            return (T) cached.value();
+        }
+        T value = loader.get();
+        responses.put(key, new Cached(etag, value));
+        return value;
+    }
+
+    /**
+     * School of a user's teacher profile, looked up once per version of the user directory so
+     * access checks on a revalidation do not query either.
+     *
+     * @return the school, {@code null} if the profile has none
+     */
+    public String schoolOf(String username, Function<String, String> lookup) {
+        String version = Long.toString(directory.get());
+        Cached cached = userSchools.get(username);
+        if (cached != null && cached.tag().equals(version)) {
+            return (String) cached.value();
+        }
+        String school = lookup.apply(username);
+        userSchools.put(username, new Cached(version, school));
+        return school;
+    }
+
+    private void bumpSchool(String school) {
+        if (school != null) {
+            schoolVersion(school).incrementAndGet();
+        }
+    }
+
+    private AtomicLong schoolVersion(String school) {
+        return schools.computeIfAbsent(school, key -> new AtomicLong());
+    }
+
+    private String tag(String version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    private record Cached(String tag, Object value) {
+    }
+}
@@ -0,0 +1,391 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.analytics.RankTree;
+import com.raghav.peadologicalbackend.dto.LeaderboardEntryDTO;
+import com.raghav.peadologicalbackend.dto.LeaderboardPageDTO;
+import com.raghav.peadologicalbackend.entity.TeacherProfile;
+import com.raghav.peadologicalbackend.exception.BadRequestException;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import com.raghav.peadologicalbackend.repository.TeacherIdentityView;
+import com.raghav.peadologicalbackend.repository.TeacherLectureAggregate;
+import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every school's and department's faculty ranked in a {@link RankTree}, best average score
+ * first, then most lectures, so a leaderboard page, a teacher's rank or the full ranking is read
+ * without sorting. Lecture writes move the teacher by the difference once committed. A change the
+ * running totals cannot follow, such as a profile being created or deleted, or any change while
+ * the boards are loading, marks the teacher dirty; the next read re-reads that teacher's totals.
+ */
+@Service
+public class FacultyLeaderboardService {
+    private static final Logger log = LoggerFactory.getLogger(FacultyLeaderboardService.class);
+
+    private static final Comparator<Standing> BY_RANK = Comparator.comparingDouble(Standing::avgScore).reversed()
+            .thenComparing(Comparator.comparingLong(Standing::lectureCount).reversed())
+            .thenComparingLong(Standing::teacherProfileId);
+
+    private final LectureRepository lectureRepository;
+    private final TeacherProfileRepository teacherProfileRepository;
+    private final boolean enabled;
+    private final int maxPageSize;
+
+    // Pages, ranks and rankings share the read lock; moves, loads and refreshes take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Board, RankTree<Standing>> boards = new HashMap<>();
+    private final Set<Long> dirty = new HashSet<>();
+    private boolean loading;
+    private volatile boolean ready;
+
+    public FacultyLeaderboardService(LectureRepository lectureRepository,
+                                     TeacherProfileRepository teacherProfileRepository,
+                                     @Value("${stats.leaderboard.enabled:true}") boolean enabled,
+                                     @Value("${stats.leaderboard.max-page-size:100}") int maxPageSize) {
+        this.lectureRepository = lectureRepository;
+        this.teacherProfileRepository = teacherProfileRepository;
+        this.enabled = enabled;
+        this.maxPageSize = Math.max(1, maxPageSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            loading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Object[]> placements = teacherProfileRepository.findPlacements();
+            List<Object[]> totals = lectureRepository.sumLectureStatsByTeacher();
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : placements) {
+                    Entry entry = entries.computeIfAbsent((Long) row[0], Entry::new);
+                    entry.school = (String) row[1];
+                    entry.department = (String) row[2];
+                }
+                for (Object[] row : totals) {
+                    Entry entry = entries.get((Long) row[0]);
+                    if (entry != null) {
+                        entry.lectures = (Long) row[1];
+                        entry.scored = (Long) row[2];
+                        entry.scoreSum = ((Number) row[3]).doubleValue();
+                    }
+                }
+                entries.values().stream()
+                        .filter(entry -> !entry.dirty)
+                        .forEach(this::place);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Loaded faculty leaderboards of {} teachers in {} ms", placements.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the faculty leaderboards", ex);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // After commit, so a rolled-back write never moves a teacher; ahead of DashboardCache's version bump
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLectureChanged(LectureChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        LectureSnapshot before = event.before();
+        LectureSnapshot after = event.after();
+        if (before != null && after != null && Objects.equals(before.teacherProfileId(), after.teacherProfileId())
+                && Objects.equals(before.score(), after.score())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (before != null) {
+                move(before, -1);
+            }
+            if (after != null) {
+                move(after, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeacherProfileChanged(TeacherProfileChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            markDirty(event.teacherProfileId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param department {@code null} for the leaderboard of the whole school
+     * @param offset     0-based rank of the first entry
+     */
+    public LeaderboardPageDTO page(String school, String department, int offset, int limit) {
+        if (offset < 0) {
+            throw new BadRequestException("offset must not be negative.");
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new BadRequestException("limit must be between 1 and " + maxPageSize + ".");
+        }
+        requireReady();
+        refresh();
+        List<Standing> standings;
+        int total;
+        lock.readLock().lock();
+        try {
+            RankTree<Standing> board = boards.get(new Board(school, department));
+            total = board != null ? board.size() : 0;
+            standings = board != null ? board.range(offset, limit) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new LeaderboardPageDTO(school, department, total, offset, entries(standings, offset));
+    }
+
+    /**
+     * @return a page holding just the teacher, at the teacher's rank
+     */
+    public LeaderboardPageDTO rankOf(String school, String department, Long teacherProfileId) {
+        requireReady();
+        refresh();
+        Standing standing;
+        int rank;
+        int total;
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(teacherProfileId);
+            RankTree<Standing> board = boards.get(new Board(school, department));
+            standing = entry != null ? entry.standing : null;
+            rank = standing != null && board != null ? board.rankOf(standing) : -1;
+            total = board != null ? board.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (rank < 0) {
+            throw new NotFoundException("Teacher is not on this leaderboard.");
+        }
+        return new LeaderboardPageDTO(school, department, total, rank, entries(List.of(standing), rank));
+    }
+
+    /**
+     * @return teacher profile ids of the school, best first, or {@code null} while the boards are loading
+     */
+    public List<Long> ranking(String school) {
+        if (!enabled || !ready) {
+            return null;
+        }
+        refresh();
+        lock.readLock().lock();
+        try {
+            RankTree<Standing> board = boards.get(new Board(school, null));
+            if (board == null) {
+                return List.of();
+            }
+            return board.range(0, board.size()).stream()
+                    .map(Standing::teacherProfileId)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void requireReady() {
+        if (!enabled || !ready) {
+            throw new ServiceUnavailableException("Faculty leaderboards are still loading.");
+        }
+    }
+
+    private void move(LectureSnapshot lecture, int sign) {
+        Entry entry = entries.get(lecture.teacherProfileId());
+        if (loading || !ready || entry == null || entry.dirty) {
+            markDirty(lecture.teacherProfileId());
+            return;
+        }
+        unplace(entry);
+        entry.lectures += sign;
+        if (lecture.score() != null) {
+            entry.scored += sign;
+            entry.scoreSum += sign * lecture.score();
+        }
+        place(entry);
+    }
+
+    private void markDirty(Long teacherProfileId) {
+        Entry entry = entries.computeIfAbsent(teacherProfileId, Entry::new);
+        entry.dirty = true;
+        entry.version++;
+        dirty.add(teacherProfileId);
+    }
+
+    // Re-reads the totals of dirty teachers, outside the lock; a teacher changed meanwhile stays dirty
+    private void refresh() {
+        Map<Long, Long> versions;
+        lock.readLock().lock();
+        try {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            versions = dirty.stream().collect(Collectors.toMap(Function.identity(), id -> entries.get(id).version));
+        } finally {
+            lock.readLock().unlock();
+        }
+        versions.forEach((teacherProfileId, version) -> {
+            Optional<TeacherProfile> profile = teacherProfileRepository.findById(teacherProfileId);
+            TeacherLectureAggregate totals = profile.isPresent()
+                    ? lectureRepository.aggregateByTeacherProfileId(teacherProfileId)
+                    : null;
+            lock.writeLock().lock();
+            try {
+                Entry entry = entries.get(teacherProfileId);
+                if (entry == null || entry.version != version) {
+                    return;
+                }
+                unplace(entry);
+                dirty.remove(teacherProfileId);
+                if (profile.isEmpty()) {
+                    entries.remove(teacherProfileId);
+                    return;
+                }
+                entry.school = profile.get().getSchool();
+                entry.department = profile.get().getDepartment();
+                entry.lectures = totals.lectureCount();
+                entry.scored = totals.scoredCount();
+                entry.scoreSum = totals.scoreSum();
+                entry.dirty = false;
+                place(entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void place(Entry entry) {
+        if (entry.school == null) {
+            return;
+        }
+        double avgScore = entry.scored > 0 ? entry.scoreSum / entry.scored : 0.0;
+        entry.standing = new Standing(entry.teacherProfileId, avgScore, entry.lectures);
+        entry.placedIn = new Board(entry.school, entry.department);
+        board(new Board(entry.school, null)).add(entry.standing);
+        if (entry.department != null) {
+            board(entry.placedIn).add(entry.standing);
+        }
+    }
+
+    private void unplace(Entry entry) {
+        if (entry.standing == null) {
+            return;
+        }
+        remove(new Board(entry.placedIn.school(), null), entry.standing);
+        if (entry.placedIn.department() != null) {
+            remove(entry.placedIn, entry.standing);
+        }
+        entry.standing = null;
+        entry.placedIn = null;
+    }
+
+    private RankTree<Standing> board(Board key) {
+        return boards.computeIfAbsent(key, k -> new RankTree<>(BY_RANK));
+    }
+
+    private void remove(Board key, Standing standing) {
+        RankTree<Standing> board = boards.get(key);
+        if (board != null && board.remove(standing) && board.size() == 0) {
+            boards.remove(key);
+        }
+    }
+
+    // Names are read for the page only, so a renamed user needs no event here
+    private List<LeaderboardEntryDTO> entries(List<Standing> standings, int offset) {
+        if (standings.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TeacherIdentityView> identities = teacherProfileRepository.findIdentitiesByIdIn(
+                        standings.stream().map(Standing::teacherProfileId).toList()).stream()
+                .collect(Collectors.toMap(TeacherIdentityView::id, Function.identity()));
+        List<LeaderboardEntryDTO> result = new ArrayList<>(standings.size());
+        for (int i = 0; i < standings.size(); i++) {
+            Standing standing = standings.get(i);
+            TeacherIdentityView identity = identities.get(standing.teacherProfileId());
+            result.add(new LeaderboardEntryDTO(offset + i + 1, standing.teacherProfileId(),
+                    identity != null ? identity.name() : null, identity != null ? identity.department() : null,
+                    standing.lectureCount(), standing.avgScore()));
+        }
+        return result;
+    }
+
+    // department == null: the board of the whole school
+    private record Board(String school, String department) {
+    }
+
+    private record Standing(long teacherProfileId, double avgScore, long lectureCount) {
+    }
+
+    private static final class Entry {
+        private final long teacherProfileId;
+        private String school;
+        private String department;
+        private long lectures;
+        private long scored;
+        private double scoreSum;
+        private Standing standing;
+        private Board placedIn;
+        private boolean dirty;
+        private long version;
+
+        private Entry(long teacherProfileId) {
+            this.teacherProfileId = teacherProfileId;
+        }
+    }
+}
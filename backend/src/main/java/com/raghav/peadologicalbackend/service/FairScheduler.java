@@ -0,0 +1,420 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.AnalysisSchedulerStatsResponse;
+import com.raghav.peadologicalbackend.dto.SchedulerLaneStats;
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out a fixed number of concurrency permits in a fair order instead of arrival order.
+ * <ul>
+ *   <li>Lanes are picked by smooth weighted round-robin, so interactive work goes first but
+ *       back-fills keep a share of {@code weight / total weight}.</li>
+ *   <li>Within a lane, schools are served by deficit round-robin on the job's cost (audio size),
+ *       so a school uploading hundreds of long recordings gets the same throughput as one
+ *       uploading a single short one.</li>
+ *   <li>Within a school, teachers take turns one job at a time.</li>
+ * </ul>
+ * Permits are taken either by a blocking {@link #acquire} / {@link #release} pair or by
+ * {@link #execute}, which runs the task on the scheduler's executor once a permit is free.
+ */
+public class FairScheduler {
+
+    private static final long COST_UNIT_BYTES = 1024 * 1024;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long quantum;
+    private final Executor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<AnalysisLane, Lane> lanes = new EnumMap<>(AnalysisLane.class);
+    private int inFlight;
+    private int queued;
+    private long rejected;
+
+    /**
+     * @param quantum  cost credited to a school each round; costs are in the unit passed to
+     *                 {@link #acquire} and {@link #execute}
+     * @param executor runs tasks given to {@link #execute}; {@code null} if only {@link #acquire} is used
+     */
+    public FairScheduler(String name, int maxConcurrent, int maxQueued, long quantum,
+                         Map<AnalysisLane, Integer> weights, Executor executor) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.quantum = Math.max(1, quantum);
+        this.executor = executor;
+        for (AnalysisLane lane : AnalysisLane.values()) {
+            lanes.put(lane, new Lane(lane, Math.max(1, weights.getOrDefault(lane, 1))));
+        }
+    }
+
+    /**
+     * Blocks until a permit is handed to this caller. Every successful call must be paired with
+     * {@link #release()}.
+     *
+     * @throws ServiceUnavailableException if the queue is full or no permit came within {@code maxWait}
+     */
+    public void acquire(AnalysisTicket ticket, long cost, Duration maxWait) {
+        BlockingWaiter waiter = new BlockingWaiter(ticket, cost);
+        lock.lock();
+        try {
+            if (tryDispatchNow(waiter)) {
+                return;
+            }
+            if (queued >= maxQueued) {
+                rejected++;
+                throw new ServiceUnavailableException("Analysis queue is full.");
+            }
+            enqueue(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            waiter.granted.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            abandon(waiter);
+            throw new ServiceUnavailableException("Timed out waiting for analysis capacity.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abandon(waiter);
+            throw new ServiceUnavailableException("Interrupted while waiting for analysis capacity.");
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Queues {@code task} to run on the executor once a permit is free; the permit is released
+     * when the task ends.
+     *
+     * @param onRejected run instead of {@code task} if the executor refuses it (e.g. during shutdown)
+     * @return {@code false} if the queue is full and the task was not accepted
+     */
+    public boolean execute(AnalysisTicket ticket, long cost, Runnable task, Runnable onRejected) {
+        TaskWaiter waiter = new TaskWaiter(ticket, cost, task, onRejected);
+        lock.lock();
+        try {
+            if (tryDispatchNow(waiter)) {
+                return true;
+            }
+            if (queued >= maxQueued) {
+                rejected++;
+                return false;
+            }
+            enqueue(waiter);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit; it goes straight to the next waiter in fair order, if there is one.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            Waiter next;
+            while ((next = pollNext()) != null) {
+                lanes.get(next.ticket.lane()).recordDispatch(next);
+                if (next.grant()) {
+                    return; // permit handed over, in-flight count unchanged
+                }
+            }
+            inFlight--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cost of analysing {@code bytes} of audio, in MiB; unknown sizes count as one unit.
+     */
+    public static long costOf(Long bytes) {
+        return bytes != null ? Math.max(1, bytes / COST_UNIT_BYTES) : 1;
+    }
+
+    public AnalysisSchedulerStatsResponse stats() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            List<SchedulerLaneStats> laneStats = new ArrayList<>();
+            for (Lane lane : lanes.values()) {
+                laneStats.add(lane.stats(now));
+            }
+            return new AnalysisSchedulerStatsResponse(name, maxConcurrent, inFlight, maxQueued, rejected, laneStats);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock. Work only bypasses the queue when nothing is waiting, so it can never overtake.
+    private boolean tryDispatchNow(Waiter waiter) {
+        if (inFlight >= maxConcurrent || queued > 0) {
+            return false;
+        }
+        inFlight++;
+        lanes.get(waiter.ticket.lane()).recordDispatch(waiter);
+        if (!waiter.grant()) {
+            inFlight--;
+        }
+        return true;
+    }
+
+    private void enqueue(Waiter waiter) {
+        lanes.get(waiter.ticket.lane()).add(waiter);
+        queued++;
+    }
+
+    private void abandon(BlockingWaiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.granted.isDone()) {
+                release(); // the permit arrived just as the wait ended
+            } else {
+                waiter.granted.cancel(false);
+                lanes.get(waiter.ticket.lane()).remove(waiter);
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Smooth weighted round-robin across the lanes that have work
+    private Waiter pollNext() {
+        Lane best = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.size == 0) {
+                continue;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.currentWeight -= totalWeight;
+        queued--;
+        return best.poll(quantum);
+    }
+
+    private abstract static class Waiter {
+        final AnalysisTicket ticket;
+        final long cost;
+        final long enqueuedAt = System.nanoTime();
+
+        Waiter(AnalysisTicket ticket, long cost) {
+            this.ticket = ticket;
+            this.cost = Math.max(1, cost);
+        }
+
+        /**
+         * @return {@code false} if the waiter could not take the permit
+         */
+        abstract boolean grant();
+    }
+
+    private static final class BlockingWaiter extends Waiter {
+        final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        BlockingWaiter(AnalysisTicket ticket, long cost) {
+            super(ticket, cost);
+        }
+
+        @Override
+        boolean grant() {
+            return granted.complete(null);
+        }
+    }
+
+    private final class TaskWaiter extends Waiter {
+        final Runnable task;
+        final Runnable onRejected;
+
+        TaskWaiter(AnalysisTicket ticket, long cost, Runnable task, Runnable onRejected) {
+            super(ticket, cost);
+            this.task = task;
+            this.onRejected = onRejected;
+        }
+
+        @Override
+        boolean grant() {
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        release();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException ex) {
+                onRejected.run();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Waiters of one school, with the teachers taking turns.
+     */
+    private static final class SchoolQueue {
+        final String key;
+        final ArrayDeque<ArrayDeque<Waiter>> teachers = new ArrayDeque<>();
+        final Map<String, ArrayDeque<Waiter>> byTeacher = new HashMap<>();
+        long deficit;
+
+        SchoolQueue(String key) {
+            this.key = key;
+        }
+
+        void add(Waiter waiter) {
+            ArrayDeque<Waiter> queue = byTeacher.get(waiter.ticket.teacherKey());
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                byTeacher.put(waiter.ticket.teacherKey(), queue);
+                teachers.addLast(queue);
+            }
+            queue.addLast(waiter);
+        }
+
+        Waiter peek() {
+            return teachers.peekFirst().peekFirst();
+        }
+
+        Waiter poll() {
+            ArrayDeque<Waiter> queue = teachers.pollFirst();
+            Waiter waiter = queue.pollFirst();
+            if (queue.isEmpty()) {
+                byTeacher.remove(waiter.ticket.teacherKey());
+            } else {
+                teachers.addLast(queue);
+            }
+            return waiter;
+        }
+
+        void remove(Waiter waiter) {
+            ArrayDeque<Waiter> queue = byTeacher.get(waiter.ticket.teacherKey());
+            if (queue != null && queue.remove(waiter) && queue.isEmpty()) {
+                byTeacher.remove(waiter.ticket.teacherKey());
+                teachers.remove(queue);
+            }
+        }
+
+        boolean isEmpty() {
+            return teachers.isEmpty();
+        }
+    }
+
+    private static final class Lane {
+        final AnalysisLane lane;
+        final int weight;
+        final ArrayDeque<SchoolQueue> schools = new ArrayDeque<>();
+        final Map<String, SchoolQueue> bySchool = new HashMap<>();
+        int currentWeight;
+        int size;
+        long dispatched;
+        long totalWaitNanos;
+        long maxWaitNanos;
+
+        Lane(AnalysisLane lane, int weight) {
+            this.lane = lane;
+            this.weight = weight;
+        }
+
+        void add(Waiter waiter) {
+            SchoolQueue school = bySchool.get(waiter.ticket.schoolKey());
+            if (school == null) {
+                school = new SchoolQueue(waiter.ticket.schoolKey());
+                bySchool.put(school.key, school);
+                schools.addLast(school);
+            }
+            school.add(waiter);
+            size++;
+        }
+
+        /**
+         * Deficit round-robin: the school at the head is served while its credit covers the cost
+         * of its next job; otherwise it is credited one quantum and moves to the back.
+         */
+        Waiter poll(long quantum) {
+            while (true) {
+                SchoolQueue school = schools.peekFirst();
+                Waiter head = school.peek();
+                if (school.deficit < head.cost) {
+                    school.deficit += quantum;
+                    schools.addLast(schools.pollFirst());
+                    continue;
+                }
+                school.deficit -= head.cost;
+                school.poll();
+                if (school.isEmpty()) {
+                    schools.pollFirst();
+                    bySchool.remove(school.key);
+                }
+                size--;
+                return head;
+            }
+        }
+
+        void remove(Waiter waiter) {
+            SchoolQueue school = bySchool.get(waiter.ticket.schoolKey());
+            if (school == null) {
+                return;
+            }
+            school.remove(waiter);
+            size--;
+            if (school.isEmpty()) {
+                schools.remove(school);
+                bySchool.remove(school.key);
+            }
+        }
+
+        void recordDispatch(Waiter waiter) {
+            long waited = System.nanoTime() - waiter.enqueuedAt;
+            dispatched++;
+            totalWaitNanos += waited;
+            maxWaitNanos = Math.max(maxWaitNanos, waited);
+        }
+
+        SchedulerLaneStats stats(long now) {
+            long oldest = 0;
+            for (SchoolQueue school : schools) {
+                for (ArrayDeque<Waiter> teacher : school.teachers) {
+                    Waiter first = teacher.peekFirst();
+                    if (first != null) {
+                        oldest = Math.max(oldest, now - first.enqueuedAt);
+                    }
+                }
+            }
+            return new SchedulerLaneStats(lane, weight, size, dispatched,
+                    dispatched > 0 ? totalWaitNanos / 1e6 / dispatched : 0.0,
+                    maxWaitNanos / 1e6,
+                    oldest / 1e6);
+        }
+    }
+}
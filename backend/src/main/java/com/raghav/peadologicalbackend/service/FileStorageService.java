@@ -1,51 +1,320 @@
 package com.raghav.peadologicalbackend.service;
 
+import com.raghav.peadologicalbackend.audio.PeakSummarizer;
+import com.raghav.peadologicalbackend.audio.WaveformPeaks;
+import com.raghav.peadologicalbackend.exception.PayloadTooLargeException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
 
+/**
+ * Audio is first staged under {@code uploads/incoming} and, once its SHA-256 is known, promoted
+ * into the content-addressed store {@code uploads/blobs/<first two hex chars>/<sha256><ext>}.
+ * Reference counting of blobs lives in {@link AudioBlobService}. The waveform peaks of PCM WAV audio
+ * are summarised from the same buffer as the hash and kept beside the blob as {@code <sha256>.peaks};
+ * the sidecar stays on the hot disk when the audio itself is archived.
+ */
 @Service
 public class FileStorageService {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PART_SUFFIX = ".part";
+    public static final String PEAKS_SUFFIX = ".peaks";
+
     private final Path fileStorageLocation;
+    private final Path incomingLocation;
+    private final Path blobLocation;
+    private final long maxUploadBytes;
+    private final boolean waveformEnabled;
+    private final int waveformMaxPeaks;
+    private final int waveformMinPeaks;
 
-    public FileStorageService() {
+    public FileStorageService(@Value("${storage.max-upload-bytes:2147483648}") long maxUploadBytes,
+                              @Value("${storage.waveform.enabled:true}") boolean waveformEnabled,
+                              @Value("${storage.waveform.max-peaks:4096}") int waveformMaxPeaks,
+                              @Value("${storage.waveform.min-peaks:256}") int waveformMinPeaks) {
         this.fileStorageLocation = Paths.get("uploads").toAbsolutePath().normalize();
+        this.incomingLocation = this.fileStorageLocation.resolve("incoming");
+        this.blobLocation = this.fileStorageLocation.resolve("blobs");
+        this.maxUploadBytes = maxUploadBytes;
+        this.waveformEnabled = waveformEnabled;
+        this.waveformMaxPeaks = waveformMaxPeaks;
+        this.waveformMinPeaks = waveformMinPeaks;
         try {
             Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.incomingLocation);
+            Files.createDirectories(this.blobLocation);
         } catch (Exception ex) {
             throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
         }
     }
 
-    public String storeFile(MultipartFile file) {
-        // Normalize file name
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = "";
-        if (originalFileName != null && originalFileName.contains(".")) {
-            fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    public Path getFileStorageLocation() {
+        return fileStorageLocation;
+    }
+
+    public Path getIncomingLocation() {
+        return incomingLocation;
+    }
+
+    public Path getBlobLocation() {
+        return blobLocation;
+    }
+
+    public StoredAudio stageAudio(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return stageStream(in, file.getOriginalFilename());
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read uploaded file. Please try again!", ex);
+        }
+    }
+
+    /**
+     * Writes an upload straight from the request body to the staging area in a single pass.
+     * The SHA-256 and byte count are computed while the bytes flow through one fixed buffer, and
+     * the upload is cut off as soon as it exceeds {@code storage.max-upload-bytes}.
+     */
+    public StoredAudio stageStream(InputStream in, String originalFileName) {
+        Path partLocation = this.incomingLocation.resolve(UUID.randomUUID().toString() + extensionOf(originalFileName) + PART_SUFFIX);
+
+        MessageDigest digest = sha256();
+        PeakSummarizer peaks = newPeakSummarizer();
+        long size = 0;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(partLocation, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                size += read;
+                if (size > maxUploadBytes) {
+                    throw new PayloadTooLargeException("Upload exceeds the maximum size of " + maxUploadBytes + " bytes.");
+                }
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                if (peaks != null) {
+                    peaks.update(buffer.array(), 0, buffer.limit());
+                }
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+        } catch (IOException ex) {
+            deleteQuietly(partLocation);
+            throw new RuntimeException("Could not store file " + partLocation.getFileName() + ". Please try again!", ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(partLocation);
+            throw ex;
         }
-        String fileName = UUID.randomUUID().toString() + fileExtension;
+        return new StoredAudio(partLocation.toString(), HexFormat.of().formatHex(digest.digest()), size,
+                peaks != null ? peaks.finish() : null);
+    }
 
+    /**
+     * Creates the empty part file that the chunks of a resumable upload are written into.
+     */
+    public String createUploadPart(String uploadId, String originalFileName) {
+        Path partLocation = this.incomingLocation.resolve(uploadId + extensionOf(originalFileName) + PART_SUFFIX);
         try {
-            // Check if the file's name contains invalid characters
-            if (fileName.contains("..")) {
-                throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+            Files.createFile(partLocation);
+            return partLocation.toString();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create upload " + uploadId + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Writes one chunk at its byte offset with positional {@link FileChannel} writes and forces it to
+     * disk before returning, so a committed offset is never ahead of what survived a crash.
+     *
+     * @return the number of bytes written
+     */
+    public long writeChunk(String partPath, long offset, InputStream in, long maxChunkBytes) {
+        long written = 0;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(Paths.get(partPath), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                written += read;
+                if (written > maxChunkBytes || offset + written > maxUploadBytes) {
+                    throw new PayloadTooLargeException("Chunk exceeds the maximum upload size.");
+                }
+                buffer.flip();
+                long position = offset + written - read;
+                while (buffer.hasRemaining()) {
+                    position += target.write(buffer, position);
+                }
+                buffer.clear();
             }
+            target.force(false);
+            return written;
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not write chunk at offset " + offset + ". Please try again!", ex);
+        }
+    }
 
-            // Copy file to the target location (Replacing existing file with the same name)
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Closes a fully received resumable upload: drops any bytes past the committed length and
+     * hashes it (and summarises its peaks) in one sequential read. The result is still staged,
+     * under a second name for the same file (a hard link, or a copy where links are not supported),
+     * so ingesting it consumes the link and the part file survives a failed ingest for a retry.
+     */
+    public StoredAudio completeUpload(String partPath, long length) {
+        Path partLocation = Paths.get(partPath);
+        MessageDigest digest = sha256();
+        PeakSummarizer peaks = newPeakSummarizer();
+        try (FileChannel channel = FileChannel.open(partLocation, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                if (peaks != null) {
+                    peaks.update(buffer.array(), 0, buffer.limit());
+                }
+                buffer.clear();
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read upload " + partLocation.getFileName() + ". Please try again!", ex);
+        }
+        String partName = partLocation.getFileName().toString();
+        Path stagedLocation = partLocation.resolveSibling(UUID.randomUUID() + "-" + partName);
+        try {
+            try {
+                Files.createLink(stagedLocation, partLocation);
+            } catch (UnsupportedOperationException | IOException ex) {
+                Files.copy(partLocation, stagedLocation);
+            }
+        } catch (IOException ex) {
+            deleteQuietly(stagedLocation);
+            throw new RuntimeException("Could not stage upload " + partName + ". Please try again!", ex);
+        }
+        return new StoredAudio(stagedLocation.toString(), HexFormat.of().formatHex(digest.digest()), length,
+                peaks != null ? peaks.finish() : null);
+    }
 
+    /**
+     * Moves a staged file into the content-addressed store. Only called for the first copy of a
+     * blob; duplicates are discarded by {@link AudioBlobService} instead.
+     *
+     * @return the blob path
+     */
+    public String promoteToBlob(StoredAudio staged) {
+        Path partLocation = Paths.get(staged.path());
+        String partName = partLocation.getFileName().toString();
+        String stagedName = partName.endsWith(PART_SUFFIX) ? partName.substring(0, partName.length() - PART_SUFFIX.length()) : partName;
+        Path targetLocation = blobPath(staged.sha256(), extensionOf(stagedName));
+        try {
+            Files.createDirectories(targetLocation.getParent());
+            Files.move(partLocation, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            if (staged.peaks() != null) {
+                writePeaks(staged.sha256(), staged.peaks());
+            }
             return targetLocation.toString();
         } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+            throw new RuntimeException("Could not store file " + partName + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Summarises a stored file the way an upload is summarised while staged, for blobs that were
+     * stored without peaks.
+     *
+     * @return the peaks, or {@code null} if the file is not a PCM WAV
+     */
+    public WaveformPeaks summarizePeaks(Path file) throws IOException {
+        PeakSummarizer peaks = new PeakSummarizer(waveformMaxPeaks, waveformMinPeaks);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                peaks.update(buffer.array(), 0, buffer.limit());
+                buffer.clear();
+            }
+        }
+        return peaks.finish();
+    }
+
+    public Path peaksPath(String sha256) {
+        return blobPath(sha256, PEAKS_SUFFIX);
+    }
+
+    /**
+     * Writes the peaks sidecar of a blob through a temporary file, so readers never see a partial
+     * one. Best effort: a missing sidecar is recomputed when the waveform is first requested.
+     */
+    public void writePeaks(String sha256, WaveformPeaks peaks) {
+        Path target = peaksPath(sha256);
+        Path part = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + PART_SUFFIX);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.write(part, peaks.encode(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            deleteQuietly(part);
+        }
+    }
+
+    public void delete(String path) {
+        if (path != null) {
+            deleteQuietly(Paths.get(path));
+        }
+    }
+
+    private PeakSummarizer newPeakSummarizer() {
+        return waveformEnabled ? new PeakSummarizer(waveformMaxPeaks, waveformMinPeaks) : null;
+    }
+
+    private Path blobPath(String sha256, String extension) {
+        return this.blobLocation.resolve(sha256.substring(0, 2)).resolve(sha256 + extension);
+    }
+
+    private String extensionOf(String originalFileName) {
+        if (originalFileName == null || !originalFileName.contains(".")) {
+            return "";
+        }
+        String extension = originalFileName.substring(originalFileName.lastIndexOf("."));
+        // Check if the extension contains invalid characters
+        if (!extension.matches("\\.[A-Za-z0-9]{1,10}")) {
+            return "";
+        }
+        return extension.toLowerCase();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // best effort; the orphan is harmless
         }
     }
 }
@@ -2,9 +2,11 @@ package com.raghav.peadologicalbackend.service;
 
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -19,8 +21,13 @@ import java.util.function.Function;
 
 @Service
 public class JwtService {
+    private static final String STREAM_SCOPE = "progress-stream";
+
     private  String secretKey = "";
-    public JwtService(){
+    private final long streamTokenTtlSeconds;
+
+    public JwtService(@Value("${progress.stream-token-ttl-seconds:120}") long streamTokenTtlSeconds){
+        this.streamTokenTtlSeconds = streamTokenTtlSeconds;
         try {
             KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
             SecretKey sk = keyGen.generateKey();
@@ -51,6 +58,43 @@ public class JwtService {
 
     }
 
+    /**
+     * Short-lived token for one teacher's progress stream. Browsers open that stream with
+     * EventSource, which cannot send an Authorization header, so it goes in the URL instead; being
+     * scoped and short-lived, a leaked URL is worth little. It is never accepted as a bearer token.
+     */
+    public String generateStreamToken(String username, String role, Long teacherProfileId) {
+        return Jwts.builder()
+                .claims()
+                .add(Map.of("role", role, "scope", STREAM_SCOPE, "teacherProfileId", teacherProfileId))
+                .subject(username)
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + streamTokenTtlSeconds * 1000))
+                .and()
+                .signWith(getkey())
+                .compact();
+    }
+
+    public long getStreamTokenTtlSeconds() {
+        return streamTokenTtlSeconds;
+    }
+
+    /**
+     * @return the claims of a valid, unexpired stream token, or {@code null}
+     */
+    public Claims extractStreamClaims(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return STREAM_SCOPE.equals(claims.get("scope", String.class)) ? claims : null;
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    public boolean isStreamToken(String token) {
+        return extractClaim(token, claims -> claims.get("scope", String.class)) != null;
+    }
+
     private SecretKey getkey() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
@@ -0,0 +1,161 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.AnalysisStage;
+import com.raghav.peadologicalbackend.dto.LectureProgressEvent;
+import com.raghav.peadologicalbackend.dto.WhisperResponse;
+import com.raghav.peadologicalbackend.entity.AnalysisDeadLetter;
+import com.raghav.peadologicalbackend.entity.AnalysisFailure;
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
+import com.raghav.peadologicalbackend.entity.Lecture;
+import com.raghav.peadologicalbackend.repository.AnalysisDeadLetterRepository;
+import com.raghav.peadologicalbackend.repository.AnalysisFailureRepository;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import com.raghav.peadologicalbackend.repository.PendingAnalysisView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Short transactional steps of the lecture analysis pipeline. Each method commits on its own
+ * so that no DB connection is held while the analysis service is working.
+ */
+@Service
+@RequiredArgsConstructor
+public class LectureAnalysisService {
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final LectureRepository lectureRepository;
+    private final AnalysisFailureRepository analysisFailureRepository;
+    private final AnalysisDeadLetterRepository analysisDeadLetterRepository;
+    private final AnalysisRetryPolicy retryPolicy;
+    private final AnalysisCacheService analysisCacheService;
+    private final LectureMapper lectureMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Claims a PENDING lecture for analysis.
+     *
+     * @return the job, or {@code null} if another worker already claimed it
+     */
+    @Transactional
+    public AnalysisJob markRunning(Long lectureId) {
+        int updated = lectureRepository.transitionAnalysisStatus(
+                lectureId, AnalysisStatus.PENDING, AnalysisStatus.RUNNING, LocalDateTime.now());
+        if (updated == 0) {
+            return null;
+        }
+        Lecture lecture = lectureRepository.findById(lectureId).orElse(null);
+        if (lecture == null) {
+            return null;
+        }
+        return new AnalysisJob(lecture.getId(), lecture.getTeacherProfile().getId(), lecture.getLectureAudioUrl(),
+                lecture.getAudioSha256(), lecture.getSyllabus());
+    }
+
+    /**
+     * Fills the lecture from the analysis cache when the same audio was already analysed against
+     * the same syllabus, so a re-upload never goes to the analysis service again.
+     *
+     * @return {@code true} if a cached analysis was applied
+     */
+    public boolean copyExistingAnalysis(Lecture lecture) {
+        WhisperResponse.AnalysisData data = analysisCacheService.lookup(lecture.getAudioSha256(), lecture.getSyllabus());
+        if (data == null) {
+            return false;
+        }
+        applyResult(lecture, data);
+        return true;
+    }
+
+    @Transactional
+    public void complete(Long lectureId, WhisperResponse.AnalysisData data) {
+        Lecture lecture = lectureRepository.findById(lectureId).orElse(null);
+        if (lecture == null) {
+            return; // deleted while the analysis was running
+        }
+        LectureSnapshot before = LectureSnapshot.of(lecture);
+        applyResult(lecture, data);
+        eventPublisher.publishEvent(LectureChangedEvent.updated(before, lecture));
+        eventPublisher.publishEvent(LectureProgressEvent.of(lectureMapper.toResponse(lecture), AnalysisStage.DONE));
+    }
+
+    private void applyResult(Lecture lecture, WhisperResponse.AnalysisData data) {
+        lecture.setScore(data.getPedagogicalScore());
+        lecture.setAnalysisContent(data.getAnalysis());
+        lecture.setScoreReasoning(data.getScoreReasoning());
+        lecture.setReviewRatio(data.getReviewRatio());
+        lecture.setQuestionVelocity(data.getQuestionVelocity());
+        lecture.setWaitTime(data.getWaitTime());
+        lecture.setTeacherTalkingTime(data.getTeacherTalkingTime());
+        lecture.setHinglishFluency(data.getHinglishFluency());
+        lecture.setAnalysisStatus(AnalysisStatus.DONE);
+        lecture.setAnalysisError(null);
+        lecture.setAnalysisNextAttemptAt(null);
+        lecture.setAnalysisUpdatedAt(LocalDateTime.now());
+    }
+
+    /**
+     * Records a failed attempt. A retryable failure with attempts left puts the lecture back to
+     * PENDING with a backoff; otherwise it becomes FAILED and is dead-lettered for an administrator
+     * to re-drive.
+     */
+    @Transactional
+    public void recordFailure(Long lectureId, String error, boolean retryable) {
+        Lecture lecture = lectureRepository.findById(lectureId).orElse(null);
+        if (lecture == null) {
+            return;
+        }
+        if (error == null || error.isBlank()) {
+            error = "Analysis failed.";
+        } else if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        LectureSnapshot before = LectureSnapshot.of(lecture);
+        LocalDateTime now = LocalDateTime.now();
+        int attempts = (lecture.getAnalysisAttempts() != null ? lecture.getAnalysisAttempts() : 0) + 1;
+        analysisFailureRepository.save(new AnalysisFailure(null, lectureId, attempts, error, retryable, now));
+
+        lecture.setAnalysisAttempts(attempts);
+        lecture.setAnalysisError(error);
+        lecture.setAnalysisUpdatedAt(now);
+        if (retryPolicy.shouldRetry(attempts, retryable)) {
+            lecture.setAnalysisStatus(AnalysisStatus.PENDING);
+            lecture.setAnalysisNextAttemptAt(now.plus(retryPolicy.nextDelay(attempts)));
+            eventPublisher.publishEvent(LectureChangedEvent.updated(before, lecture));
+            LectureProgressEvent event = LectureProgressEvent.of(lectureMapper.toResponse(lecture), AnalysisStage.RETRYING);
+            eventPublisher.publishEvent(event);
+            return;
+        }
+
+        lecture.setAnalysisStatus(AnalysisStatus.FAILED);
+        lecture.setAnalysisNextAttemptAt(null);
+        eventPublisher.publishEvent(LectureChangedEvent.updated(before, lecture));
+        AnalysisDeadLetter deadLetter = analysisDeadLetterRepository.findByLectureId(lectureId)
+                .orElseGet(() -> new AnalysisDeadLetter(null, lectureId, lecture.getTeacherProfile().getId(), 0, null, now, 0, null));
+        deadLetter.setAttempts(attempts);
+        deadLetter.setLastError(error);
+        deadLetter.setDeadAt(now);
+        deadLetter.setRedrivenAt(null);
+        analysisDeadLetterRepository.save(deadLetter);
+        eventPublisher.publishEvent(LectureProgressEvent.of(lectureMapper.toResponse(lecture), AnalysisStage.FAILED));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PendingAnalysisView> findDueLectures(int limit) {
+        return lectureRepository.findDueViewsByAnalysisStatus(AnalysisStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Lectures left RUNNING by a previous process were interrupted mid-analysis; put them back in the queue.
+     */
+    @Transactional
+    public int resetInterrupted() {
+        return lectureRepository.transitionAllAnalysisStatus(
+                AnalysisStatus.RUNNING, AnalysisStatus.PENDING, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,150 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.AnalysisStage;
+import com.raghav.peadologicalbackend.dto.LectureProgressEvent;
+import com.raghav.peadologicalbackend.dto.WhisperResponse;
+import com.raghav.peadologicalbackend.repository.PendingAnalysisView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs Whisper analysis for uploaded lectures on the bounded {@code analysisExecutor} pool,
+ * outside of any request thread or DB transaction. Lectures reach the pool through
+ * {@code analysisJobScheduler}, so they start in fair order across lanes, schools and teachers
+ * rather than in upload order.
+ */
+@Component
+public class LectureAnalysisWorker {
+    private static final Logger log = LoggerFactory.getLogger(LectureAnalysisWorker.class);
+
+    private final LectureAnalysisService lectureAnalysisService;
+    private final AnalysisCacheService analysisCacheService;
+    private final AudioBlobService audioBlobService;
+    private final FairScheduler jobScheduler;
+    private final AnalysisRetryPolicy retryPolicy;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int requeueBatchSize;
+
+    // Lecture ids queued or running in this process, so the requeue pass never double-submits
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public LectureAnalysisWorker(LectureAnalysisService lectureAnalysisService,
+                                 AnalysisCacheService analysisCacheService,
+                                 AudioBlobService audioBlobService,
+                                 @Qualifier("analysisJobScheduler") FairScheduler jobScheduler,
+                                 AnalysisRetryPolicy retryPolicy,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${analysis.queue-capacity:200}") int requeueBatchSize) {
+        this.lectureAnalysisService = lectureAnalysisService;
+        this.analysisCacheService = analysisCacheService;
+        this.audioBlobService = audioBlobService;
+        this.jobScheduler = jobScheduler;
+        this.retryPolicy = retryPolicy;
+        this.eventPublisher = eventPublisher;
+        this.requeueBatchSize = requeueBatchSize;
+    }
+
+    /**
+     * Queues the lecture once the surrounding transaction has committed, so the worker
+     * never looks for a row that is not visible yet.
+     */
+    public void submitAfterCommit(PendingAnalysisView lecture) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(lecture);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(lecture);
+            }
+        });
+    }
+
+    /**
+     * @return {@code false} if the queue is full; the lecture stays PENDING for the next requeue pass
+     */
+    public boolean submit(PendingAnalysisView lecture) {
+        Long lectureId = lecture.id();
+        if (!inFlight.add(lectureId)) {
+            return true;
+        }
+        AnalysisTicket ticket = AnalysisTicket.of(lecture.lane(), lecture.school(), lecture.teacherProfileId(),
+                (done, total) -> {
+                    LectureProgressEvent event = LectureProgressEvent.of(lectureId, lecture.teacherProfileId(), AnalysisStage.TRANSCRIBING);
+                    event.setSegmentsDone(done);
+                    event.setSegmentsTotal(total);
+                    eventPublisher.publishEvent(event);
+                });
+        boolean accepted = jobScheduler.execute(ticket, FairScheduler.costOf(lecture.audioSizeBytes()),
+                () -> run(lectureId, ticket),
+                () -> {
+                    inFlight.remove(lectureId);
+                    log.warn("Analysis pool is shutting down, lecture {} stays PENDING", lectureId);
+                });
+        if (!accepted) {
+            inFlight.remove(lectureId);
+            log.warn("Analysis queue is full, lecture {} stays PENDING", lectureId);
+        }
+        return accepted;
+    }
+
+    private void run(Long lectureId, AnalysisTicket ticket) {
+        try {
+            AnalysisJob job = lectureAnalysisService.markRunning(lectureId);
+            if (job == null) {
+                return;
+            }
+            eventPublisher.publishEvent(LectureProgressEvent.of(lectureId, job.teacherProfileId(), AnalysisStage.TRANSCRIBING));
+            WhisperResponse.AnalysisData data;
+            try (AudioHandle audio = audioBlobService.open(job.audioLocator())) {
+                data = analysisCacheService.analyze(audio.file(), job.audioSha256(), job.syllabus(), ticket);
+            }
+            if (data == null) {
+                lectureAnalysisService.recordFailure(lectureId, "Analysis service returned no data.", true);
+                return;
+            }
+            eventPublisher.publishEvent(LectureProgressEvent.of(lectureId, job.teacherProfileId(), AnalysisStage.SCORING));
+            lectureAnalysisService.complete(lectureId, data);
+        } catch (Exception ex) {
+            log.error("Analysis failed for lecture {}", lectureId, ex);
+            lectureAnalysisService.recordFailure(lectureId, ex.getMessage(), retryPolicy.isRetryable(ex));
+        } finally {
+            inFlight.remove(lectureId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterrupted() {
+        int reset = lectureAnalysisService.resetInterrupted();
+        if (reset > 0) {
+            log.info("Re-queued {} lecture analyses interrupted by a restart", reset);
+        }
+        requeuePending();
+    }
+
+    /**
+     * Picks up PENDING lectures that are not queued here: new uploads the queue had no room for,
+     * and failed attempts whose retry backoff has run out.
+     */
+    @Scheduled(fixedDelayString = "${analysis.requeue-interval-ms:60000}", initialDelayString = "${analysis.requeue-interval-ms:60000}")
+    public void requeuePending() {
+        for (PendingAnalysisView lecture : lectureAnalysisService.findDueLectures(requeueBatchSize)) {
+            if (!submit(lecture)) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.analytics.ColumnFilter;
+import com.raghav.peadologicalbackend.analytics.ColumnQuery;
+import com.raghav.peadologicalbackend.analytics.GroupAggregate;
+import com.raghav.peadologicalbackend.analytics.LectureColumns;
+import com.raghav.peadologicalbackend.analytics.LectureGrouping;
+import com.raghav.peadologicalbackend.dto.AnalyticsGroupDTO;
+import com.raghav.peadologicalbackend.dto.AnalyticsMetricDTO;
+import com.raghav.peadologicalbackend.dto.AnalyticsMetricRange;
+import com.raghav.peadologicalbackend.dto.AnalyticsQueryRequest;
+import com.raghav.peadologicalbackend.dto.AnalyticsResultDTO;
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import com.raghav.peadologicalbackend.exception.BadRequestException;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
+import com.raghav.peadologicalbackend.repository.LectureMetricsView;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link LectureColumns} store in step with the lectures table and answers analytics
+ * queries from it. The store is loaded in keyset pages once the application is up and follows
+ * committed lecture changes afterwards; until it is loaded, callers that have a SQL equivalent use
+ * that instead.
+ */
+@Service
+public class LectureAnalyticsService {
+    private static final Logger log = LoggerFactory.getLogger(LectureAnalyticsService.class);
+
+    private final LectureRepository lectureRepository;
+    private final boolean enabled;
+    private final int loadPageSize;
+    private final LectureColumns columns = new LectureColumns();
+    private volatile boolean ready;
+
+    public LectureAnalyticsService(LectureRepository lectureRepository,
+                                   @Value("${analytics.columnar.enabled:true}") boolean enabled,
+                                   @Value("${analytics.columnar.load-page-size:5000}") int loadPageSize) {
+        this.lectureRepository = lectureRepository;
+        this.enabled = enabled;
+        this.loadPageSize = Math.max(1, loadPageSize);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        columns.beginLoad();
+        try {
+            long afterId = 0;
+            List<LectureMetricsView> page;
+            do {
+                page = lectureRepository.findMetricsViewsAfter(afterId, PageRequest.of(0, loadPageSize));
+                for (LectureMetricsView lecture : page) {
+                    columns.insertIfAbsent(lecture);
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == loadPageSize);
+            ready = true;
+            log.info("Loaded {} lectures into the analytics store in {} ms", columns.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the analytics store; dashboards keep using SQL", ex);
+        } finally {
+            columns.endLoad();
+        }
+    }
+
+    // After commit: the store is not transactional, so it must never see a change that rolls back.
+    // Ordered ahead of DashboardCache, which bumps its versions once the store has the change.
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLectureChanged(LectureChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.after() != null) {
+            columns.upsert(event.after());
+        } else if (event.before() != null) {
+            columns.remove(event.before().id());
+        }
+    }
+
+    public AnalyticsResultDTO query(AnalyticsQueryRequest request) {
+        if (!ready) {
+            throw new ServiceUnavailableException("Lecture analytics are not loaded yet.");
+        }
+        LectureGrouping groupBy = request.getGroupBy() != null ? request.getGroupBy() : LectureGrouping.NONE;
+        EnumSet<LectureMetric> metrics = request.getMetrics() == null || request.getMetrics().isEmpty()
+                ? EnumSet.of(LectureMetric.SCORE) : EnumSet.copyOf(request.getMetrics());
+
+        List<ColumnFilter> filters = new ArrayList<>();
+        if (request.getSchool() != null) {
+            filters.add(new ColumnFilter.SchoolIs(request.getSchool()));
+        }
+        if (request.getDepartment() != null) {
+            filters.add(new ColumnFilter.DepartmentIs(request.getSchool(), request.getDepartment()));
+        }
+        if (request.getTeacherId() != null) {
+            filters.add(new ColumnFilter.TeacherIs(request.getTeacherId()));
+        }
+        if (request.getFrom() != null || request.getTo() != null) {
+            filters.add(new ColumnFilter.UploadedBetween(request.getFrom(), request.getTo()));
+        }
+        if (request.getRanges() != null) {
+            for (AnalyticsMetricRange range : request.getRanges()) {
+                if (range.getMetric() == null) {
+                    throw new BadRequestException("Every metric range needs a metric.");
+                }
+                filters.add(new ColumnFilter.MetricBetween(range.getMetric(),
+                        range.getMin() != null ? range.getMin() : Double.NEGATIVE_INFINITY,
+                        range.getMax() != null ? range.getMax() : Double.POSITIVE_INFINITY));
+            }
+        }
+
+        long started = System.nanoTime();
+        List<GroupAggregate> groups = columns.aggregate(new ColumnQuery(filters, groupBy, metrics));
+        long elapsedMicros = (System.nanoTime() - started) / 1000;
+        return new AnalyticsResultDTO(groupBy, columns.size(), elapsedMicros,
+                groups.stream().map(LectureAnalyticsService::toDto).toList());
+    }
+
+    /**
+     * Per-teacher lecture statistics of a school for the faculty listing:
+     * [teacher id, lectures, avg score, last upload, min score, max score].
+     */
+    public List<Object[]> teacherStatsBySchool(String school) {
+        if (!ready) {
+            return lectureRepository.findTeacherStatsBySchool(school);
+        }
+        List<GroupAggregate> groups = columns.aggregate(new ColumnQuery(List.of(new ColumnFilter.SchoolIs(school)),
+                LectureGrouping.TEACHER, EnumSet.of(LectureMetric.SCORE)));
+        List<Object[]> rows = new ArrayList<>(groups.size());
+        for (GroupAggregate group : groups) {
+            GroupAggregate.MetricAggregate score = group.metrics().get(LectureMetric.SCORE);
+            rows.add(new Object[]{Long.valueOf(group.key()), group.lectures(), score.mean(), group.lastUploadedAt(),
+                    orNull(score.min()), orNull(score.max())});
+        }
+        return rows;
+    }
+
+    private static AnalyticsGroupDTO toDto(GroupAggregate group) {
+        Map<LectureMetric, AnalyticsMetricDTO> metrics = new EnumMap<>(LectureMetric.class);
+        group.metrics().forEach((metric, aggregate) -> metrics.put(metric, new AnalyticsMetricDTO(
+                aggregate.count(), aggregate.mean(), orNull(aggregate.min()), orNull(aggregate.max()))));
+        return new AnalyticsGroupDTO(group.key(), group.lectures(), group.firstUploadedAt(), group.lastUploadedAt(), metrics);
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -0,0 +1,26 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.entity.Lecture;
+
+/**
+ * Published inside the transaction that inserts, updates or deletes a lecture. Listeners that keep
+ * aggregates apply the difference between the two snapshots in the same transaction, so the
+ * aggregates commit or roll back together with the lecture.
+ *
+ * @param before the lecture before the change, {@code null} for an insert
+ * @param after  the lecture after the change, {@code null} for a delete
+ */
+public record LectureChangedEvent(LectureSnapshot before, LectureSnapshot after) {
+
+    public static LectureChangedEvent created(Lecture lecture) {
+        return new LectureChangedEvent(null, LectureSnapshot.of(lecture));
+    }
+
+    public static LectureChangedEvent updated(LectureSnapshot before, Lecture lecture) {
+        return new LectureChangedEvent(before, LectureSnapshot.of(lecture));
+    }
+
+    public static LectureChangedEvent deleted(Lecture lecture) {
+        return new LectureChangedEvent(LectureSnapshot.of(lecture), null);
+    }
+}
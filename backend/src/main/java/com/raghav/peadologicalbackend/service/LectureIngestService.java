@@ -0,0 +1,62 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.LectureCreateRequest;
+import com.raghav.peadologicalbackend.dto.LectureResponse;
+import com.raghav.peadologicalbackend.exception.BadRequestException;
+import com.raghav.peadologicalbackend.exception.PayloadTooLargeException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+
+/**
+ * Upload entry points. Deliberately not transactional: audio is written to disk between two
+ * short transactions (validate, then persist) so no DB connection is held while bytes arrive.
+ */
+@Service
+@RequiredArgsConstructor
+public class LectureIngestService {
+    private final LectureService lectureService;
+    private final FileStorageService fileStorageService;
+    private final AudioBlobService audioBlobService;
+
+    public LectureResponse ingest(LectureCreateRequest request, MultipartFile audioFile) {
+        if (audioFile == null || audioFile.isEmpty()) {
+            return lectureService.createLectureFromUrl(request);
+        }
+        lectureService.checkCanUpload(request);
+        return ingestStored(request, fileStorageService.stageAudio(audioFile));
+    }
+
+    /**
+     * Single-write ingest of a raw request body: the bytes go from the socket to their final file
+     * once, without being spooled by the multipart resolver first.
+     */
+    public LectureResponse ingestStream(LectureCreateRequest request, InputStream body, long contentLength, String originalFileName) {
+        if (contentLength > fileStorageService.getMaxUploadBytes()) {
+            throw new PayloadTooLargeException("Upload exceeds the maximum size of " + fileStorageService.getMaxUploadBytes() + " bytes.");
+        }
+        lectureService.checkCanUpload(request);
+        return ingestStored(request, fileStorageService.stageStream(body, originalFileName));
+    }
+
+    /**
+     * Persists a lecture for audio that has been staged (e.g. an assembled resumable upload). The
+     * audio is attached to its content-addressed blob first, and the reference is dropped again if
+     * the lecture cannot be saved.
+     */
+    public LectureResponse ingestStored(LectureCreateRequest request, StoredAudio staged) {
+        if (staged.sizeBytes() == 0) {
+            fileStorageService.delete(staged.path());
+            throw new BadRequestException("Audio file is empty.");
+        }
+        StoredAudio blob = audioBlobService.acquire(staged);
+        try {
+            return lectureService.createPendingLecture(request, blob);
+        } catch (RuntimeException ex) {
+            audioBlobService.release(blob.sha256());
+            throw ex;
+        }
+    }
+}
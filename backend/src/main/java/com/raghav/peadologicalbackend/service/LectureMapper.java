@@ -0,0 +1,35 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.LectureResponse;
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
+import com.raghav.peadologicalbackend.entity.Lecture;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps lectures to responses for both the request path and the analysis pipeline, which also
+ * publishes the finished lecture on the progress stream.
+ */
+@Component
+public class LectureMapper {
+
+    public LectureResponse toResponse(Lecture lecture) {
+        LectureResponse response = new LectureResponse();
+        response.setId(lecture.getId());
+        response.setLectureTitle(lecture.getLectureTitle());
+        response.setLectureAudioUrl(lecture.getLectureAudioUrl());
+        response.setScore(lecture.getScore());
+        response.setUploadedAt(lecture.getUploadedAt());
+        response.setTeacherProfileId(lecture.getTeacherProfile().getId());
+        response.setClassSlotId(lecture.getClassSlot() != null ? lecture.getClassSlot().getId() : null);
+        response.setAnalysisContent(lecture.getAnalysisContent());
+        response.setScoreReasoning(lecture.getScoreReasoning());
+        response.setReviewRatio(lecture.getReviewRatio());
+        response.setQuestionVelocity(lecture.getQuestionVelocity());
+        response.setWaitTime(lecture.getWaitTime());
+        response.setTeacherTalkingTime(lecture.getTeacherTalkingTime());
+        response.setHinglishFluency(lecture.getHinglishFluency());
+        response.setAnalysisStatus(lecture.getAnalysisStatus() != null ? lecture.getAnalysisStatus() : AnalysisStatus.DONE);
+        response.setAnalysisError(lecture.getAnalysisError());
+        return response;
+    }
+}
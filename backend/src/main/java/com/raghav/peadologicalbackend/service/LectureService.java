@@ -1,22 +1,33 @@
 package com.raghav.peadologicalbackend.service;
 
+import com.raghav.peadologicalbackend.dto.AnalysisStage;
 import com.raghav.peadologicalbackend.dto.LectureCreateRequest;
+import com.raghav.peadologicalbackend.dto.LectureProgressEvent;
 import com.raghav.peadologicalbackend.dto.LectureResponse;
+import com.raghav.peadologicalbackend.dto.LectureStatusResponse;
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
 import com.raghav.peadologicalbackend.entity.ClassEntity;
 import com.raghav.peadologicalbackend.entity.Lecture;
 import com.raghav.peadologicalbackend.entity.TeacherProfile;
 import com.raghav.peadologicalbackend.exception.BadRequestException;
 import com.raghav.peadologicalbackend.exception.ForbiddenException;
 import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.repository.AnalysisDeadLetterRepository;
+import com.raghav.peadologicalbackend.repository.AnalysisFailureRepository;
 import com.raghav.peadologicalbackend.repository.ClassRepository;
+import com.raghav.peadologicalbackend.repository.LectureAudioView;
 import com.raghav.peadologicalbackend.repository.LectureRepository;
+import com.raghav.peadologicalbackend.repository.PendingAnalysisView;
 import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -26,72 +37,105 @@ public class LectureService {
     private final LectureRepository lectureRepository;
     private final TeacherProfileRepository teacherProfileRepository;
     private final ClassRepository classRepository;
-    private final FileStorageService fileStorageService;
-    private final com.raghav.peadologicalbackend.client.WhisperClient whisperClient;
-
+    private final AnalysisFailureRepository analysisFailureRepository;
+    private final AnalysisDeadLetterRepository analysisDeadLetterRepository;
+    private final AudioBlobService audioBlobService;
+    private final LectureAnalysisService lectureAnalysisService;
+    private final LectureAnalysisWorker lectureAnalysisWorker;
+    private final LectureMapper lectureMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Creates a lecture for audio that lives elsewhere; nothing is stored or analysed.
+     */
     @Transactional
-    public LectureResponse createLecture(LectureCreateRequest request, org.springframework.web.multipart.MultipartFile audioFile) {
-        if (!hasRole("TEACHER")) {
-            throw new ForbiddenException("Only TEACHER can create lectures.");
+    public LectureResponse createLectureFromUrl(LectureCreateRequest request) {
+        TeacherProfile teacherProfile = resolveUploadingTeacher(request);
+        ClassEntity classSlot = resolveClassSlot(request, teacherProfile);
+
+        String audioUrl = request.getLectureAudioUrl();
+        if (audioUrl == null || audioUrl.trim().isEmpty()) {
+            throw new BadRequestException("Audio file or URL is required.");
         }
-        
-        // 1. Validate request
+
+        Lecture lecture = new Lecture();
+        lecture.setLectureTitle(request.getLectureTitle().trim());
+        lecture.setLectureAudioUrl(audioUrl);
+        lecture.setTeacherProfile(teacherProfile);
+        lecture.setClassSlot(classSlot);
+        lecture.setAnalysisStatus(AnalysisStatus.DONE);
+        lecture = lectureRepository.save(lecture);
+        eventPublisher.publishEvent(LectureChangedEvent.created(lecture));
+        return toResponse(lecture);
+    }
+
+    /**
+     * Runs the ownership and slot checks of an upload before any audio is read, so rejected
+     * requests never touch the disk.
+     */
+    @Transactional(readOnly = true)
+    public void checkCanUpload(LectureCreateRequest request) {
+        TeacherProfile teacherProfile = resolveUploadingTeacher(request);
+        resolveClassSlot(request, teacherProfile);
+    }
+
+    /**
+     * Checks the teacher profile and class slot of a bulk-import item. Imports are run by an
+     * administrator on behalf of teachers, so there is no ownership check here.
+     *
+     * @return the teacher profile, detached; the analysis scheduler queues the item under its school
+     */
+    @Transactional(readOnly = true)
+    public TeacherProfile checkImportTarget(LectureCreateRequest request) {
         if (request.getTeacherProfileId() == null) {
             throw new BadRequestException("Teacher profile id is required.");
         }
         if (request.getLectureTitle() == null || request.getLectureTitle().trim().isEmpty()) {
             throw new BadRequestException("Lecture title is required.");
         }
-
         TeacherProfile teacherProfile = teacherProfileRepository.findById(request.getTeacherProfileId())
                 .orElseThrow(() -> new NotFoundException("Teacher profile not found."));
-        ensureTeacherOwnsProfile(teacherProfile);
-
-        ClassEntity classSlot = null;
-        if (request.getClassSlotId() != null) {
-            classSlot = classRepository.findById(request.getClassSlotId())
-                    .orElseThrow(() -> new NotFoundException("Class slot not found."));
-            Long classTeacherId = classSlot.getTimetable().getTeacherProfile().getId();
-            if (!classTeacherId.equals(teacherProfile.getId())) {
-                throw new BadRequestException("Class slot does not belong to the teacher's timetable.");
-            }
-        }
+        resolveClassSlot(request, teacherProfile);
+        return teacherProfile;
+    }
 
-        // 2. Store File or Use URL
-        String audioUrl = request.getLectureAudioUrl();
-        if (audioFile != null && !audioFile.isEmpty()) {
-            audioUrl = fileStorageService.storeFile(audioFile);
-        } else if (audioUrl == null || audioUrl.trim().isEmpty()) {
-            throw new BadRequestException("Audio file or URL is required.");
-        }
+    /**
+     * Persists a lecture for audio already in the blob store. A duplicate of an analysed recording
+     * reuses that analysis; otherwise the lecture is PENDING and queued once the transaction commits.
+     */
+    @Transactional
+    public LectureResponse createPendingLecture(LectureCreateRequest request, StoredAudio stored) {
+        TeacherProfile teacherProfile = resolveUploadingTeacher(request);
+        ClassEntity classSlot = resolveClassSlot(request, teacherProfile);
+        return savePendingLecture(request, teacherProfile, classSlot, stored);
+    }
 
-        // 3. Call Whisper Service
-        com.raghav.peadologicalbackend.dto.WhisperResponse whisperResponse = null;
-        if (audioFile != null && !audioFile.isEmpty()) {
-             // We need a File object for the client. The service returns a path string.
-             java.io.File file = new java.io.File(audioUrl);
-             whisperResponse = whisperClient.analyzeAudio(file);
-        }
-        
-        // 4. Create and Save Lecture
+    private LectureResponse savePendingLecture(LectureCreateRequest request, TeacherProfile teacherProfile,
+                                               ClassEntity classSlot, StoredAudio stored) {
         Lecture lecture = new Lecture();
         lecture.setLectureTitle(request.getLectureTitle().trim());
-        lecture.setLectureAudioUrl(audioUrl);
+        lecture.setLectureAudioUrl(AudioLocator.of(stored.sha256()));
+        lecture.setAudioSha256(stored.sha256());
+        lecture.setAudioSizeBytes(stored.sizeBytes());
+        lecture.setSyllabus(request.getSyllabus());
         lecture.setTeacherProfile(teacherProfile);
         lecture.setClassSlot(classSlot);
-        
-        if (whisperResponse != null && whisperResponse.getData() != null) {
-            lecture.setScore(whisperResponse.getData().getPedagogicalScore());
-            lecture.setAnalysisContent(whisperResponse.getData().getAnalysis());
-            lecture.setScoreReasoning(whisperResponse.getData().getScoreReasoning());
-            lecture.setReviewRatio(whisperResponse.getData().getReviewRatio());
-            lecture.setQuestionVelocity(whisperResponse.getData().getQuestionVelocity());
-            lecture.setWaitTime(whisperResponse.getData().getWaitTime());
-            lecture.setTeacherTalkingTime(whisperResponse.getData().getTeacherTalkingTime());
-            lecture.setHinglishFluency(whisperResponse.getData().getHinglishFluency());
-        }
-
-        return toResponse(lectureRepository.save(lecture));
+        if (lectureAnalysisService.copyExistingAnalysis(lecture)) {
+            lecture = lectureRepository.save(lecture);
+            eventPublisher.publishEvent(LectureChangedEvent.created(lecture));
+            LectureResponse response = toResponse(lecture);
+            eventPublisher.publishEvent(LectureProgressEvent.of(response, AnalysisStage.DONE));
+            return response;
+        }
+        lecture.setAnalysisStatus(AnalysisStatus.PENDING);
+
+        lecture = lectureRepository.save(lecture);
+        eventPublisher.publishEvent(LectureChangedEvent.created(lecture));
+        lectureAnalysisWorker.submitAfterCommit(new PendingAnalysisView(lecture.getId(), teacherProfile.getId(),
+                teacherProfile.getSchool(), lecture.getAnalysisLane(), lecture.getAudioSizeBytes()));
+        LectureResponse response = toResponse(lecture);
+        eventPublisher.publishEvent(LectureProgressEvent.of(response, AnalysisStage.STORED));
+        return response;
     }
 
     @Transactional
@@ -153,7 +197,9 @@ public class LectureService {
             lecture.setHinglishFluency(request.getHinglishFluency());
         }
 
-        return toResponse(lectureRepository.save(lecture));
+        lecture = lectureRepository.save(lecture);
+        eventPublisher.publishEvent(LectureChangedEvent.created(lecture));
+        return toResponse(lecture);
     }
 
     @Transactional(readOnly = true)
@@ -164,6 +210,34 @@ public class LectureService {
         return toResponse(lecture);
     }
 
+    @Transactional(readOnly = true)
+    public LectureStatusResponse getLectureStatus(Long id) {
+        Lecture lecture = lectureRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Lecture not found."));
+        ensureCanView(lecture);
+        return new LectureStatusResponse(
+                lecture.getId(),
+                lecture.getAnalysisStatus(),
+                lecture.getAnalysisError(),
+                lecture.getAnalysisUpdatedAt(),
+                lecture.getAnalysisAttempts(),
+                lecture.getAnalysisNextAttemptAt(),
+                lecture.getScore()
+        );
+    }
+
+    /**
+     * Where a lecture's audio is, after the same checks as {@link #getLectureById}. Reads one
+     * projection row instead of the lecture with its analysis text.
+     */
+    @Transactional(readOnly = true)
+    public LectureAudioView getLectureAudio(Long id) {
+        LectureAudioView audio = lectureRepository.findAudioViewById(id)
+                .orElseThrow(() -> new NotFoundException("Lecture not found."));
+        ensureCanView(audio.ownerUsername());
+        return audio;
+    }
+
     @Transactional(readOnly = true)
     public List<LectureResponse> getLecturesByTeacher(Long teacherProfileId) {
         if (hasRole("TEACHER")) {
@@ -207,6 +281,67 @@ public class LectureService {
         }
 
         lectureRepository.delete(lecture);
+        eventPublisher.publishEvent(LectureChangedEvent.deleted(lecture));
+        analysisFailureRepository.deleteByLectureId(id);
+        analysisDeadLetterRepository.deleteByLectureId(id);
+        String audioSha256 = lecture.getAudioSha256();
+        if (audioSha256 != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    audioBlobService.release(audioSha256);
+                }
+            });
+        }
+    }
+
+    /**
+     * A teacher may follow the progress stream of their own profile; admins may follow any.
+     */
+    @Transactional(readOnly = true)
+    public void checkCanWatch(Long teacherProfileId) {
+        if (hasAnyRole("ADMIN", "SUPER_ADMIN")) {
+            if (!teacherProfileRepository.existsById(teacherProfileId)) {
+                throw new NotFoundException("Teacher profile not found.");
+            }
+            return;
+        }
+        if (!hasRole("TEACHER")) {
+            throw new ForbiddenException("Not allowed to view lectures.");
+        }
+        TeacherProfile profile = teacherProfileRepository.findById(teacherProfileId)
+                .orElseThrow(() -> new NotFoundException("Teacher profile not found."));
+        ensureTeacherOwnsProfile(profile);
+    }
+
+    private TeacherProfile resolveUploadingTeacher(LectureCreateRequest request) {
+        if (!hasRole("TEACHER")) {
+            throw new ForbiddenException("Only TEACHER can create lectures.");
+        }
+        if (request.getTeacherProfileId() == null) {
+            throw new BadRequestException("Teacher profile id is required.");
+        }
+        if (request.getLectureTitle() == null || request.getLectureTitle().trim().isEmpty()) {
+            throw new BadRequestException("Lecture title is required.");
+        }
+
+        TeacherProfile teacherProfile = teacherProfileRepository.findById(request.getTeacherProfileId())
+                .orElseThrow(() -> new NotFoundException("Teacher profile not found."));
+        ensureTeacherOwnsProfile(teacherProfile);
+        return teacherProfile;
+    }
+
+    private ClassEntity resolveClassSlot(LectureCreateRequest request, TeacherProfile teacherProfile) {
+        if (request.getClassSlotId() == null) {
+            return null;
+        }
+        ClassEntity classSlot = classRepository.findById(request.getClassSlotId())
+                .orElseThrow(() -> new NotFoundException("Class slot not found."));
+        Long classTeacherId = classSlot.getTimetable().getTeacherProfile().getId();
+        if (!classTeacherId.equals(teacherProfile.getId())) {
+            throw new BadRequestException("Class slot does not belong to the teacher's timetable.");
+        }
+        return classSlot;
     }
 
     private void validateCreate(LectureCreateRequest request) {
@@ -222,18 +357,26 @@ public class LectureService {
     }
 
     private void ensureTeacherOwnsProfile(TeacherProfile profile) {
+        ensureCurrentUser(profile.getUser().getUsername());
+    }
+
+    private void ensureCurrentUser(String ownerUsername) {
         String username = getCurrentUsername();
-        if (username == null || !username.equals(profile.getUser().getUsername())) {
+        if (username == null || !username.equals(ownerUsername)) {
             throw new ForbiddenException("You can only manage your own lectures.");
         }
     }
 
     private void ensureCanView(Lecture lecture) {
+        ensureCanView(lecture.getTeacherProfile().getUser().getUsername());
+    }
+
+    private void ensureCanView(String ownerUsername) {
         if (hasAnyRole("ADMIN", "SUPER_ADMIN")) {
             return;
         }
         if (hasRole("TEACHER")) {
-            ensureTeacherOwnsProfile(lecture.getTeacherProfile());
+            ensureCurrentUser(ownerUsername);
             return;
         }
         throw new ForbiddenException("Not allowed to view lectures.");
@@ -264,22 +407,7 @@ public class LectureService {
     }
 
     private LectureResponse toResponse(Lecture lecture) {
-        LectureResponse response = new LectureResponse();
-        response.setId(lecture.getId());
-        response.setLectureTitle(lecture.getLectureTitle());
-        response.setLectureAudioUrl(lecture.getLectureAudioUrl());
-        response.setScore(lecture.getScore());
-        response.setUploadedAt(lecture.getUploadedAt());
-        response.setTeacherProfileId(lecture.getTeacherProfile().getId());
-        response.setClassSlotId(lecture.getClassSlot() != null ? lecture.getClassSlot().getId() : null);
-        response.setAnalysisContent(lecture.getAnalysisContent());
-        response.setScoreReasoning(lecture.getScoreReasoning());
-        response.setReviewRatio(lecture.getReviewRatio());
-        response.setQuestionVelocity(lecture.getQuestionVelocity());
-        response.setWaitTime(lecture.getWaitTime());
-        response.setTeacherTalkingTime(lecture.getTeacherTalkingTime());
-        response.setHinglishFluency(lecture.getHinglishFluency());
-        return response;
+        return lectureMapper.toResponse(lecture);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,24 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.analytics.LectureMetricRow;
+import com.raghav.peadologicalbackend.entity.AnalysisStatus;
+import com.raghav.peadologicalbackend.entity.Lecture;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a lecture that read models aggregate, captured at one point of a transaction.
+ */
+public record LectureSnapshot(Long id, Long teacherProfileId, String school, String department, Double score,
+                              Double reviewRatio, Double questionVelocity, Double waitTime,
+                              Double teacherTalkingTime, Double hinglishFluency,
+                              AnalysisStatus analysisStatus, LocalDateTime uploadedAt) implements LectureMetricRow {
+
+    public static LectureSnapshot of(Lecture lecture) {
+        return new LectureSnapshot(lecture.getId(), lecture.getTeacherProfile().getId(),
+                lecture.getTeacherProfile().getSchool(), lecture.getTeacherProfile().getDepartment(),
+                lecture.getScore(), lecture.getReviewRatio(), lecture.getQuestionVelocity(), lecture.getWaitTime(),
+                lecture.getTeacherTalkingTime(), lecture.getHinglishFluency(),
+                lecture.getAnalysisStatus(), lecture.getUploadedAt());
+    }
+}
@@ -0,0 +1,395 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.analytics.KllSketch;
+import com.raghav.peadologicalbackend.analytics.LectureMetricRow;
+import com.raghav.peadologicalbackend.dto.DepartmentDistributionDTO;
+import com.raghav.peadologicalbackend.dto.MetricPercentilesDTO;
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import com.raghav.peadologicalbackend.repository.LectureMetricsView;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Keeps a {@link KllSketch} per teacher and metric, and merges them into department and then
+ * school sketches when a dashboard asks for percentiles. New values are added as lectures are
+ * analysed; a sketch cannot take a value back out, so a delete or a changed value marks the
+ * teacher's sketches dirty, and the next read rebuilds them from the teacher's lectures in one query.
+ * The merged sketches of a school are kept until a sketch of one of its teachers changes.
+ * The sketches are loaded in keyset pages once the application is up; percentiles are absent until then.
+ */
+@Service
+public class MetricSketchService {
+    private static final Logger log = LoggerFactory.getLogger(MetricSketchService.class);
+
+    private static final LectureMetric[] METRICS = LectureMetric.values();
+    private static final double[] RANKS = {0.1, 0.5, 0.9};
+
+    private final LectureRepository lectureRepository;
+    private final boolean enabled;
+    private final int k;
+    private final int loadPageSize;
+    private final Map<Long, Leaf> leaves = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyLeaves = ConcurrentHashMap.newKeySet();
+    // Bumped whenever a sketch of one of the school's teachers changes or goes dirty
+    private final Map<String, AtomicLong> schoolVersions = new ConcurrentHashMap<>();
+    private final Map<String, SchoolSketches> merged = new ConcurrentHashMap<>();
+    private final CommittingChanges<Long> committing = new CommittingChanges<>(0);
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    public MetricSketchService(LectureRepository lectureRepository,
+                               @Value("${analytics.sketch.enabled:true}") boolean enabled,
+                               @Value("${analytics.sketch.k:200}") int k,
+                               @Value("${analytics.columnar.load-page-size:5000}") int loadPageSize) {
+        this.lectureRepository = lectureRepository;
+        this.enabled = enabled;
+        this.k = k;
+        this.loadPageSize = Math.max(1, loadPageSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        loading = true;
+        try {
+            long afterId = 0;
+            long lectures = 0;
+            List<LectureMetricsView> page;
+            do {
+                page = lectureRepository.findMetricsViewsAfter(afterId, PageRequest.of(0, loadPageSize));
+                for (LectureMetricsView lecture : page) {
+                    Leaf leaf = leaf(lecture.teacherProfileId());
+                    synchronized (leaf) {
+                        place(leaf, lecture);
+                        leaf.add(lecture);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).id();
+                }
+                lectures += page.size();
+            } while (page.size() == loadPageSize);
+            ready = true;
+            log.info("Loaded metric sketches of {} lectures for {} teachers in {} ms", lectures, leaves.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the metric sketches; dashboards go without percentiles", ex);
+        } finally {
+            loading = false;
+        }
+    }
+
+    // Applied after commit, so a rolled-back analysis never reaches a sketch
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> teachers = new LinkedHashSet<>();
+        if (event.before() != null) {
+            teachers.add(event.before().teacherProfileId());
+        }
+        if (event.after() != null) {
+            teachers.add(event.after().teacherProfileId());
+        }
+        committing.afterCommit(teachers, () -> apply(event));
+    }
+
+    /**
+     * @return percentiles per metric, or {@code null} while the sketches are loading
+     */
+    public Map<LectureMetric, MetricPercentilesDTO> forTeacher(Long teacherProfileId) {
+        if (!ready) {
+            return null;
+        }
+        Leaf leaf = leaves.get(teacherProfileId);
+        if (leaf == null) {
+            return percentiles(newSketches());
+        }
+        refresh(teacherProfileId, leaf);
+        KllSketch[] copy = newSketches();
+        synchronized (leaf) {
+            mergeInto(copy, leaf.sketches);
+        }
+        return percentiles(copy);
+    }
+
+    /**
+     * @return percentiles per metric for every school with lectures, or {@code null} while loading
+     */
+    public Map<String, Map<LectureMetric, MetricPercentilesDTO>> bySchool() {
+        if (!ready) {
+            return null;
+        }
+        Map<String, Map<LectureMetric, MetricPercentilesDTO>> result = new HashMap<>();
+        current(school -> true).forEach((school, sketches) -> {
+            if (!sketches.departments().isEmpty()) {
+                result.put(school, sketches.school());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return percentiles per department of the school, by department name, or {@code null} while loading
+     */
+    public List<DepartmentDistributionDTO> byDepartment(String school) {
+        if (!ready) {
+            return null;
+        }
+        SchoolSketches sketches = current(school::equals).get(school);
+        return sketches != null ? sketches.departments() : List.of();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void apply(LectureChangedEvent event) {
+        LectureSnapshot before = event.before();
+        LectureSnapshot after = event.after();
+        boolean sameTeacher = before != null && after != null
+                && Objects.equals(before.teacherProfileId(), after.teacherProfileId());
+        if (after != null) {
+            Leaf leaf = leaf(after.teacherProfileId());
+            synchronized (leaf) {
+                place(leaf, after);
+                leaf.version++;
+                // Values a page being or yet to be loaded may or may not hold, or that would have to come out again
+                if (loading || !ready || leaf.dirty || before != null && (!sameTeacher || takesValueOut(before, after))) {
+                    markDirty(after.teacherProfileId(), leaf);
+                } else {
+                    for (LectureMetric metric : METRICS) {
+                        Double value = after.metric(metric);
+                        if (value != null && (before == null || before.metric(metric) == null)) {
+                            leaf.sketches[metric.ordinal()].update(value);
+                        }
+                    }
+                }
+                bump(leaf.school);
+            }
+        }
+        if (before != null && !sameTeacher && (loading || !ready || hasAnyMetric(before))) {
+            Leaf leaf = leaf(before.teacherProfileId());
+            synchronized (leaf) {
+                leaf.version++;
+                markDirty(before.teacherProfileId(), leaf);
+                bump(leaf.school);
+            }
+        }
+    }
+
+    /**
+     * The merged sketches of the schools {@code wanted} accepts; those of a school whose teachers'
+     * sketches changed since they were merged are merged again, in one pass over the teachers.
+     */
+    private Map<String, SchoolSketches> current(Predicate<String> wanted) {
+        for (Long teacherProfileId : dirtyLeaves) {
+            refresh(teacherProfileId, leaves.get(teacherProfileId));
+        }
+        Map<String, SchoolSketches> result = new HashMap<>();
+        Map<String, Long> stale = new HashMap<>();
+        schoolVersions.forEach((school, counter) -> {
+            if (!wanted.test(school)) {
+                return;
+            }
+            long version = counter.get();
+            SchoolSketches cached = merged.get(school);
+            if (cached != null && cached.version() == version) {
+                result.put(school, cached);
+            } else {
+                stale.put(school, version);
+            }
+        });
+        if (!stale.isEmpty()) {
+            Map<String, Map<String, KllSketch[]>> departments = mergeDepartments(stale::containsKey);
+            // Merged at the version read before merging; a change meanwhile leaves it stale for the next read
+            stale.forEach((school, version) -> {
+                SchoolSketches sketches = schoolSketches(version, departments.getOrDefault(school, Map.of()));
+                merged.put(school, sketches);
+                result.put(school, sketches);
+            });
+        }
+        return result;
+    }
+
+    // First level of the hierarchy: teacher sketches merged per school and department
+    private Map<String, Map<String, KllSketch[]>> mergeDepartments(Predicate<String> schoolFilter) {
+        Map<String, Map<String, KllSketch[]>> schools = new HashMap<>();
+        leaves.values().forEach(leaf -> {
+            synchronized (leaf) {
+                if (leaf.school == null || !schoolFilter.test(leaf.school)) {
+                    return;
+                }
+                KllSketch[] department = schools.computeIfAbsent(leaf.school, key -> new HashMap<>())
+                        .computeIfAbsent(leaf.department, key -> newSketches());
+                mergeInto(department, leaf.sketches);
+            }
+        });
+        return schools;
+    }
+
+    // Second level: departments merged into the school
+    private SchoolSketches schoolSketches(long version, Map<String, KllSketch[]> departments) {
+        KllSketch[] school = newSketches();
+        List<DepartmentDistributionDTO> distributions = new ArrayList<>(departments.size());
+        departments.forEach((department, sketches) -> {
+            mergeInto(school, sketches);
+            distributions.add(new DepartmentDistributionDTO(department, percentiles(sketches)));
+        });
+        distributions.sort(Comparator.comparing(DepartmentDistributionDTO::getDepartment,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return new SchoolSketches(version, percentiles(school), List.copyOf(distributions));
+    }
+
+    private void refresh(Long teacherProfileId, Leaf leaf) {
+        long version;
+        synchronized (leaf) {
+            if (!leaf.dirty) {
+                return;
+            }
+            version = leaf.version;
+        }
+        List<LectureMetricsView> lectures = lectureRepository.findMetricsViewsByTeacherProfileId(teacherProfileId);
+        Leaf rebuilt = new Leaf(newSketches());
+        lectures.forEach(rebuilt::add);
+        synchronized (leaf) {
+            leaf.sketches = rebuilt.sketches;
+            if (!lectures.isEmpty()) {
+                place(leaf, lectures.get(0));
+            }
+            // A change that landed while the query ran, or a commit whose change is not applied yet,
+            // may or may not be in it; rebuild again next time
+            leaf.dirty = leaf.version != version || committing.isCommitting(teacherProfileId);
+            if (!leaf.dirty) {
+                dirtyLeaves.remove(teacherProfileId);
+            }
+            bump(leaf.school);
+        }
+    }
+
+    private void markDirty(Long teacherProfileId, Leaf leaf) {
+        leaf.dirty = true;
+        dirtyLeaves.add(teacherProfileId);
+    }
+
+    // Moves the leaf to the lecture's school and department; the school it leaves changes as well
+    private void place(Leaf leaf, LectureMetricRow lecture) {
+        if (leaf.school != null && !leaf.school.equals(lecture.school())) {
+            bump(leaf.school);
+        }
+        leaf.school = lecture.school();
+        leaf.department = lecture.department();
+        bump(leaf.school);
+    }
+
+    private void bump(String school) {
+        if (school != null) {
+            schoolVersions.computeIfAbsent(school, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private Leaf leaf(Long teacherProfileId) {
+        return leaves.computeIfAbsent(teacherProfileId, id -> new Leaf(newSketches()));
+    }
+
+    private KllSketch[] newSketches() {
+        KllSketch[] sketches = new KllSketch[METRICS.length];
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = new KllSketch(k);
+        }
+        return sketches;
+    }
+
+    private static void mergeInto(KllSketch[] target, KllSketch[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i].merge(source[i]);
+        }
+    }
+
+    private static Map<LectureMetric, MetricPercentilesDTO> percentiles(KllSketch[] sketches) {
+        Map<LectureMetric, MetricPercentilesDTO> result = new EnumMap<>(LectureMetric.class);
+        for (LectureMetric metric : METRICS) {
+            KllSketch sketch = sketches[metric.ordinal()];
+            if (sketch.count() == 0) {
+                result.put(metric, new MetricPercentilesDTO(0L, null, null, null));
+                continue;
+            }
+            double[] values = sketch.quantiles(RANKS);
+            result.put(metric, new MetricPercentilesDTO(sketch.count(), values[0], values[1], values[2]));
+        }
+        return result;
+    }
+
+    private static boolean takesValueOut(LectureSnapshot before, LectureSnapshot after) {
+        for (LectureMetric metric : METRICS) {
+            Double old = before.metric(metric);
+            if (old != null && !old.equals(after.metric(metric))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAnyMetric(LectureSnapshot lecture) {
+        for (LectureMetric metric : METRICS) {
+            if (lecture.metric(metric) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Percentiles of one school and its departments, merged at {@code version} of the school.
+     */
+    private record SchoolSketches(long version, Map<LectureMetric, MetricPercentilesDTO> school,
+                                  List<DepartmentDistributionDTO> departments) {
+    }
+
+    /**
+     * One teacher's sketches, guarded by the leaf's monitor.
+     */
+    private static final class Leaf {
+        private String school;
+        private String department;
+        private KllSketch[] sketches;
+        private boolean dirty;
+        private long version;
+
+        private Leaf(KllSketch[] sketches) {
+            this.sketches = sketches;
+        }
+
+        private void add(LectureMetricRow lecture) {
+            for (LectureMetric metric : METRICS) {
+                Double value = lecture.metric(metric);
+                if (value != null) {
+                    sketches[metric.ordinal()].update(value);
+                }
+            }
+        }
+    }
+}
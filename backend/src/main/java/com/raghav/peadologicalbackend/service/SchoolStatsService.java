@@ -0,0 +1,166 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.MetricPercentilesDTO;
+import com.raghav.peadologicalbackend.dto.SchoolStatsDTO;
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import com.raghav.peadologicalbackend.entity.SchoolStats;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import com.raghav.peadologicalbackend.repository.SchoolStatsRepository;
+import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the {@link SchoolStats} read model, so the school dashboard reads a handful of rows
+ * instead of grouping every lecture. Change events are folded into per-school deltas for the
+ * current transaction and written just before it commits, one upsert per school touched (see
+ * {@link TransactionalDeltas}).
+ * <p>
+ * {@link #rebuild()} recomputes everything from the source tables; it runs at startup and on
+ * demand, e.g. after data was changed directly in the database.
+ */
+@Service
+public class SchoolStatsService {
+    private static final Logger log = LoggerFactory.getLogger(SchoolStatsService.class);
+
+    private final SchoolStatsRepository schoolStatsRepository;
+    private final LectureRepository lectureRepository;
+    private final TeacherProfileRepository teacherProfileRepository;
+    private final MetricSketchService metricSketchService;
+    private final boolean rebuildOnStartup;
+    private final TransactionalDeltas<String, Delta> deltas = new TransactionalDeltas<>(Delta::new, this::apply);
+
+    public SchoolStatsService(SchoolStatsRepository schoolStatsRepository,
+                              LectureRepository lectureRepository,
+                              TeacherProfileRepository teacherProfileRepository,
+                              MetricSketchService metricSketchService,
+                              @Value("${stats.school.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.schoolStatsRepository = schoolStatsRepository;
+        this.lectureRepository = lectureRepository;
+        this.teacherProfileRepository = teacherProfileRepository;
+        this.metricSketchService = metricSketchService;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SchoolStatsDTO> list() {
+        Map<String, Map<LectureMetric, MetricPercentilesDTO>> percentiles = metricSketchService.bySchool();
+        return schoolStatsRepository.findAllByOrderBySchool().stream()
+                .filter(stats -> stats.getFacultyCount() > 0)
+                .map(stats -> toDto(stats, percentiles))
+                .toList();
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LectureSnapshot before = event.before();
+        LectureSnapshot after = event.after();
+        if (before != null && before.school() != null) {
+            delta(before.school()).addLecture(before.score(), -1);
+        }
+        if (after != null && after.school() != null) {
+            delta(after.school()).addLecture(after.score(), 1);
+        }
+        deltas.flushIfNoTransaction();
+    }
+
+    @EventListener
+    public void onTeacherProfileChanged(TeacherProfileChangedEvent event) {
+        if (event.schoolBefore() != null) {
+            delta(event.schoolBefore()).faculty--;
+        }
+        if (event.schoolAfter() != null) {
+            delta(event.schoolAfter()).faculty++;
+        }
+        deltas.flushIfNoTransaction();
+    }
+
+    // Transactional here as well: the call to rebuild() below does not go through the proxy
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAtStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces the read model with totals computed from {@code lectures} and
+     * {@code teacher_profiles}. The table lock makes concurrent writers wait, so no delta is lost
+     * or counted twice.
+     */
+    @Transactional
+    public List<SchoolStatsDTO> rebuild() {
+        schoolStatsRepository.lockForRebuild();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, SchoolStats> rebuilt = new TreeMap<>();
+        for (Object[] row : teacherProfileRepository.countFacultyBySchool()) {
+            String school = (String) row[0];
+            if (school != null) {
+                rebuilt.put(school, new SchoolStats(school, (Long) row[1], 0L, 0L, 0.0, now));
+            }
+        }
+        for (Object[] row : lectureRepository.sumLectureStatsBySchool()) {
+            SchoolStats stats = rebuilt.computeIfAbsent((String) row[0], school -> new SchoolStats(school, 0L, 0L, 0L, 0.0, now));
+            stats.setLectureCount((Long) row[1]);
+            stats.setScoredCount((Long) row[2]);
+            stats.setScoreSum(((Number) row[3]).doubleValue());
+        }
+        schoolStatsRepository.deleteAllInBatch();
+        schoolStatsRepository.saveAll(rebuilt.values());
+        log.info("Rebuilt school statistics for {} schools", rebuilt.size());
+        Map<String, Map<LectureMetric, MetricPercentilesDTO>> percentiles = metricSketchService.bySchool();
+        return rebuilt.values().stream()
+                .filter(stats -> stats.getFacultyCount() > 0)
+                .map(stats -> toDto(stats, percentiles))
+                .toList();
+    }
+
+    private Delta delta(String school) {
+        return deltas.get(school);
+    }
+
+    private void apply(Map<String, Delta> pending) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.forEach((school, delta) -> {
+            if (!delta.isEmpty()) {
+                schoolStatsRepository.applyDelta(school, delta.faculty, delta.lectures, delta.scored, delta.scoreSum, now);
+            }
+        });
+    }
+
+    private static SchoolStatsDTO toDto(SchoolStats stats, Map<String, Map<LectureMetric, MetricPercentilesDTO>> percentiles) {
+        double avgScore = stats.getScoredCount() > 0 ? stats.getScoreSum() / stats.getScoredCount() : 0.0;
+        return new SchoolStatsDTO(stats.getSchool(), stats.getFacultyCount(), stats.getLectureCount(), avgScore,
+                percentiles != null ? percentiles.get(stats.getSchool()) : null);
+    }
+
+    private static final class Delta {
+        private long faculty;
+        private long lectures;
+        private long scored;
+        private double scoreSum;
+
+        private void addLecture(Double score, int sign) {
+            lectures += sign;
+            if (score != null) {
+                scored += sign;
+                scoreSum += sign * score;
+            }
+        }
+
+        private boolean isEmpty() {
+            return faculty == 0 && lectures == 0 && scored == 0 && scoreSum == 0;
+        }
+    }
+}
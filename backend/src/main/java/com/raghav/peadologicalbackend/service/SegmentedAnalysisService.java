@@ -0,0 +1,241 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.audio.AudioPreprocessor;
+import com.raghav.peadologicalbackend.audio.AudioSegment;
+import com.raghav.peadologicalbackend.audio.WavSegmenter;
+import com.raghav.peadologicalbackend.client.WhisperClient;
+import com.raghav.peadologicalbackend.dto.WhisperResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Sends a recording to the analysis service. The recording first goes through every
+ * {@link AudioPreprocessor} (by default downmix, resample and silence trimming). Long PCM WAV
+ * recordings are then split at pauses by
+ * {@link WavSegmenter}, the segments are analysed concurrently on {@code segmentExecutor}, and the
+ * per-segment metrics are merged into one result weighted by segment duration. Every call to
+ * whisper-service, whole recording or segment, first takes a permit from
+ * {@code whisperCallScheduler}, so concurrent calls are capped and served in fair order.
+ */
+@Service
+public class SegmentedAnalysisService {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedAnalysisService.class);
+
+    private final WhisperClient whisperClient;
+    private final List<AudioPreprocessor> preprocessors;
+    private final WavSegmenter wavSegmenter;
+    private final ThreadPoolTaskExecutor segmentExecutor;
+    private final FairScheduler callScheduler;
+    private final Duration callMaxWait;
+    private final boolean enabled;
+
+    public SegmentedAnalysisService(WhisperClient whisperClient,
+                                    ObjectProvider<AudioPreprocessor> preprocessors,
+                                    WavSegmenter wavSegmenter,
+                                    @Qualifier("segmentExecutor") ThreadPoolTaskExecutor segmentExecutor,
+                                    @Qualifier("whisperCallScheduler") FairScheduler callScheduler,
+                                    @Value("${analysis.scheduler.max-wait-ms:3600000}") long callMaxWaitMs,
+                                    @Value("${analysis.segments.enabled:true}") boolean enabled) {
+        this.whisperClient = whisperClient;
+        this.preprocessors = preprocessors.orderedStream().toList();
+        this.wavSegmenter = wavSegmenter;
+        this.segmentExecutor = segmentExecutor;
+        this.callScheduler = callScheduler;
+        this.callMaxWait = Duration.ofMillis(callMaxWaitMs);
+        this.enabled = enabled;
+    }
+
+    public WhisperResponse.AnalysisData analyze(File audio, String syllabus, AnalysisTicket ticket) {
+        Path workDir;
+        try {
+            workDir = Files.createTempDirectory("lecture-analysis-");
+        } catch (IOException ex) {
+            log.warn("No scratch directory for {}, analysing the stored file as is", audio.getName(), ex);
+            return analyzeWhole(audio, syllabus, ticket);
+        }
+        try {
+            File prepared = preprocess(audio, workDir);
+            if (!enabled) {
+                return analyzeWhole(prepared, syllabus, ticket);
+            }
+            List<AudioSegment> segments = split(prepared, workDir);
+            if (segments.size() < 2) {
+                return analyzeWhole(prepared, syllabus, ticket);
+            }
+            log.info("Analysing {} as {} segments", audio.getName(), segments.size());
+            return analyzeSegments(segments, syllabus, ticket);
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    /**
+     * A failing step is skipped rather than failing the analysis; whisper-service accepts the
+     * original file, just more slowly.
+     */
+    private File preprocess(File audio, Path workDir) {
+        Path current = audio.toPath();
+        for (int i = 0; i < preprocessors.size(); i++) {
+            AudioPreprocessor preprocessor = preprocessors.get(i);
+            try {
+                Path stepDir = Files.createDirectory(workDir.resolve("step-" + i));
+                current = preprocessor.process(current, stepDir);
+            } catch (IOException ex) {
+                log.warn("{} failed for {}, skipping it", preprocessor.getClass().getSimpleName(), audio.getName(), ex);
+            }
+        }
+        if (!current.equals(audio.toPath())) {
+            log.debug("Pre-processed {}: {} -> {} bytes", audio.getName(), audio.length(), current.toFile().length());
+        }
+        return current.toFile();
+    }
+
+    private List<AudioSegment> split(File audio, Path workDir) {
+        try {
+            return wavSegmenter.split(audio.toPath(), Files.createDirectory(workDir.resolve("segments")));
+        } catch (IOException ex) {
+            log.warn("Could not split {}, analysing it as one file", audio.getName(), ex);
+            return List.of();
+        }
+    }
+
+    private WhisperResponse.AnalysisData analyzeWhole(File audio, String syllabus, AnalysisTicket ticket) {
+        callScheduler.acquire(ticket, FairScheduler.costOf(audio.length()), callMaxWait);
+        try {
+            WhisperResponse response = whisperClient.analyzeAudio(audio, syllabus);
+            return response != null ? response.getData() : null;
+        } finally {
+            callScheduler.release();
+        }
+    }
+
+    /**
+     * Every segment must succeed; a partial analysis would skew the merged metrics, so one failure
+     * fails the whole recording and it is retried as a unit.
+     */
+    private WhisperResponse.AnalysisData analyzeSegments(List<AudioSegment> segments, String syllabus, AnalysisTicket ticket) {
+        AnalysisProgress progress = ticket.progress();
+        int total = segments.size();
+        AtomicInteger done = new AtomicInteger();
+        progress.segmentsCompleted(0, total);
+        List<CompletableFuture<WhisperResponse.AnalysisData>> calls = new ArrayList<>(total);
+        for (AudioSegment segment : segments) {
+            calls.add(CompletableFuture.supplyAsync(
+                    () -> analyzeWhole(segment.path().toFile(), syllabus, ticket), segmentExecutor)
+                    .whenComplete((data, ex) -> {
+                        if (ex == null) {
+                            progress.segmentsCompleted(done.incrementAndGet(), total);
+                        }
+                    }));
+        }
+        List<WhisperResponse.AnalysisData> results = new ArrayList<>(segments.size());
+        try {
+            for (CompletableFuture<WhisperResponse.AnalysisData> call : calls) {
+                WhisperResponse.AnalysisData data = call.join();
+                if (data == null) {
+                    throw new IllegalStateException("Analysis service returned no data for a segment.");
+                }
+                results.add(data);
+            }
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+        return merge(segments, results);
+    }
+
+    static WhisperResponse.AnalysisData merge(List<AudioSegment> segments, List<WhisperResponse.AnalysisData> results) {
+        WhisperResponse.AnalysisData merged = new WhisperResponse.AnalysisData();
+        merged.setPedagogicalScore(weighted(segments, results, WhisperResponse.AnalysisData::getPedagogicalScore));
+        merged.setReviewRatio(weighted(segments, results, WhisperResponse.AnalysisData::getReviewRatio));
+        merged.setQuestionVelocity(weighted(segments, results, WhisperResponse.AnalysisData::getQuestionVelocity));
+        merged.setWaitTime(weighted(segments, results, WhisperResponse.AnalysisData::getWaitTime));
+        merged.setTeacherTalkingTime(weighted(segments, results, WhisperResponse.AnalysisData::getTeacherTalkingTime));
+        merged.setHinglishFluency(weighted(segments, results, WhisperResponse.AnalysisData::getHinglishFluency));
+        // Segments run side by side, so the slowest one is the time the caller actually waited
+        merged.setProcessingTimeSeconds(results.stream()
+                .map(WhisperResponse.AnalysisData::getProcessingTimeSeconds)
+                .filter(value -> value != null)
+                .max(Comparator.naturalOrder())
+                .orElse(null));
+        merged.setAnalysis(joinSections(segments, results, WhisperResponse.AnalysisData::getAnalysis));
+        merged.setScoreReasoning(joinSections(segments, results, WhisperResponse.AnalysisData::getScoreReasoning));
+        return merged;
+    }
+
+    // Missing values are left out of both the sum and the total weight rather than counted as zero
+    private static Double weighted(List<AudioSegment> segments, List<WhisperResponse.AnalysisData> results,
+                                   Function<WhisperResponse.AnalysisData, Double> metric) {
+        double sum = 0;
+        double weight = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Double value = metric.apply(results.get(i));
+            if (value != null) {
+                double duration = segments.get(i).durationSeconds();
+                sum += value * duration;
+                weight += duration;
+            }
+        }
+        return weight > 0 ? sum / weight : null;
+    }
+
+    private static String joinSections(List<AudioSegment> segments, List<WhisperResponse.AnalysisData> results,
+                                       Function<WhisperResponse.AnalysisData, String> text) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < segments.size(); i++) {
+            String value = text.apply(results.get(i));
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            AudioSegment segment = segments.get(i);
+            if (!joined.isEmpty()) {
+                joined.append("\n\n");
+            }
+            joined.append("Segment ").append(i + 1).append(" (")
+                    .append(clock(segment.startSeconds())).append(" - ")
+                    .append(clock(segment.startSeconds() + segment.durationSeconds())).append(")\n")
+                    .append(value.trim());
+        }
+        return joined.isEmpty() ? null : joined.toString();
+    }
+
+    private static String clock(double seconds) {
+        long total = Math.round(seconds);
+        return String.format("%d:%02d:%02d", total / 3600, (total % 3600) / 60, total % 60);
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                    // temp directory; the OS cleans it up eventually
+                }
+            });
+        } catch (IOException ignored) {
+            // same as above
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.SchoolStorageUsage;
+import com.raghav.peadologicalbackend.dto.StorageUsageResponse;
+import com.raghav.peadologicalbackend.entity.StorageTier;
+import com.raghav.peadologicalbackend.repository.AudioBlobRepository;
+import com.raghav.peadologicalbackend.repository.BlobShardView;
+import com.raghav.peadologicalbackend.repository.BlobUsageView;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import com.raghav.peadologicalbackend.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Reconciles the files under {@code uploads/} and the cold packs against the database, a little at
+ * a time, and publishes per-school storage usage as a by-product.
+ * <p>
+ * A cycle has one step per blob shard directory ({@code uploads/blobs/00} to {@code ff}) followed by
+ * the staging area, files left in {@code uploads/} by the pre-blob layout, and the cold packs. A
+ * shard step lists its directory, sorts the names and merges them against the blob rows of the
+ * same key range, so each step is one index range scan on {@code audio_blobs} and one on
+ * {@code lectures.audio_sha256}; the other steps look their candidates up in batches. Nothing reads
+ * a whole table, and by default steps only run inside the night window.
+ * <p>
+ * A file is an orphan only once it is older than {@code storage.sweep.grace-minutes}, which covers
+ * uploads between promotion and their row being saved, and restores in flight. Orphans are moved to
+ * {@code storage.sweep.quarantine-dir} (or deleted), at most {@code max-actions-per-run} per run.
+ */
+@Component
+public class StorageSweeper {
+    private static final Logger log = LoggerFactory.getLogger(StorageSweeper.class);
+
+    private static final int SHARDS = 256;
+    private static final int INCOMING_STEP = SHARDS;
+    private static final int LEGACY_STEP = SHARDS + 1;
+    private static final int PACK_STEP = SHARDS + 2;
+    private static final int STEPS = SHARDS + 3;
+    private static final int LOOKUP_BATCH = 500;
+    private static final String PART_SUFFIX = ".part";
+
+    private final AudioBlobRepository audioBlobRepository;
+    private final LectureRepository lectureRepository;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileStorageService fileStorageService;
+    private final AudioPackStore audioPackStore;
+    private final Path quarantineLocation;
+    private final boolean enabled;
+    private final boolean quarantine;
+    private final int quarantineDays;
+    private final long graceMinutes;
+    private final long incomingMaxAgeHours;
+    private final int stepsPerRun;
+    private final int maxActionsPerRun;
+    private final int windowStartHour;
+    private final int windowEndHour;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Cycle state; only touched by the run holding `running`
+    private int nextStep;
+    private Cycle cycle;
+    private int actionsLeft;
+    private volatile StorageUsageResponse lastUsage;
+
+    public StorageSweeper(AudioBlobRepository audioBlobRepository,
+                          LectureRepository lectureRepository,
+                          UploadSessionRepository uploadSessionRepository,
+                          FileStorageService fileStorageService,
+                          AudioPackStore audioPackStore,
+                          @Value("${storage.sweep.quarantine-dir:uploads/quarantine}") String quarantineDir,
+                          @Value("${storage.sweep.enabled:true}") boolean enabled,
+                          @Value("${storage.sweep.quarantine:true}") boolean quarantine,
+                          @Value("${storage.sweep.quarantine-days:7}") int quarantineDays,
+                          @Value("${storage.sweep.grace-minutes:60}") long graceMinutes,
+                          @Value("${storage.sweep.incoming-max-age-hours:48}") long incomingMaxAgeHours,
+                          @Value("${storage.sweep.steps-per-run:8}") int stepsPerRun,
+                          @Value("${storage.sweep.max-actions-per-run:500}") int maxActionsPerRun,
+                          @Value("${storage.sweep.window-start-hour:1}") int windowStartHour,
+                          @Value("${storage.sweep.window-end-hour:6}") int windowEndHour) {
+        this.audioBlobRepository = audioBlobRepository;
+        this.lectureRepository = lectureRepository;
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.fileStorageService = fileStorageService;
+        this.audioPackStore = audioPackStore;
+        this.quarantineLocation = Paths.get(quarantineDir).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.quarantine = quarantine;
+        this.quarantineDays = quarantineDays;
+        this.graceMinutes = graceMinutes;
+        this.incomingMaxAgeHours = incomingMaxAgeHours;
+        this.stepsPerRun = Math.max(1, stepsPerRun);
+        this.maxActionsPerRun = maxActionsPerRun;
+        this.windowStartHour = windowStartHour;
+        this.windowEndHour = windowEndHour;
+    }
+
+    /**
+     * @return usage as of the last complete cycle, or {@code null} before the first one finishes
+     */
+    public StorageUsageResponse getLastUsage() {
+        return lastUsage;
+    }
+
+    @Scheduled(fixedDelayString = "${storage.sweep.interval-ms:300000}", initialDelayString = "${storage.sweep.interval-ms:300000}")
+    public void run() {
+        if (!enabled || !inWindow(LocalTime.now().getHour()) || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            actionsLeft = maxActionsPerRun;
+            for (int i = 0; i < stepsPerRun; i++) {
+                if (cycle == null) {
+                    cycle = new Cycle(LocalDateTime.now());
+                }
+                try {
+                    runStep(nextStep);
+                } catch (IOException | RuntimeException ex) {
+                    // Skipped for this cycle; the next one retries it
+                    log.warn("Storage sweep step {} failed", nextStep, ex);
+                }
+                if (++nextStep == STEPS) {
+                    finishCycle();
+                    break;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runStep(int step) throws IOException {
+        if (step < SHARDS) {
+            sweepShard(step);
+        } else if (step == INCOMING_STEP) {
+            sweepIncoming();
+        } else if (step == LEGACY_STEP) {
+            sweepLegacy();
+        } else if (step == PACK_STEP) {
+            sweepPacks();
+        }
+    }
+
+    private void sweepShard(int shard) throws IOException {
+        String from = String.format("%02x", shard);
+        // 'g' sorts after every lowercase hex digit, so it closes the last range
+        String to = shard == SHARDS - 1 ? "g" : String.format("%02x", shard + 1);
+
+        // Rows first: a file promoted after this query is still inside the grace period
+        List<BlobShardView> rows = new ArrayList<>(audioBlobRepository.findShard(from, to));
+        rows.sort(Comparator.comparing(BlobShardView::sha256));
+        Map<String, Long> footprint = new HashMap<>();
+        for (BlobShardView row : rows) {
+            if (row.tier() == StorageTier.COLD) {
+                cycle.coldBlobs++;
+                cycle.coldBytes += row.packedSizeBytes() != null ? row.packedSizeBytes() : 0;
+                footprint.put(row.sha256(), row.packedSizeBytes() != null ? row.packedSizeBytes() : 0);
+            } else {
+                cycle.hotBlobs++;
+                cycle.hotBytes += row.sizeBytes();
+                footprint.put(row.sha256(), row.sizeBytes());
+            }
+        }
+        Set<String> referenced = new HashSet<>();
+        for (BlobUsageView usage : lectureRepository.findBlobUsage(from, to)) {
+            referenced.add(usage.sha256());
+            long[] school = cycle.schools.computeIfAbsent(usage.school() != null ? usage.school() : "", key -> new long[3]);
+            school[0] += usage.lectures();
+            school[1] += usage.audioBytes();
+            school[2] += footprint.getOrDefault(usage.sha256(), 0L);
+        }
+        for (BlobShardView row : rows) {
+            if (!referenced.contains(row.sha256())) {
+                cycle.unreferencedBlobs++;
+            }
+        }
+
+        Path dir = fileStorageService.getBlobLocation().resolve(from);
+        List<String> names = listFileNames(dir);
+        names.sort(null);
+        Instant cutoff = Instant.now().minus(graceMinutes, ChronoUnit.MINUTES);
+        boolean[] present = new boolean[rows.size()];
+        int j = 0;
+        for (String name : names) {
+            Path file = dir.resolve(name);
+            if (name.endsWith(PART_SUFFIX)) {
+                // Leftover of an interrupted restore
+                sweepIfOrphan(file, "blobs", cutoff);
+                continue;
+            }
+            String sha256 = shaOf(name);
+            if (name.endsWith(FileStorageService.PEAKS_SUFFIX)) {
+                // Waveform sidecars stay on the hot disk whatever the blob's tier
+                if (!footprint.containsKey(sha256) && !audioBlobRepository.existsById(sha256)) {
+                    sweepIfOrphan(file, "blobs", cutoff);
+                }
+                continue;
+            }
+            while (j < rows.size() && rows.get(j).sha256().compareTo(sha256) < 0) {
+                j++;
+            }
+            if (j < rows.size() && rows.get(j).sha256().equals(sha256)) {
+                BlobShardView row = rows.get(j);
+                if (row.tier() != StorageTier.COLD && name.equals(Paths.get(row.path()).getFileName().toString())) {
+                    present[j] = true;
+                    continue;
+                }
+                // A hot copy the blob no longer claims
+                sweepIfOrphan(file, "blobs", cutoff);
+            } else if (!audioBlobRepository.existsById(sha256)) {
+                sweepIfOrphan(file, "blobs", cutoff);
+            }
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).tier() != StorageTier.COLD && !present[i]) {
+                // May also be a blob evicted or deleted since the query; only counted
+                cycle.missingFiles++;
+                log.debug("Hot blob {} has no file at {}", rows.get(i).sha256(), rows.get(i).path());
+            }
+        }
+    }
+
+    /**
+     * Staged uploads that outlived any upload session, e.g. from a crash between staging and
+     * promotion. Part files of live resumable uploads are left alone whatever their age.
+     */
+    private void sweepIncoming() throws IOException {
+        Instant cutoff = Instant.now().minus(incomingMaxAgeHours, ChronoUnit.HOURS);
+        sweepByLookup(fileStorageService.getIncomingLocation(), "incoming", cutoff, name -> true,
+                uploadSessionRepository::findExistingPartPaths);
+    }
+
+    /**
+     * Files stored directly in {@code uploads/} before the blob store; kept while a lecture still
+     * points at the path.
+     */
+    private void sweepLegacy() throws IOException {
+        Instant cutoff = Instant.now().minus(graceMinutes, ChronoUnit.MINUTES);
+        sweepByLookup(fileStorageService.getFileStorageLocation(), "uploads", cutoff, name -> true,
+                lectureRepository::findExistingAudioUrls);
+    }
+
+    private void sweepPacks() throws IOException {
+        Path cold = audioPackStore.getColdLocation();
+        Instant cutoff = Instant.now().minus(graceMinutes, ChronoUnit.MINUTES);
+        for (String name : listFileNames(cold)) {
+            if (name.endsWith(PART_SUFFIX)) {
+                sweepIfOrphan(cold.resolve(name), "cold", cutoff);
+            }
+        }
+        sweepByLookup(cold, "cold", cutoff, name -> name.endsWith(".zip"), audioBlobRepository::findReferencedPackPaths);
+    }
+
+    /**
+     * Streams one directory, collecting regular files older than {@code cutoff} into batches, and
+     * sweeps those whose path the lookup does not return.
+     */
+    private void sweepByLookup(Path dir, String area, Instant cutoff, Predicate<String> accept,
+                               Function<List<String>, List<String>> existing) throws IOException {
+        List<Path> batch = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if (!accept.test(file.getFileName().toString())) {
+                    continue;
+                }
+                BasicFileAttributes attributes = attributesOf(file);
+                if (attributes == null || !attributes.isRegularFile() || attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                batch.add(file);
+                if (batch.size() == LOOKUP_BATCH) {
+                    sweepUnreferenced(batch, area, cutoff, existing);
+                    batch.clear();
+                }
+            }
+        } catch (NoSuchFileException ex) {
+            return;
+        }
+        if (!batch.isEmpty()) {
+            sweepUnreferenced(batch, area, cutoff, existing);
+        }
+    }
+
+    private void sweepUnreferenced(List<Path> files, String area, Instant cutoff,
+                                   Function<List<String>, List<String>> existing) {
+        Set<String> kept = new HashSet<>(existing.apply(files.stream().map(Path::toString).toList()));
+        for (Path file : files) {
+            if (!kept.contains(file.toString())) {
+                sweepIfOrphan(file, area, cutoff);
+            }
+        }
+    }
+
+    private void sweepIfOrphan(Path file, String area, Instant cutoff) {
+        BasicFileAttributes attributes = attributesOf(file);
+        if (attributes == null || !attributes.isRegularFile() || attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+            return;
+        }
+        cycle.orphanFiles++;
+        cycle.orphanBytes += attributes.size();
+        if (actionsLeft <= 0) {
+            return; // counted now, handled by a later cycle
+        }
+        actionsLeft--;
+        try {
+            if (quarantine) {
+                Path target = quarantineLocation.resolve(LocalDate.now().toString()).resolve(area).resolve(file.getFileName());
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                cycle.quarantinedFiles++;
+            } else {
+                Files.deleteIfExists(file);
+                cycle.deletedFiles++;
+            }
+        } catch (IOException ex) {
+            log.warn("Could not sweep orphan {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private void finishCycle() {
+        List<SchoolStorageUsage> schools = new ArrayList<>();
+        cycle.schools.forEach((school, totals) -> schools.add(new SchoolStorageUsage(school, totals[0], totals[1], totals[2])));
+        lastUsage = new StorageUsageResponse(cycle.startedAt, LocalDateTime.now(),
+                cycle.hotBlobs, cycle.hotBytes, cycle.coldBlobs, cycle.coldBytes,
+                cycle.orphanFiles, cycle.orphanBytes, cycle.quarantinedFiles, cycle.deletedFiles,
+                cycle.missingFiles, cycle.unreferencedBlobs, schools);
+        log.info("Storage sweep cycle done: {} hot blobs ({} bytes), {} cold ({} bytes), {} orphans ({} bytes, {} quarantined, {} deleted), "
+                        + "{} missing files, {} unreferenced blobs",
+                cycle.hotBlobs, cycle.hotBytes, cycle.coldBlobs, cycle.coldBytes, cycle.orphanFiles, cycle.orphanBytes,
+                cycle.quarantinedFiles, cycle.deletedFiles, cycle.missingFiles, cycle.unreferencedBlobs);
+        purgeQuarantine();
+        cycle = null;
+        nextStep = 0;
+    }
+
+    /**
+     * Drops quarantine days older than {@code storage.sweep.quarantine-days}.
+     */
+    private void purgeQuarantine() {
+        LocalDate oldestKept = LocalDate.now().minusDays(quarantineDays);
+        for (String name : listDirectoryNames(quarantineLocation)) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(name);
+            } catch (DateTimeParseException ex) {
+                continue;
+            }
+            if (!day.isBefore(oldestKept)) {
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(quarantineLocation.resolve(name))) {
+                for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException ex) {
+                log.warn("Could not purge quarantine {}: {}", name, ex.getMessage());
+            }
+        }
+    }
+
+    private boolean inWindow(int hour) {
+        if (windowStartHour == windowEndHour) {
+            return true;
+        }
+        return windowStartHour < windowEndHour
+                ? hour >= windowStartHour && hour < windowEndHour
+                : hour >= windowStartHour || hour < windowEndHour;
+    }
+
+    private static String shaOf(String fileName) {
+        int dot = fileName.indexOf('.');
+        return dot >= 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    private static BasicFileAttributes attributesOf(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException ex) {
+            return null; // gone in the meantime
+        }
+    }
+
+    private static List<String> listFileNames(Path dir) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : stream) {
+                names.add(file.getFileName().toString());
+            }
+        } catch (NoSuchFileException ex) {
+            // shard never written to
+        }
+        return names;
+    }
+
+    private static List<String> listDirectoryNames(Path dir) {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path path : stream) {
+                names.add(path.getFileName().toString());
+            }
+        } catch (IOException ex) {
+            // nothing quarantined yet
+        }
+        return names;
+    }
+
+    private static final class Cycle {
+        private final LocalDateTime startedAt;
+        // school -> {lectures, audio bytes, stored bytes}
+        private final Map<String, long[]> schools = new TreeMap<>();
+        private long hotBlobs;
+        private long hotBytes;
+        private long coldBlobs;
+        private long coldBytes;
+        private long orphanFiles;
+        private long orphanBytes;
+        private long quarantinedFiles;
+        private long deletedFiles;
+        private long missingFiles;
+        private long unreferencedBlobs;
+
+        private Cycle(LocalDateTime startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.audio.WaveformPeaks;
+
+/**
+ * An upload on disk: its path (staged or in the blob store), SHA-256 (hex) and length in bytes.
+ *
+ * @param peaks waveform computed while the upload was staged; {@code null} once in the blob store,
+ *              or when the audio is not a PCM WAV
+ */
+public record StoredAudio(String path, String sha256, long sizeBytes, WaveformPeaks peaks) {
+
+    public StoredAudio(String path, String sha256, long sizeBytes) {
+        this(path, sha256, sizeBytes, null);
+    }
+}
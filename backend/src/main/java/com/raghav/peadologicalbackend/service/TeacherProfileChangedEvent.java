@@ -0,0 +1,10 @@
+package com.raghav.peadologicalbackend.service;
+
+/**
+ * Published inside the transaction that creates, moves or deletes a teacher profile.
+ *
+ * @param schoolBefore school before the change, {@code null} for a new profile or one without a school
+ * @param schoolAfter  school after the change, {@code null} for a deleted profile or one without a school
+ */
+public record TeacherProfileChangedEvent(Long teacherProfileId, String schoolBefore, String schoolAfter) {
+}
@@ -12,6 +12,7 @@ import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
 import com.raghav.peadologicalbackend.repository.TimetableRepository;
 import com.raghav.peadologicalbackend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +24,7 @@ public class TeacherProfileService {
     private final TeacherProfileRepository teacherProfileRepository;
     private final TimetableRepository timetableRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public TeacherProfileResponse create(TeacherProfileCreateRequest request) {
@@ -38,6 +40,7 @@ public class TeacherProfileService {
         TeacherProfile profile = new TeacherProfile();
         profile.setUser(user);
         profile = teacherProfileRepository.save(profile);
+        eventPublisher.publishEvent(new TeacherProfileChangedEvent(profile.getId(), null, profile.getSchool()));
 
         Timetable timetable = new Timetable();
         timetable.setTeacherProfile(profile);
@@ -67,6 +70,7 @@ public class TeacherProfileService {
         timetableRepository.findByTeacherProfileId(profile.getId())
                 .ifPresent(timetableRepository::delete);
         teacherProfileRepository.delete(profile);
+        eventPublisher.publishEvent(new TeacherProfileChangedEvent(profile.getId(), profile.getSchool(), null));
     }
 
     private TeacherProfileResponse toResponse(TeacherProfile profile) {
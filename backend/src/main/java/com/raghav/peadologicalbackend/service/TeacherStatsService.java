@@ -0,0 +1,128 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.FacultyStatsDTO;
+import com.raghav.peadologicalbackend.entity.TeacherStats;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.repository.LectureRepository;
+import com.raghav.peadologicalbackend.repository.TeacherIdentityView;
+import com.raghav.peadologicalbackend.repository.TeacherLectureAggregate;
+import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
+import com.raghav.peadologicalbackend.repository.TeacherStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Maintains the {@link TeacherStats} read model, so a teacher's dashboard reads one row instead of
+ * every lecture. Change events become per-teacher deltas written just before the transaction commits
+ * (see {@link TransactionalDeltas}). A teacher without a row, or whose row went stale, is served from
+ * one aggregate query, which also refreshes the row.
+ */
+@Service
+@RequiredArgsConstructor
+public class TeacherStatsService {
+
+    private final TeacherStatsRepository teacherStatsRepository;
+    private final LectureRepository lectureRepository;
+    private final TeacherProfileRepository teacherProfileRepository;
+    private final MetricSketchService metricSketchService;
+    private final TransactionalDeltas<Long, Delta> deltas = new TransactionalDeltas<>(Delta::new, this::apply);
+
+    @Transactional
+    public FacultyStatsDTO getStats(String username) {
+        TeacherIdentityView teacher = teacherProfileRepository.findIdentityByUsername(username)
+                .orElseThrow(() -> new NotFoundException("Teacher profile not found."));
+        TeacherLectureAggregate totals = totals(teacher.id());
+        double avgScore = totals.scoredCount() > 0 ? totals.scoreSum() / totals.scoredCount() : 0.0;
+        return new FacultyStatsDTO(teacher.id(), teacher.name(), teacher.department(), totals.lectureCount(),
+                avgScore, totals.lastActiveAt(), totals.minScore(), totals.maxScore(),
+                metricSketchService.forTeacher(teacher.id()));
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LectureSnapshot before = event.before();
+        LectureSnapshot after = event.after();
+        if (before != null && after != null && Objects.equals(before.teacherProfileId(), after.teacherProfileId())
+                && Objects.equals(before.score(), after.score()) && Objects.equals(before.uploadedAt(), after.uploadedAt())) {
+            return;
+        }
+        if (before != null) {
+            // Taking out a score or an upload time may take out the current minimum, maximum or last activity
+            boolean keepsUploadTime = after != null && Objects.equals(before.teacherProfileId(), after.teacherProfileId())
+                    && Objects.equals(before.uploadedAt(), after.uploadedAt());
+            deltas.get(before.teacherProfileId()).remove(before, before.score() != null || !keepsUploadTime);
+        }
+        if (after != null) {
+            deltas.get(after.teacherProfileId()).add(after);
+        }
+        deltas.flushIfNoTransaction();
+    }
+
+    private TeacherLectureAggregate totals(Long teacherProfileId) {
+        Optional<TeacherStats> row = teacherStatsRepository.findById(teacherProfileId);
+        if (row.isPresent() && !row.get().getStale()) {
+            TeacherStats stats = row.get();
+            return new TeacherLectureAggregate(stats.getLectureCount(), stats.getScoredCount(), stats.getScoreSum(),
+                    stats.getMinScore(), stats.getMaxScore(), stats.getLastActiveAt());
+        }
+        TeacherLectureAggregate totals = lectureRepository.aggregateByTeacherProfileId(teacherProfileId);
+        LocalDateTime now = LocalDateTime.now();
+        if (row.isPresent()) {
+            teacherStatsRepository.replaceIfUnchanged(teacherProfileId, row.get().getRevision(), totals.lectureCount(),
+                    totals.scoredCount(), totals.scoreSum(), totals.minScore(), totals.maxScore(),
+                    totals.lastActiveAt(), now);
+        } else {
+            teacherStatsRepository.insertIfAbsent(teacherProfileId, totals.lectureCount(), totals.scoredCount(),
+                    totals.scoreSum(), totals.minScore(), totals.maxScore(), totals.lastActiveAt(), now);
+        }
+        return totals;
+    }
+
+    private void apply(Map<Long, Delta> pending) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.forEach((teacherProfileId, delta) -> teacherStatsRepository.applyDelta(teacherProfileId,
+                delta.lectures, delta.scored, delta.scoreSum, delta.minScore, delta.maxScore, delta.lastActiveAt,
+                delta.stale, now));
+    }
+
+    private static final class Delta {
+        private long lectures;
+        private long scored;
+        private double scoreSum;
+        private Double minScore;
+        private Double maxScore;
+        private LocalDateTime lastActiveAt;
+        private boolean stale;
+
+        private void add(LectureSnapshot lecture) {
+            lectures++;
+            Double score = lecture.score();
+            if (score != null) {
+                scored++;
+                scoreSum += score;
+                minScore = minScore == null ? score : Math.min(minScore, score);
+                maxScore = maxScore == null ? score : Math.max(maxScore, score);
+            }
+            LocalDateTime uploadedAt = lecture.uploadedAt();
+            if (uploadedAt != null && (lastActiveAt == null || uploadedAt.isAfter(lastActiveAt))) {
+                lastActiveAt = uploadedAt;
+            }
+        }
+
+        private void remove(LectureSnapshot lecture, boolean mayRemoveExtreme) {
+            lectures--;
+            if (lecture.score() != null) {
+                scored--;
+                scoreSum -= lecture.score();
+            }
+            stale |= mayRemoveExtreme;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.raghav.peadologicalbackend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Buffers the deltas a read model collects from change events for the current transaction and
+ * hands them to {@code writer} just before the transaction commits, so the read model commits or
+ * rolls back with the change. Keys are written in order, so concurrent writers lock read-model rows
+ * in the same order. Outside a transaction, {@link #flushIfNoTransaction()} writes at once.
+ *
+ * @param <K> read-model row key
+ * @param <D> mutable delta for one row
+ */
+final class TransactionalDeltas<K extends Comparable<K>, D> {
+
+    private final Supplier<D> factory;
+    private final Consumer<Map<K, D>> writer;
+    private final ThreadLocal<Map<K, D>> immediate = ThreadLocal.withInitial(TreeMap::new);
+
+    TransactionalDeltas(Supplier<D> factory, Consumer<Map<K, D>> writer) {
+        this.factory = factory;
+        this.writer = writer;
+    }
+
+    /**
+     * @return the delta of {@code key} in the current transaction, created on first use
+     */
+    D get(K key) {
+        return pending().computeIfAbsent(key, ignored -> factory.get());
+    }
+
+    void flushIfNoTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(immediate.get());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<K, D> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return immediate.get();
+        }
+        Map<K, D> deltas = (Map<K, D>) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            Map<K, D> bound = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalDeltas.this);
+                }
+            });
+            deltas = bound;
+        }
+        return deltas;
+    }
+
+    private void write(Map<K, D> deltas) {
+        try {
+            writer.accept(deltas);
+        } finally {
+            deltas.clear();
+        }
+    }
+}
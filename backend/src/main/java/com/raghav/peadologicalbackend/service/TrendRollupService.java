@@ -0,0 +1,241 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.TrendPointDTO;
+import com.raghav.peadologicalbackend.dto.TrendSeriesDTO;
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import com.raghav.peadologicalbackend.entity.TeacherProfile;
+import com.raghav.peadologicalbackend.entity.TrendGranularity;
+import com.raghav.peadologicalbackend.entity.TrendRollup;
+import com.raghav.peadologicalbackend.entity.TrendScope;
+import com.raghav.peadologicalbackend.exception.BadRequestException;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
+import com.raghav.peadologicalbackend.repository.TrendRollupBatchRepository;
+import com.raghav.peadologicalbackend.repository.TrendRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains the {@link TrendRollup} buckets from lecture change events and answers range queries
+ * from them. Each lecture adds its metrics to one bucket per scope, granularity and metric; the
+ * deltas of a transaction are batched and written just before it commits (see
+ * {@link TransactionalDeltas}). A range query reads at most {@code stats.trends.max-buckets} rows.
+ */
+@Service
+public class TrendRollupService {
+    private static final Logger log = LoggerFactory.getLogger(TrendRollupService.class);
+
+    private final TrendRollupRepository trendRollupRepository;
+    private final TrendRollupBatchRepository trendRollupBatchRepository;
+    private final TeacherProfileRepository teacherProfileRepository;
+    private final int maxBuckets;
+    private final TransactionalDeltas<BucketKey, Delta> deltas = new TransactionalDeltas<>(Delta::new, this::apply);
+
+    public TrendRollupService(TrendRollupRepository trendRollupRepository,
+                              TrendRollupBatchRepository trendRollupBatchRepository,
+                              TeacherProfileRepository teacherProfileRepository,
+                              @Value("${stats.trends.max-buckets:1000}") int maxBuckets) {
+        this.trendRollupRepository = trendRollupRepository;
+        this.trendRollupBatchRepository = trendRollupBatchRepository;
+        this.teacherProfileRepository = teacherProfileRepository;
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Resolves the rollup key of a scope from the request parameters it needs.
+     */
+    @Transactional(readOnly = true)
+    public TrendTarget resolveTarget(TrendScope scope, Long teacherId, String school, String department) {
+        switch (scope) {
+            case TEACHER -> {
+                if (teacherId == null) {
+                    throw new BadRequestException("Teacher id is required for a teacher trend.");
+                }
+                TeacherProfile teacher = teacherProfileRepository.findById(teacherId)
+                        .orElseThrow(() -> new NotFoundException("Teacher profile not found."));
+                return new TrendTarget(scope, scopeKey(scope, teacherId, null, null), teacher.getSchool());
+            }
+            case DEPARTMENT -> {
+                if (isBlank(school) || isBlank(department)) {
+                    throw new BadRequestException("School and department are required for a department trend.");
+                }
+                return new TrendTarget(scope, scopeKey(scope, null, school, department), school);
+            }
+            default -> {
+                if (isBlank(school)) {
+                    throw new BadRequestException("School is required for a school trend.");
+                }
+                return new TrendTarget(scope, scopeKey(scope, null, school, null), school);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public TrendSeriesDTO series(TrendTarget target, LectureMetric metric, TrendGranularity granularity,
+                                 LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("The start of the range must not be after its end.");
+        }
+        if (granularity.bucketCount(from, to) > maxBuckets) {
+            throw new BadRequestException("The range spans more than " + maxBuckets + " buckets; use a coarser granularity.");
+        }
+        List<TrendPointDTO> points = trendRollupRepository.findSeries(target.scope(), target.scopeKey(), granularity,
+                        metric, granularity.bucketStart(from), to).stream()
+                .map(TrendRollupService::toPoint)
+                .toList();
+        return new TrendSeriesDTO(target.scope(), target.scopeKey(), metric, granularity, from, to, points);
+    }
+
+    @EventListener
+    public void onLectureChanged(LectureChangedEvent event) {
+        LectureSnapshot before = event.before();
+        LectureSnapshot after = event.after();
+        if (before != null && after != null && sameContribution(before, after)) {
+            return;
+        }
+        if (before != null) {
+            addLecture(before, -1);
+        }
+        if (after != null) {
+            addLecture(after, 1);
+        }
+        deltas.flushIfNoTransaction();
+    }
+
+    // Fills the rollups on the first start after they were introduced
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!trendRollupRepository.hasAny()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Replaces all buckets with ones computed from {@code lectures}. The table lock makes concurrent
+     * writers wait, so no delta is lost or counted twice.
+     *
+     * @return number of buckets written
+     */
+    @Transactional
+    public int rebuild() {
+        trendRollupRepository.lockForRebuild();
+        trendRollupRepository.deleteAllInBatch();
+        int buckets = trendRollupRepository.rebuildFromLectures(LocalDateTime.now());
+        log.info("Rebuilt {} trend rollup buckets", buckets);
+        return buckets;
+    }
+
+    private void addLecture(LectureSnapshot lecture, int sign) {
+        if (lecture.uploadedAt() == null) {
+            return;
+        }
+        LocalDate day = lecture.uploadedAt().toLocalDate();
+        for (TrendScope scope : TrendScope.values()) {
+            String scopeKey = scopeKey(scope, lecture.teacherProfileId(), lecture.school(), lecture.department());
+            if (scopeKey == null) {
+                continue;
+            }
+            for (LectureMetric metric : LectureMetric.values()) {
+                Double value = lecture.metric(metric);
+                if (value == null) {
+                    continue;
+                }
+                for (TrendGranularity granularity : TrendGranularity.values()) {
+                    deltas.get(new BucketKey(scope, scopeKey, granularity, metric, granularity.bucketStart(day)))
+                            .add(value, sign);
+                }
+            }
+        }
+    }
+
+    private void apply(Map<BucketKey, Delta> pending) {
+        List<TrendRollupBatchRepository.Delta> rows = new ArrayList<>(pending.size());
+        pending.forEach((key, delta) -> {
+            if (delta.count != 0 || delta.sum != 0 || delta.sumSquares != 0) {
+                rows.add(new TrendRollupBatchRepository.Delta(key.scope(), key.scopeKey(), key.granularity(),
+                        key.metric(), key.bucketStart(), delta.count, delta.sum, delta.sumSquares));
+            }
+        });
+        trendRollupBatchRepository.applyDeltas(rows, LocalDateTime.now());
+    }
+
+    private static String scopeKey(TrendScope scope, Long teacherProfileId, String school, String department) {
+        return switch (scope) {
+            case TEACHER -> teacherProfileId != null ? String.valueOf(teacherProfileId) : null;
+            case DEPARTMENT -> school != null && department != null ? school + "/" + department : null;
+            case SCHOOL -> school;
+        };
+    }
+
+    private static boolean sameContribution(LectureSnapshot before, LectureSnapshot after) {
+        if (!Objects.equals(before.teacherProfileId(), after.teacherProfileId())
+                || !Objects.equals(before.school(), after.school())
+                || !Objects.equals(before.department(), after.department())
+                || !Objects.equals(before.uploadedAt(), after.uploadedAt())) {
+            return false;
+        }
+        for (LectureMetric metric : LectureMetric.values()) {
+            if (!Objects.equals(before.metric(metric), after.metric(metric))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static TrendPointDTO toPoint(TrendRollup bucket) {
+        long n = bucket.getSampleCount();
+        double mean = bucket.getValueSum() / n;
+        double variance = Math.max(0.0, bucket.getValueSumSquares() / n - mean * mean);
+        return new TrendPointDTO(bucket.getBucketStart(), n, mean, Math.sqrt(variance));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * A resolved trend scope, with the school it belongs to for access checks.
+     */
+    public record TrendTarget(TrendScope scope, String scopeKey, String school) {
+    }
+
+    private record BucketKey(TrendScope scope, String scopeKey, TrendGranularity granularity, LectureMetric metric,
+                             LocalDate bucketStart) implements Comparable<BucketKey> {
+        private static final Comparator<BucketKey> ORDER = Comparator.comparing(BucketKey::scope)
+                .thenComparing(BucketKey::scopeKey)
+                .thenComparing(BucketKey::granularity)
+                .thenComparing(BucketKey::metric)
+                .thenComparing(BucketKey::bucketStart);
+
+        @Override
+        public int compareTo(BucketKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+        private long count;
+        private double sum;
+        private double sumSquares;
+
+        private void add(double value, int sign) {
+            count += sign;
+            sum += sign * value;
+            sumSquares += sign * value * value;
+        }
+    }
+}
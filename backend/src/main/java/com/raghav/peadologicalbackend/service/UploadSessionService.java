@@ -0,0 +1,244 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.LectureCreateRequest;
+import com.raghav.peadologicalbackend.dto.LectureResponse;
+import com.raghav.peadologicalbackend.dto.UploadSessionCreateRequest;
+import com.raghav.peadologicalbackend.dto.UploadSessionResponse;
+import com.raghav.peadologicalbackend.entity.UploadSession;
+import com.raghav.peadologicalbackend.exception.BadRequestException;
+import com.raghav.peadologicalbackend.exception.ConflictException;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.exception.PayloadTooLargeException;
+import com.raghav.peadologicalbackend.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Resumable uploads: a session owns a part file that numbered chunks are written into at their
+ * byte offsets. The committed offset only moves forward once a chunk is on disk, so a client that
+ * lost its connection asks for the offset and continues from there.
+ */
+@Service
+public class UploadSessionService {
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final LectureService lectureService;
+    private final LectureIngestService lectureIngestService;
+    private final FileStorageService fileStorageService;
+    private final long maxChunkBytes;
+    private final long sessionTtlHours;
+
+    // Serialises chunk writes per session; chunks of different sessions proceed in parallel
+    private final ConcurrentHashMap<String, ReentrantLock> sessionLocks = new ConcurrentHashMap<>();
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+                                LectureService lectureService,
+                                LectureIngestService lectureIngestService,
+                                FileStorageService fileStorageService,
+                                @Value("${upload.max-chunk-bytes:67108864}") long maxChunkBytes,
+                                @Value("${upload.session-ttl-hours:24}") long sessionTtlHours) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.lectureService = lectureService;
+        this.lectureIngestService = lectureIngestService;
+        this.fileStorageService = fileStorageService;
+        this.maxChunkBytes = maxChunkBytes;
+        this.sessionTtlHours = sessionTtlHours;
+    }
+
+    public UploadSessionResponse create(UploadSessionCreateRequest request) {
+        if (request.getTotalBytes() != null && request.getTotalBytes() > fileStorageService.getMaxUploadBytes()) {
+            throw new PayloadTooLargeException("Upload exceeds the maximum size of " + fileStorageService.getMaxUploadBytes() + " bytes.");
+        }
+        lectureService.checkCanUpload(toLectureRequest(request));
+
+        String uploadId = UUID.randomUUID().toString();
+        UploadSession session = new UploadSession();
+        session.setId(uploadId);
+        session.setOwnerUsername(getCurrentUsername());
+        session.setTeacherProfileId(request.getTeacherProfileId());
+        session.setClassSlotId(request.getClassSlotId());
+        session.setLectureTitle(request.getLectureTitle().trim());
+        session.setOriginalFileName(request.getFileName());
+        session.setSyllabus(request.getSyllabus());
+        session.setTotalBytes(request.getTotalBytes());
+        session.setPartPath(fileStorageService.createUploadPart(uploadId, request.getFileName()));
+        return toResponse(uploadSessionRepository.save(session));
+    }
+
+    public UploadSessionResponse get(String uploadId) {
+        return toResponse(findOwned(uploadId));
+    }
+
+    /**
+     * Writes chunk {@code index} at {@code offset}. A chunk may overlap bytes that are already
+     * committed (a retry of the last chunk), but it may not leave a gap.
+     */
+    public UploadSessionResponse writeChunk(String uploadId, int index, long offset, InputStream body) {
+        if (index < 0 || offset < 0) {
+            throw new BadRequestException("Chunk index and offset must not be negative.");
+        }
+        return withOwnedSession(uploadId, session -> {
+            if (offset > session.getCommittedBytes()) {
+                throw new ConflictException("Chunk " + index + " starts at " + offset
+                        + " but only " + session.getCommittedBytes() + " bytes are committed.");
+            }
+            long written = fileStorageService.writeChunk(session.getPartPath(), offset, body, maxChunkBytes);
+            long end = offset + written;
+            if (session.getTotalBytes() != null && end > session.getTotalBytes()) {
+                throw new BadRequestException("Chunk " + index + " runs past the declared upload size.");
+            }
+            if (end > session.getCommittedBytes()) {
+                session.setCommittedBytes(end);
+            }
+            session.setUpdatedAt(LocalDateTime.now());
+            return toResponse(uploadSessionRepository.save(session));
+        });
+    }
+
+    public LectureResponse complete(String uploadId) {
+        return withOwnedSession(uploadId, session -> {
+            if (session.getCommittedBytes() == 0) {
+                throw new BadRequestException("Upload is empty.");
+            }
+            if (session.getTotalBytes() != null && !session.getTotalBytes().equals(session.getCommittedBytes())) {
+                throw new ConflictException("Upload is incomplete: " + session.getCommittedBytes()
+                        + " of " + session.getTotalBytes() + " bytes committed.");
+            }
+
+            LectureCreateRequest request = new LectureCreateRequest();
+            request.setTeacherProfileId(session.getTeacherProfileId());
+            request.setClassSlotId(session.getClassSlotId());
+            request.setLectureTitle(session.getLectureTitle());
+            request.setSyllabus(session.getSyllabus());
+            lectureService.checkCanUpload(request);
+
+            // The ingest consumes a link to the part file; on failure the session and its part file
+            // are left as they were, so the client can complete again
+            StoredAudio stored = fileStorageService.completeUpload(session.getPartPath(), session.getCommittedBytes());
+            LectureResponse lecture;
+            try {
+                lecture = lectureIngestService.ingestStored(request, stored);
+            } catch (RuntimeException ex) {
+                fileStorageService.delete(stored.path());
+                throw ex;
+            }
+            // The lecture has committed by now
+            uploadSessionRepository.delete(session);
+            fileStorageService.delete(session.getPartPath());
+            sessionLocks.remove(uploadId);
+            return lecture;
+        });
+    }
+
+    public void abort(String uploadId) {
+        withOwnedSession(uploadId, session -> {
+            uploadSessionRepository.delete(session);
+            fileStorageService.delete(session.getPartPath());
+            sessionLocks.remove(uploadId);
+            return null;
+        });
+    }
+
+    /**
+     * Garbage-collects sessions that have not received a chunk within the TTL, together with their part files.
+     */
+    @Scheduled(fixedDelayString = "${upload.cleanup-interval-ms:3600000}")
+    public void removeStaleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(sessionTtlHours);
+        int removed = 0;
+        for (UploadSession stale : uploadSessionRepository.findByUpdatedAtBefore(cutoff)) {
+            ReentrantLock lock = sessionLocks.computeIfAbsent(stale.getId(), id -> new ReentrantLock());
+            // A session taking a chunk right now is not stale; the next run looks at it again
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                UploadSession session = uploadSessionRepository.findById(stale.getId()).orElse(null);
+                if (session != null && !session.getUpdatedAt().isBefore(cutoff)) {
+                    continue;
+                }
+                if (session != null) {
+                    uploadSessionRepository.delete(session);
+                    fileStorageService.delete(session.getPartPath());
+                    removed++;
+                }
+                sessionLocks.remove(stale.getId(), lock);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} stale upload sessions", removed);
+        }
+    }
+
+    /**
+     * Runs {@code action} on the caller's session under the session lock. Ownership is checked before
+     * a lock is created, so unknown or foreign ids never add one, and again under the lock, since the
+     * session may have been completed, aborted or collected while this call waited.
+     */
+    private <T> T withOwnedSession(String uploadId, Function<UploadSession, T> action) {
+        findOwned(uploadId);
+        ReentrantLock lock = sessionLocks.computeIfAbsent(uploadId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            UploadSession session;
+            try {
+                session = findOwned(uploadId);
+            } catch (NotFoundException ex) {
+                sessionLocks.remove(uploadId, lock);
+                throw ex;
+            }
+            return action.apply(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UploadSession findOwned(String uploadId) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new NotFoundException("Upload session not found."));
+        String username = getCurrentUsername();
+        if (username == null || !username.equals(session.getOwnerUsername())) {
+            // Indistinguishable from a missing session on purpose
+            throw new NotFoundException("Upload session not found.");
+        }
+        return session;
+    }
+
+    private LectureCreateRequest toLectureRequest(UploadSessionCreateRequest request) {
+        LectureCreateRequest lectureRequest = new LectureCreateRequest();
+        lectureRequest.setTeacherProfileId(request.getTeacherProfileId());
+        lectureRequest.setClassSlotId(request.getClassSlotId());
+        lectureRequest.setLectureTitle(request.getLectureTitle());
+        return lectureRequest;
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getCommittedBytes(),
+                session.getTotalBytes(),
+                maxChunkBytes,
+                session.getUpdatedAt().plusHours(sessionTtlHours)
+        );
+    }
+
+    private String getCurrentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+}
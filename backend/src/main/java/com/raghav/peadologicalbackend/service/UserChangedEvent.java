@@ -0,0 +1,9 @@
+package com.raghav.peadologicalbackend.service;
+
+/**
+ * Published inside the transaction that creates, updates or deletes a user account.
+ *
+ * @param school school of the user's teacher profile, {@code null} if the user has none
+ */
+public record UserChangedEvent(Long userId, String school) {
+}
@@ -13,6 +13,7 @@ import com.raghav.peadologicalbackend.repository.TeacherProfileRepository;
 import com.raghav.peadologicalbackend.repository.TimetableRepository;
 import com.raghav.peadologicalbackend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +26,7 @@ public class UserManagementService {
     private final UserRepository userRepository;
     private final TeacherProfileRepository teacherProfileRepository;
     private final TimetableRepository timetableRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
 
@@ -49,11 +51,13 @@ public class UserManagementService {
             TeacherProfile profile = new TeacherProfile();
             profile.setUser(user);
             profile = teacherProfileRepository.save(profile);
+            eventPublisher.publishEvent(new TeacherProfileChangedEvent(profile.getId(), null, profile.getSchool()));
 
             Timetable timetable = new Timetable();
             timetable.setTeacherProfile(profile);
             timetableRepository.save(timetable);
         }
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), null));
 
         return toResponse(user);
     }
@@ -101,21 +105,30 @@ public class UserManagementService {
             }
         }
 
-        return toResponse(userRepository.save(user));
+        user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), teacherProfileRepository.findByUserId(user.getId())
+                .map(TeacherProfile::getSchool)
+                .orElse(null)));
+        return toResponse(user);
     }
 
     @Transactional
     public void delete(Long id) {
         Users user = userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found."));
+        String school = teacherProfileRepository.findByUserId(user.getId())
+                .map(TeacherProfile::getSchool)
+                .orElse(null);
 
         teacherProfileRepository.findByUserId(user.getId()).ifPresent(profile -> {
             timetableRepository.findByTeacherProfileId(profile.getId())
                     .ifPresent(timetableRepository::delete);
             teacherProfileRepository.delete(profile);
+            eventPublisher.publishEvent(new TeacherProfileChangedEvent(profile.getId(), profile.getSchool(), null));
         });
 
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), school));
     }
 
     private void ensureTeacherProfile(Users user) {
@@ -126,6 +139,7 @@ public class UserManagementService {
                     TeacherProfile profile = new TeacherProfile();
                     profile.setUser(user);
                     profile = teacherProfileRepository.save(profile);
+                    eventPublisher.publishEvent(new TeacherProfileChangedEvent(profile.getId(), null, profile.getSchool()));
 
                     Timetable timetable = new Timetable();
                     timetable.setTeacherProfile(profile);
@@ -0,0 +1,60 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.audio.WaveformPeaks;
+import com.raghav.peadologicalbackend.exception.NotFoundException;
+import com.raghav.peadologicalbackend.repository.LectureAudioView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Finds the waveform peaks sidecar of a lecture's recording. Recordings stored before peaks were
+ * computed at ingest get theirs from one read of the file on first request.
+ */
+@Service
+public class WaveformService {
+
+    private final FileStorageService fileStorageService;
+    private final AudioBlobService audioBlobService;
+    private final long maxAgeSeconds;
+
+    public WaveformService(FileStorageService fileStorageService,
+                           AudioBlobService audioBlobService,
+                           @Value("${storage.waveform.max-age-seconds:31536000}") long maxAgeSeconds) {
+        this.fileStorageService = fileStorageService;
+        this.audioBlobService = audioBlobService;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    /**
+     * @return the sidecar file, in the format described by {@link WaveformPeaks}
+     */
+    public Path peaksFor(LectureAudioView audio) throws IOException {
+        if (audio.audioSha256() == null || AudioLocator.sha256(audio.lectureAudioUrl()) == null) {
+            throw new NotFoundException("This lecture has no stored audio.");
+        }
+        Path sidecar = fileStorageService.peaksPath(audio.audioSha256());
+        if (Files.isRegularFile(sidecar)) {
+            return sidecar;
+        }
+        WaveformPeaks peaks;
+        try (AudioHandle handle = audioBlobService.open(audio.lectureAudioUrl())) {
+            peaks = fileStorageService.summarizePeaks(handle.path());
+        }
+        if (peaks == null) {
+            throw new NotFoundException("No waveform is available for this recording.");
+        }
+        fileStorageService.writePeaks(audio.audioSha256(), peaks);
+        if (!Files.isRegularFile(sidecar)) {
+            throw new IOException("Could not store the waveform of " + audio.audioSha256());
+        }
+        return sidecar;
+    }
+}
@@ -0,0 +1,128 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KllSketchTest {
+
+    private static final int K = 200;
+    // Several times the expected error of about 1.7 / k, so the randomised compactions never flake
+    private static final double RANK_TOLERANCE = 0.03;
+
+    @Test
+    void quantilesStayWithinRankErrorOfExactOnes() {
+        Random random = new Random(7);
+        double[] values = new double[100_000];
+        KllSketch sketch = new KllSketch(K);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 15 + 60;
+            sketch.update(values[i]);
+        }
+        assertRanksClose(sketch, values);
+    }
+
+    @Test
+    void mergeMatchesOneSketchOfBothInputs() {
+        Random random = new Random(11);
+        double[] values = new double[60_000];
+        KllSketch left = new KllSketch(K);
+        KllSketch right = new KllSketch(K);
+        for (int i = 0; i < values.length; i++) {
+            // Different distributions on each side, so a merge that drops one of them shows
+            values[i] = i % 3 == 0 ? random.nextDouble() * 100 : 50 + random.nextDouble() * 10;
+            (i % 3 == 0 ? left : right).update(values[i]);
+        }
+        KllSketch merged = left.copy();
+        merged.merge(right);
+
+        assertEquals(values.length, merged.count());
+        assertEquals(merged.count(), merged.weight());
+        assertRanksClose(merged, values);
+        // The inputs are left as they were
+        assertEquals(values.length / 3, left.count());
+        assertEquals(left.count(), left.weight());
+    }
+
+    @Test
+    void manySmallSketchesMergeIntoOne() {
+        Random random = new Random(3);
+        double[] values = new double[50_000];
+        KllSketch merged = new KllSketch(K);
+        for (int part = 0; part < 500; part++) {
+            KllSketch teacher = new KllSketch(K);
+            for (int i = 0; i < 100; i++) {
+                double value = random.nextDouble();
+                values[part * 100 + i] = value;
+                teacher.update(value);
+            }
+            merged.merge(teacher);
+        }
+        assertEquals(values.length, merged.count());
+        assertRanksClose(merged, values);
+    }
+
+    @Test
+    void compactionConservesWeight() {
+        KllSketch sketch = new KllSketch(K);
+        for (int i = 1; i <= 250_000; i++) {
+            sketch.update(i);
+            if (i % 997 == 0) {
+                assertEquals(i, sketch.weight());
+            }
+        }
+        assertEquals(sketch.count(), sketch.weight());
+    }
+
+    @Test
+    void exactUntilTheFirstCompaction() {
+        KllSketch sketch = new KllSketch(K);
+        for (int i = 100; i >= 1; i--) {
+            sketch.update(i);
+        }
+        assertArrayEquals(new double[]{1, 10, 50, 90, 100}, sketch.quantiles(0.0, 0.1, 0.5, 0.9, 1.0));
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        KllSketch sketch = new KllSketch(K);
+        sketch.update(Double.NaN);
+        assertEquals(0, sketch.count());
+        assertTrue(Double.isNaN(sketch.quantiles(0.5)[0]));
+    }
+
+    private static void assertRanksClose(KllSketch sketch, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double[] ranks = new double[99];
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] = (i + 1) / 100.0;
+        }
+        double[] estimates = sketch.quantiles(ranks);
+        for (int i = 0; i < ranks.length; i++) {
+            double actual = rankOf(sorted, estimates[i]);
+            assertTrue(Math.abs(actual - ranks[i]) <= RANK_TOLERANCE,
+                    "rank " + ranks[i] + " came back as " + estimates[i] + " at true rank " + actual);
+        }
+    }
+
+    // Fraction of values at or below `value`
+    private static double rankOf(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (double) low / sorted.length;
+    }
+}
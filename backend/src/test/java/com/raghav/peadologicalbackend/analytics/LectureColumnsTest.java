@@ -0,0 +1,286 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LectureColumnsTest {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int YEAR_SECONDS = 365 * 24 * 3600;
+    private static final Set<LectureMetric> ALL_METRICS = EnumSet.allOf(LectureMetric.class);
+
+    @Test
+    void aggregatesMatchNaiveComputationAcrossUpsertsAndRemoves() {
+        Random random = new Random(3);
+        LectureColumns columns = new LectureColumns();
+        Map<Long, Row> oracle = new HashMap<>();
+        for (int step = 0; step < 20_000; step++) {
+            long id = random.nextInt(5_000);
+            if (random.nextInt(4) > 0) {
+                Row row = randomRow(random, id);
+                columns.upsert(row);
+                oracle.put(id, row);
+            } else {
+                columns.remove(id);
+                oracle.remove(id);
+            }
+        }
+
+        assertEquals(oracle.size(), columns.size());
+        for (int i = 0; i < 200; i++) {
+            assertMatches(oracle.values(), columns, randomQuery(random));
+        }
+    }
+
+    @Test
+    void aggregatesMatchNaiveComputationAfterCompaction() {
+        Random random = new Random(5);
+        LectureColumns columns = new LectureColumns();
+        Map<Long, Row> oracle = new LinkedHashMap<>();
+        // More than two chunks, so queries scan in parallel and chunk boundaries are crossed
+        int rows = 2 * LectureColumns.CHUNK_ROWS + 10_000;
+        for (long id = 0; id < rows; id++) {
+            Row row = randomRow(random, id);
+            columns.upsert(row);
+            oracle.put(id, row);
+        }
+        // Three rows in four go, which passes both compaction thresholds: a chunk's worth and half the store
+        for (long id = 0; id < rows; id++) {
+            if (id % 4 != 0) {
+                columns.remove(id);
+                oracle.remove(id);
+            }
+        }
+        assertEquals(oracle.size(), columns.size());
+        for (int i = 0; i < 50; i++) {
+            assertMatches(oracle.values(), columns, randomQuery(random));
+        }
+
+        // Rows moved by the compaction must still be found by id
+        for (long id = 0; id < rows; id += 8) {
+            Row row = randomRow(random, id);
+            columns.upsert(row);
+            oracle.put(id, row);
+        }
+        for (long id = 4; id < rows; id += 16) {
+            columns.remove(id);
+            oracle.remove(id);
+        }
+        for (long id = rows; id < rows + 1_000; id++) {
+            Row row = randomRow(random, id);
+            columns.upsert(row);
+            oracle.put(id, row);
+        }
+        assertEquals(oracle.size(), columns.size());
+        for (int i = 0; i < 50; i++) {
+            assertMatches(oracle.values(), columns, randomQuery(random));
+        }
+    }
+
+    @Test
+    void insertIfAbsentNeverOverwritesANewerWrite() {
+        LectureColumns columns = new LectureColumns();
+        Row newer = row(1L, 10L, "S0", "D0", 80.0);
+        columns.upsert(newer);
+        columns.insertIfAbsent(row(1L, 10L, "S0", "D0", 20.0));
+        columns.insertIfAbsent(row(2L, 11L, "S1", "D1", 50.0));
+
+        assertMatches(List.of(newer, row(2L, 11L, "S1", "D1", 50.0)), columns,
+                new ColumnQuery(List.of(), LectureGrouping.TEACHER, ALL_METRICS));
+    }
+
+    @Test
+    void loadDoesNotBringBackALectureDeletedMeanwhile() {
+        LectureColumns columns = new LectureColumns();
+        Row stale = row(1L, 10L, "S0", "D0", 40.0);
+        Row kept = row(2L, 10L, "S0", "D0", 60.0);
+        columns.beginLoad();
+        columns.upsert(stale);
+        columns.remove(1L);
+        // Deleted before the load ever saw it
+        columns.remove(3L);
+        columns.insertIfAbsent(stale);
+        columns.insertIfAbsent(row(3L, 10L, "S0", "D0", 90.0));
+        columns.insertIfAbsent(kept);
+        columns.endLoad();
+
+        ColumnQuery query = new ColumnQuery(List.of(), LectureGrouping.NONE, ALL_METRICS);
+        assertEquals(1, columns.size());
+        assertMatches(List.of(kept), columns, query);
+
+        // Once the load is over, an insert is an insert again
+        columns.insertIfAbsent(stale);
+        assertMatches(List.of(kept, stale), columns, query);
+    }
+
+    @Test
+    void emptyStoreHasNoGroups() {
+        LectureColumns columns = new LectureColumns();
+
+        for (LectureGrouping grouping : LectureGrouping.values()) {
+            assertTrue(columns.aggregate(new ColumnQuery(List.of(), grouping, ALL_METRICS)).isEmpty());
+        }
+    }
+
+    private static void assertMatches(Collection<Row> rows, LectureColumns columns, ColumnQuery query) {
+        Map<String, GroupAggregate> expected = naive(rows, query);
+        Map<String, GroupAggregate> actual = new HashMap<>();
+        for (GroupAggregate group : columns.aggregate(query)) {
+            actual.put(group.key(), group);
+        }
+        assertEquals(expected.keySet(), actual.keySet(), () -> "groups of " + query);
+        expected.forEach((key, want) -> {
+            GroupAggregate got = actual.get(key);
+            String where = key + " of " + query;
+            assertEquals(want.lectures(), got.lectures(), () -> "lectures of " + where);
+            assertEquals(want.firstUploadedAt(), got.firstUploadedAt(), () -> "first upload of " + where);
+            assertEquals(want.lastUploadedAt(), got.lastUploadedAt(), () -> "last upload of " + where);
+            assertEquals(want.metrics().keySet(), got.metrics().keySet(), () -> "metrics of " + where);
+            want.metrics().forEach((metric, w) -> {
+                GroupAggregate.MetricAggregate g = got.metrics().get(metric);
+                String of = metric + " of " + where;
+                assertEquals(w.count(), g.count(), () -> "count " + of);
+                // Chunks add up in a different order than the rows do
+                assertEquals(w.sum(), g.sum(), 1e-9 * Math.max(1, Math.abs(w.sum())), () -> "sum " + of);
+                assertEquals(w.min(), g.min(), () -> "min " + of);
+                assertEquals(w.max(), g.max(), () -> "max " + of);
+            });
+        });
+    }
+
+    // Row by row, straight from the filter and grouping definitions
+    private static Map<String, GroupAggregate> naive(Collection<Row> rows, ColumnQuery query) {
+        Map<String, List<Row>> groups = new HashMap<>();
+        for (Row row : rows) {
+            if (query.filters().stream().allMatch(filter -> matches(filter, row))) {
+                groups.computeIfAbsent(key(query.groupBy(), row), k -> new ArrayList<>()).add(row);
+            }
+        }
+        Map<String, GroupAggregate> result = new HashMap<>();
+        groups.forEach((key, members) -> {
+            LocalDateTime first = null;
+            LocalDateTime last = null;
+            for (Row row : members) {
+                first = first == null || row.uploadedAt().isBefore(first) ? row.uploadedAt() : first;
+                last = last == null || row.uploadedAt().isAfter(last) ? row.uploadedAt() : last;
+            }
+            Map<LectureMetric, GroupAggregate.MetricAggregate> metrics = new EnumMap<>(LectureMetric.class);
+            for (LectureMetric metric : query.metrics()) {
+                long count = 0;
+                double sum = 0;
+                double min = Double.NaN;
+                double max = Double.NaN;
+                for (Row row : members) {
+                    Double value = row.metric(metric);
+                    if (value != null) {
+                        count++;
+                        sum += value;
+                        min = count == 1 ? value : Math.min(min, value);
+                        max = count == 1 ? value : Math.max(max, value);
+                    }
+                }
+                metrics.put(metric, new GroupAggregate.MetricAggregate(count, sum, min, max));
+            }
+            result.put(key, new GroupAggregate(key, members.size(), first, last, metrics));
+        });
+        return result;
+    }
+
+    private static boolean matches(ColumnFilter filter, Row row) {
+        if (filter instanceof ColumnFilter.SchoolIs school) {
+            return Objects.equals(row.school(), school.school());
+        }
+        if (filter instanceof ColumnFilter.DepartmentIs department) {
+            return Objects.equals(row.department(), department.department())
+                    && (department.school() == null || Objects.equals(row.school(), department.school()));
+        }
+        if (filter instanceof ColumnFilter.TeacherIs teacher) {
+            return row.teacherProfileId() == teacher.teacherProfileId();
+        }
+        if (filter instanceof ColumnFilter.UploadedBetween uploaded) {
+            return (uploaded.from() == null || !row.uploadedAt().isBefore(uploaded.from()))
+                    && (uploaded.to() == null || row.uploadedAt().isBefore(uploaded.to()));
+        }
+        ColumnFilter.MetricBetween range = (ColumnFilter.MetricBetween) filter;
+        Double value = row.metric(range.metric());
+        return value != null && value >= range.min() && value <= range.max();
+    }
+
+    private static String key(LectureGrouping grouping, Row row) {
+        return switch (grouping) {
+            case SCHOOL -> row.school();
+            case DEPARTMENT -> row.school() + "/" + row.department();
+            case TEACHER -> String.valueOf(row.teacherProfileId());
+            case NONE -> null;
+        };
+    }
+
+    private static ColumnQuery randomQuery(Random random) {
+        List<ColumnFilter> filters = new ArrayList<>();
+        if (random.nextInt(4) == 0) {
+            filters.add(new ColumnFilter.SchoolIs("S" + random.nextInt(4)));
+        }
+        if (random.nextInt(4) == 0) {
+            filters.add(new ColumnFilter.DepartmentIs(random.nextBoolean() ? "S" + random.nextInt(3) : null,
+                    "D" + random.nextInt(4)));
+        }
+        if (random.nextInt(5) == 0) {
+            filters.add(new ColumnFilter.TeacherIs(random.nextInt(40)));
+        }
+        if (random.nextInt(3) == 0) {
+            LocalDateTime from = EPOCH.plusSeconds(random.nextInt(YEAR_SECONDS));
+            filters.add(new ColumnFilter.UploadedBetween(random.nextBoolean() ? from : null,
+                    random.nextBoolean() ? from.plusDays(random.nextInt(200)) : null));
+        }
+        while (random.nextInt(3) == 0) {
+            LectureMetric metric = LectureMetric.values()[random.nextInt(LectureMetric.values().length)];
+            double min = random.nextDouble() * 100;
+            filters.add(new ColumnFilter.MetricBetween(metric, min, min + random.nextDouble() * 60));
+        }
+        Set<LectureMetric> metrics = EnumSet.noneOf(LectureMetric.class);
+        for (LectureMetric metric : LectureMetric.values()) {
+            if (random.nextBoolean()) {
+                metrics.add(metric);
+            }
+        }
+        LectureGrouping grouping = LectureGrouping.values()[random.nextInt(LectureGrouping.values().length)];
+        return new ColumnQuery(filters, grouping, metrics);
+    }
+
+    private static Row randomRow(Random random, long id) {
+        long teacher = random.nextInt(40);
+        return new Row(id, teacher, "S" + teacher % 3, "D" + teacher % 4,
+                EPOCH.plusSeconds(random.nextInt(YEAR_SECONDS)),
+                metric(random), metric(random), metric(random), metric(random), metric(random), metric(random));
+    }
+
+    // Unanalysed lectures have no metrics, so some are missing
+    private static Double metric(Random random) {
+        return random.nextInt(10) == 0 ? null : Math.round(random.nextDouble() * 10_000) / 100.0;
+    }
+
+    private static Row row(long id, long teacher, String school, String department, Double score) {
+        return new Row(id, teacher, school, department, EPOCH.plusDays(id), score, null, null, null, null, null);
+    }
+
+    private record Row(Long id, Long teacherProfileId, String school, String department, LocalDateTime uploadedAt,
+                       Double score, Double reviewRatio, Double questionVelocity, Double waitTime,
+                       Double teacherTalkingTime, Double hinglishFluency) implements LectureMetricRow {
+    }
+}
@@ -0,0 +1,87 @@
+package com.raghav.peadologicalbackend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankTreeTest {
+
+    @Test
+    void matchesSortedListAcrossRandomAddsAndRemoves() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            RankTree<Integer> tree = new RankTree<>(Comparator.naturalOrder());
+            List<Integer> oracle = new ArrayList<>();
+            for (int step = 0; step < 2_000; step++) {
+                // A small key space, so adds of present keys and removes of absent ones happen often
+                int key = random.nextInt(500);
+                int at = Collections.binarySearch(oracle, key);
+                if (random.nextInt(3) > 0) {
+                    assertEquals(at < 0, tree.add(key), "add " + key);
+                    if (at < 0) {
+                        oracle.add(-at - 1, key);
+                    }
+                } else {
+                    assertEquals(at >= 0, tree.remove(key), "remove " + key);
+                    if (at >= 0) {
+                        oracle.remove(at);
+                    }
+                }
+                if (step % 50 == 0) {
+                    assertMatches(oracle, tree, random);
+                }
+            }
+            assertMatches(oracle, tree, random);
+        }
+    }
+
+    @Test
+    void followsTheComparatorsOrder() {
+        RankTree<String> tree = new RankTree<>(Comparator.comparing(String::length).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        List.of("b", "ccc", "a", "dd").forEach(tree::add);
+
+        assertEquals(List.of("ccc", "dd", "a", "b"), tree.range(0, 4));
+        assertEquals(2, tree.rankOf("a"));
+        assertEquals(-1, tree.rankOf("zz"));
+    }
+
+    @Test
+    void emptyTreeHasNothingToRank() {
+        RankTree<Integer> tree = new RankTree<>(Comparator.naturalOrder());
+
+        assertEquals(0, tree.size());
+        assertEquals(-1, tree.rankOf(1));
+        assertEquals(List.of(), tree.range(0, 10));
+        assertFalse(tree.remove(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0));
+    }
+
+    private static void assertMatches(List<Integer> oracle, RankTree<Integer> tree, Random random) {
+        assertEquals(oracle.size(), tree.size());
+        for (int rank = 0; rank < oracle.size(); rank++) {
+            assertEquals(oracle.get(rank), tree.get(rank), "get " + rank);
+            assertEquals(rank, tree.rankOf(oracle.get(rank)), "rankOf " + oracle.get(rank));
+        }
+        assertEquals(-1, tree.rankOf(-1));
+        assertEquals(-1, tree.rankOf(500));
+        assertEquals(oracle, tree.range(0, oracle.size() + 1));
+        for (int i = 0; i < 10; i++) {
+            int from = random.nextInt(oracle.size() + 3);
+            int count = random.nextInt(20);
+            List<Integer> expected = oracle.subList(Math.min(from, oracle.size()),
+                    Math.min(from + count, oracle.size()));
+            assertEquals(expected, tree.range(from, count), "range " + from + ", " + count);
+        }
+        assertTrue(tree.range(0, 0).isEmpty());
+    }
+}
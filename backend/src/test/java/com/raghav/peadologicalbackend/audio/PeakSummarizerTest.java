@@ -0,0 +1,130 @@
+package com.raghav.peadologicalbackend.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PeakSummarizerTest {
+
+    private static final int SAMPLE_RATE = 8_000;
+    private static final int MAX_PEAKS = 100;
+    private static final int MIN_PEAKS = 5;
+    // Sizes that split the header, and later frames, at every kind of boundary
+    private static final int[] CHUNKS = {1, 3, 7, 13, 29, 101, 997};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void streamedPeaksMatchPeaksOfTheWholeFile() throws Exception {
+        // 58 400 frames: the resolution halves four times, to 1024 frames per peak, and the last peak is partial
+        byte[] wav = wav(7.3, 2);
+        WaveformPeaks peaks = summarize(wav, CHUNKS);
+
+        assertEquals(1024, peaks.levels().get(0).framesPerPeak());
+        // 58 -> 29 -> 15 -> 8 -> 4; the 29 -> 15 step keeps an odd last peak as it is
+        assertEquals(5, peaks.levels().size());
+        assertEquals(15, peaks.levels().get(2).peaks().length / 2);
+        assertMatchesWholeFile(wav, peaks);
+        assertArrayEquals(summarize(wav, new int[]{wav.length}).encode(), peaks.encode());
+    }
+
+    @Test
+    void partialBucketAtTheEndOfAFullLevelIsKept() throws Exception {
+        // 6 410 frames: the finest level is full when the last 10 frames close, so they close after a merge
+        byte[] wav = wav(6_410.0 / SAMPLE_RATE, 1);
+        WaveformPeaks peaks = summarize(wav, CHUNKS);
+
+        assertEquals(128, peaks.levels().get(0).framesPerPeak());
+        assertEquals(51, peaks.levels().get(0).peaks().length / 2);
+        assertMatchesWholeFile(wav, peaks);
+    }
+
+    @Test
+    void headerWithLongChunksBeforeTheDataIsParsedAcrossCalls() throws Exception {
+        byte[] plain = wav(2.0, 2);
+        // A 5 000-byte LIST chunk between "fmt " and "data" outgrows the initial header buffer
+        byte[] list = new byte[8 + 5_000];
+        ByteBuffer.wrap(list).order(ByteOrder.LITTLE_ENDIAN).putInt(0x5453494C).putInt(5_000);
+        byte[] wav = new byte[plain.length + list.length];
+        System.arraycopy(plain, 0, wav, 0, 36);
+        System.arraycopy(list, 0, wav, 36, list.length);
+        System.arraycopy(plain, 36, wav, 36 + list.length, plain.length - 36);
+
+        WaveformPeaks peaks = summarize(wav, CHUNKS);
+
+        assertEquals(SAMPLE_RATE * 2, peaks.frameCount());
+        assertMatchesWholeFile(wav, peaks);
+    }
+
+    @Test
+    void inputThatIsNotAWavHasNoPeaks() {
+        byte[] notWav = new byte[10_000];
+        notWav[0] = 'I';
+        notWav[1] = 'D';
+        notWav[2] = '3';
+        assertNull(summarize(notWav, CHUNKS));
+    }
+
+    private byte[] wav(double seconds, int channels) throws Exception {
+        Path file = Files.createTempFile(dir, "peaks-", ".wav");
+        Files.delete(file);
+        // A swelling tone, so neighbouring peaks differ and a misplaced bucket shows
+        SyntheticWav.write(file, SAMPLE_RATE, channels, seconds,
+                t -> (0.2 + 0.7 * Math.abs(Math.sin(2 * Math.PI * 0.7 * t))) * Math.sin(2 * Math.PI * 220 * t));
+        return Files.readAllBytes(file);
+    }
+
+    private static WaveformPeaks summarize(byte[] wav, int[] chunks) {
+        PeakSummarizer summarizer = new PeakSummarizer(MAX_PEAKS, MIN_PEAKS);
+        int offset = 0;
+        for (int i = 0; offset < wav.length; i++) {
+            int length = Math.min(chunks[i % chunks.length], wav.length - offset);
+            summarizer.update(wav, offset, length);
+            offset += length;
+        }
+        return summarizer.finish();
+    }
+
+    // Every level must equal min/max over its buckets computed straight from the samples
+    private static void assertMatchesWholeFile(byte[] wav, WaveformPeaks peaks) {
+        WavFormat format = WavFormat.parse(ByteBuffer.wrap(wav));
+        ByteBuffer samples = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+        long frames = (wav.length - format.dataOffset()) / format.blockAlign();
+        assertEquals(frames, peaks.frameCount());
+        assertEquals(format.sampleRate(), peaks.sampleRate());
+        for (WaveformPeaks.Level level : peaks.levels()) {
+            int framesPerPeak = level.framesPerPeak();
+            int count = (int) ((frames + framesPerPeak - 1) / framesPerPeak);
+            byte[] expected = new byte[count * 2];
+            for (int peak = 0; peak < count; peak++) {
+                double min = Double.MAX_VALUE;
+                double max = -Double.MAX_VALUE;
+                long end = Math.min(frames, (long) (peak + 1) * framesPerPeak);
+                for (long frame = (long) peak * framesPerPeak; frame < end; frame++) {
+                    for (int channel = 0; channel < format.channels(); channel++) {
+                        double sample = format.sampleAt(samples,
+                                (int) (format.dataOffset() + frame * format.blockAlign() + channel * 2L));
+                        min = Math.min(min, sample);
+                        max = Math.max(max, sample);
+                    }
+                }
+                expected[peak * 2] = quantize(min);
+                expected[peak * 2 + 1] = quantize(max);
+            }
+            assertArrayEquals(expected, level.peaks(), "level of " + framesPerPeak + " frames per peak");
+        }
+    }
+
+    private static byte quantize(double sample) {
+        return (byte) Math.max(-127, Math.min(127, Math.round(sample * 127)));
+    }
+}
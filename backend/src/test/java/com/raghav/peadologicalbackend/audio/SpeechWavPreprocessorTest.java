@@ -0,0 +1,104 @@
+package com.raghav.peadologicalbackend.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpeechWavPreprocessorTest {
+
+    // 20 ms at 16 kHz, the trimmer's block size
+    private static final int BLOCK = 320;
+
+    @TempDir
+    Path dir;
+
+    private final SpeechWavPreprocessor preprocessor = new SpeechWavPreprocessor(16_000, -45);
+
+    @Test
+    void decimatesAndDownmixesToSixteenKilohertzMono() throws Exception {
+        Path input = dir.resolve("stereo.wav");
+        // The tone is on the left channel only, so the mono mix carries it at half amplitude
+        SyntheticWav.write(input, 48_000, 2, 1.0, (t, channel) -> channel == 0 ? SyntheticWav.tone(t) : 0);
+
+        Path output = preprocessor.process(input, Files.createDirectory(dir.resolve("work")));
+
+        WavFormat format = WavFormat.read(output);
+        assertEquals(1, format.channels());
+        assertEquals(16_000, format.sampleRate());
+        assertEquals(16, format.bitsPerSample());
+        assertEquals(16_000, format.frameCount(), 1);
+        double peak = 0;
+        for (short sample : samples(output)) {
+            peak = Math.max(peak, Math.abs(sample / 32768.0));
+        }
+        assertEquals(0.15, peak, 0.005);
+    }
+
+    @Test
+    void neverUpsamples() throws Exception {
+        Path input = dir.resolve("narrow.wav");
+        SyntheticWav.write(input, 8_000, 1, 1.0, SyntheticWav::tone);
+
+        WavFormat format = WavFormat.read(preprocessor.process(input, Files.createDirectory(dir.resolve("work"))));
+
+        assertEquals(8_000, format.sampleRate());
+        assertEquals(8_000, format.frameCount());
+    }
+
+    @Test
+    void trimsSilenceButKeepsOneBlockAtEachEnd() throws Exception {
+        Path input = dir.resolve("lecture.wav");
+        // 1 s of silence, 2 s of tone, 1.5 s of silence; boundaries fall on 20 ms blocks
+        SyntheticWav.write(input, 48_000, 2, 4.5, t -> t >= 1 && t < 3 ? SyntheticWav.tone(t) : 0);
+
+        Path output = preprocessor.process(input, Files.createDirectory(dir.resolve("work")));
+
+        short[] samples = samples(output);
+        // Lead-in block, 100 blocks of tone, one trailing block
+        assertEquals(102 * BLOCK, samples.length, 2);
+        assertEquals(0, peak(samples, 0, BLOCK - 2));
+        assertTrue(peak(samples, BLOCK, 2 * BLOCK) > 0.1);
+        assertTrue(peak(samples, samples.length - 2 * BLOCK, samples.length - BLOCK) > 0.1);
+        assertEquals(0, peak(samples, samples.length - BLOCK + 2, samples.length));
+    }
+
+    @Test
+    void allSilentInputIsReturnedAsIs() throws Exception {
+        Path input = dir.resolve("silent.wav");
+        SyntheticWav.write(input, 48_000, 2, 2.0, t -> 0.001 * Math.sin(2 * Math.PI * 50 * t));
+
+        assertEquals(input, preprocessor.process(input, Files.createDirectory(dir.resolve("work"))));
+    }
+
+    @Test
+    void inputThatIsNotAWavIsReturnedAsIs() throws Exception {
+        Path input = dir.resolve("lecture.mp3");
+        Files.write(input, new byte[]{'I', 'D', '3', 4, 0, 0, 0, 0, 0, 0});
+
+        assertEquals(input, preprocessor.process(input, Files.createDirectory(dir.resolve("work"))));
+    }
+
+    private static short[] samples(Path wav) throws Exception {
+        WavFormat format = WavFormat.read(wav);
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(wav), (int) format.dataOffset(), (int) format.dataLength())
+                .slice().order(ByteOrder.LITTLE_ENDIAN);
+        short[] samples = new short[(int) format.frameCount()];
+        data.asShortBuffer().get(samples);
+        return samples;
+    }
+
+    private static double peak(short[] samples, int from, int to) {
+        double peak = 0;
+        for (int i = from; i < to; i++) {
+            peak = Math.max(peak, Math.abs(samples[i] / 32768.0));
+        }
+        return peak;
+    }
+}
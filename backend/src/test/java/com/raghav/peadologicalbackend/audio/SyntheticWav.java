@@ -0,0 +1,68 @@
+package com.raghav.peadologicalbackend.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Writes 16-bit PCM test recordings the way {@code PreprocessBenchmark} does, with the signal given
+ * as a function of time so each test can place speech and silence where it wants them.
+ */
+final class SyntheticWav {
+
+    private SyntheticWav() {
+    }
+
+    /**
+     * @param signal sample value in [-1, 1] at a time in seconds; every channel gets the same value
+     */
+    static WavFormat write(Path target, int sampleRate, int channels, double seconds, DoubleUnaryOperator signal)
+            throws IOException {
+        return write(target, sampleRate, channels, seconds, (time, channel) -> signal.applyAsDouble(time));
+    }
+
+    static WavFormat write(Path target, int sampleRate, int channels, double seconds, Signal signal)
+            throws IOException {
+        long frames = Math.round(seconds * sampleRate);
+        WavFormat format = new WavFormat(channels, sampleRate, 16, WavFormat.HEADER_SIZE, frames * channels * 2);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            write(out, format.header(format.dataLength()));
+            for (long frame = 0; frame < frames; frame++) {
+                if (buffer.remaining() < format.blockAlign()) {
+                    write(out, buffer.flip());
+                    buffer.clear();
+                }
+                double time = (double) frame / sampleRate;
+                for (int channel = 0; channel < channels; channel++) {
+                    double value = signal.at(time, channel);
+                    buffer.putShort((short) Math.round(Math.max(-1, Math.min(1, value)) * 32767));
+                }
+            }
+            write(out, buffer.flip());
+        }
+        return format;
+    }
+
+    static double tone(double seconds) {
+        return 0.3 * Math.sin(2 * Math.PI * 220 * seconds);
+    }
+
+    @FunctionalInterface
+    interface Signal {
+        /**
+         * @return the sample value in [-1, 1] of {@code channel} at {@code seconds}
+         */
+        double at(double seconds, int channel);
+    }
+
+    private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.raghav.peadologicalbackend.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WavSegmenterTest {
+
+    private static final int SAMPLE_RATE = 8_000;
+    // Silent gaps in an otherwise continuous tone; the last one would leave a 3 s sliver if it were used
+    private static final double[][] GAPS = {{9.3, 9.7}, {19.8, 20.2}, {29.8, 30.2}};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void cutsAtThePausesNearTheTargetAndKeepsTheTailWhole() throws Exception {
+        Path input = dir.resolve("lecture.wav");
+        WavFormat format = SyntheticWav.write(input, SAMPLE_RATE, 1, 33, WavSegmenterTest::toneWithGaps);
+        Path out = Files.createDirectory(dir.resolve("segments"));
+
+        List<AudioSegment> segments = new WavSegmenter(20, 10, 2, 100).split(input, out);
+
+        assertEquals(3, segments.size());
+        assertEquals(0, segments.get(0).startSeconds());
+        assertInGap(end(segments.get(0)), GAPS[0]);
+        assertInGap(end(segments.get(1)), GAPS[1]);
+        assertEquals(33, end(segments.get(2)), 1e-9);
+        assertTrue(segments.get(2).durationSeconds() > 10, "tail was split off: " + segments.get(2));
+
+        byte[] source = Files.readAllBytes(input);
+        for (int i = 0; i < segments.size(); i++) {
+            AudioSegment segment = segments.get(i);
+            if (i > 0) {
+                assertEquals(end(segments.get(i - 1)), segment.startSeconds(), 1e-9);
+            }
+            WavFormat written = WavFormat.read(segment.path());
+            assertEquals(format.sampleRate(), written.sampleRate());
+            assertEquals(segment.durationSeconds(), written.durationSeconds(), 1e-9);
+
+            int from = (int) (format.dataOffset() + Math.round(segment.startSeconds() * SAMPLE_RATE) * format.blockAlign());
+            byte[] expected = Arrays.copyOfRange(source, from, from + (int) written.dataLength());
+            byte[] actual = Files.readAllBytes(segment.path());
+            assertArrayEquals(expected, Arrays.copyOfRange(actual, (int) written.dataOffset(), actual.length));
+        }
+    }
+
+    @Test
+    void leavesShortRecordingsAlone() throws Exception {
+        Path input = dir.resolve("short.wav");
+        SyntheticWav.write(input, SAMPLE_RATE, 1, 15, WavSegmenterTest::toneWithGaps);
+        Path out = Files.createDirectory(dir.resolve("segments"));
+
+        assertEquals(List.of(), new WavSegmenter(20, 10, 2, 100).split(input, out));
+        try (var files = Files.list(out)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static double toneWithGaps(double seconds) {
+        for (double[] gap : GAPS) {
+            if (seconds >= gap[0] && seconds < gap[1]) {
+                return 0;
+            }
+        }
+        return SyntheticWav.tone(seconds);
+    }
+
+    private static double end(AudioSegment segment) {
+        return segment.startSeconds() + segment.durationSeconds();
+    }
+
+    private static void assertInGap(double seconds, double[] gap) {
+        assertTrue(seconds >= gap[0] && seconds <= gap[1], "cut at " + seconds + " s is outside the pause " + Arrays.toString(gap));
+    }
+}
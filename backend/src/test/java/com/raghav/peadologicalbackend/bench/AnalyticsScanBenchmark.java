@@ -0,0 +1,75 @@
+package com.raghav.peadologicalbackend.bench;
+
+import com.raghav.peadologicalbackend.analytics.ColumnFilter;
+import com.raghav.peadologicalbackend.analytics.ColumnQuery;
+import com.raghav.peadologicalbackend.analytics.GroupAggregate;
+import com.raghav.peadologicalbackend.analytics.LectureColumns;
+import com.raghav.peadologicalbackend.analytics.LectureGrouping;
+import com.raghav.peadologicalbackend.analytics.LectureMetricRow;
+import com.raghav.peadologicalbackend.entity.LectureMetric;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures {@link LectureColumns} queries on synthetic lectures spread over 8 schools, 6
+ * departments and 2,000 teachers. Not part of the test suite; run it with the test classpath:
+ *
+ * <pre>
+ * ./mvnw test-compile
+ * java -cp target/classes:target/test-classes com.raghav.peadologicalbackend.bench.AnalyticsScanBenchmark 1000000 20
+ * </pre>
+ *
+ * Arguments are the number of lectures and the number of timed runs per query. Reports the best
+ * time of each query.
+ */
+public class AnalyticsScanBenchmark {
+
+    private static final String[] DEPARTMENTS = {"CSE", "ECE", "ME", "CE", "EE", "MBA"};
+
+    public static void main(String[] args) {
+        int lectures = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        LectureColumns columns = new LectureColumns();
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 1; i <= lectures; i++) {
+            long teacher = random.nextInt(2_000);
+            boolean analysed = random.nextInt(10) > 0;
+            columns.upsert(new Row((long) i, teacher, "School " + teacher % 8, DEPARTMENTS[(int) (teacher % DEPARTMENTS.length)],
+                    start.plusMinutes(i), analysed ? random.nextDouble() * 10 : null,
+                    analysed ? random.nextDouble() : null, analysed ? random.nextDouble() * 3 : null,
+                    analysed ? random.nextDouble() * 6 : null, analysed ? random.nextDouble() : null,
+                    analysed ? random.nextDouble() : null));
+        }
+
+        time(columns, runs, "avg wait time, CSE, fluency < 0.4", new ColumnQuery(
+                List.of(new ColumnFilter.DepartmentIs(null, "CSE"),
+                        new ColumnFilter.MetricBetween(LectureMetric.HINGLISH_FLUENCY, Double.NEGATIVE_INFINITY, 0.4)),
+                LectureGrouping.NONE, EnumSet.of(LectureMetric.WAIT_TIME)));
+        time(columns, runs, "all metrics by department", new ColumnQuery(
+                List.of(), LectureGrouping.DEPARTMENT, EnumSet.allOf(LectureMetric.class)));
+        time(columns, runs, "score by teacher, one school", new ColumnQuery(
+                List.of(new ColumnFilter.SchoolIs("School 3")), LectureGrouping.TEACHER, EnumSet.of(LectureMetric.SCORE)));
+    }
+
+    private static void time(LectureColumns columns, int runs, String name, ColumnQuery query) {
+        long bestNanos = Long.MAX_VALUE;
+        List<GroupAggregate> result = List.of();
+        for (int run = 0; run < runs; run++) {
+            long begin = System.nanoTime();
+            result = columns.aggregate(query);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - begin);
+        }
+        System.out.printf("%-36s %,9d us  %d groups over %,d lectures%n",
+                name, bestNanos / 1000, result.size(), columns.size());
+    }
+
+    private record Row(Long id, Long teacherProfileId, String school, String department, LocalDateTime uploadedAt,
+                       Double score, Double reviewRatio, Double questionVelocity, Double waitTime,
+                       Double teacherTalkingTime, Double hinglishFluency) implements LectureMetricRow {
+    }
+}
@@ -0,0 +1,85 @@
+package com.raghav.peadologicalbackend.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop benchmark for comparing platform and virtual-thread request handling. Keeps
+ * {@code concurrency} requests in flight against a running backend and reports throughput and
+ * latency percentiles. Not part of the test suite; run it against the app twice:
+ *
+ * <pre>
+ * VIRTUAL_THREADS=false ./mvnw spring-boot:run
+ * VIRTUAL_THREADS=true  ./mvnw -Pjdk21 spring-boot:run
+ *
+ * java ConcurrencyBenchmark.java http://localhost:8080 $TOKEN 2000 20000 \
+ *      /api/dashboard/teacher/me /api/lectures/my-recent
+ * </pre>
+ *
+ * Use a TEACHER token so both paths are authorised. Compare p99 and throughput between runs;
+ * with platform threads requests beyond Tomcat's 200 workers wait in the accept queue.
+ */
+public class ConcurrencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("usage: ConcurrencyBenchmark <baseUrl> <bearerToken> <concurrency> <requests> <path>...");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        String token = args[1];
+        int concurrency = Integer.parseInt(args[2]);
+        int requests = Integer.parseInt(args[3]);
+        List<String> paths = Arrays.asList(args).subList(4, args.length);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latenciesNanos = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(i % paths.size())))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long sent = System.nanoTime();
+            calls[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        latenciesNanos[index] = System.nanoTime() - sent;
+                        if (ex != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(calls).exceptionally(ex -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latenciesNanos);
+        System.out.printf("requests=%d concurrency=%d errors=%d%n", requests, concurrency, errors.get());
+        System.out.printf("throughput=%.1f req/s%n", requests / (elapsed / 1e9));
+        System.out.printf("p50=%.1f ms p99=%.1f ms p999=%.1f ms max=%.1f ms%n",
+                percentile(latenciesNanos, 0.50), percentile(latenciesNanos, 0.99),
+                percentile(latenciesNanos, 0.999), latenciesNanos[requests - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(quantile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
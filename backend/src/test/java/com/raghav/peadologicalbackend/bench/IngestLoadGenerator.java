@@ -0,0 +1,265 @@
+package com.raghav.peadologicalbackend.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop load generator for the ingest path. Sends multipart {@code POST /api/lectures} uploads
+ * and dashboard reads at fixed target rates, regardless of how fast the backend answers, so queueing
+ * shows up as latency instead of silently lowering the offered load. Reports throughput and
+ * p50/p99/p999 latency per operation, and samples the DB pool through
+ * {@code /api/admin/system/db-pool} when a SUPER_ADMIN token is given.
+ * <p>
+ * Not part of the test suite. Start {@link WhisperStubServer}, run the backend against it, then:
+ *
+ * <pre>
+ * java -cp target/test-classes com.raghav.peadologicalbackend.bench.IngestLoadGenerator \
+ *      base-url=http://localhost:8080 teacher-token=$TEACHER teacher-profile-id=1 admin-token=$ADMIN \
+ *      upload-rate=2 read-rate=50 duration-s=120 audio-seconds=300 \
+ *      read-paths=/api/dashboard/teacher/me,/api/lectures/my-recent
+ * </pre>
+ *
+ * Every upload gets a unique tail of bytes so it is neither deduplicated by the blob store nor
+ * served from the analysis cache. Use {@code audio-file=} to send a real recording instead of
+ * generated audio.
+ */
+public class IngestLoadGenerator {
+
+    private static final String BOUNDARY = "----ingest-load-" + System.nanoTime();
+    private static final Pattern NUMBER = Pattern.compile("\"(\\w+)\"\\s*:\\s*(\\d+)");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = WhisperStubServer.parse(args);
+        if (!options.containsKey("teacher-token") || !options.containsKey("teacher-profile-id")) {
+            System.err.println("usage: IngestLoadGenerator base-url=... teacher-token=... teacher-profile-id=... "
+                    + "[admin-token=...] [upload-rate=1] [read-rate=20] [duration-s=60] "
+                    + "[audio-seconds=60 | audio-file=...] [read-paths=/api/dashboard/teacher/me]");
+            System.exit(1);
+        }
+        new IngestLoadGenerator().run(options);
+    }
+
+    private void run(Map<String, String> options) throws Exception {
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String teacherToken = options.get("teacher-token");
+        String adminToken = options.get("admin-token");
+        String profileId = options.get("teacher-profile-id");
+        double uploadRate = Double.parseDouble(options.getOrDefault("upload-rate", "1"));
+        double readRate = Double.parseDouble(options.getOrDefault("read-rate", "20"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration-s", "60"));
+        List<String> readPaths = Arrays.asList(options.getOrDefault("read-paths", "/api/dashboard/teacher/me").split(","));
+        byte[] audio = options.containsKey("audio-file")
+                ? Files.readAllBytes(Path.of(options.get("audio-file")))
+                : syntheticWav(Integer.parseInt(options.getOrDefault("audio-seconds", "60")));
+
+        // Shared by every upload; only the last 8 bytes differ per request
+        byte[] audioHead = Arrays.copyOf(audio, audio.length - 8);
+
+        Operation uploads = new Operation("upload");
+        Operation reads = new Operation("read");
+        PoolSampler pool = new PoolSampler();
+        AtomicInteger uploadCount = new AtomicInteger();
+        AtomicInteger readCount = new AtomicInteger();
+        ConcurrentLinkedQueue<CompletableFuture<?>> pending = new ConcurrentLinkedQueue<>();
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        // Each tick sends whatever the target rate says is due by now, so a slow tick catches up
+        scheduler.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            if (now >= end) {
+                return;
+            }
+            double elapsed = (now - start) / 1e9;
+            while (uploadCount.get() < (int) (elapsed * uploadRate)) {
+                int n = uploadCount.getAndIncrement();
+                pending.add(uploads.send(client, uploadRequest(baseUrl, teacherToken, profileId, audioHead, n)));
+            }
+            while (readCount.get() < (int) (elapsed * readRate)) {
+                int n = readCount.getAndIncrement();
+                pending.add(reads.send(client, getRequest(baseUrl + readPaths.get(n % readPaths.size()), teacherToken)));
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        if (adminToken != null) {
+            HttpRequest poolRequest = getRequest(baseUrl + "/api/admin/system/db-pool", adminToken);
+            scheduler.scheduleAtFixedRate(() -> pool.sample(client, poolRequest), 0, 1, TimeUnit.SECONDS);
+        }
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(end - start));
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).join();
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("duration=%.1f s, target upload-rate=%.2f/s read-rate=%.2f/s, audio=%,d bytes%n",
+                wallSeconds, uploadRate, readRate, audio.length);
+        uploads.report(wallSeconds);
+        reads.report(wallSeconds);
+        if (adminToken != null) {
+            pool.report();
+        }
+    }
+
+    private static HttpRequest uploadRequest(String baseUrl, String token, String profileId, byte[] audioHead, int n) {
+        String fields = field("teacherProfileId", profileId)
+                + field("lectureTitle", "Load test lecture " + n)
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"audio\"; filename=\"load-" + n + ".wav\"\r\n"
+                + "Content-Type: audio/wav\r\n\r\n";
+        byte[] tail = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(System.nanoTime() ^ n).array();
+        String closing = "\r\n--" + BOUNDARY + "--\r\n";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/lectures"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(
+                        fields.getBytes(StandardCharsets.UTF_8),
+                        audioHead,
+                        tail,
+                        closing.getBytes(StandardCharsets.UTF_8))))
+                .build();
+    }
+
+    private static String field(String name, String value) {
+        return "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n";
+    }
+
+    private static HttpRequest getRequest(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    // 16 kHz mono 16-bit speech-like signal: a tone with pauses, so it passes the silence trimmer
+    private static byte[] syntheticWav(int seconds) {
+        int rate = 16_000;
+        int frames = seconds * rate;
+        ByteBuffer wav = ByteBuffer.allocate(44 + frames * 2).order(ByteOrder.LITTLE_ENDIAN);
+        wav.putInt(0x46464952).putInt(36 + frames * 2).putInt(0x45564157);
+        wav.putInt(0x20746D66).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(rate).putInt(rate * 2).putShort((short) 2).putShort((short) 16);
+        wav.putInt(0x61746164).putInt(frames * 2);
+        for (int i = 0; i < frames; i++) {
+            boolean speaking = (i / rate) % 10 < 8;
+            double value = speaking ? 0.3 * Math.sin(2 * Math.PI * 220 * i / rate) : 0;
+            wav.putShort((short) Math.round(value * 32767));
+        }
+        return wav.array();
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(quantile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Operation {
+        private final String name;
+        private final ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        CompletableFuture<?> send(HttpClient client, HttpRequest request) {
+            long sent = System.nanoTime();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        latenciesNanos.add(System.nanoTime() - sent);
+                        if (ex != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    });
+        }
+
+        void report(double wallSeconds) {
+            long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                System.out.printf("%-6s no requests%n", name);
+                return;
+            }
+            System.out.printf("%-6s requests=%d errors=%d throughput=%.2f/s p50=%.1f ms p99=%.1f ms p999=%.1f ms max=%.1f ms%n",
+                    name, sorted.length, errors.get(), sorted.length / wallSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static final class PoolSampler {
+        private final List<int[]> samples = new ArrayList<>();
+        private final AtomicLong failures = new AtomicLong();
+
+        // Samples are taken on one scheduler thread at a time, but read from main at the end
+        synchronized void sample(HttpClient client, HttpRequest request) {
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    failures.incrementAndGet();
+                    return;
+                }
+                Matcher matcher = NUMBER.matcher(response.body());
+                int active = 0;
+                int max = 0;
+                int awaiting = 0;
+                while (matcher.find()) {
+                    int value = Integer.parseInt(matcher.group(2));
+                    switch (matcher.group(1)) {
+                        case "active" -> active = value;
+                        case "maxPoolSize" -> max = value;
+                        case "threadsAwaiting" -> awaiting = value;
+                        default -> {
+                        }
+                    }
+                }
+                samples.add(new int[]{active, max, awaiting});
+            } catch (Exception ex) {
+                failures.incrementAndGet();
+            }
+        }
+
+        synchronized void report() {
+            if (samples.isEmpty()) {
+                System.out.printf("db-pool no samples (%d failed)%n", failures.get());
+                return;
+            }
+            int maxActive = samples.stream().mapToInt(s -> s[0]).max().orElse(0);
+            int poolSize = samples.get(samples.size() - 1)[1];
+            int maxAwaiting = samples.stream().mapToInt(s -> s[2]).max().orElse(0);
+            long saturated = samples.stream().filter(s -> s[2] > 0 || (s[1] > 0 && s[0] >= s[1])).count();
+            System.out.printf("db-pool size=%d max-active=%d max-awaiting=%d saturated=%.0f%% of %d samples%n",
+                    poolSize, maxActive, maxAwaiting, 100.0 * saturated / samples.size(), samples.size());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.raghav.peadologicalbackend.bench;
+
+import com.raghav.peadologicalbackend.audio.SpeechWavPreprocessor;
+import com.raghav.peadologicalbackend.audio.WavFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Measures {@link SpeechWavPreprocessor} on a synthetic lecture: 48 kHz stereo 16-bit, tone bursts
+ * with pauses, and silence at both ends. Not part of the test suite; run it with the test classpath:
+ *
+ * <pre>
+ * ./mvnw test-compile
+ * java -cp target/classes:target/test-classes com.raghav.peadologicalbackend.bench.PreprocessBenchmark 90 5
+ * </pre>
+ *
+ * Arguments are the recording length in minutes and the number of timed runs. Reports the size
+ * reduction and processing speed as a multiple of real time.
+ */
+public class PreprocessBenchmark {
+
+    private static final int SAMPLE_RATE = 48_000;
+    private static final int CHANNELS = 2;
+
+    public static void main(String[] args) throws Exception {
+        int minutes = args.length > 0 ? Integer.parseInt(args[0]) : 90;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path dir = Files.createTempDirectory("preprocess-bench-");
+        Path input = dir.resolve("lecture.wav");
+        writeSyntheticLecture(input, minutes);
+        long inputBytes = Files.size(input);
+
+        SpeechWavPreprocessor preprocessor = new SpeechWavPreprocessor(16_000, -45);
+        long outputBytes = 0;
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < runs; run++) {
+            Path workDir = Files.createDirectory(dir.resolve("run-" + run));
+            long start = System.nanoTime();
+            Path output = preprocessor.process(input, workDir);
+            long elapsed = System.nanoTime() - start;
+            bestNanos = Math.min(bestNanos, elapsed);
+            outputBytes = Files.size(output);
+            Files.delete(output);
+            Files.delete(workDir);
+            System.out.printf("run %d: %.0f ms%n", run + 1, elapsed / 1e6);
+        }
+        Files.delete(input);
+        Files.delete(dir);
+
+        double seconds = bestNanos / 1e9;
+        System.out.printf("input  %,d bytes (%d min, %d Hz, %d ch)%n", inputBytes, minutes, SAMPLE_RATE, CHANNELS);
+        System.out.printf("output %,d bytes (%.1fx smaller)%n", outputBytes, (double) inputBytes / outputBytes);
+        System.out.printf("best   %.2f s, %.0f MB/s, %.0fx real time%n",
+                seconds, inputBytes / seconds / 1e6, minutes * 60 / seconds);
+    }
+
+    // Alternates 8 s of noisy tone with 2 s of near-silence, with 30 s of silence at each end
+    private static void writeSyntheticLecture(Path target, int minutes) throws Exception {
+        long frames = (long) minutes * 60 * SAMPLE_RATE;
+        long edge = 30L * SAMPLE_RATE;
+        int blockAlign = CHANNELS * 2;
+        WavFormat format = new WavFormat(CHANNELS, SAMPLE_RATE, 16, WavFormat.HEADER_SIZE, 0);
+        Random random = new Random(42);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            out.write(format.header(frames * blockAlign));
+            for (long frame = 0; frame < frames; frame++) {
+                long second = frame / SAMPLE_RATE;
+                boolean speaking = frame >= edge && frame < frames - edge && second % 10 < 8;
+                double value = speaking
+                        ? 0.3 * Math.sin(2 * Math.PI * 220 * frame / SAMPLE_RATE) + 0.05 * random.nextGaussian()
+                        : 0.0005 * random.nextGaussian();
+                short sample = (short) Math.round(Math.max(-1, Math.min(1, value)) * 32767);
+                if (buffer.remaining() < blockAlign) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                for (int channel = 0; channel < CHANNELS; channel++) {
+                    buffer.putShort(sample);
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.raghav.peadologicalbackend.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for whisper-service's {@code POST /audio-to-document}, for load-testing the backend
+ * without transcription or LLM keys. The upload is read and discarded, the response is delayed by a
+ * log-normal latency, and the body has the shape of a real {@code WhisperResponse}. Not part of the
+ * test suite; run it with the test classpath and point the backend at it:
+ *
+ * <pre>
+ * ./mvnw test-compile
+ * java -cp target/test-classes com.raghav.peadologicalbackend.bench.WhisperStubServer \
+ *      port=8000 workers=4 median-ms=20000 p99-ms=90000 error-rate=0.02 hang-rate=0.001 analysis-chars=6000
+ * </pre>
+ *
+ * {@code workers} caps concurrent analyses like the real service's worker count; extra requests
+ * queue. {@code error-rate} answers 500, {@code hang-rate} never answers (exercises the client
+ * deadline), and {@code analysis-chars} sets the size of the analysis text.
+ */
+public class WhisperStubServer {
+
+    private static final double Z_99 = 2.326;
+
+    private final double medianMs;
+    private final double sigma;
+    private final double errorRate;
+    private final double hangRate;
+    private final String analysisText;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    WhisperStubServer(double medianMs, double p99Ms, double errorRate, double hangRate, int analysisChars) {
+        this.medianMs = medianMs;
+        this.sigma = Math.log(Math.max(p99Ms, medianMs) / medianMs) / Z_99;
+        this.errorRate = errorRate;
+        this.hangRate = hangRate;
+        this.analysisText = analysisText(analysisChars);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int port = Integer.parseInt(options.getOrDefault("port", "8000"));
+        int workers = Integer.parseInt(options.getOrDefault("workers", "4"));
+        WhisperStubServer stub = new WhisperStubServer(
+                Double.parseDouble(options.getOrDefault("median-ms", "20000")),
+                Double.parseDouble(options.getOrDefault("p99-ms", "90000")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0.02")),
+                Double.parseDouble(options.getOrDefault("hang-rate", "0")),
+                Integer.parseInt(options.getOrDefault("analysis-chars", "6000")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/audio-to-document", stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        System.out.printf("whisper stub on :%d, workers=%d, options=%s%n", port, workers, options);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            executor.shutdownNow();
+            System.out.printf("served=%d failed=%d%n", stub.served.get(), stub.failed.get());
+        }));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            long uploaded = drain(exchange.getRequestBody());
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < hangRate) {
+                sleep(Long.MAX_VALUE);
+                return;
+            }
+            sleep(Math.round(medianMs * Math.exp(sigma * random.nextGaussian())));
+
+            if (random.nextDouble() < errorRate) {
+                failed.incrementAndGet();
+                respond(exchange, 500, "{\"detail\":\"stub: simulated analysis failure\"}");
+                return;
+            }
+            served.incrementAndGet();
+            respond(exchange, 200, responseBody(uploaded, random));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String responseBody(long uploadedBytes, ThreadLocalRandom random) {
+        double seconds = uploadedBytes / 32000.0; // 16 kHz mono 16-bit
+        return String.format(Locale.ROOT, """
+                {"request_id":"%s","data":{
+                "analysis":"%s",
+                "pedagogical_score":%.2f,
+                "score_reasoning":"Stub score for %d uploaded bytes (~%.0f s of audio).",
+                "processing_time_seconds":%.2f,
+                "review_ratio":%.3f,
+                "question_velocity":%.3f,
+                "wait_time":%.2f,
+                "teacher_talking_time":%.3f,
+                "hinglish_fluency":%.3f}}""",
+                UUID.randomUUID(),
+                analysisText,
+                clamp(7 + random.nextGaussian() * 1.5, 0, 10),
+                uploadedBytes, seconds,
+                seconds / 10,
+                clamp(0.15 + random.nextGaussian() * 0.05, 0, 1),
+                clamp(1.5 + random.nextGaussian() * 0.5, 0, 10),
+                clamp(2.5 + random.nextGaussian() * 1.0, 0, 10),
+                clamp(0.65 + random.nextGaussian() * 0.1, 0, 1),
+                clamp(0.7 + random.nextGaussian() * 0.1, 0, 1));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static long drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static String analysisText(int chars) {
+        String sentence = "The teacher reviewed the previous topic, asked open questions and waited for answers. ";
+        StringBuilder text = new StringBuilder(chars);
+        while (text.length() < chars) {
+            text.append(sentence);
+        }
+        return text.substring(0, chars).trim();
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
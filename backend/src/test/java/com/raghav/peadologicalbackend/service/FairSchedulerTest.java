@@ -0,0 +1,274 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.dto.AnalysisSchedulerStatsResponse;
+import com.raghav.peadologicalbackend.dto.SchedulerLaneStats;
+import com.raghav.peadologicalbackend.entity.AnalysisLane;
+import com.raghav.peadologicalbackend.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FairSchedulerTest {
+
+    private static final Map<AnalysisLane, Integer> EVEN = Map.of(AnalysisLane.INTERACTIVE, 1, AnalysisLane.BACKFILL, 1);
+
+    @Test
+    void lanesSharePermitsByWeight() {
+        Harness harness = new Harness(1, Map.of(AnalysisLane.INTERACTIVE, 3, AnalysisLane.BACKFILL, 1), 1);
+        harness.hold();
+        for (int i = 0; i < 12; i++) {
+            harness.submit(AnalysisLane.INTERACTIVE, "s", 1L, 1, "I");
+            harness.submit(AnalysisLane.BACKFILL, "s", 1L, 1, "B");
+        }
+        harness.drain();
+
+        // Smooth weighted round-robin of 3:1, then the back-fills left over once interactive work runs out
+        assertEquals("IIBI".repeat(4) + "B".repeat(8), String.join("", harness.ran));
+        harness.assertIdle();
+    }
+
+    @Test
+    void schoolsTakeTurnsWhateverTheirArrivalOrder() {
+        Harness harness = new Harness(1, EVEN, 1);
+        harness.hold();
+        for (int i = 0; i < 4; i++) {
+            harness.submit(AnalysisLane.INTERACTIVE, "a", 1L, 1, "a" + i);
+        }
+        for (int i = 0; i < 4; i++) {
+            harness.submit(AnalysisLane.INTERACTIVE, "b", 2L, 1, "b" + i);
+        }
+        harness.drain();
+
+        assertEquals(List.of("a0", "b0", "a1", "b1", "a2", "b2", "a3", "b3"), harness.ran);
+        harness.assertIdle();
+    }
+
+    @Test
+    void teachersOfASchoolTakeTurns() {
+        Harness harness = new Harness(1, EVEN, 1);
+        harness.hold();
+        for (int i = 0; i < 3; i++) {
+            harness.submit(AnalysisLane.INTERACTIVE, "a", 1L, 1, "t1-" + i);
+        }
+        for (int i = 0; i < 3; i++) {
+            harness.submit(AnalysisLane.INTERACTIVE, "a", 2L, 1, "t2-" + i);
+        }
+        harness.drain();
+
+        assertEquals(List.of("t1-0", "t2-0", "t1-1", "t2-1", "t1-2", "t2-2"), harness.ran);
+        harness.assertIdle();
+    }
+
+    @Test
+    void schoolsGetEqualCostNotEqualJobCounts() {
+        int quantum = 2;
+        int bigCost = 8;
+        Harness harness = new Harness(1, EVEN, quantum);
+        harness.hold();
+        for (int i = 0; i < 5; i++) {
+            harness.submit(AnalysisLane.INTERACTIVE, "big", 1L, bigCost, "big");
+        }
+        for (int i = 0; i < 40; i++) {
+            harness.submit(AnalysisLane.INTERACTIVE, "small", 2L, 1, "small");
+        }
+        harness.drain();
+
+        long big = 0;
+        long small = 0;
+        int bigLeft = 5;
+        int smallLeft = 40;
+        for (String school : harness.ran) {
+            if (school.equals("big")) {
+                big += bigCost;
+                bigLeft--;
+            } else {
+                small++;
+                smallLeft--;
+            }
+            if (bigLeft > 0 && smallLeft > 0) {
+                // Deficit round-robin keeps the served cost within one job plus one quantum
+                assertTrue(Math.abs(big - small) <= bigCost + quantum, "big " + big + " vs small " + small);
+            }
+        }
+        assertEquals(45, harness.ran.size());
+        harness.assertIdle();
+    }
+
+    @Test
+    void rejectedTasksGiveTheirPermitBack() {
+        AtomicInteger rejections = new AtomicInteger();
+        FairScheduler scheduler = new FairScheduler("test", 1, 10, 1, EVEN, task -> {
+            throw new RejectedExecutionException("shutting down");
+        });
+
+        // Dispatched at once, but the executor refuses it
+        assertTrue(scheduler.execute(ticket(AnalysisLane.INTERACTIVE, "a", 1L), 1, () -> {
+        }, rejections::incrementAndGet));
+        assertEquals(1, rejections.get());
+        assertEquals(0, scheduler.stats().getInFlight());
+
+        // Queued behind a blocking permit, then refused one after another when it is released
+        scheduler.acquire(ticket(AnalysisLane.INTERACTIVE, "a", 1L), 1, Duration.ofSeconds(1));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(scheduler.execute(ticket(AnalysisLane.BACKFILL, "b", 2L), 1, () -> {
+            }, rejections::incrementAndGet));
+        }
+        scheduler.release();
+
+        assertEquals(4, rejections.get());
+        assertIdle(scheduler);
+    }
+
+    @Test
+    void fullQueueRefusesWork() {
+        Harness harness = new Harness(1, EVEN, 1, 2);
+        harness.hold();
+        assertTrue(harness.submit(AnalysisLane.INTERACTIVE, "a", 1L, 1, "q1"));
+        assertTrue(harness.submit(AnalysisLane.INTERACTIVE, "a", 1L, 1, "q2"));
+        assertFalse(harness.submit(AnalysisLane.INTERACTIVE, "a", 1L, 1, "q3"));
+        assertEquals(1, harness.scheduler.stats().getRejected());
+
+        harness.drain();
+        assertEquals(List.of("q1", "q2"), harness.ran);
+        harness.assertIdle();
+    }
+
+    @Test
+    void timedOutWaitersLeaveNothingBehind() {
+        FairScheduler scheduler = new FairScheduler("test", 1, 100, 1, EVEN, null);
+        scheduler.acquire(ticket(AnalysisLane.INTERACTIVE, "a", 1L), 1, Duration.ofSeconds(1));
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ServiceUnavailableException.class, () ->
+                    scheduler.acquire(ticket(AnalysisLane.BACKFILL, "b", 2L), 1, Duration.ofMillis(5)));
+        }
+        assertEquals(1, scheduler.stats().getInFlight());
+        assertEquals(0, queued(scheduler));
+
+        scheduler.release();
+        assertIdle(scheduler);
+    }
+
+    @Test
+    void permitsAreNeitherLostNorDuplicatedWhenTimeoutsRaceReleases() throws Exception {
+        FairScheduler scheduler = new FairScheduler("test", 2, 1_000, 1, EVEN, null);
+        Random random = new Random(17);
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger holding = new AtomicInteger();
+        AtomicInteger maxHolding = new AtomicInteger();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = random.nextLong();
+            long teacher = t;
+            Thread thread = new Thread(() -> {
+                Random local = new Random(seed);
+                try {
+                    for (int i = 0; i < 300; i++) {
+                        AnalysisTicket ticket = ticket(local.nextBoolean() ? AnalysisLane.INTERACTIVE : AnalysisLane.BACKFILL,
+                                "s" + (teacher % 3), teacher);
+                        try {
+                            // Waits of a millisecond or two time out right as permits come back
+                            scheduler.acquire(ticket, 1 + local.nextInt(4), Duration.ofMillis(local.nextInt(3)));
+                        } catch (ServiceUnavailableException ex) {
+                            continue;
+                        }
+                        maxHolding.accumulateAndGet(holding.incrementAndGet(), Math::max);
+                        if (local.nextInt(4) == 0) {
+                            Thread.sleep(1);
+                        }
+                        holding.decrementAndGet();
+                        scheduler.release();
+                    }
+                } catch (Throwable ex) {
+                    synchronized (failures) {
+                        failures.add(ex);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+
+        assertEquals(List.of(), failures);
+        assertTrue(maxHolding.get() <= 2, "held " + maxHolding.get() + " permits at once");
+        assertIdle(scheduler);
+    }
+
+    private static AnalysisTicket ticket(AnalysisLane lane, String school, Long teacher) {
+        return AnalysisTicket.of(lane, school, teacher, null);
+    }
+
+    private static int queued(FairScheduler scheduler) {
+        return scheduler.stats().getLanes().stream().mapToInt(SchedulerLaneStats::getQueued).sum();
+    }
+
+    // Nothing in flight or queued; a zero-wait acquire also proves the internal queue count is back to 0,
+    // since new work only skips the queue when it is empty
+    private static void assertIdle(FairScheduler scheduler) {
+        AnalysisSchedulerStatsResponse stats = scheduler.stats();
+        assertEquals(0, stats.getInFlight());
+        assertEquals(0, queued(scheduler));
+        scheduler.acquire(ticket(AnalysisLane.INTERACTIVE, "probe", 0L), 1, Duration.ZERO);
+        scheduler.release();
+        assertEquals(0, scheduler.stats().getInFlight());
+    }
+
+    /**
+     * A scheduler whose executor only queues tasks, so the test runs them one at a time and sees
+     * the exact dispatch order. Each task records its label, then its permit passes to the next.
+     */
+    private static final class Harness {
+        final ArrayDeque<Runnable> ready = new ArrayDeque<>();
+        final FairScheduler scheduler;
+        final List<String> ran = new ArrayList<>();
+
+        Harness(int maxConcurrent, Map<AnalysisLane, Integer> weights, long quantum) {
+            this(maxConcurrent, weights, quantum, 1_000);
+        }
+
+        Harness(int maxConcurrent, Map<AnalysisLane, Integer> weights, long quantum, int maxQueued) {
+            scheduler = new FairScheduler("test", maxConcurrent, maxQueued, quantum, weights, ready::add);
+        }
+
+        // Takes the only permit, so everything submitted after it queues
+        void hold() {
+            assertTrue(scheduler.execute(ticket(AnalysisLane.INTERACTIVE, "hold", -1L), 1, () -> {
+            }, () -> {
+            }));
+            assertEquals(1, ready.size());
+        }
+
+        boolean submit(AnalysisLane lane, String school, Long teacher, long cost, String label) {
+            return scheduler.execute(ticket(lane, school, teacher), cost, () -> ran.add(label), () -> {
+            });
+        }
+
+        void drain() {
+            Runnable next;
+            while ((next = ready.poll()) != null) {
+                next.run();
+            }
+        }
+
+        void assertIdle() {
+            FairSchedulerTest.assertIdle(scheduler);
+            assertTrue(ready.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.raghav.peadologicalbackend.service;
+
+import com.raghav.peadologicalbackend.audio.AudioSegment;
+import com.raghav.peadologicalbackend.dto.WhisperResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SegmentedAnalysisServiceTest {
+
+    private static final List<AudioSegment> SEGMENTS = List.of(
+            new AudioSegment(Path.of("segment-0.wav"), 0, 60),
+            new AudioSegment(Path.of("segment-1.wav"), 60, 120),
+            new AudioSegment(Path.of("segment-2.wav"), 180, 20));
+
+    @Test
+    void metricsAreWeightedByDurationAndMissingValuesAreSkipped() {
+        WhisperResponse.AnalysisData merged = SegmentedAnalysisService.merge(SEGMENTS, List.of(
+                data(6.0, 0.1, null, 5.0),
+                data(9.0, null, 2.0, 12.0),
+                data(null, 0.4, 4.0, null)));
+
+        assertEquals((6 * 60 + 9 * 120) / 180.0, merged.getPedagogicalScore(), 1e-9);
+        // Only the first and last segment report a review ratio, so only their 80 s count
+        assertEquals((0.1 * 60 + 0.4 * 20) / 80.0, merged.getReviewRatio(), 1e-9);
+        assertEquals((2.0 * 120 + 4.0 * 20) / 140.0, merged.getWaitTime(), 1e-9);
+        assertNull(merged.getQuestionVelocity());
+        assertEquals(12.0, merged.getProcessingTimeSeconds());
+    }
+
+    @Test
+    void sectionsAreJoinedWithTheirTimesAndBlankOnesDropped() {
+        WhisperResponse.AnalysisData first = data(6.0, null, null, null);
+        first.setAnalysis("Opens with a recap.");
+        WhisperResponse.AnalysisData second = data(7.0, null, null, null);
+        second.setAnalysis("  ");
+        WhisperResponse.AnalysisData third = data(8.0, null, null, null);
+        third.setAnalysis(" Closes with questions.\n");
+
+        WhisperResponse.AnalysisData merged = SegmentedAnalysisService.merge(SEGMENTS, List.of(first, second, third));
+
+        assertEquals("Segment 1 (0:00:00 - 0:01:00)\nOpens with a recap.\n\n"
+                + "Segment 3 (0:03:00 - 0:03:20)\nCloses with questions.", merged.getAnalysis());
+        assertNull(merged.getScoreReasoning());
+    }
+
+    private static WhisperResponse.AnalysisData data(Double score, Double reviewRatio, Double waitTime, Double processingSeconds) {
+        WhisperResponse.AnalysisData data = new WhisperResponse.AnalysisData();
+        data.setPedagogicalScore(score);
+        data.setReviewRatio(reviewRatio);
+        data.setWaitTime(waitTime);
+        data.setProcessingTimeSeconds(processingSeconds);
+        return data;
+    }
+}